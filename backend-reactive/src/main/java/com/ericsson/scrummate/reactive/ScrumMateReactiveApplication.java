@@ -0,0 +1,11 @@
+package com.ericsson.scrummate.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ScrumMateReactiveApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(ScrumMateReactiveApplication.class, args);
+    }
+}
@@ -0,0 +1,123 @@
+package com.ericsson.scrummate.reactive.config;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One pooled R2DBC connection factory per shard, built from the same JDBC URLs and credentials
+ * the main backend is configured with, so both services point at the same databases. Shard 0
+ * is the directory and also holds users; it is exposed as the primary ConnectionFactory so the
+ * R2DBC health indicator checks it.
+ */
+@Configuration
+public class ShardConnections {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardConnections.class);
+
+    @Value("${spring.datasource.url}")
+    private String directoryUrl;
+
+    // JDBC URLs of shards 1..N, as for the main backend
+    @Value("${scrummate.datasource.shards.urls:}")
+    private List<String> shardUrls;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${scrummate.reactive.pool.initial-size:2}")
+    private int initialSize;
+
+    @Value("${scrummate.reactive.pool.max-size:10}")
+    private int maxSize;
+
+    private final List<ConnectionFactory> factories = new ArrayList<>();
+    private final List<DatabaseClient> clients = new ArrayList<>();
+
+    @Bean
+    @Primary
+    public ConnectionFactory directoryConnectionFactory() {
+        init();
+        return factories.get(0);
+    }
+
+    public DatabaseClient directory() {
+        return client(0);
+    }
+
+    public DatabaseClient client(int shard) {
+        if (shard < 0 || shard >= clients.size()) {
+            throw new IllegalStateException("Shard " + shard + " is not configured; this service knows "
+                    + clients.size() + " shard(s)");
+        }
+        return clients.get(shard);
+    }
+
+    public int getShardCount() {
+        return clients.size();
+    }
+
+    private synchronized void init() {
+        if (!factories.isEmpty()) {
+            return;
+        }
+        List<String> urls = new ArrayList<>();
+        urls.add(directoryUrl);
+        for (String url : shardUrls) {
+            if (!url.isBlank()) {
+                urls.add(url.trim());
+            }
+        }
+        for (String url : urls) {
+            ConnectionFactory factory = ConnectionFactories.get(options(url));
+            factories.add(factory);
+            clients.add(DatabaseClient.create(factory));
+        }
+        logger.info("Reactive reads over {} shard(s), at most {} connections each", urls.size(), maxSize);
+    }
+
+    // jdbc:postgresql://host:port/db?params -> r2dbc:pool:postgresql://host:port/db; JDBC-only
+    // query parameters do not carry over
+    ConnectionFactoryOptions options(String jdbcUrl) {
+        if (!jdbcUrl.startsWith("jdbc:postgresql://")) {
+            throw new IllegalArgumentException("Expected a jdbc:postgresql:// URL but got " + jdbcUrl);
+        }
+        String address = jdbcUrl.substring("jdbc:postgresql://".length());
+        int query = address.indexOf('?');
+        if (query >= 0) {
+            address = address.substring(0, query);
+        }
+        return ConnectionFactoryOptions.parse("r2dbc:pool:postgresql://" + address).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .option(Option.valueOf("initialSize"), initialSize)
+                .option(Option.valueOf("maxSize"), maxSize)
+                .option(Option.valueOf("applicationName"), "scrummate-reactive")
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ConnectionFactory factory : factories) {
+            if (factory instanceof Disposable disposable) {
+                disposable.dispose();
+            }
+        }
+    }
+}
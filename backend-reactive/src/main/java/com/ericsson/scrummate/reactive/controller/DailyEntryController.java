@@ -0,0 +1,33 @@
+package com.ericsson.scrummate.reactive.controller;
+
+import com.ericsson.scrummate.reactive.service.ReadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/entries")
+@CrossOrigin(origins = "*")
+public class DailyEntryController {
+
+    @Autowired
+    private ReadService readService;
+
+    @GetMapping
+    public ResponseEntity<Flux<DataBuffer>> getEntries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader HttpHeaders headers, ServerHttpResponse response, Authentication authentication) {
+        String userEmail = authentication.getName();
+        return JsonStreams.respond(headers, response, readService.entries(userEmail, from, to, limit));
+    }
+}
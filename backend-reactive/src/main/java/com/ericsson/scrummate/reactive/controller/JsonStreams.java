@@ -0,0 +1,60 @@
+package com.ericsson.scrummate.reactive.controller;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes a stream of JSON documents as the response body: newline-delimited for clients that
+ * accept application/x-ndjson, otherwise as one JSON array. Either way each document is
+ * written as it arrives and the next row is only requested once the connection takes it.
+ */
+final class JsonStreams {
+
+    private static final byte[] OPEN = "[".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SEPARATOR = ",".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLOSE = "]".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EMPTY = "[]".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.US_ASCII);
+
+    private JsonStreams() {
+    }
+
+    static ResponseEntity<Flux<DataBuffer>> respond(HttpHeaders requestHeaders, ServerHttpResponse response,
+                                                     Flux<byte[]> documents) {
+        DataBufferFactory buffers = response.bufferFactory();
+        if (wantsNdjson(requestHeaders.getAccept())) {
+            Flux<DataBuffer> body = documents.map(json -> buffers.allocateBuffer(json.length + 1).write(json).write(NEWLINE));
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+        }
+        // The opening bracket goes out with the first document, so a failed user lookup or
+        // connection still becomes an error status instead of a truncated 200
+        Flux<DataBuffer> body = Flux.defer(() -> {
+            boolean[] started = new boolean[1];
+            return documents.map(json -> {
+                DataBuffer buffer = buffers.allocateBuffer(json.length + 1);
+                buffer.write(started[0] ? SEPARATOR : OPEN);
+                started[0] = true;
+                return buffer.write(json);
+            }).concatWith(Mono.fromSupplier(() -> started[0] ? buffers.wrap(CLOSE) : buffers.wrap(EMPTY)));
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private static boolean wantsNdjson(List<MediaType> accept) {
+        for (MediaType type : accept) {
+            if (MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ericsson.scrummate.reactive.controller;
+
+import com.ericsson.scrummate.reactive.service.ReadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/v1/summaries/weekly")
+@CrossOrigin(origins = "*")
+public class WeeklySummaryController {
+
+    @Autowired
+    private ReadService readService;
+
+    @GetMapping
+    public ResponseEntity<Flux<DataBuffer>> getWeeklySummaries(
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader HttpHeaders headers, ServerHttpResponse response, Authentication authentication) {
+        String userEmail = authentication.getName();
+        return JsonStreams.respond(headers, response, readService.weeklySummaries(userEmail, limit));
+    }
+}
@@ -0,0 +1,44 @@
+package com.ericsson.scrummate.reactive.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Turns a bearer token into an authentication whose name is the email in the token. Whether
+ * the user still exists is checked by the read that needs their id, so a token costs no query.
+ */
+@Component
+public class JwtAuthenticationManager implements ReactiveAuthenticationManager, ServerAuthenticationConverter {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Override
+    public Mono<Authentication> convert(ServerWebExchange exchange) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return Mono.empty();
+        }
+        String token = authHeader.substring(7);
+        return Mono.just(new UsernamePasswordAuthenticationToken(token, token));
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String token = (String) authentication.getCredentials();
+        if (!jwtUtil.isTokenValid(token)) {
+            return Mono.error(new BadCredentialsException("Invalid token"));
+        }
+        return Mono.just(new UsernamePasswordAuthenticationToken(jwtUtil.extractEmail(token), null,
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+}
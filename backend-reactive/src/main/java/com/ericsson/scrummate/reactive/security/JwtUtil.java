@@ -0,0 +1,46 @@
+package com.ericsson.scrummate.reactive.security;
+
+import io.jsonwebtoken.*;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.util.Set;
+
+/**
+ * Validates tokens issued by the main backend's JwtUtil: same secret property, same key
+ * derivation and the email as subject. This module never issues tokens.
+ */
+@Component
+public class JwtUtil {
+    
+    @Value("${spring.security.jwt.secret}")
+    private String secret;
+    
+    private SecretKey getSigningKey() {
+        return Keys.hmacShaKeyFor(secret.getBytes());
+    }
+    
+    public String extractEmail(String token) {
+        return extractClaims(token).getSubject();
+    }
+    
+    // Event stream tickets carry an audience and are not accepted as session tokens
+    public boolean isTokenValid(String token) {
+        try {
+            Set<String> audience = extractClaims(token).getAudience();
+            return audience == null || audience.isEmpty();
+        } catch (JwtException e) {
+            return false;
+        }
+    }
+    
+    private Claims extractClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(getSigningKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
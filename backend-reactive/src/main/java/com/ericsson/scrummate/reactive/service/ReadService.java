@@ -0,0 +1,191 @@
+package com.ericsson.scrummate.reactive.service;
+
+import com.ericsson.scrummate.reactive.config.ShardConnections;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams a user's entries, summaries and reports from their shard as JSON documents, one
+ * element per row. Rows are fetched {@code fetch-size} at a time from a portal, so a slow
+ * client holds back the query instead of the rows piling up in memory.
+ */
+@Service
+public class ReadService {
+
+    private static final String GZIP = "gzip";
+
+    @Autowired
+    private ShardConnections shardConnections;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${scrummate.reactive.fetch-size:256}")
+    private int fetchSize;
+
+    public Mono<ShardUser> findUser(String email) {
+        return shardConnections.directory()
+                .sql("SELECT u.id, COALESCE(s.shard, 0) AS shard FROM users u " +
+                     "LEFT JOIN user_shards s ON s.user_id = u.id WHERE u.email = :email")
+                .bind("email", email)
+                .map(row -> new ShardUser(row.get("id", UUID.class), row.get("shard", Integer.class)))
+                .one()
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found")));
+    }
+
+    /** Live entries newest first; entries moved to the archive are only served by the main backend. */
+    public Flux<byte[]> entries(String email, LocalDate from, LocalDate to, Integer limit) {
+        checkLimit(limit);
+        return findUser(email).flatMapMany(user -> {
+            StringBuilder sql = new StringBuilder(
+                    "SELECT id, entry_date, yesterday_work, today_plan, blockers, created_at, updated_at, version " +
+                    "FROM daily_entries WHERE user_id = :userId");
+            Map<String, Object> params = new LinkedHashMap<>();
+            params.put("userId", user.getId());
+            if (from != null) {
+                sql.append(" AND entry_date >= :from");
+                params.put("from", from);
+            }
+            if (to != null) {
+                sql.append(" AND entry_date <= :to");
+                params.put("to", to);
+            }
+            sql.append(" ORDER BY entry_date DESC");
+            appendLimit(sql, params, limit);
+            return query(user, sql.toString(), params, this::entryJson);
+        });
+    }
+
+    public Flux<byte[]> weeklySummaries(String email, Integer limit) {
+        checkLimit(limit);
+        return findUser(email).flatMapMany(user -> {
+            StringBuilder sql = new StringBuilder(
+                    "SELECT id, payload, payload_encoding, week_start, week_end, summary_text, generated_at " +
+                    "FROM weekly_summaries WHERE user_id = :userId ORDER BY week_start DESC");
+            Map<String, Object> params = new LinkedHashMap<>();
+            params.put("userId", user.getId());
+            appendLimit(sql, params, limit);
+            return query(user, sql.toString(), params, row -> payloadOr(row, this::summaryJson));
+        });
+    }
+
+    public Flux<byte[]> monthlyReports(String email, Integer limit) {
+        checkLimit(limit);
+        return findUser(email).flatMapMany(user -> {
+            StringBuilder sql = new StringBuilder(
+                    "SELECT id, payload, payload_encoding, month, year, report_data::text AS report_data, generated_at " +
+                    "FROM monthly_reports WHERE user_id = :userId ORDER BY year DESC, month DESC");
+            Map<String, Object> params = new LinkedHashMap<>();
+            params.put("userId", user.getId());
+            appendLimit(sql, params, limit);
+            return query(user, sql.toString(), params, row -> payloadOr(row, this::reportJson));
+        });
+    }
+
+    private static void checkLimit(Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+    }
+
+    private static void appendLimit(StringBuilder sql, Map<String, Object> params, Integer limit) {
+        if (limit != null) {
+            sql.append(" LIMIT :limit");
+            params.put("limit", limit);
+        }
+    }
+
+    // Rows are only readable inside the mapping function, so they become JSON right there
+    private Flux<byte[]> query(ShardUser user, String sql, Map<String, Object> params,
+                               Function<Readable, byte[]> toJson) {
+        DatabaseClient.GenericExecuteSpec spec = shardConnections.client(user.getShard()).sql(sql)
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)));
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec.map(toJson::apply).all();
+    }
+
+    private byte[] entryJson(Readable row) {
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put("id", row.get("id", UUID.class).toString());
+        entry.putPOJO("entryDate", row.get("entry_date", LocalDate.class));
+        entry.put("yesterdayWork", row.get("yesterday_work", String.class));
+        entry.put("todayPlan", row.get("today_plan", String.class));
+        entry.put("blockers", row.get("blockers", String.class));
+        entry.putPOJO("createdAt", row.get("created_at", LocalDateTime.class));
+        entry.putPOJO("updatedAt", row.get("updated_at", LocalDateTime.class));
+        entry.put("version", row.get("version", Long.class));
+        return serialize(entry);
+    }
+
+    // Same shape as WeeklySummary in the main backend, for rows generated before payloads were stored
+    private byte[] summaryJson(Readable row) {
+        ObjectNode summary = objectMapper.createObjectNode();
+        summary.put("id", row.get("id", UUID.class).toString());
+        summary.putPOJO("weekStart", row.get("week_start", LocalDate.class));
+        summary.putPOJO("weekEnd", row.get("week_end", LocalDate.class));
+        summary.put("summaryText", row.get("summary_text", String.class));
+        summary.putPOJO("generatedAt", row.get("generated_at", LocalDateTime.class));
+        return serialize(summary);
+    }
+
+    private byte[] reportJson(Readable row) {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("id", row.get("id", UUID.class).toString());
+        report.put("month", row.get("month", Integer.class));
+        report.put("year", row.get("year", Integer.class));
+        String reportData = row.get("report_data", String.class);
+        try {
+            report.set("reportData", reportData != null ? objectMapper.readTree(reportData) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable report_data for report " + row.get("id", UUID.class), e);
+        }
+        report.putPOJO("generatedAt", row.get("generated_at", LocalDateTime.class));
+        return serialize(report);
+    }
+
+    private static byte[] payloadOr(Readable row, Function<Readable, byte[]> fallback) {
+        byte[] payload = row.get("payload", byte[].class);
+        if (payload == null) {
+            return fallback.apply(row);
+        }
+        if (!GZIP.equals(row.get("payload_encoding", String.class))) {
+            return payload;
+        }
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] serialize(ObjectNode node) {
+        try {
+            return objectMapper.writeValueAsBytes(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize row", e);
+        }
+    }
+}
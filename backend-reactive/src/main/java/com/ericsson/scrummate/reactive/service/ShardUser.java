@@ -0,0 +1,17 @@
+package com.ericsson.scrummate.reactive.service;
+
+import java.util.UUID;
+
+/** A user's id and the shard that holds their entries, summaries and reports. */
+public class ShardUser {
+    private final UUID id;
+    private final int shard;
+
+    public ShardUser(UUID id, int shard) {
+        this.id = id;
+        this.shard = shard;
+    }
+
+    public UUID getId() { return id; }
+    public int getShard() { return shard; }
+}
@@ -0,0 +1,102 @@
+package com.ericsson.scrummate.analytics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Blocker term frequencies for one team and one week: a Count-Min sketch for point estimates
+ * of any term and a Space-Saving summary for the heavy hitters. Fixed size regardless of how
+ * many entries it has seen.
+ */
+public class BlockerSketch {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final CountMinSketch frequencies;
+    private final SpaceSaving topTerms;
+    private long entries;
+
+    public BlockerSketch(int depth, int width, int topK) {
+        this(new CountMinSketch(depth, width), new SpaceSaving(topK), 0);
+    }
+
+    private BlockerSketch(CountMinSketch frequencies, SpaceSaving topTerms, long entries) {
+        this.frequencies = frequencies;
+        this.topTerms = topTerms;
+        this.entries = entries;
+    }
+
+    /**
+     * Applies an entry changing from {@code before} to {@code after} terms. Each entry counts a
+     * term at most once, so an edit only moves the terms that were added or dropped.
+     */
+    public void apply(Set<String> before, Set<String> after) {
+        for (String term : after) {
+            if (!before.contains(term)) {
+                frequencies.add(term, 1);
+                topTerms.offer(term, 1);
+            }
+        }
+        for (String term : before) {
+            if (!after.contains(term)) {
+                frequencies.add(term, -1);
+                topTerms.retract(term, 1);
+            }
+        }
+        entries += (after.isEmpty() ? 0 : 1) - (before.isEmpty() ? 0 : 1);
+    }
+
+    public void merge(BlockerSketch other) {
+        frequencies.merge(other.frequencies);
+        topTerms.merge(other.topTerms);
+        entries += other.entries;
+    }
+
+    public BlockerSketch copy() {
+        BlockerSketch copy = new BlockerSketch(frequencies.getDepth(), frequencies.getWidth(), topTerms.getCapacity());
+        copy.merge(this);
+        return copy;
+    }
+
+    public int estimate(String term) {
+        return frequencies.estimate(term);
+    }
+
+    public List<SpaceSaving.Counter> top(int limit) {
+        return topTerms.top(limit);
+    }
+
+    public long getEntries() { return entries; }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(entries);
+            frequencies.writeTo(out);
+            topTerms.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static BlockerSketch fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported blocker sketch version " + version);
+            }
+            long entries = in.readLong();
+            return new BlockerSketch(CountMinSketch.readFrom(in), SpaceSaving.readFrom(in), entries);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
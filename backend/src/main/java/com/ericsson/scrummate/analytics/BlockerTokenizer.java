@@ -0,0 +1,47 @@
+package com.ericsson.scrummate.analytics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns free-text blockers into countable terms: lower-cased words with stop words removed,
+ * plus adjacent word pairs so that phrases like "code review" or "staging env" surface as one.
+ */
+public final class BlockerTokenizer {
+
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final int MAX_TERMS = 64;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "with", "from", "that", "this", "have", "has", "had", "was", "were",
+            "are", "not", "but", "our", "out", "still", "some", "any", "all", "can", "cannot", "cant",
+            "will", "would", "should", "could", "been", "being", "into", "onto", "about", "after",
+            "before", "again", "also", "just", "yet", "today", "yesterday", "tomorrow", "none",
+            "blocker", "blockers", "blocked", "issue", "issues", "waiting", "wait", "need", "needs");
+
+    private BlockerTokenizer() {}
+
+    /** Distinct terms of the text, so one entry counts each term once. */
+    public static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= MIN_WORD_LENGTH && !STOP_WORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        for (int i = 0; i < words.size() && terms.size() < MAX_TERMS; i++) {
+            terms.add(words.get(i));
+            if (i + 1 < words.size()) {
+                terms.add(words.get(i) + " " + words.get(i + 1));
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,81 @@
+package com.ericsson.scrummate.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Count-Min sketch over strings. Estimates never undercount while only positive updates are
+ * applied; decrements are allowed for edited entries and are clamped at zero on read.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int[] counts;
+
+    public CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.counts = new int[depth * width];
+    }
+
+    public void add(String item, int delta) {
+        long hash = hash(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counts[row * width + Math.floorMod(h1 + row * h2, width)] += delta;
+        }
+    }
+
+    public int estimate(String item) {
+        long hash = hash(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row * width + Math.floorMod(h1 + row * h2, width)]);
+        }
+        return Math.max(min, 0);
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Cannot merge sketches of different dimensions");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    public int getDepth() { return depth; }
+    public int getWidth() { return width; }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(depth);
+        out.writeInt(width);
+        for (int count : counts) {
+            out.writeInt(count);
+        }
+    }
+
+    static CountMinSketch readFrom(DataInput in) throws IOException {
+        CountMinSketch sketch = new CountMinSketch(in.readInt(), in.readInt());
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = in.readInt();
+        }
+        return sketch;
+    }
+
+    // 64-bit FNV-1a; the halves drive double hashing, with the upper one forced odd so rows differ
+    private static long hash(String item) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash | 1L << 32;
+    }
+}
@@ -0,0 +1,87 @@
+package com.ericsson.scrummate.analytics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits entry text into the words and short phrases a writer is likely to type again: ticket
+ * ids like "PROJ-1234", project names, "code review". Unlike {@link BlockerTokenizer} it keeps
+ * punctuation inside words and the original casing for display; phrases are runs of two or
+ * three words that do not cross a stop word or the end of a clause.
+ */
+public final class PhraseTokenizer {
+
+    private static final int MIN_WORD_LENGTH = 2;
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final int MAX_WORD_LENGTH = 40;
+    private static final int MAX_PHRASE_WORDS = 3;
+    private static final int MAX_TERMS = 256;
+    private static final String CLAUSE_END = ".,;:!?)";
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "and", "or", "for", "with", "from", "that", "this", "to", "of", "in", "on",
+            "at", "by", "is", "it", "be", "as", "if", "so", "no", "was", "were", "are", "not", "but",
+            "have", "has", "had", "did", "do", "done", "will", "would", "should", "could", "can",
+            "been", "into", "about", "after", "before", "again", "also", "just", "yet", "still",
+            "some", "any", "all", "my", "our", "we", "i", "me", "us", "today", "yesterday", "tomorrow");
+
+    private PhraseTokenizer() {}
+
+    /** Distinct terms of the texts, keyed by their lower-cased form, with the casing last written. */
+    public static Map<String, String> terms(String... texts) {
+        Map<String, String> terms = new LinkedHashMap<>();
+        for (String text : texts) {
+            if (text == null || text.isBlank()) {
+                continue;
+            }
+            List<String> run = new ArrayList<>(MAX_PHRASE_WORDS);
+            for (String raw : text.split("\\s+")) {
+                String word = strip(raw);
+                String key = word.toLowerCase(Locale.ROOT);
+                if (word.length() < MIN_WORD_LENGTH || word.length() > MAX_WORD_LENGTH || STOP_WORDS.contains(key)) {
+                    run.clear();
+                    continue;
+                }
+                if (word.length() >= MIN_TERM_LENGTH) {
+                    add(terms, word);
+                }
+                run.add(word);
+                if (run.size() > MAX_PHRASE_WORDS) {
+                    run.remove(0);
+                }
+                // Every phrase ending at this word
+                for (int start = run.size() - 2; start >= 0; start--) {
+                    add(terms, String.join(" ", run.subList(start, run.size())));
+                }
+                if (CLAUSE_END.indexOf(raw.charAt(raw.length() - 1)) >= 0) {
+                    run.clear();
+                }
+                if (terms.size() >= MAX_TERMS) {
+                    return terms;
+                }
+            }
+        }
+        return terms;
+    }
+
+    private static void add(Map<String, String> terms, String display) {
+        terms.put(display.toLowerCase(Locale.ROOT), display);
+    }
+
+    // Leading and trailing punctuation goes; "PROJ-1234" and "v2.1" keep theirs
+    private static String strip(String raw) {
+        int start = 0;
+        int end = raw.length();
+        while (start < end && !Character.isLetterOrDigit(raw.charAt(start))) {
+            start++;
+        }
+        while (end > start && !Character.isLetterOrDigit(raw.charAt(end - 1))) {
+            end--;
+        }
+        return raw.substring(start, end);
+    }
+}
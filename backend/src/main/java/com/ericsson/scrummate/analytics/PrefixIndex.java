@@ -0,0 +1,200 @@
+package com.ericsson.scrummate.analytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Prefix lookup over the terms of one user's most recent entries, ranked by how many of those
+ * entries use them. Terms live in parallel arrays sorted by key, so a lookup is a binary search
+ * plus a scan of the matching range and needs no lock. Writes are copy-on-write: the changed
+ * terms are merged into fresh arrays in one pass and published together. Most phrases occur
+ * once and are never suggested, so lookups scan a second, filtered copy of the arrays.
+ */
+public class PrefixIndex {
+
+    // A phrase used only once is more likely noise than something the user will type again
+    private static final int MIN_PHRASE_COUNT = 2;
+
+    private final int maxEntries;
+    private final TreeMap<LocalDate, Map<String, String>> entries = new TreeMap<>();
+    private volatile Terms terms = new Terms(new String[0], new String[0], new int[0], new int[0]);
+
+    public PrefixIndex(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /** Loads entries in bulk with a single merge; see {@link #put}. */
+    public synchronized void putAll(Map<LocalDate, Map<String, String>> entryTerms) {
+        Map<String, Integer> delta = new HashMap<>();
+        Map<String, String> display = new HashMap<>();
+        entryTerms.forEach((date, termsOfEntry) -> replace(date, termsOfEntry, delta, display));
+        trim(delta);
+        terms = terms.merge(delta, display);
+    }
+
+    /** Replaces the terms of the entry for the date. Entries older than the window are ignored. */
+    public synchronized void put(LocalDate date, Map<String, String> termsOfEntry) {
+        if (entries.size() >= maxEntries && !entries.containsKey(date) && date.isBefore(entries.firstKey())) {
+            return;
+        }
+        Map<String, Integer> delta = new HashMap<>();
+        Map<String, String> display = new HashMap<>();
+        replace(date, termsOfEntry, delta, display);
+        trim(delta);
+        terms = terms.merge(delta, display);
+    }
+
+    public synchronized void remove(LocalDate date) {
+        Map<String, String> previous = entries.remove(date);
+        if (previous == null) {
+            return;
+        }
+        Map<String, Integer> delta = new HashMap<>();
+        previous.keySet().forEach(key -> delta.merge(key, -1, Integer::sum));
+        terms = terms.merge(delta, Map.of());
+    }
+
+    /** Up to {@code limit} terms starting with the prefix, most used first. */
+    public List<String> suggest(String prefix, int limit) {
+        return terms.suggest(prefix.toLowerCase(Locale.ROOT), limit);
+    }
+
+    public int size() {
+        return terms.keys.length;
+    }
+
+    private void replace(LocalDate date, Map<String, String> termsOfEntry,
+                         Map<String, Integer> delta, Map<String, String> display) {
+        Map<String, String> previous = entries.put(date, termsOfEntry);
+        if (previous != null) {
+            previous.keySet().forEach(key -> delta.merge(key, -1, Integer::sum));
+        }
+        termsOfEntry.keySet().forEach(key -> delta.merge(key, 1, Integer::sum));
+        display.putAll(termsOfEntry);
+    }
+
+    private void trim(Map<String, Integer> delta) {
+        while (entries.size() > maxEntries) {
+            entries.pollFirstEntry().getValue().keySet().forEach(key -> delta.merge(key, -1, Integer::sum));
+        }
+    }
+
+    private static final class Terms {
+        private final String[] keys;
+        private final String[] display;
+        private final int[] counts;
+        // Positions of the terms that can be suggested, with their keys for the binary search
+        private final int[] suggestable;
+        private final String[] suggestableKeys;
+
+        Terms(String[] keys, String[] display, int[] counts, int[] suggestable) {
+            this.keys = keys;
+            this.display = display;
+            this.counts = counts;
+            this.suggestable = suggestable;
+            this.suggestableKeys = new String[suggestable.length];
+            for (int k = 0; k < suggestable.length; k++) {
+                suggestableKeys[k] = keys[suggestable[k]];
+            }
+        }
+
+        private static boolean isSuggestable(String key, int count) {
+            return count >= MIN_PHRASE_COUNT || key.indexOf(' ') < 0;
+        }
+
+        Terms merge(Map<String, Integer> delta, Map<String, String> newDisplay) {
+            String[] changed = delta.keySet().toArray(new String[0]);
+            Arrays.sort(changed);
+            int capacity = keys.length + changed.length;
+            String[] mergedKeys = new String[capacity];
+            String[] mergedDisplay = new String[capacity];
+            int[] mergedCounts = new int[capacity];
+            int[] mergedSuggestable = new int[capacity];
+            int size = 0;
+            int suggestableCount = 0;
+            int i = 0;
+            int j = 0;
+            while (i < keys.length || j < changed.length) {
+                int order = i == keys.length ? 1 : j == changed.length ? -1 : keys[i].compareTo(changed[j]);
+                String key;
+                int count;
+                String shown;
+                if (order < 0) {
+                    key = keys[i];
+                    count = counts[i];
+                    shown = display[i];
+                    i++;
+                } else {
+                    key = changed[j];
+                    count = delta.get(key) + (order == 0 ? counts[i] : 0);
+                    shown = newDisplay.getOrDefault(key, order == 0 ? display[i] : key);
+                    if (order == 0) {
+                        i++;
+                    }
+                    j++;
+                }
+                if (count > 0) {
+                    mergedKeys[size] = key;
+                    mergedDisplay[size] = shown;
+                    mergedCounts[size] = count;
+                    if (isSuggestable(key, count)) {
+                        mergedSuggestable[suggestableCount++] = size;
+                    }
+                    size++;
+                }
+            }
+            return new Terms(Arrays.copyOf(mergedKeys, size), Arrays.copyOf(mergedDisplay, size),
+                    Arrays.copyOf(mergedCounts, size), Arrays.copyOf(mergedSuggestable, suggestableCount));
+        }
+
+        List<String> suggest(String prefix, int limit) {
+            int[] best = new int[limit];
+            int found = 0;
+            for (int s = lowerBound(prefix); s < suggestableKeys.length && suggestableKeys[s].startsWith(prefix); s++) {
+                int i = suggestable[s];
+                if (keys[i].length() == prefix.length()) {
+                    continue;
+                }
+                // Insertion into the small top-k array; on equal counts the shorter term wins
+                int at = found;
+                while (at > 0 && ranksBefore(i, best[at - 1])) {
+                    at--;
+                }
+                if (at < limit) {
+                    System.arraycopy(best, at, best, at + 1, Math.min(found, limit - 1) - at);
+                    best[at] = i;
+                    found = Math.min(found + 1, limit);
+                }
+            }
+            List<String> suggestions = new ArrayList<>(found);
+            for (int k = 0; k < found; k++) {
+                suggestions.add(display[best[k]]);
+            }
+            return suggestions;
+        }
+
+        private boolean ranksBefore(int a, int b) {
+            return counts[a] != counts[b] ? counts[a] > counts[b] : keys[a].length() < keys[b].length();
+        }
+
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = suggestableKeys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (suggestableKeys[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.ericsson.scrummate.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-k summary (Metwally et al.). Monitors at most {@code capacity} items; an
+ * item's count overestimates its true frequency by at most its recorded error.
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(String item, long count) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count += count;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new Counter(item, count, 0));
+            return;
+        }
+        // Capacity is small (tens of items), a linear scan beats maintaining a heap under updates
+        Counter min = null;
+        for (Counter candidate : counters.values()) {
+            if (min == null || candidate.count < min.count) {
+                min = candidate;
+            }
+        }
+        counters.remove(min.item);
+        long floor = Math.max(0, min.count);
+        counters.put(item, new Counter(item, floor + count, floor));
+    }
+
+    /**
+     * Removes counts for edited or deleted entries. An item this summary does not monitor is
+     * kept as a negative count while there is room, so a fresh delta still carries the removal
+     * into the summary it is merged into. Once the summary is full such removals are dropped.
+     */
+    public void retract(String item, long count) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count -= count;
+            counter.error = Math.min(counter.error, Math.max(0, counter.count));
+        } else if (counters.size() < capacity) {
+            counters.put(item, new Counter(item, -count, 0));
+        }
+    }
+
+    /**
+     * Merges another summary into this one (Agarwal et al., mergeable summaries). An item only
+     * one side monitors may still have occurred up to the other side's minimum count when that
+     * side is full, so that minimum is added to its count and to its error. Truncating back to
+     * capacity then drops items counted no higher than any kept one, which keeps every estimate
+     * within its error bound.
+     */
+    public void merge(SpaceSaving other) {
+        long thisMin = floor();
+        long otherMin = other.floor();
+        for (Counter counter : counters.values()) {
+            if (!other.counters.containsKey(counter.item) && counter.count > 0) {
+                counter.count += otherMin;
+                counter.error += otherMin;
+            }
+        }
+        for (Counter counter : other.counters.values()) {
+            Counter existing = counters.get(counter.item);
+            if (existing != null) {
+                existing.count += counter.count;
+                existing.error += counter.error;
+            } else if (counter.count > 0) {
+                counters.put(counter.item, new Counter(counter.item, counter.count + thisMin, counter.error + thisMin));
+            } else {
+                counters.put(counter.item, new Counter(counter.item, counter.count, 0));
+            }
+        }
+        counters.values().removeIf(counter -> counter.count == 0);
+        if (counters.size() > capacity) {
+            List<Counter> kept = sorted();
+            counters.clear();
+            for (Counter counter : kept.subList(0, capacity)) {
+                counters.put(counter.item, counter);
+            }
+        }
+    }
+
+    // Upper bound on the count of any item the summary does not monitor
+    private long floor() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        long min = Long.MAX_VALUE;
+        for (Counter counter : counters.values()) {
+            min = Math.min(min, counter.count);
+        }
+        return Math.max(0, min);
+    }
+
+    public List<Counter> top(int limit) {
+        List<Counter> sorted = sorted();
+        sorted.removeIf(counter -> counter.count <= 0);
+        return new ArrayList<>(sorted.subList(0, Math.min(limit, sorted.size())));
+    }
+
+    private List<Counter> sorted() {
+        List<Counter> sorted = new ArrayList<>(counters.values());
+        sorted.sort(Comparator.comparingLong(Counter::getCount).reversed().thenComparing(Counter::getItem));
+        return sorted;
+    }
+
+    public int getCapacity() { return capacity; }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(capacity);
+        out.writeInt(counters.size());
+        for (Counter counter : counters.values()) {
+            out.writeUTF(counter.item);
+            out.writeLong(counter.count);
+            out.writeLong(counter.error);
+        }
+    }
+
+    static SpaceSaving readFrom(DataInput in) throws IOException {
+        SpaceSaving summary = new SpaceSaving(in.readInt());
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            String item = in.readUTF();
+            summary.counters.put(item, new Counter(item, in.readLong(), in.readLong()));
+        }
+        return summary;
+    }
+
+    public static class Counter {
+        private final String item;
+        private long count;
+        private long error;
+
+        Counter(String item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getItem() { return item; }
+        public long getCount() { return count; }
+        public long getError() { return error; }
+    }
+}
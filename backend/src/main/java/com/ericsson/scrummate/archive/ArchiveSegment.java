@@ -0,0 +1,388 @@
+package com.ericsson.scrummate.archive;
+
+import com.ericsson.scrummate.dto.DailyEntryDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One user's archived entries for one year, read through a memory-mapped buffer.
+ *
+ * <pre>
+ * header  int magic, short version, short reserved, int entryCount, int blockCount, long indexOffset
+ * blocks  deflate-compressed runs of up to 32 consecutive entries
+ * index   per block:  long offset, int compressedLength, int rawLength, int crc32, int firstDay, int lastDay, int count
+ *         per entry:  int epochDay, long idMostSigBits, long idLeastSigBits, int block
+ * </pre>
+ */
+public final class ArchiveSegment {
+
+    static final int MAGIC = 0x534D4152; // "SMAR"
+    static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = 24;
+    private static final int BLOCK_INDEX_SIZE = 32;
+    private static final int ENTRY_INDEX_SIZE = 24;
+    private static final int ENTRIES_PER_BLOCK = 32;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int[] epochDays;
+    private final long[] idMostSigBits;
+    private final long[] idLeastSigBits;
+    private final int[] entryBlocks;
+    private final long[] blockOffsets;
+    private final int[] blockCompressedLengths;
+    private final int[] blockRawLengths;
+    private final int[] blockChecksums;
+    private final int[] blockCounts;
+
+    private ArchiveSegment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+            throw new IOException("Not an archive segment: " + path);
+        }
+        int entryCount = buffer.getInt(8);
+        int blockCount = buffer.getInt(12);
+        long indexOffset = buffer.getLong(16);
+        if (indexOffset + (long) blockCount * BLOCK_INDEX_SIZE + (long) entryCount * ENTRY_INDEX_SIZE > buffer.capacity()) {
+            throw new IOException("Truncated archive segment: " + path);
+        }
+
+        ByteBuffer index = buffer.duplicate().position((int) indexOffset);
+        blockOffsets = new long[blockCount];
+        blockCompressedLengths = new int[blockCount];
+        blockRawLengths = new int[blockCount];
+        blockChecksums = new int[blockCount];
+        blockCounts = new int[blockCount];
+        for (int b = 0; b < blockCount; b++) {
+            blockOffsets[b] = index.getLong();
+            blockCompressedLengths[b] = index.getInt();
+            blockRawLengths[b] = index.getInt();
+            blockChecksums[b] = index.getInt();
+            index.getInt(); // first day, implied by the entry index
+            index.getInt(); // last day
+            blockCounts[b] = index.getInt();
+        }
+
+        epochDays = new int[entryCount];
+        idMostSigBits = new long[entryCount];
+        idLeastSigBits = new long[entryCount];
+        entryBlocks = new int[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            epochDays[i] = index.getInt();
+            idMostSigBits[i] = index.getLong();
+            idLeastSigBits[i] = index.getLong();
+            entryBlocks[i] = index.getInt();
+        }
+    }
+
+    public static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ArchiveSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static void write(Path path, List<DailyEntryDTO> entries) throws IOException {
+        List<DailyEntryDTO> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(DailyEntryDTO::getEntryDate));
+        int blockCount = (sorted.size() + ENTRIES_PER_BLOCK - 1) / ENTRIES_PER_BLOCK;
+
+        ByteBuffer index = ByteBuffer.allocate(blockCount * BLOCK_INDEX_SIZE + sorted.size() * ENTRY_INDEX_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_SIZE);
+            for (int b = 0; b < blockCount; b++) {
+                List<DailyEntryDTO> block = sorted.subList(b * ENTRIES_PER_BLOCK,
+                        Math.min(sorted.size(), (b + 1) * ENTRIES_PER_BLOCK));
+                byte[] raw = encode(block);
+                byte[] compressed = deflate(raw);
+                CRC32 crc = new CRC32();
+                crc.update(raw);
+
+                index.putLong(channel.position())
+                        .putInt(compressed.length)
+                        .putInt(raw.length)
+                        .putInt((int) crc.getValue())
+                        .putInt((int) block.get(0).getEntryDate().toEpochDay())
+                        .putInt((int) block.get(block.size() - 1).getEntryDate().toEpochDay())
+                        .putInt(block.size());
+                writeFully(channel, ByteBuffer.wrap(compressed));
+            }
+            for (int i = 0; i < sorted.size(); i++) {
+                DailyEntryDTO entry = sorted.get(i);
+                index.putInt((int) entry.getEntryDate().toEpochDay())
+                        .putLong(entry.getId().getMostSignificantBits())
+                        .putLong(entry.getId().getLeastSignificantBits())
+                        .putInt(i / ENTRIES_PER_BLOCK);
+            }
+
+            long indexOffset = channel.position();
+            writeFully(channel, index.flip());
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putShort(VERSION)
+                    .putShort((short) 0)
+                    .putInt(sorted.size())
+                    .putInt(blockCount)
+                    .putLong(indexOffset)
+                    .flip();
+            channel.position(0);
+            writeFully(channel, header);
+            channel.force(true);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int count() {
+        return epochDays.length;
+    }
+
+    public int count(LocalDate from, LocalDate to) {
+        return upperBound(to) - lowerBound(from);
+    }
+
+    /** Dates of the entries with from <= entryDate <= to, from the index alone. */
+    public List<LocalDate> days(LocalDate from, LocalDate to) {
+        int first = lowerBound(from);
+        int last = upperBound(to);
+        List<LocalDate> result = new ArrayList<>(Math.max(0, last - first));
+        for (int i = first; i < last; i++) {
+            result.add(LocalDate.ofEpochDay(epochDays[i]));
+        }
+        return result;
+    }
+
+    /** Entries with from <= entryDate <= to, oldest first. */
+    public List<DailyEntryDTO> read(LocalDate from, LocalDate to) throws IOException {
+        int first = lowerBound(from);
+        int last = upperBound(to);
+        List<DailyEntryDTO> result = new ArrayList<>(Math.max(0, last - first));
+        if (first >= last) {
+            return result;
+        }
+        for (int b = entryBlocks[first]; b <= entryBlocks[last - 1]; b++) {
+            for (DailyEntryDTO entry : decodeBlock(b)) {
+                if (!entry.getEntryDate().isBefore(from) && !entry.getEntryDate().isAfter(to)) {
+                    result.add(entry);
+                }
+            }
+        }
+        return result;
+    }
+
+    public List<DailyEntryDTO> readAll() throws IOException {
+        List<DailyEntryDTO> result = new ArrayList<>(count());
+        for (int b = 0; b < blockCounts.length; b++) {
+            result.addAll(decodeBlock(b));
+        }
+        return result;
+    }
+
+    public Optional<DailyEntryDTO> findById(UUID id) throws IOException {
+        for (int i = 0; i < epochDays.length; i++) {
+            if (idMostSigBits[i] == id.getMostSignificantBits() && idLeastSigBits[i] == id.getLeastSignificantBits()) {
+                return decodeBlock(entryBlocks[i]).stream()
+                        .filter(entry -> entry.getId().equals(id))
+                        .findFirst();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Decompresses every block and checks its checksum and record count against the index. */
+    public void verify() throws IOException {
+        int total = 0;
+        for (int b = 0; b < blockCounts.length; b++) {
+            List<DailyEntryDTO> block = decodeBlock(b);
+            if (block.size() != blockCounts[b]) {
+                throw new IOException("Block " + b + " of " + path + " holds " + block.size()
+                        + " entries, index says " + blockCounts[b]);
+            }
+            total += block.size();
+        }
+        if (total != epochDays.length) {
+            throw new IOException("Segment " + path + " holds " + total + " entries, index says " + epochDays.length);
+        }
+    }
+
+    private List<DailyEntryDTO> decodeBlock(int block) throws IOException {
+        ByteBuffer compressed = buffer.slice((int) blockOffsets[block], blockCompressedLengths[block]);
+        byte[] raw = new byte[blockRawLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, raw.length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != raw.length) {
+                throw new IOException("Short block " + block + " in " + path);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block " + block + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+        if ((int) crc.getValue() != blockChecksums[block]) {
+            throw new IOException("Checksum mismatch in block " + block + " of " + path);
+        }
+        return decode(raw);
+    }
+
+    private int lowerBound(LocalDate date) {
+        int key = (int) date.toEpochDay();
+        int low = 0;
+        int high = epochDays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(LocalDate date) {
+        int key = (int) date.toEpochDay();
+        int low = 0;
+        int high = epochDays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static byte[] encode(List<DailyEntryDTO> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(entries.size());
+            for (DailyEntryDTO entry : entries) {
+                out.writeLong(entry.getId().getMostSignificantBits());
+                out.writeLong(entry.getId().getLeastSignificantBits());
+                out.writeInt((int) entry.getEntryDate().toEpochDay());
+                writeString(out, entry.getYesterdayWork());
+                writeString(out, entry.getTodayPlan());
+                writeString(out, entry.getBlockers());
+                writeDateTime(out, entry.getCreatedAt());
+                writeDateTime(out, entry.getUpdatedAt());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<DailyEntryDTO> decode(byte[] raw) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            int count = in.readInt();
+            List<DailyEntryDTO> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                UUID id = new UUID(in.readLong(), in.readLong());
+                LocalDate entryDate = LocalDate.ofEpochDay(in.readInt());
+                String yesterdayWork = readString(in);
+                String todayPlan = readString(in);
+                String blockers = readString(in);
+                LocalDateTime createdAt = readDateTime(in);
+                LocalDateTime updatedAt = readDateTime(in);
+                entries.add(new DailyEntryDTO(id, entryDate, yesterdayWork, todayPlan, blockers, createdAt, updatedAt));
+            }
+            return entries;
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = in.readNBytes(length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.ericsson.scrummate.archive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Locates archive segments on disk ({@code <directory>/<userId>/<year>.seg}) and keeps
+ * recently used ones mapped. Lookups always stat the file so a segment replaced by another
+ * instance sharing the volume is picked up on the next read.
+ */
+@Component
+public class ArchiveStore {
+
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String PENDING_SUFFIX = ".seg.pending";
+    static final String RESTORED_SUFFIX = ".seg.restored";
+
+    private final Path root;
+    private final Map<Path, MappedSegment> openSegments;
+
+    public ArchiveStore(@Value("${scrummate.archive.directory:./data/archive}") String directory,
+                        @Value("${scrummate.archive.open-segments:1024}") int maxOpenSegments) {
+        this.root = Paths.get(directory).toAbsolutePath();
+        this.openSegments = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, MappedSegment> eldest) {
+                return size() > maxOpenSegments;
+            }
+        });
+    }
+
+    /** Archived years for the user, newest first. */
+    public List<Integer> years(UUID userId) {
+        Path directory = root.resolve(userId.toString());
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Integer> years = new ArrayList<>();
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : segments) {
+                String name = segment.getFileName().toString();
+                years.add(Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        years.sort(Collections.reverseOrder());
+        return years;
+    }
+
+    public Optional<ArchiveSegment> segment(UUID userId, int year) {
+        Path path = segmentPath(userId, year);
+        try {
+            if (!Files.isRegularFile(path)) {
+                openSegments.remove(path);
+                return Optional.empty();
+            }
+            FileTime modified = Files.getLastModifiedTime(path);
+            MappedSegment mapped = openSegments.get(path);
+            if (mapped == null || !mapped.modified.equals(modified)) {
+                mapped = new MappedSegment(ArchiveSegment.open(path), modified);
+                openSegments.put(path, mapped);
+            }
+            return Optional.of(mapped.segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Path pendingPath(UUID userId, int year) throws IOException {
+        Path directory = root.resolve(userId.toString());
+        Files.createDirectories(directory);
+        return directory.resolve(year + PENDING_SUFFIX);
+    }
+
+    /** Atomically replaces the live segment with a fully written pending one. */
+    public void publish(UUID userId, int year) throws IOException {
+        Path target = segmentPath(userId, year);
+        Files.move(pendingPath(userId, year), target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        openSegments.remove(target);
+    }
+
+    public void discardPending(UUID userId, int year) throws IOException {
+        Files.deleteIfExists(root.resolve(userId.toString()).resolve(year + PENDING_SUFFIX));
+    }
+
+    /** Takes a segment out of service after its entries went back to the database; the file is kept. */
+    public void retire(UUID userId, int year) throws IOException {
+        Path source = segmentPath(userId, year);
+        Files.move(source, source.resolveSibling(year + RESTORED_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        openSegments.remove(source);
+    }
+
+    /** Deletes the segment for good, for retention and account purges. */
+    public void delete(UUID userId, int year) throws IOException {
+        Path path = segmentPath(userId, year);
+        openSegments.remove(path);
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(path.resolveSibling(year + RESTORED_SUFFIX));
+    }
+
+    /** Deletes every file archived for the user, including retired and pending segments. */
+    public int deleteUser(UUID userId) throws IOException {
+        Path directory = root.resolve(userId.toString());
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                openSegments.remove(file);
+                Files.delete(file);
+                deleted++;
+            }
+        }
+        Files.delete(directory);
+        return deleted;
+    }
+
+    public List<SegmentFile> listSegments() throws IOException {
+        return list(SEGMENT_SUFFIX);
+    }
+
+    public List<SegmentFile> listPending() throws IOException {
+        return list(PENDING_SUFFIX);
+    }
+
+    private List<SegmentFile> list(String suffix) throws IOException {
+        List<SegmentFile> files = new ArrayList<>();
+        if (!Files.isDirectory(root)) {
+            return files;
+        }
+        try (DirectoryStream<Path> users = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path userDirectory : users) {
+                UUID userId;
+                try {
+                    userId = UUID.fromString(userDirectory.getFileName().toString());
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                try (DirectoryStream<Path> segments = Files.newDirectoryStream(userDirectory, "*" + suffix)) {
+                    for (Path segment : segments) {
+                        String name = segment.getFileName().toString();
+                        files.add(new SegmentFile(userId, Integer.parseInt(name.substring(0, name.length() - suffix.length())), segment));
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    private Path segmentPath(UUID userId, int year) {
+        return root.resolve(userId.toString()).resolve(year + SEGMENT_SUFFIX);
+    }
+
+    private static class MappedSegment {
+        private final ArchiveSegment segment;
+        private final FileTime modified;
+
+        MappedSegment(ArchiveSegment segment, FileTime modified) {
+            this.segment = segment;
+            this.modified = modified;
+        }
+    }
+
+    public static class SegmentFile {
+        private final UUID userId;
+        private final int year;
+        private final Path path;
+
+        public SegmentFile(UUID userId, int year, Path path) {
+            this.userId = userId;
+            this.year = year;
+            this.path = path;
+        }
+
+        public UUID getUserId() { return userId; }
+        public int getYear() { return year; }
+        public Path getPath() { return path; }
+    }
+}
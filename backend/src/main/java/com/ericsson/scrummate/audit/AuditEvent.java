@@ -0,0 +1,47 @@
+package com.ericsson.scrummate.audit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** One change to a user's data, as it is queued for and stored in audit_events. */
+public class AuditEvent {
+
+    private final LocalDateTime occurredAt;
+    private final String actor;
+    private final UUID userId;
+    private final String action;
+    private final String resourceType;
+    private final UUID resourceId;
+    private final LocalDate entryDate;
+    private final Long resourceVersion;
+    private final String correlationId;
+    private final int shard;
+
+    public AuditEvent(LocalDateTime occurredAt, String actor, UUID userId, String action, String resourceType,
+                      UUID resourceId, LocalDate entryDate, Long resourceVersion, String correlationId, int shard) {
+        this.occurredAt = occurredAt;
+        this.actor = actor;
+        this.userId = userId;
+        this.action = action;
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+        this.entryDate = entryDate;
+        this.resourceVersion = resourceVersion;
+        this.correlationId = correlationId;
+        this.shard = shard;
+    }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public String getActor() { return actor; }
+    public UUID getUserId() { return userId; }
+    public String getAction() { return action; }
+    public String getResourceType() { return resourceType; }
+    public UUID getResourceId() { return resourceId; }
+    public LocalDate getEntryDate() { return entryDate; }
+    public Long getResourceVersion() { return resourceVersion; }
+    public String getCorrelationId() { return correlationId; }
+
+    /** Shard the row is written to: the one holding the user's entries when the change was made. */
+    public int getShard() { return shard; }
+}
@@ -0,0 +1,300 @@
+package com.ericsson.scrummate.audit;
+
+import com.ericsson.scrummate.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the audit trail off the request path. {@link #record} puts the event into a bounded
+ * lock-free ring buffer and returns; a single writer thread drains the buffer and appends to
+ * audit_events with one COPY per shard and batch. When the buffer is full the overflow policy
+ * decides: drop the new event, drop the oldest one, or block the caller for up to
+ * {@code block-timeout} and then drop. On shutdown the writer drains what is left.
+ *
+ * A batch that fails because the database is unreachable is retried with backoff. One that the
+ * table rejects (a data or constraint error) is split until the offending rows are found; those
+ * are logged as rejected and counted, and the rest of the batch is written.
+ */
+@Component
+public class AuditLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    private static final String COPY = "COPY audit_events (occurred_at, actor, user_id, action, resource_type, " +
+            "resource_id, entry_date, resource_version, correlation_id) FROM STDIN WITH (FORMAT csv)";
+    private static final long OVERFLOW_WARNING_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    public enum OverflowPolicy {
+        DROP_NEWEST, DROP_OLDEST, BLOCK
+    }
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${scrummate.audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scrummate.audit.buffer-capacity:65536}")
+    private int bufferCapacity;
+
+    @Value("${scrummate.audit.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${scrummate.audit.flush-interval:200}")
+    private long flushIntervalMillis;
+
+    @Value("${scrummate.audit.overflow:drop-newest}")
+    private String overflow;
+
+    @Value("${scrummate.audit.block-timeout:100}")
+    private long blockTimeoutMillis;
+
+    @Value("${scrummate.audit.retry-backoff:1000}")
+    private long retryBackoffMillis;
+
+    @Value("${scrummate.audit.shutdown-timeout:10000}")
+    private long shutdownTimeoutMillis;
+
+    private RingBuffer<AuditEvent> buffer;
+    private OverflowPolicy overflowPolicy;
+    private volatile boolean running;
+    private Thread writer;
+    private final AtomicLong lastOverflowWarning = new AtomicLong();
+    private Counter writtenCounter;
+    private Counter droppedCounter;
+    private Counter rejectedCounter;
+    private Timer lagTimer;
+
+    @PostConstruct
+    public void start() {
+        overflowPolicy = OverflowPolicy.valueOf(overflow.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        buffer = new RingBuffer<>(bufferCapacity);
+        writtenCounter = Counter.builder("scrummate.audit.written").register(meterRegistry);
+        droppedCounter = Counter.builder("scrummate.audit.dropped")
+                .description("Audit events lost to a full buffer")
+                .tag("policy", overflowPolicy.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("scrummate.audit.rejected")
+                .description("Audit events the table refused, logged instead of written")
+                .register(meterRegistry);
+        lagTimer = Timer.builder("scrummate.audit.lag")
+                .description("Time from the change to its audit row being written")
+                .register(meterRegistry);
+        Gauge.builder("scrummate.audit.buffer.size", buffer, RingBuffer::size).register(meterRegistry);
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(shutdownTimeoutMillis);
+        if (writer.isAlive() || buffer.size() > 0) {
+            logger.error("Shutting down with {} audit events not written", buffer.size());
+        }
+    }
+
+    /** Queues the event; never waits except under the BLOCK overflow policy. */
+    public void record(AuditEvent event) {
+        if (!running) {
+            return;
+        }
+        if (!buffer.offer(event)) {
+            overflow(event);
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /** The user's most recent audit events from every shard, newest first. */
+    public List<Map<String, Object>> recent(UUID userId, int limit) {
+        List<Map<String, Object>> events = new ArrayList<>(shardRouter.scatterGather(jdbc -> jdbc.queryForList(
+                "SELECT occurred_at, actor, user_id, action, resource_type, resource_id, entry_date, " +
+                "resource_version, correlation_id FROM audit_events WHERE user_id = ? " +
+                "ORDER BY occurred_at DESC LIMIT ?", userId, limit)));
+        events.sort(Comparator.comparing((Map<String, Object> row) -> (Timestamp) row.get("occurred_at")).reversed());
+        return events.size() > limit ? events.subList(0, limit) : events;
+    }
+
+    private void overflow(AuditEvent event) {
+        switch (overflowPolicy) {
+            case DROP_OLDEST -> {
+                while (!buffer.offer(event)) {
+                    if (buffer.poll() != null) {
+                        dropped();
+                    }
+                }
+            }
+            case BLOCK -> {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+                LockSupport.unpark(writer);
+                while (!buffer.offer(event)) {
+                    if (System.nanoTime() >= deadline) {
+                        dropped();
+                        return;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            }
+            default -> dropped();
+        }
+    }
+
+    private void dropped() {
+        droppedCounter.increment();
+        long now = System.currentTimeMillis();
+        long last = lastOverflowWarning.get();
+        if (now - last >= OVERFLOW_WARNING_INTERVAL && lastOverflowWarning.compareAndSet(last, now)) {
+            logger.warn("Audit buffer full ({} events), dropping under policy {}", buffer.capacity(), overflowPolicy);
+        }
+    }
+
+    private void drain() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long backoff = retryBackoffMillis;
+        while (true) {
+            if (batch.isEmpty() && buffer.drainTo(batch, batchSize) == 0) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+                continue;
+            }
+            try {
+                write(batch);
+                backoff = retryBackoffMillis;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    logger.error("Could not write {} audit events during shutdown", batch.size() + buffer.size(), e);
+                    return;
+                }
+                // The batch is kept and retried; meanwhile new events fill the buffer
+                logger.warn("Could not write {} audit events, retrying in {} ms", batch.size(), backoff, e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoff));
+                backoff = Math.min(backoff * 2, 30_000);
+            }
+        }
+    }
+
+    // Events that were written are taken out of the batch, so a retry does not duplicate them
+    private void write(List<AuditEvent> batch) {
+        Map<Integer, List<AuditEvent>> byShard = new TreeMap<>();
+        for (AuditEvent event : batch) {
+            byShard.computeIfAbsent(event.getShard(), shard -> new ArrayList<>()).add(event);
+        }
+        for (Map.Entry<Integer, List<AuditEvent>> shard : byShard.entrySet()) {
+            write(shardRouter.dataSource(shard.getKey()), shard.getValue(), batch);
+        }
+    }
+
+    // One bad row fails the whole COPY, so a rejected batch is halved until it is isolated
+    private void write(DataSource dataSource, List<AuditEvent> events, List<AuditEvent> batch) {
+        try {
+            copy(dataSource, events);
+        } catch (RuntimeException e) {
+            if (!isRejected(e)) {
+                throw e;
+            }
+            if (events.size() == 1) {
+                AuditEvent event = events.get(0);
+                logger.error("Audit event rejected: {} {} {} {} by {} at {}", event.getAction(), event.getResourceType(),
+                        event.getResourceId(), event.getEntryDate(), event.getActor(), event.getOccurredAt(), e);
+                rejectedCounter.increment();
+                batch.remove(event);
+                return;
+            }
+            int half = events.size() / 2;
+            write(dataSource, new ArrayList<>(events.subList(0, half)), batch);
+            write(dataSource, new ArrayList<>(events.subList(half, events.size())), batch);
+            return;
+        }
+        batch.removeAll(events);
+        writtenCounter.increment(events.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (AuditEvent event : events) {
+            lagTimer.record(Duration.between(event.getOccurredAt(), now));
+        }
+    }
+
+    // Data exceptions (SQLSTATE class 22) and constraint violations (23) fail the same way on retry
+    private static boolean isRejected(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                String sqlState = sqlException.getSQLState();
+                return sqlState.startsWith("22") || sqlState.startsWith("23");
+            }
+        }
+        return false;
+    }
+
+    private static void copy(DataSource dataSource, List<AuditEvent> events) {
+        StringBuilder csv = new StringBuilder(events.size() * 192);
+        for (AuditEvent event : events) {
+            csv.append(event.getOccurredAt()).append(',')
+                    .append(quote(event.getActor())).append(',')
+                    .append(event.getUserId()).append(',')
+                    .append(event.getAction()).append(',')
+                    .append(event.getResourceType()).append(',')
+                    .append(orEmpty(event.getResourceId())).append(',')
+                    .append(orEmpty(event.getEntryDate())).append(',')
+                    .append(orEmpty(event.getResourceVersion())).append(',')
+                    .append(event.getCorrelationId() != null ? quote(event.getCorrelationId()) : "").append('\n');
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY, new StringReader(csv.toString()));
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Could not copy audit events", e);
+        }
+    }
+
+    // In CSV an unquoted empty field is NULL
+    private static String orEmpty(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
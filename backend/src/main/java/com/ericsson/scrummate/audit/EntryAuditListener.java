@@ -0,0 +1,31 @@
+package com.ericsson.scrummate.audit;
+
+import com.ericsson.scrummate.config.CorrelationIdFilter;
+import com.ericsson.scrummate.event.DailyEntryChangedEvent;
+import com.ericsson.scrummate.shard.ShardContext;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+
+/** Audits entry changes once they are committed; a rolled back change leaves no audit row. */
+@Component
+public class EntryAuditListener {
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEntryChanged(DailyEntryChangedEvent event) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String actor = authentication != null ? authentication.getName() : event.getUserEmail();
+        auditLog.record(new AuditEvent(LocalDateTime.now(), actor, event.getUserId(), event.getType().name(),
+                "daily_entry", event.getEntry().getId(), event.getEntry().getEntryDate(), event.getEntry().getVersion(),
+                MDC.get(CorrelationIdFilter.CORRELATION_ID_MDC_KEY), ShardContext.current()));
+    }
+}
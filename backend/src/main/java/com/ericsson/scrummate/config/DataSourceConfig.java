@@ -0,0 +1,121 @@
+package com.ericsson.scrummate.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${scrummate.datasource.replica.urls:}")
+    private String replicaUrls;
+
+    @Value("${scrummate.datasource.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${scrummate.datasource.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${scrummate.datasource.replica.read-your-writes-window:5000}")
+    private long readYourWritesWindowMillis;
+
+    @Value("${scrummate.datasource.shards.urls:}")
+    private String shardUrls;
+
+    @Value("${scrummate.datasource.shards.username:${spring.datasource.username}}")
+    private String shardUsername;
+
+    @Value("${scrummate.datasource.shards.password:${spring.datasource.password}}")
+    private String shardPassword;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             MeterRegistry meterRegistry) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (String url : StringUtils.commaDelimitedListToStringArray(replicaUrls)) {
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+            String name = "replica-" + replicas.size();
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setPoolName(name);
+            config.setJdbcUrl(url.trim());
+            config.setUsername(replicaUsername);
+            config.setPassword(replicaPassword);
+            config.setReadOnly(true);
+            config.setInitializationFailTimeout(-1);
+            config.setMetricRegistry(meterRegistry);
+            replicas.add(new ReplicaRoutingDataSource.Replica(name, new HikariDataSource(config)));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWritesWindowMillis);
+    }
+
+    // Shard 0 is the primary with its replicas; the configured URLs become shards 1..N
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(HikariDataSource primaryDataSource,
+                                                         ReplicaRoutingDataSource replicaRoutingDataSource,
+                                                         MeterRegistry meterRegistry) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(replicaRoutingDataSource);
+        for (String url : StringUtils.commaDelimitedListToStringArray(shardUrls)) {
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setPoolName("shard-" + shards.size());
+            config.setJdbcUrl(url.trim());
+            config.setUsername(shardUsername);
+            config.setPassword(shardPassword);
+            config.setMetricRegistry(meterRegistry);
+            shards.add(new HikariDataSource(config));
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    // Boot migrates the primary data source only; every shard carries the full schema
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> {
+            flyway.migrate();
+            for (int shard = 1; shard < shardRoutingDataSource.getShardCount(); shard++) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shardRoutingDataSource.getShard(shard))
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+}
@@ -1,34 +1,34 @@
 package com.ericsson.scrummate.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.actuator.health.Health;
-import org.springframework.boot.actuator.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
-import javax.sql.DataSource;
-import java.sql.Connection;
+import java.time.Instant;
 
 @Component
 public class DatabaseHealthIndicator implements HealthIndicator {
     
     @Autowired
-    private DataSource dataSource;
+    private HealthSampler healthSampler;
     
     @Override
     public Health health() {
-        try (Connection connection = dataSource.getConnection()) {
-            if (connection.isValid(1)) {
-                return Health.up()
-                    .withDetail("database", "Available")
-                    .withDetail("validationQuery", "SELECT 1")
-                    .build();
-            }
-        } catch (Exception e) {
-            return Health.down()
-                .withDetail("database", "Unavailable")
-                .withException(e)
-                .build();
+        HealthSampler.Sample sample = healthSampler.getSample();
+        if (sample == null) {
+            return Health.unknown().withDetail("database", "Not sampled recently").build();
         }
-        return Health.down().withDetail("database", "Connection invalid").build();
+        Health.Builder builder = sample.isDatabaseUp() ? Health.up() : Health.down();
+        builder.withDetail("database", sample.isDatabaseUp() ? "Available" : "Unavailable")
+            .withDetail("sampledAt", Instant.ofEpochMilli(sample.getSampledAt()).toString())
+            .withDetail("latencyMs", sample.getDatabaseLatencyMillis())
+            .withDetail("activeConnections", sample.getActiveConnections())
+            .withDetail("idleConnections", sample.getIdleConnections())
+            .withDetail("pendingThreads", sample.getPendingThreads());
+        if (sample.getDatabaseError() != null) {
+            builder.withDetail("error", sample.getDatabaseError());
+        }
+        return builder.build();
     }
 }
@@ -0,0 +1,234 @@
+package com.ericsson.scrummate.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the database and the load on this instance in the background, so health endpoints and
+ * probes only read the last sample and never take a connection from the pool themselves.
+ *
+ * Readiness is withdrawn as soon as a sample finds the database down, threads queueing for a
+ * connection, too many requests in progress, or a high share of server errors, and restored
+ * after {@code recovery-samples} clean samples in a row. Liveness is not affected: an overloaded
+ * instance should be taken out of rotation, not restarted.
+ *
+ * Samples are taken on a thread of their own rather than the shared scheduler: a slow job there
+ * would let the sample go stale and take every instance out of rotation at once.
+ */
+@Component
+public class HealthSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(HealthSampler.class);
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private RequestLoadFilter requestLoadFilter;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${scrummate.health.sample-interval:5000}")
+    private long sampleIntervalMillis;
+
+    @Value("${scrummate.health.max-pending-threads:5}")
+    private int maxPendingThreads;
+
+    @Value("${scrummate.health.max-in-flight:150}")
+    private int maxInFlight;
+
+    @Value("${scrummate.health.max-error-rate:0.5}")
+    private double maxErrorRate;
+
+    @Value("${scrummate.health.min-requests:20}")
+    private long minRequests;
+
+    @Value("${scrummate.health.recovery-samples:2}")
+    private int recoverySamples;
+
+    @Value("${scrummate.scheduling.enabled:true}")
+    private boolean schedulingEnabled;
+
+    private ScheduledExecutorService sampler;
+
+    private volatile Sample sample;
+    private volatile boolean ready = true;
+    private int cleanSamples;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("scrummate.health.ready", this, sampler -> sampler.isReady() ? 1 : 0)
+                .description("Whether this instance currently accepts traffic")
+                .register(meterRegistry);
+        Gauge.builder("scrummate.health.requests.in-flight", requestLoadFilter, RequestLoadFilter::getInFlight)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!schedulingEnabled) {
+            return;
+        }
+        sampler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("health-sampler-"));
+        sampler.scheduleWithFixedDelay(() -> {
+            // An exception would cancel every later sample
+            try {
+                sample();
+            } catch (RuntimeException e) {
+                logger.error("Health sample failed", e);
+            }
+        }, 0, sampleIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+
+    public synchronized void sample() {
+        HikariPoolMXBean pool = primaryDataSource.getHikariPoolMXBean();
+        int pending = pool != null ? pool.getThreadsAwaitingConnection() : 0;
+        int idle = pool != null ? pool.getIdleConnections() : 0;
+
+        // With no idle connection a probe would just queue behind real work; a pool that busy is
+        // evidently talking to the database, and pending threads will say whether it keeps up
+        Sample previous = sample;
+        boolean databaseUp;
+        long latencyMillis;
+        String databaseError = null;
+        if (pool != null && idle == 0 && previous != null) {
+            databaseUp = previous.databaseUp;
+            latencyMillis = previous.databaseLatencyMillis;
+        } else {
+            long start = System.nanoTime();
+            try (Connection connection = primaryDataSource.getConnection()) {
+                databaseUp = connection.isValid(1);
+                if (!databaseUp) {
+                    databaseError = "Connection invalid";
+                }
+            } catch (Exception e) {
+                databaseUp = false;
+                databaseError = e.getMessage();
+            }
+            latencyMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+
+        long[] counts = requestLoadFilter.drainCounts();
+        double errorRate = counts[0] > 0 ? (double) counts[1] / counts[0] : 0;
+        int inFlight = requestLoadFilter.getInFlight();
+
+        List<String> problems = new ArrayList<>();
+        if (!databaseUp) {
+            problems.add("database unavailable");
+        }
+        if (pending > maxPendingThreads) {
+            problems.add(pending + " threads waiting for a database connection");
+        }
+        if (inFlight > maxInFlight) {
+            problems.add(inFlight + " requests in progress");
+        }
+        if (counts[0] >= minRequests && errorRate > maxErrorRate) {
+            problems.add(String.format("%.0f%% of recent requests failed", errorRate * 100));
+        }
+
+        sample = new Sample(System.currentTimeMillis(), databaseUp, latencyMillis, databaseError,
+                pool != null ? pool.getActiveConnections() : 0, idle, pending, inFlight, errorRate, problems);
+        updateReadiness(problems);
+    }
+
+    private void updateReadiness(List<String> problems) {
+        if (!problems.isEmpty()) {
+            cleanSamples = 0;
+            if (ready) {
+                ready = false;
+                logger.warn("Refusing traffic: {}", String.join(", ", problems));
+                AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+            }
+        } else if (!ready && ++cleanSamples >= recoverySamples) {
+            ready = true;
+            logger.info("Accepting traffic again");
+            AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+        }
+    }
+
+    /** The latest sample, or null before the first one; a sample older than three intervals is stale. */
+    public Sample getSample() {
+        Sample current = sample;
+        if (current != null && System.currentTimeMillis() - current.sampledAt > 3 * sampleIntervalMillis) {
+            return null;
+        }
+        return current;
+    }
+
+    public boolean isReady() {
+        Sample current = getSample();
+        return current != null && ready;
+    }
+
+    public static class Sample {
+        private final long sampledAt;
+        private final boolean databaseUp;
+        private final long databaseLatencyMillis;
+        private final String databaseError;
+        private final int activeConnections;
+        private final int idleConnections;
+        private final int pendingThreads;
+        private final int requestsInFlight;
+        private final double errorRate;
+        private final List<String> problems;
+
+        Sample(long sampledAt, boolean databaseUp, long databaseLatencyMillis, String databaseError,
+               int activeConnections, int idleConnections, int pendingThreads, int requestsInFlight,
+               double errorRate, List<String> problems) {
+            this.sampledAt = sampledAt;
+            this.databaseUp = databaseUp;
+            this.databaseLatencyMillis = databaseLatencyMillis;
+            this.databaseError = databaseError;
+            this.activeConnections = activeConnections;
+            this.idleConnections = idleConnections;
+            this.pendingThreads = pendingThreads;
+            this.requestsInFlight = requestsInFlight;
+            this.errorRate = errorRate;
+            this.problems = problems;
+        }
+
+        public long getSampledAt() { return sampledAt; }
+        public boolean isDatabaseUp() { return databaseUp; }
+        public long getDatabaseLatencyMillis() { return databaseLatencyMillis; }
+        public String getDatabaseError() { return databaseError; }
+        public int getActiveConnections() { return activeConnections; }
+        public int getIdleConnections() { return idleConnections; }
+        public int getPendingThreads() { return pendingThreads; }
+        public int getRequestsInFlight() { return requestsInFlight; }
+        public double getErrorRate() { return errorRate; }
+        public List<String> getProblems() { return problems; }
+    }
+}
@@ -0,0 +1,305 @@
+package com.ericsson.scrummate.config;
+
+import com.ericsson.scrummate.shard.ShardRouter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Makes write requests carrying an {@code Idempotency-Key} header safe to retry. The first
+ * response for a key is kept for a while and replayed for repeats of the same request; a key
+ * reused for a different request is rejected, as is a repeat while the first is still running.
+ *
+ * Keys are scoped to the authenticated user and stored in idempotency_keys on the directory
+ * shard, so a retry served by another instance is answered the same way. Runs after the
+ * security filter chain so the principal is known.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final List<String> REPLAYED_HEADERS =
+            List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.LOCATION, HttpHeaders.ETAG);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // Takes the key unless another request holds it: a live row, or a claim still within the
+    // in-progress timeout. An instance that died mid-request releases the key that way.
+    private static final String CLAIM =
+            "INSERT INTO idempotency_keys (scoped_key, fingerprint, claimed_at, expires_at) " +
+            "VALUES (?, ?, CURRENT_TIMESTAMP, ?) " +
+            "ON CONFLICT (scoped_key) DO UPDATE SET fingerprint = EXCLUDED.fingerprint, completed = FALSE, " +
+            "status = NULL, headers = NULL, body = NULL, claimed_at = EXCLUDED.claimed_at, expires_at = EXCLUDED.expires_at " +
+            "WHERE idempotency_keys.expires_at < CURRENT_TIMESTAMP " +
+            "OR (NOT idempotency_keys.completed AND idempotency_keys.claimed_at < ?)";
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private final long ttlMillis;
+    private final long inProgressTimeoutMillis;
+    private final int maxResponseBytes;
+    private final int maxRequestBytes;
+
+    public IdempotencyFilter(@Value("${scrummate.idempotency.ttl:86400000}") long ttlMillis,
+                             @Value("${scrummate.idempotency.in-progress-timeout:300000}") long inProgressTimeoutMillis,
+                             @Value("${scrummate.idempotency.max-response-bytes:65536}") int maxResponseBytes,
+                             @Value("${scrummate.idempotency.max-request-bytes:1048576}") int maxRequestBytes) {
+        this.ttlMillis = ttlMillis;
+        this.inProgressTimeoutMillis = inProgressTimeoutMillis;
+        this.maxResponseBytes = maxResponseBytes;
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !WRITE_METHODS.contains(request.getMethod())
+                || !request.getRequestURI().startsWith("/api/v1/")
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + IDEMPOTENCY_KEY_HEADER + " header");
+            return;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // The body is held in memory to fingerprint and replay it, so refuse one too large to hold,
+        // by its declared length or, for chunked bodies, after reading one byte past the limit
+        byte[] body = request.getContentLengthLong() > maxRequestBytes
+                ? null : request.getInputStream().readNBytes(maxRequestBytes + 1);
+        if (body == null || body.length > maxRequestBytes) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                    "Requests with an " + IDEMPOTENCY_KEY_HEADER + " are limited to " + maxRequestBytes + " bytes");
+            return;
+        }
+        String scopedKey = authentication.getName() + ":" + key;
+        String fingerprint = fingerprint(request, body);
+        JdbcTemplate store = shardRouter.directory();
+
+        long now = System.currentTimeMillis();
+        int claimed = store.update(CLAIM, scopedKey, fingerprint, new Timestamp(now + ttlMillis),
+                new Timestamp(now - inProgressTimeoutMillis));
+        if (claimed == 0) {
+            List<StoredResponse> stored = store.query(
+                    "SELECT fingerprint, completed, status, headers, body FROM idempotency_keys WHERE scoped_key = ?",
+                    (rs, rowNum) -> new StoredResponse(rs.getString("fingerprint"), rs.getBoolean("completed"),
+                            rs.getInt("status"), rs.getString("headers"), rs.getBytes("body")),
+                    scopedKey);
+            if (stored.isEmpty()) {
+                // Released between the two statements; let the client retry
+                response.sendError(HttpStatus.CONFLICT.value(),
+                        "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still in progress");
+            } else if (!stored.get(0).fingerprint.equals(fingerprint)) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                        IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+            } else if (!stored.get(0).completed) {
+                response.sendError(HttpStatus.CONFLICT.value(),
+                        "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still in progress");
+            } else {
+                stored.get(0).replay(response);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean keep = false;
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), cachingResponse);
+            // Server errors are worth retrying for real, so they are not pinned to the key
+            keep = cachingResponse.getStatus() < 500 && cachingResponse.getContentSize() <= maxResponseBytes;
+            if (keep) {
+                store.update("UPDATE idempotency_keys SET completed = TRUE, status = ?, headers = ?, body = ? " +
+                        "WHERE scoped_key = ? AND fingerprint = ?",
+                        cachingResponse.getStatus(), StoredResponse.headersOf(cachingResponse),
+                        cachingResponse.getContentAsByteArray(), scopedKey, fingerprint);
+            }
+        } finally {
+            if (!keep) {
+                store.update("DELETE FROM idempotency_keys WHERE scoped_key = ? AND NOT completed", scopedKey);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${scrummate.idempotency.cleanup-interval:3600000}")
+    public void deleteExpired() {
+        int deleted = shardRouter.directory().update(
+                "DELETE FROM idempotency_keys WHERE expires_at < CURRENT_TIMESTAMP");
+        if (deleted > 0) {
+            logger.debug("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class StoredResponse {
+        private final String fingerprint;
+        private final boolean completed;
+        private final int status;
+        private final String headers;
+        private final byte[] body;
+
+        StoredResponse(String fingerprint, boolean completed, int status, String headers, byte[] body) {
+            this.fingerprint = fingerprint;
+            this.completed = completed;
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        // One "Name: value" line per replayed header
+        static String headersOf(HttpServletResponse response) {
+            StringBuilder lines = new StringBuilder();
+            for (String name : REPLAYED_HEADERS) {
+                String value = HttpHeaders.CONTENT_TYPE.equals(name) ? response.getContentType() : response.getHeader(name);
+                if (value != null) {
+                    lines.append(name).append(": ").append(value).append('\n');
+                }
+            }
+            return lines.toString();
+        }
+
+        void replay(HttpServletResponse response) throws IOException {
+            response.setStatus(status);
+            if (headers != null) {
+                for (String line : headers.split("\n")) {
+                    int colon = line.indexOf(": ");
+                    if (colon > 0) {
+                        response.setHeader(line.substring(0, colon), line.substring(colon + 2));
+                    }
+                }
+            }
+            byte[] content = body != null ? body : new byte[0];
+            response.setHeader(REPLAYED_HEADER, "true");
+            response.setContentLength(content.length);
+            response.getOutputStream().write(content);
+        }
+    }
+
+    /** Serves a body that was already read to compute the fingerprint. */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The body is already in memory, so it is all available as soon as the listener is set
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
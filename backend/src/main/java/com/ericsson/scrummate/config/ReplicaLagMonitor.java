@@ -0,0 +1,71 @@
+package com.ericsson.scrummate.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // Zero when the replica has replayed everything it received (or is not in recovery at all),
+    // so an idle primary does not make a caught-up replica look stale.
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${scrummate.datasource.replica.max-lag-seconds:5}")
+    private double maxLagSeconds;
+
+    @PostConstruct
+    public void registerMetrics() {
+        for (ReplicaRoutingDataSource.Replica replica : replicaRoutingDataSource.getReplicas()) {
+            Gauge.builder("scrummate.datasource.replica.lag", replica, ReplicaRoutingDataSource.Replica::getLagSeconds)
+                    .tag("replica", replica.getName())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("scrummate.datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+        // Replicas start out of rotation; probe now so reads do not wait for the first scheduled check
+        checkReplicas();
+    }
+
+    @Scheduled(fixedDelayString = "${scrummate.datasource.replica.check-interval:2000}")
+    public void checkReplicas() {
+        for (ReplicaRoutingDataSource.Replica replica : replicaRoutingDataSource.getReplicas()) {
+            boolean wasHealthy = replica.isHealthy();
+            try {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(replica.getDataSource());
+                jdbcTemplate.setQueryTimeout(1);
+                Double lag = jdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+                replica.setLagSeconds(lag != null ? lag : 0);
+                replica.setHealthy(replica.getLagSeconds() <= maxLagSeconds);
+            } catch (Exception e) {
+                replica.setHealthy(false);
+                logger.debug("Replica {} check failed: {}", replica.getName(), e.getMessage());
+            }
+            if (wasHealthy != replica.isHealthy()) {
+                logger.warn("Replica {} is now {} (lag {}s)", replica.getName(),
+                        replica.isHealthy() ? "in rotation" : "out of rotation", replica.getLagSeconds());
+            }
+        }
+        replicaRoutingDataSource.evictExpiredWriters();
+    }
+}
@@ -0,0 +1,144 @@
+package com.ericsson.scrummate.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary.
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so the routing decision is made after the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final long stickinessMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Long> recentWriters = new ConcurrentHashMap<>();
+    // Bound while a write transaction has a pending stickiness synchronization
+    private final Object writerMarker = new Object();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, long stickinessMillis) {
+        this.replicas = replicas;
+        this.stickinessMillis = stickinessMillis;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : replicas) {
+            targets.put(replica.getName(), replica.getDataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                stickAfterCommit(user);
+            }
+            return PRIMARY;
+        }
+        if (user != null && isSticky(user)) {
+            return PRIMARY;
+        }
+
+        List<Replica> healthy = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.isHealthy()) {
+                healthy.add(replica);
+            }
+        }
+        if (healthy.isEmpty()) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(nextReplica.getAndIncrement(), healthy.size())).getName();
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void evictExpiredWriters() {
+        long now = System.currentTimeMillis();
+        recentWriters.values().removeIf(expiresAt -> expiresAt < now);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    // The window starts at commit, when replicas begin to lag behind the write, not when it starts
+    private void stickAfterCommit(String user) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(writerMarker)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(writerMarker, user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(user, System.currentTimeMillis() + stickinessMillis);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(writerMarker);
+            }
+        });
+    }
+
+    private boolean isSticky(String user) {
+        Long expiresAt = recentWriters.get(user);
+        return expiresAt != null && expiresAt >= System.currentTimeMillis();
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    public static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile double lagSeconds;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() { return name; }
+        public DataSource getDataSource() { return dataSource; }
+
+        public boolean isHealthy() { return healthy; }
+        public void setHealthy(boolean healthy) { this.healthy = healthy; }
+
+        public double getLagSeconds() { return lagSeconds; }
+        public void setLagSeconds(double lagSeconds) { this.lagSeconds = lagSeconds; }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ericsson.scrummate.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts requests in progress and server errors for HealthSampler. Health and actuator calls
+ * are left out so probes do not count towards the load they measure.
+ */
+@Component
+@Order(2)
+public class RequestLoadFilter extends OncePerRequestFilter {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.startsWith("/health") || uri.startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        inFlight.incrementAndGet();
+        boolean error = true;
+        try {
+            filterChain.doFilter(request, response);
+            error = response.getStatus() >= 500;
+        } finally {
+            inFlight.decrementAndGet();
+            completed.incrementAndGet();
+            if (error) {
+                failed.incrementAndGet();
+            }
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /** Requests completed and failed since the previous call, as {completed, failed}. */
+    long[] drainCounts() {
+        return new long[] {completed.getAndSet(0), failed.getAndSet(0)};
+    }
+}
@@ -0,0 +1,12 @@
+package com.ericsson.scrummate.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Switched off only for runs without a database, such as the AppCDS training start
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "scrummate.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,68 @@
+package com.ericsson.scrummate.config;
+
+import com.ericsson.scrummate.shard.ShardContext;
+import com.ericsson.scrummate.shard.ShardDirectory;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Points requests for the caller's own entries, summaries and reports, and the sync, dashboard
+ * and stats views of them, at the caller's shard. Everything else (auth, teams, admin, events)
+ * stays on the directory shard. Runs after the security filter chain so the principal is known.
+ */
+@Component
+@Order(3)
+public class ShardContextFilter extends OncePerRequestFilter {
+
+    private static final List<String> USER_DATA_PATHS =
+            List.of("/api/v1/entries", "/api/v1/summaries", "/api/v1/reports", "/api/v1/sync",
+                    "/api/v1/dashboard", "/api/v1/stats");
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return USER_DATA_PATHS.stream().noneMatch(uri::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        ShardDirectory.Placement placement = authentication == null || authentication instanceof AnonymousAuthenticationToken
+                ? null : shardDirectory.lookup(authentication.getName());
+        if (placement == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (placement.isMoving() && !READ_METHODS.contains(request.getMethod())) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Your data is being moved, try again shortly");
+            return;
+        }
+        ShardContext.set(placement.getShard());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ShardContext.clear();
+        }
+    }
+}
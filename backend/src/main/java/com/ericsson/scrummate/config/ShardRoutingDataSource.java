@@ -0,0 +1,55 @@
+package com.ericsson.scrummate.config;
+
+import com.ericsson.scrummate.shard.ShardContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends each transaction to the shard in {@link ShardContext}. Like {@link ReplicaRoutingDataSource}
+ * it must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so the decision is made when the first statement runs.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = shards;
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(ShardContext.DIRECTORY));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    // Shard 0 is the replica-routed primary, which Spring closes itself
+    @Override
+    public void destroy() throws Exception {
+        for (int shard = 1; shard < shards.size(); shard++) {
+            if (shards.get(shard) instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ericsson.scrummate.controller;
+
+import com.ericsson.scrummate.service.EntryArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/admin/archive")
+@CrossOrigin(origins = "*")
+public class ArchiveController {
+
+    @Autowired
+    private EntryArchiveService entryArchiveService;
+
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> runArchive() {
+        int archived = entryArchiveService.archiveExpiredEntries();
+        return ResponseEntity.ok(Map.of("archived", archived));
+    }
+
+    @PostMapping("/verify")
+    public ResponseEntity<Map<String, Object>> verifyArchive() {
+        return ResponseEntity.ok(entryArchiveService.verify());
+    }
+
+    @PostMapping("/restore")
+    public ResponseEntity<Map<String, Object>> restoreArchive(@RequestParam UUID userId, @RequestParam int year) {
+        int restored = entryArchiveService.restore(userId, year);
+        return ResponseEntity.ok(Map.of("restored", restored));
+    }
+}
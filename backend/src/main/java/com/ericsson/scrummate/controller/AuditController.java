@@ -0,0 +1,25 @@
+package com.ericsson.scrummate.controller;
+
+import com.ericsson.scrummate.audit.AuditLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/admin/audit")
+@CrossOrigin(origins = "*")
+public class AuditController {
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getEvents(@RequestParam UUID userId,
+                                                               @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(auditLog.recent(userId, Math.max(1, Math.min(limit, 1000))));
+    }
+}
@@ -1,17 +1,27 @@
 package com.ericsson.scrummate.controller;
 
 import com.ericsson.scrummate.dto.DailyEntryDTO;
+import com.ericsson.scrummate.dto.EntryCalendarDTO;
+import com.ericsson.scrummate.dto.EntryDraftRequest;
+import com.ericsson.scrummate.repository.EntryUpsert;
 import com.ericsson.scrummate.service.DailyEntryService;
+import com.ericsson.scrummate.service.EntryDraftService;
+import com.ericsson.scrummate.service.SuggestionService;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -19,9 +29,17 @@ import java.util.UUID;
 @CrossOrigin(origins = "*")
 public class DailyEntryController {
 
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
     @Autowired
     private DailyEntryService dailyEntryService;
 
+    @Autowired
+    private EntryDraftService entryDraftService;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
     @GetMapping
     public ResponseEntity<Page<DailyEntryDTO>> getEntries(
             Authentication authentication, Pageable pageable) {
@@ -34,43 +52,91 @@ public class DailyEntryController {
     public ResponseEntity<DailyEntryDTO> createEntry(
             @Valid @RequestBody DailyEntryDTO entryDTO, Authentication authentication) {
         String userEmail = authentication.getName();
-        DailyEntryDTO createdEntry = dailyEntryService.createEntry(userEmail, entryDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdEntry);
+        EntryUpsert result = dailyEntryService.createEntry(userEmail, entryDTO);
+        return ResponseEntity.status(result.isInserted() ? HttpStatus.CREATED : HttpStatus.OK).body(result.getEntry());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<DailyEntryDTO> getEntry(
-            @PathVariable UUID id, Authentication authentication) {
+            @PathVariable UUID id, @RequestParam(required = false) LocalDate date,
+            Authentication authentication) {
         String userEmail = authentication.getName();
-        DailyEntryDTO entry = dailyEntryService.getEntryById(userEmail, id);
-        return ResponseEntity.ok(entry);
+        DailyEntryDTO entry = dailyEntryService.getEntryById(userEmail, id, date);
+        return withETag(entry);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<DailyEntryDTO> updateEntry(
             @PathVariable UUID id, @Valid @RequestBody DailyEntryDTO entryDTO, 
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication) {
         String userEmail = authentication.getName();
-        DailyEntryDTO updatedEntry = dailyEntryService.updateEntry(userEmail, id, entryDTO);
-        return ResponseEntity.ok(updatedEntry);
+        DailyEntryDTO updatedEntry = dailyEntryService.updateEntry(userEmail, id, entryDTO, parseVersion(ifMatch));
+        return withETag(updatedEntry);
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<DailyEntryDTO> patchEntry(
+            @PathVariable UUID id, @RequestBody JsonNode patch,
+            @RequestParam(required = false) LocalDate date,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        DailyEntryDTO patchedEntry = dailyEntryService.patchEntry(userEmail, id, patch, parseVersion(ifMatch), date);
+        return withETag(patchedEntry);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteEntry(
-            @PathVariable UUID id, Authentication authentication) {
+            @PathVariable UUID id, @RequestParam(required = false) LocalDate date,
+            Authentication authentication) {
         String userEmail = authentication.getName();
-        dailyEntryService.deleteEntry(userEmail, id);
+        dailyEntryService.deleteEntry(userEmail, id, date);
         return ResponseEntity.noContent().build();
     }
 
+    @PutMapping("/drafts/{date}")
+    public ResponseEntity<Void> saveDraft(
+            @PathVariable LocalDate date, @Valid @RequestBody EntryDraftRequest draftRequest,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        entryDraftService.saveDraft(userEmail, date, draftRequest);
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/drafts/{date}")
+    public ResponseEntity<DailyEntryDTO> getDraft(
+            @PathVariable LocalDate date, Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(entryDraftService.getDraft(userEmail, date));
+    }
+
+    @PostMapping("/drafts/{date}/submit")
+    public ResponseEntity<DailyEntryDTO> submitDraft(
+            @PathVariable LocalDate date, Authentication authentication) {
+        String userEmail = authentication.getName();
+        EntryUpsert result = entryDraftService.submitDraft(userEmail, date);
+        return ResponseEntity.status(result.isInserted() ? HttpStatus.CREATED : HttpStatus.OK).body(result.getEntry());
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Page<DailyEntryDTO>> searchEntries(
-            @RequestParam String query, Authentication authentication, Pageable pageable) {
+            @RequestParam String query,
+            @RequestParam(required = false) LocalDate startDate, @RequestParam(required = false) LocalDate endDate,
+            Authentication authentication, Pageable pageable) {
         String userEmail = authentication.getName();
-        Page<DailyEntryDTO> entries = dailyEntryService.searchEntries(userEmail, query, pageable);
+        Page<DailyEntryDTO> entries = dailyEntryService.searchEntries(userEmail, query, startDate, endDate, pageable);
         return ResponseEntity.ok(entries);
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggest(
+            @RequestParam String prefix, @RequestParam(defaultValue = "10") int limit,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(suggestionService.suggest(userEmail, prefix, limit));
+    }
+
     @GetMapping("/filter")
     public ResponseEntity<Page<DailyEntryDTO>> filterEntries(
             @RequestParam LocalDate startDate, @RequestParam LocalDate endDate,
@@ -79,4 +145,38 @@ public class DailyEntryController {
         Page<DailyEntryDTO> entries = dailyEntryService.filterEntries(userEmail, startDate, endDate, pageable);
         return ResponseEntity.ok(entries);
     }
+
+    @GetMapping("/calendar")
+    public ResponseEntity<EntryCalendarDTO> getCalendar(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(defaultValue = "base64") String format,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        int calendarYear = year != null ? year : LocalDate.now().getYear();
+        return ResponseEntity.ok(dailyEntryService.getCalendar(userEmail, calendarYear, format));
+    }
+
+    private static ResponseEntity<DailyEntryDTO> withETag(DailyEntryDTO entry) {
+        if (entry.getVersion() == null) {
+            return ResponseEntity.ok(entry);
+        }
+        return ResponseEntity.ok().eTag("\"" + entry.getVersion() + "\"").body(entry);
+    }
+
+    // If-Match carries the ETag of a previous response; "*" means any version. It uses strong
+    // comparison (RFC 9110, 13.1.1), so a weak tag never matches
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Weak entity tags do not match");
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Entry has been modified");
+        }
+    }
 }
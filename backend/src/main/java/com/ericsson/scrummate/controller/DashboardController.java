@@ -0,0 +1,23 @@
+package com.ericsson.scrummate.controller;
+
+import com.ericsson.scrummate.dto.DashboardDTO;
+import com.ericsson.scrummate.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/dashboard")
+@CrossOrigin(origins = "*")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @GetMapping
+    public ResponseEntity<DashboardDTO> getDashboard(Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(dashboardService.getDashboard(userEmail));
+    }
+}
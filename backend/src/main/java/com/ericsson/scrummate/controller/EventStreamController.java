@@ -0,0 +1,42 @@
+package com.ericsson.scrummate.controller;
+
+import com.ericsson.scrummate.security.JwtUtil;
+import com.ericsson.scrummate.stream.EventStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/events")
+@CrossOrigin(origins = "*")
+public class EventStreamController {
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        return eventStreamService.subscribe(userEmail, lastEventId != null ? lastEventId : lastEventIdParam);
+    }
+
+    // A client opening the stream after its ticket expired resumes through lastEventId
+    @PostMapping("/ticket")
+    public ResponseEntity<Map<String, String>> issueTicket(Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(Map.of(
+                "ticket", jwtUtil.generateStreamTicket(userEmail),
+                "userId", eventStreamService.userIdOf(userEmail).toString()));
+    }
+}
@@ -0,0 +1,22 @@
+package com.ericsson.scrummate.controller;
+
+import com.ericsson.scrummate.export.AnalyticsExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/export")
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    @Autowired
+    private AnalyticsExportService analyticsExportService;
+
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> runExport(@RequestParam(defaultValue = "false") boolean full) {
+        return ResponseEntity.ok(analyticsExportService.export(full));
+    }
+}
@@ -1,50 +1,54 @@
 package com.ericsson.scrummate.controller;
 
+import com.ericsson.scrummate.config.HealthSampler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import javax.sql.DataSource;
-import java.sql.Connection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/** Served from HealthSampler's last sample; none of these touch the database. */
 @RestController
 @RequestMapping("/health")
 public class HealthController {
 
     @Autowired
-    private DataSource dataSource;
+    private HealthSampler healthSampler;
 
     @GetMapping
     public ResponseEntity<Map<String, Object>> health() {
         Map<String, Object> health = new HashMap<>();
-        health.put("status", "UP");
         health.put("timestamp", System.currentTimeMillis());
         
-        // Database health check
-        try (Connection connection = dataSource.getConnection()) {
-            if (connection.isValid(1)) {
-                health.put("database", "UP");
-            } else {
-                health.put("database", "DOWN");
-                health.put("status", "DOWN");
-            }
-        } catch (Exception e) {
-            health.put("database", "DOWN");
-            health.put("status", "DOWN");
+        HealthSampler.Sample sample = healthSampler.getSample();
+        if (sample == null) {
+            health.put("status", "UNKNOWN");
+            health.put("database", "UNKNOWN");
+        } else {
+            health.put("status", sample.isDatabaseUp() ? "UP" : "DOWN");
+            health.put("database", sample.isDatabaseUp() ? "UP" : "DOWN");
+            health.put("sampledAt", sample.getSampledAt());
         }
         
         return ResponseEntity.ok(health);
     }
 
     @GetMapping("/ready")
-    public ResponseEntity<Map<String, String>> ready() {
-        Map<String, String> status = new HashMap<>();
-        status.put("status", "READY");
-        return ResponseEntity.ok(status);
+    public ResponseEntity<Map<String, Object>> ready() {
+        Map<String, Object> status = new HashMap<>();
+        HealthSampler.Sample sample = healthSampler.getSample();
+        if (healthSampler.isReady()) {
+            status.put("status", "READY");
+            return ResponseEntity.ok(status);
+        }
+        status.put("status", "NOT_READY");
+        status.put("problems", sample != null ? sample.getProblems() : List.of("no recent health sample"));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(status);
     }
 
     @GetMapping("/live")
@@ -2,11 +2,12 @@ package com.ericsson.scrummate.controller;
 
 import com.ericsson.scrummate.entity.MonthlyReport;
 import com.ericsson.scrummate.service.MonthlyReportService;
+import com.ericsson.scrummate.service.SummaryPayloadService;
+import com.fasterxml.jackson.databind.util.RawValue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -21,14 +22,26 @@ public class MonthlyReportController {
     @Autowired
     private MonthlyReportService monthlyReportService;
     
+    @Autowired
+    private SummaryPayloadService summaryPayloadService;
+    
     @GetMapping
-    public ResponseEntity<Page<MonthlyReport>> getMonthlyReports(
+    public ResponseEntity<Page<RawValue>> getMonthlyReports(
             Authentication authentication, Pageable pageable) {
         String userEmail = authentication.getName();
-        Page<MonthlyReport> reports = monthlyReportService.getMonthlyReports(userEmail, pageable);
+        Page<RawValue> reports = monthlyReportService.getMonthlyReports(userEmail, pageable);
         return ResponseEntity.ok(reports);
     }
     
+    @GetMapping("/{id}")
+    public ResponseEntity<byte[]> getMonthlyReport(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        return summaryPayloadService.toResponse(monthlyReportService.getMonthlyReport(userEmail, id), acceptEncoding);
+    }
+    
     @PostMapping("/generate")
     public ResponseEntity<MonthlyReport> generateMonthlyReport(
             @RequestParam int month, @RequestParam int year,
@@ -39,12 +52,17 @@ public class MonthlyReportController {
     }
     
     @GetMapping("/{id}/export")
-    public ResponseEntity<String> exportMonthlyReport(
-            @PathVariable UUID id, Authentication authentication) {
-        // Basic JSON export - can be enhanced with PDF generation
+    public ResponseEntity<byte[]> exportMonthlyReport(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication) {
+        // JSON export of the stored payload - can be enhanced with PDF generation
+        String userEmail = authentication.getName();
+        ResponseEntity<byte[]> report = summaryPayloadService.toResponse(
+                monthlyReportService.getMonthlyReport(userEmail, id), acceptEncoding);
         return ResponseEntity.ok()
+                .headers(report.getHeaders())
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=monthly-report-" + id + ".json")
-                .contentType(MediaType.APPLICATION_JSON)
-                .body("{\"message\":\"Export functionality - to be implemented with PDF generation\"}");
+                .body(report.getBody());
     }
 }
@@ -0,0 +1,35 @@
+package com.ericsson.scrummate.controller;
+
+import com.ericsson.scrummate.purge.PurgeJob;
+import com.ericsson.scrummate.purge.PurgeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/admin/purge")
+@CrossOrigin(origins = "*")
+public class PurgeController {
+
+    @Autowired
+    private PurgeService purgeService;
+
+    @GetMapping
+    public ResponseEntity<List<PurgeJob>> getJobs(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(purgeService.recentJobs(Math.max(1, Math.min(limit, 500))));
+    }
+
+    @PostMapping("/users/{userId}")
+    public ResponseEntity<PurgeJob> purgeAccount(@PathVariable UUID userId, Authentication authentication) {
+        return ResponseEntity.accepted().body(purgeService.purgeAccount(userId, authentication.getName()));
+    }
+
+    @PostMapping("/retention")
+    public ResponseEntity<List<PurgeJob>> purgeExpired(Authentication authentication) {
+        return ResponseEntity.accepted().body(purgeService.purgeExpired(authentication.getName()));
+    }
+}
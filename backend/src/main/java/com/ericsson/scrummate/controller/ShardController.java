@@ -0,0 +1,33 @@
+package com.ericsson.scrummate.controller;
+
+import com.ericsson.scrummate.shard.ShardRebalancer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/admin/shards")
+@CrossOrigin(origins = "*")
+public class ShardController {
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(shardRebalancer.status());
+    }
+
+    @PostMapping("/rebalance")
+    public ResponseEntity<Map<String, Object>> rebalance(@RequestParam(defaultValue = "0") int limit) {
+        return ResponseEntity.ok(shardRebalancer.rebalance(limit));
+    }
+
+    @PostMapping("/users/{userId}/move")
+    public ResponseEntity<Map<String, Object>> moveUser(@PathVariable UUID userId, @RequestParam int shard) {
+        return ResponseEntity.ok(shardRebalancer.move(userId, shard));
+    }
+}
@@ -0,0 +1,22 @@
+package com.ericsson.scrummate.controller;
+
+import com.ericsson.scrummate.service.UserStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/stats")
+@CrossOrigin(origins = "*")
+public class StatsAdminController {
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @PostMapping("/reconcile")
+    public ResponseEntity<Map<String, Object>> reconcile() {
+        return ResponseEntity.ok(userStatsService.reconcile());
+    }
+}
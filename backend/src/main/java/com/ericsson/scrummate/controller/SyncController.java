@@ -0,0 +1,28 @@
+package com.ericsson.scrummate.controller;
+
+import com.ericsson.scrummate.dto.SyncDTO;
+import com.ericsson.scrummate.service.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/sync")
+@CrossOrigin(origins = "*")
+public class SyncController {
+
+    @Autowired
+    private SyncService syncService;
+
+    // Without a cursor, or with one the server can no longer serve a delta for, everything is returned with full=true
+    @GetMapping
+    public ResponseEntity<SyncDTO> sync(
+            @RequestParam(required = false) String since, Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(syncService.changesSince(userEmail, since));
+    }
+}
@@ -0,0 +1,131 @@
+package com.ericsson.scrummate.controller;
+
+import com.ericsson.scrummate.dto.BlockerReportDTO;
+import com.ericsson.scrummate.dto.TeamBoardDTO;
+import com.ericsson.scrummate.dto.TeamDTO;
+import com.ericsson.scrummate.dto.TeamInvitationDTO;
+import com.ericsson.scrummate.dto.TeamMemberDTO;
+import com.ericsson.scrummate.dto.TeamMemberRequest;
+import com.ericsson.scrummate.dto.TeamRequest;
+import com.ericsson.scrummate.service.TeamService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/teams")
+@CrossOrigin(origins = "*")
+public class TeamController {
+
+    @Autowired
+    private TeamService teamService;
+
+    @GetMapping
+    public ResponseEntity<List<TeamDTO>> getTeams(Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(teamService.getTeams(userEmail));
+    }
+
+    @PostMapping
+    public ResponseEntity<TeamDTO> createTeam(
+            @Valid @RequestBody TeamRequest request, Authentication authentication) {
+        String userEmail = authentication.getName();
+        TeamDTO team = teamService.createTeam(userEmail, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(team);
+    }
+
+    @GetMapping("/{id}/members")
+    public ResponseEntity<List<TeamMemberDTO>> getMembers(
+            @PathVariable UUID id, Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(teamService.getMembers(userEmail, id));
+    }
+
+    @PostMapping("/{id}/invitations")
+    public ResponseEntity<TeamInvitationDTO> invite(
+            @PathVariable UUID id, @Valid @RequestBody TeamMemberRequest request,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        TeamInvitationDTO invitation = teamService.invite(userEmail, id, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(invitation);
+    }
+
+    @GetMapping("/{id}/invitations")
+    public ResponseEntity<List<TeamInvitationDTO>> getTeamInvitations(
+            @PathVariable UUID id, Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(teamService.getTeamInvitations(userEmail, id));
+    }
+
+    @GetMapping("/invitations")
+    public ResponseEntity<List<TeamInvitationDTO>> getInvitations(Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(teamService.getInvitations(userEmail));
+    }
+
+    @PostMapping("/invitations/{invitationId}/accept")
+    public ResponseEntity<TeamMemberDTO> acceptInvitation(
+            @PathVariable UUID invitationId, Authentication authentication) {
+        String userEmail = authentication.getName();
+        TeamMemberDTO member = teamService.acceptInvitation(userEmail, invitationId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(member);
+    }
+
+    @DeleteMapping("/invitations/{invitationId}")
+    public ResponseEntity<Void> deleteInvitation(
+            @PathVariable UUID invitationId, Authentication authentication) {
+        String userEmail = authentication.getName();
+        teamService.deleteInvitation(userEmail, invitationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}/members/{userId}")
+    public ResponseEntity<Void> removeMember(
+            @PathVariable UUID id, @PathVariable UUID userId, Authentication authentication) {
+        String userEmail = authentication.getName();
+        teamService.removeMember(userEmail, id, userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/board")
+    public ResponseEntity<TeamBoardDTO> getBoard(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "day") String view,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        LocalDate boardDate = date != null ? date : LocalDate.now();
+        TeamBoardDTO board = teamService.getBoard(userEmail, id, boardDate, "week".equalsIgnoreCase(view));
+        return ResponseEntity.ok(board);
+    }
+
+    @GetMapping("/{id}/blockers/top")
+    public ResponseEntity<BlockerReportDTO> getTopBlockers(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "10") int limit,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        LocalDate weekDate = date != null ? date : LocalDate.now();
+        return ResponseEntity.ok(teamService.getTopBlockers(userEmail, id, weekDate, Math.max(1, Math.min(limit, 50))));
+    }
+
+    @GetMapping("/{id}/blockers/trending")
+    public ResponseEntity<BlockerReportDTO> getTrendingBlockers(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "10") int limit,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        LocalDate weekDate = date != null ? date : LocalDate.now();
+        return ResponseEntity.ok(teamService.getTrendingBlockers(userEmail, id, weekDate, Math.max(1, Math.min(limit, 50))));
+    }
+}
@@ -0,0 +1,23 @@
+package com.ericsson.scrummate.controller;
+
+import com.ericsson.scrummate.dto.UserStatsDTO;
+import com.ericsson.scrummate.service.UserStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/stats")
+@CrossOrigin(origins = "*")
+public class UserStatsController {
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @GetMapping
+    public ResponseEntity<UserStatsDTO> getStats(Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(userStatsService.getStats(userEmail));
+    }
+}
@@ -1,16 +1,20 @@
 package com.ericsson.scrummate.controller;
 
 import com.ericsson.scrummate.entity.WeeklySummary;
+import com.ericsson.scrummate.service.SummaryPayloadService;
 import com.ericsson.scrummate.service.WeeklySummaryService;
+import com.fasterxml.jackson.databind.util.RawValue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/summaries/weekly")
@@ -20,14 +24,26 @@ public class WeeklySummaryController {
     @Autowired
     private WeeklySummaryService weeklySummaryService;
     
+    @Autowired
+    private SummaryPayloadService summaryPayloadService;
+    
     @GetMapping
-    public ResponseEntity<Page<WeeklySummary>> getWeeklySummaries(
+    public ResponseEntity<Page<RawValue>> getWeeklySummaries(
             Authentication authentication, Pageable pageable) {
         String userEmail = authentication.getName();
-        Page<WeeklySummary> summaries = weeklySummaryService.getWeeklySummaries(userEmail, pageable);
+        Page<RawValue> summaries = weeklySummaryService.getWeeklySummaries(userEmail, pageable);
         return ResponseEntity.ok(summaries);
     }
     
+    @GetMapping("/{id}")
+    public ResponseEntity<byte[]> getWeeklySummary(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        return summaryPayloadService.toResponse(weeklySummaryService.getWeeklySummary(userEmail, id), acceptEncoding);
+    }
+    
     @PostMapping("/generate")
     public ResponseEntity<WeeklySummary> generateWeeklySummary(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate weekStart,
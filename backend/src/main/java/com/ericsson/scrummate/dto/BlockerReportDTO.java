@@ -0,0 +1,35 @@
+package com.ericsson.scrummate.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public class BlockerReportDTO {
+    private UUID teamId;
+    private LocalDate weekStart;
+    private long entriesWithBlockers;
+    private List<BlockerTermDTO> terms;
+
+    // Constructors
+    public BlockerReportDTO() {}
+
+    public BlockerReportDTO(UUID teamId, LocalDate weekStart, long entriesWithBlockers, List<BlockerTermDTO> terms) {
+        this.teamId = teamId;
+        this.weekStart = weekStart;
+        this.entriesWithBlockers = entriesWithBlockers;
+        this.terms = terms;
+    }
+
+    // Getters and Setters
+    public UUID getTeamId() { return teamId; }
+    public void setTeamId(UUID teamId) { this.teamId = teamId; }
+
+    public LocalDate getWeekStart() { return weekStart; }
+    public void setWeekStart(LocalDate weekStart) { this.weekStart = weekStart; }
+
+    public long getEntriesWithBlockers() { return entriesWithBlockers; }
+    public void setEntriesWithBlockers(long entriesWithBlockers) { this.entriesWithBlockers = entriesWithBlockers; }
+
+    public List<BlockerTermDTO> getTerms() { return terms; }
+    public void setTerms(List<BlockerTermDTO> terms) { this.terms = terms; }
+}
@@ -0,0 +1,36 @@
+package com.ericsson.scrummate.dto;
+
+public class BlockerTermDTO {
+    private String term;
+    private long count;
+    private long error;
+    private Double baseline;
+    private Double score;
+
+    // Constructors
+    public BlockerTermDTO() {}
+
+    public BlockerTermDTO(String term, long count, long error, Double baseline, Double score) {
+        this.term = term;
+        this.count = count;
+        this.error = error;
+        this.baseline = baseline;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public String getTerm() { return term; }
+    public void setTerm(String term) { this.term = term; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public long getError() { return error; }
+    public void setError(long error) { this.error = error; }
+
+    public Double getBaseline() { return baseline; }
+    public void setBaseline(Double baseline) { this.baseline = baseline; }
+
+    public Double getScore() { return score; }
+    public void setScore(Double score) { this.score = score; }
+}
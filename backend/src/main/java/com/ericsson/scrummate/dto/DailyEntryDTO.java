@@ -17,6 +17,7 @@ public class DailyEntryDTO {
     private String blockers;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     // Constructors
     public DailyEntryDTO() {}
@@ -53,4 +54,7 @@ public class DailyEntryDTO {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,31 @@
+package com.ericsson.scrummate.dto;
+
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DashboardDTO {
+    private DailyEntryDTO todayEntry;
+    private List<DailyEntryDTO> recentEntries = new ArrayList<>();
+    private RawValue latestWeeklySummary;
+    private RawValue latestMonthlyReport;
+    // Parts that failed or timed out; their fields are left empty
+    private List<String> unavailable = new ArrayList<>();
+
+    // Getters and Setters
+    public DailyEntryDTO getTodayEntry() { return todayEntry; }
+    public void setTodayEntry(DailyEntryDTO todayEntry) { this.todayEntry = todayEntry; }
+
+    public List<DailyEntryDTO> getRecentEntries() { return recentEntries; }
+    public void setRecentEntries(List<DailyEntryDTO> recentEntries) { this.recentEntries = recentEntries; }
+
+    public RawValue getLatestWeeklySummary() { return latestWeeklySummary; }
+    public void setLatestWeeklySummary(RawValue latestWeeklySummary) { this.latestWeeklySummary = latestWeeklySummary; }
+
+    public RawValue getLatestMonthlyReport() { return latestMonthlyReport; }
+    public void setLatestMonthlyReport(RawValue latestMonthlyReport) { this.latestMonthlyReport = latestMonthlyReport; }
+
+    public List<String> getUnavailable() { return unavailable; }
+    public void setUnavailable(List<String> unavailable) { this.unavailable = unavailable; }
+}
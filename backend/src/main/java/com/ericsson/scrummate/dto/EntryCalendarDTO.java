@@ -0,0 +1,36 @@
+package com.ericsson.scrummate.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EntryCalendarDTO {
+    private int year;
+    private int days;
+    private int entryCount;
+    private String format;
+    // Bit n (byte n / 8, least significant bit first) is set when day-of-year n + 1 has an entry; 46 bytes
+    private String bitset;
+    // Alternating run lengths over the year's days, starting with days without an entry
+    private List<Integer> runs;
+
+    // Getters and Setters
+    public int getYear() { return year; }
+    public void setYear(int year) { this.year = year; }
+
+    public int getDays() { return days; }
+    public void setDays(int days) { this.days = days; }
+
+    public int getEntryCount() { return entryCount; }
+    public void setEntryCount(int entryCount) { this.entryCount = entryCount; }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public String getBitset() { return bitset; }
+    public void setBitset(String bitset) { this.bitset = bitset; }
+
+    public List<Integer> getRuns() { return runs; }
+    public void setRuns(List<Integer> runs) { this.runs = runs; }
+}
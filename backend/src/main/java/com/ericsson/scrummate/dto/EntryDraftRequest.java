@@ -0,0 +1,24 @@
+package com.ericsson.scrummate.dto;
+
+import jakarta.validation.constraints.Size;
+
+public class EntryDraftRequest {
+    // Autosave runs on every pause in typing, so the size of what it may buffer is capped
+    @Size(max = 10000)
+    private String yesterdayWork;
+
+    @Size(max = 10000)
+    private String todayPlan;
+
+    @Size(max = 10000)
+    private String blockers;
+
+    public String getYesterdayWork() { return yesterdayWork; }
+    public void setYesterdayWork(String yesterdayWork) { this.yesterdayWork = yesterdayWork; }
+
+    public String getTodayPlan() { return todayPlan; }
+    public void setTodayPlan(String todayPlan) { this.todayPlan = todayPlan; }
+
+    public String getBlockers() { return blockers; }
+    public void setBlockers(String blockers) { this.blockers = blockers; }
+}
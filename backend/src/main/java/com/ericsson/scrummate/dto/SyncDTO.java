@@ -0,0 +1,53 @@
+package com.ericsson.scrummate.dto;
+
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class SyncDTO {
+    private String cursor;
+    private boolean full;
+    private List<DailyEntryDTO> entries = new ArrayList<>();
+    private List<RawValue> weeklySummaries = new ArrayList<>();
+    private List<RawValue> monthlyReports = new ArrayList<>();
+    private List<Tombstone> deleted = new ArrayList<>();
+
+    // Getters and Setters
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+
+    public boolean isFull() { return full; }
+    public void setFull(boolean full) { this.full = full; }
+
+    public List<DailyEntryDTO> getEntries() { return entries; }
+    public void setEntries(List<DailyEntryDTO> entries) { this.entries = entries; }
+
+    public List<RawValue> getWeeklySummaries() { return weeklySummaries; }
+    public void setWeeklySummaries(List<RawValue> weeklySummaries) { this.weeklySummaries = weeklySummaries; }
+
+    public List<RawValue> getMonthlyReports() { return monthlyReports; }
+    public void setMonthlyReports(List<RawValue> monthlyReports) { this.monthlyReports = monthlyReports; }
+
+    public List<Tombstone> getDeleted() { return deleted; }
+    public void setDeleted(List<Tombstone> deleted) { this.deleted = deleted; }
+
+    public static class Tombstone {
+        private String type;
+        private UUID id;
+
+        public Tombstone() {}
+
+        public Tombstone(String type, UUID id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        public String getType() { return type; }
+        public void setType(String type) { this.type = type; }
+
+        public UUID getId() { return id; }
+        public void setId(UUID id) { this.id = id; }
+    }
+}
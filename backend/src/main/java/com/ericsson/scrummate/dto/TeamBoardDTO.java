@@ -0,0 +1,104 @@
+package com.ericsson.scrummate.dto;
+
+import com.ericsson.scrummate.entity.TeamMember;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class TeamBoardDTO {
+    private UUID teamId;
+    private String teamName;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int memberCount;
+    private int submittedCount;
+    private List<Member> members = new ArrayList<>();
+    private List<Blocker> blockers = new ArrayList<>();
+
+    // Getters and Setters
+    public UUID getTeamId() { return teamId; }
+    public void setTeamId(UUID teamId) { this.teamId = teamId; }
+
+    public String getTeamName() { return teamName; }
+    public void setTeamName(String teamName) { this.teamName = teamName; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public int getMemberCount() { return memberCount; }
+    public void setMemberCount(int memberCount) { this.memberCount = memberCount; }
+
+    public int getSubmittedCount() { return submittedCount; }
+    public void setSubmittedCount(int submittedCount) { this.submittedCount = submittedCount; }
+
+    public List<Member> getMembers() { return members; }
+    public void setMembers(List<Member> members) { this.members = members; }
+
+    public List<Blocker> getBlockers() { return blockers; }
+    public void setBlockers(List<Blocker> blockers) { this.blockers = blockers; }
+
+    public static class Member {
+        private UUID userId;
+        private String fullName;
+        private String email;
+        private TeamMember.Role role;
+        private List<DailyEntryDTO> entries = new ArrayList<>();
+
+        public Member() {}
+
+        public Member(UUID userId, String fullName, String email, TeamMember.Role role) {
+            this.userId = userId;
+            this.fullName = fullName;
+            this.email = email;
+            this.role = role;
+        }
+
+        public UUID getUserId() { return userId; }
+        public void setUserId(UUID userId) { this.userId = userId; }
+
+        public String getFullName() { return fullName; }
+        public void setFullName(String fullName) { this.fullName = fullName; }
+
+        public String getEmail() { return email; }
+        public void setEmail(String email) { this.email = email; }
+
+        public TeamMember.Role getRole() { return role; }
+        public void setRole(TeamMember.Role role) { this.role = role; }
+
+        public List<DailyEntryDTO> getEntries() { return entries; }
+        public void setEntries(List<DailyEntryDTO> entries) { this.entries = entries; }
+    }
+
+    public static class Blocker {
+        private UUID userId;
+        private String fullName;
+        private LocalDate entryDate;
+        private String blockers;
+
+        public Blocker() {}
+
+        public Blocker(UUID userId, String fullName, LocalDate entryDate, String blockers) {
+            this.userId = userId;
+            this.fullName = fullName;
+            this.entryDate = entryDate;
+            this.blockers = blockers;
+        }
+
+        public UUID getUserId() { return userId; }
+        public void setUserId(UUID userId) { this.userId = userId; }
+
+        public String getFullName() { return fullName; }
+        public void setFullName(String fullName) { this.fullName = fullName; }
+
+        public LocalDate getEntryDate() { return entryDate; }
+        public void setEntryDate(LocalDate entryDate) { this.entryDate = entryDate; }
+
+        public String getBlockers() { return blockers; }
+        public void setBlockers(String blockers) { this.blockers = blockers; }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ericsson.scrummate.dto;
+
+import com.ericsson.scrummate.entity.TeamMember;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class TeamDTO {
+    private UUID id;
+    private String name;
+    private TeamMember.Role role;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public TeamDTO() {}
+
+    public TeamDTO(UUID id, String name, TeamMember.Role role, LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.role = role;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public TeamMember.Role getRole() { return role; }
+    public void setRole(TeamMember.Role role) { this.role = role; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,52 @@
+package com.ericsson.scrummate.dto;
+
+import com.ericsson.scrummate.entity.TeamMember;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class TeamInvitationDTO {
+    private UUID id;
+    private UUID teamId;
+    private String teamName;
+    private String email;
+    private TeamMember.Role role;
+    private String invitedBy;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public TeamInvitationDTO() {}
+
+    public TeamInvitationDTO(UUID id, UUID teamId, String teamName, String email, TeamMember.Role role,
+                             String invitedBy, LocalDateTime createdAt) {
+        this.id = id;
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.email = email;
+        this.role = role;
+        this.invitedBy = invitedBy;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public UUID getTeamId() { return teamId; }
+    public void setTeamId(UUID teamId) { this.teamId = teamId; }
+
+    public String getTeamName() { return teamName; }
+    public void setTeamName(String teamName) { this.teamName = teamName; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public TeamMember.Role getRole() { return role; }
+    public void setRole(TeamMember.Role role) { this.role = role; }
+
+    public String getInvitedBy() { return invitedBy; }
+    public void setInvitedBy(String invitedBy) { this.invitedBy = invitedBy; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
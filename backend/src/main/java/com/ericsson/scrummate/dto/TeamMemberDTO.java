@@ -0,0 +1,41 @@
+package com.ericsson.scrummate.dto;
+
+import com.ericsson.scrummate.entity.TeamMember;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class TeamMemberDTO {
+    private UUID userId;
+    private String email;
+    private String fullName;
+    private TeamMember.Role role;
+    private LocalDateTime joinedAt;
+
+    // Constructors
+    public TeamMemberDTO() {}
+
+    public TeamMemberDTO(UUID userId, String email, String fullName, TeamMember.Role role, LocalDateTime joinedAt) {
+        this.userId = userId;
+        this.email = email;
+        this.fullName = fullName;
+        this.role = role;
+        this.joinedAt = joinedAt;
+    }
+
+    // Getters and Setters
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getFullName() { return fullName; }
+    public void setFullName(String fullName) { this.fullName = fullName; }
+
+    public TeamMember.Role getRole() { return role; }
+    public void setRole(TeamMember.Role role) { this.role = role; }
+
+    public LocalDateTime getJoinedAt() { return joinedAt; }
+    public void setJoinedAt(LocalDateTime joinedAt) { this.joinedAt = joinedAt; }
+}
@@ -0,0 +1,19 @@
+package com.ericsson.scrummate.dto;
+
+import com.ericsson.scrummate.entity.TeamMember;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+
+public class TeamMemberRequest {
+    @Email
+    @NotBlank
+    private String email;
+
+    private TeamMember.Role role = TeamMember.Role.MEMBER;
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public TeamMember.Role getRole() { return role; }
+    public void setRole(TeamMember.Role role) { this.role = role; }
+}
@@ -0,0 +1,13 @@
+package com.ericsson.scrummate.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class TeamRequest {
+    @NotBlank
+    @Size(max = 255)
+    private String name;
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+}
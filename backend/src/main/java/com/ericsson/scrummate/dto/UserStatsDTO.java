@@ -0,0 +1,30 @@
+package com.ericsson.scrummate.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class UserStatsDTO {
+    private int entryCount;
+    private int blockerDays;
+    private int currentStreak;
+    private LocalDate lastEntryDate;
+    // 'YYYY-MM' to entries logged in that month, oldest first
+    private Map<String, Integer> entriesPerMonth = new TreeMap<>();
+
+    // Getters and Setters
+    public int getEntryCount() { return entryCount; }
+    public void setEntryCount(int entryCount) { this.entryCount = entryCount; }
+
+    public int getBlockerDays() { return blockerDays; }
+    public void setBlockerDays(int blockerDays) { this.blockerDays = blockerDays; }
+
+    public int getCurrentStreak() { return currentStreak; }
+    public void setCurrentStreak(int currentStreak) { this.currentStreak = currentStreak; }
+
+    public LocalDate getLastEntryDate() { return lastEntryDate; }
+    public void setLastEntryDate(LocalDate lastEntryDate) { this.lastEntryDate = lastEntryDate; }
+
+    public Map<String, Integer> getEntriesPerMonth() { return entriesPerMonth; }
+    public void setEntriesPerMonth(Map<String, Integer> entriesPerMonth) { this.entriesPerMonth = entriesPerMonth; }
+}
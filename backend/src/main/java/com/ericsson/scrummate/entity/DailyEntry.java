@@ -2,6 +2,7 @@ package com.ericsson.scrummate.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -15,6 +16,7 @@ import java.util.UUID;
     @UniqueConstraint(columnNames = {"user_id", "entry_date"})
 })
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 public class DailyEntry {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -44,6 +46,10 @@ public class DailyEntry {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Constructors
     public DailyEntry() {}
 
@@ -79,4 +85,7 @@ public class DailyEntry {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,68 @@
+package com.ericsson.scrummate.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "team_invitations", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"team_id", "user_id"})
+})
+@EntityListeners(AuditingEntityListener.class)
+public class TeamInvitation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "team_id", nullable = false)
+    private Team team;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TeamMember.Role role = TeamMember.Role.MEMBER;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "invited_by")
+    private User invitedBy;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public TeamInvitation() {}
+
+    public TeamInvitation(Team team, User user, TeamMember.Role role, User invitedBy) {
+        this.team = team;
+        this.user = user;
+        this.role = role;
+        this.invitedBy = invitedBy;
+    }
+
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public Team getTeam() { return team; }
+    public void setTeam(Team team) { this.team = team; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public TeamMember.Role getRole() { return role; }
+    public void setRole(TeamMember.Role role) { this.role = role; }
+
+    public User getInvitedBy() { return invitedBy; }
+    public void setInvitedBy(User invitedBy) { this.invitedBy = invitedBy; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,64 @@
+package com.ericsson.scrummate.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "team_members", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"team_id", "user_id"})
+})
+@EntityListeners(AuditingEntityListener.class)
+public class TeamMember {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "team_id", nullable = false)
+    private Team team;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Role role = Role.MEMBER;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime joinedAt;
+
+    public enum Role {
+        MANAGER, MEMBER
+    }
+
+    // Constructors
+    public TeamMember() {}
+
+    public TeamMember(Team team, User user, Role role) {
+        this.team = team;
+        this.user = user;
+        this.role = role;
+    }
+
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public Team getTeam() { return team; }
+    public void setTeam(Team team) { this.team = team; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public Role getRole() { return role; }
+    public void setRole(Role role) { this.role = role; }
+
+    public LocalDateTime getJoinedAt() { return joinedAt; }
+    public void setJoinedAt(LocalDateTime joinedAt) { this.joinedAt = joinedAt; }
+}
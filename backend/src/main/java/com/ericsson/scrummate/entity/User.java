@@ -1,8 +1,13 @@
 package com.ericsson.scrummate.entity;
 
+import com.ericsson.scrummate.event.UserChangePublisher;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -12,7 +17,9 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "users")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, UserChangePublisher.class})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -20,6 +27,7 @@ public class User {
 
     @Email
     @NotBlank
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String email;
 
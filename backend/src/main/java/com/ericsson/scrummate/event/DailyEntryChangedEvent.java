@@ -0,0 +1,39 @@
+package com.ericsson.scrummate.event;
+
+import com.ericsson.scrummate.dto.DailyEntryDTO;
+
+import java.util.UUID;
+
+/**
+ * Published by DailyEntryService inside the writing transaction. Listeners that maintain
+ * derived tables use {@code @EventListener} so they commit or roll back with the entry.
+ */
+public class DailyEntryChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final UUID userId;
+    private final String userEmail;
+    private final DailyEntryDTO entry;
+    private final String previousBlockers;
+
+    public DailyEntryChangedEvent(Type type, UUID userId, String userEmail, DailyEntryDTO entry,
+                                  String previousBlockers) {
+        this.type = type;
+        this.userId = userId;
+        this.userEmail = userEmail;
+        this.entry = entry;
+        this.previousBlockers = previousBlockers;
+    }
+
+    public Type getType() { return type; }
+    public UUID getUserId() { return userId; }
+    public String getUserEmail() { return userEmail; }
+    public DailyEntryDTO getEntry() { return entry; }
+
+    /** Blockers before an update; null for created entries. For deletes it equals the entry's blockers. */
+    public String getPreviousBlockers() { return previousBlockers; }
+}
@@ -0,0 +1,25 @@
+package com.ericsson.scrummate.event;
+
+import java.util.UUID;
+
+/** Published when a weekly summary or monthly report has been generated for a user. */
+public class SummaryGeneratedEvent {
+
+    public enum Kind {
+        WEEKLY, MONTHLY
+    }
+
+    private final Kind kind;
+    private final UUID userId;
+    private final UUID summaryId;
+
+    public SummaryGeneratedEvent(Kind kind, UUID userId, UUID summaryId) {
+        this.kind = kind;
+        this.userId = userId;
+        this.summaryId = summaryId;
+    }
+
+    public Kind getKind() { return kind; }
+    public UUID getUserId() { return userId; }
+    public UUID getSummaryId() { return summaryId; }
+}
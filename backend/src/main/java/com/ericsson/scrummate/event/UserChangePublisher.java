@@ -0,0 +1,22 @@
+package com.ericsson.scrummate.event;
+
+import com.ericsson.scrummate.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/** Entity listener on {@link User} that turns every insert and update into a {@link UserChangedEvent}. */
+@Component
+public class UserChangePublisher {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void userChanged(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.ericsson.scrummate.event;
+
+import java.util.UUID;
+
+/** Published when a users row is inserted or updated through JPA, inside the writing transaction. */
+public class UserChangedEvent {
+
+    private final UUID userId;
+
+    public UserChangedEvent(UUID userId) {
+        this.userId = userId;
+    }
+
+    public UUID getUserId() { return userId; }
+}
@@ -0,0 +1,343 @@
+package com.ericsson.scrummate.export;
+
+import com.ericsson.scrummate.shard.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Exports entries, summaries and reports of all users as Parquet files for the analytics team,
+ * one file per table and month: {@code <directory>/<table>/month=2024-03/data.parquet}. Rows are
+ * streamed from every shard with a cursor and written a row group at a time (see
+ * {@link ParquetWriter}), so memory does not grow with the data.
+ *
+ * Runs are incremental. manifest.json keeps, per shard, the snapshot xmin of the last run. A run
+ * only looks at rows stamped with a newer transaction (see V13) and at deletes logged since then
+ * (see V22), both through an index, and writes those months again; the rest of the files are left
+ * as they are. The first run, a new shard, or a cursor older than the trimmed deletion log writes
+ * every month.
+ */
+@Service
+public class AnalyticsExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsExportService.class);
+
+    private static final String MANIFEST = "manifest.json";
+    private static final String DATA_FILE = "data.parquet";
+
+    // Drops the logged deletes below the cursor and moves the horizon in one statement
+    private static final String TRIM =
+            "WITH trimmed AS (DELETE FROM export_deletions WHERE change_xid < ?::xid8 RETURNING 1), " +
+            "horizon AS (UPDATE export_horizon SET purged_through = GREATEST(purged_through, ?::xid8) WHERE id = 1) " +
+            "SELECT COUNT(*) FROM trimmed";
+
+    private static final class Table {
+        private final String name;
+        private final String month;
+        private final String select;
+        private final List<ParquetWriter.Column> columns;
+
+        Table(String name, String month, String select, List<ParquetWriter.Column> columns) {
+            this.name = name;
+            this.month = month;
+            this.select = select;
+            this.columns = columns;
+        }
+    }
+
+    private static final List<Table> TABLES = List.of(
+            new Table("daily_entries", "date_trunc('month', entry_date)::date",
+                    "SELECT id, user_id, entry_date, yesterday_work, today_plan, blockers, created_at, updated_at, version " +
+                    "FROM daily_entries WHERE entry_date >= ? AND entry_date < ?",
+                    List.of(column("id", ParquetWriter.Type.STRING), column("user_id", ParquetWriter.Type.STRING),
+                            column("entry_date", ParquetWriter.Type.DATE), column("yesterday_work", ParquetWriter.Type.STRING),
+                            column("today_plan", ParquetWriter.Type.STRING), column("blockers", ParquetWriter.Type.STRING),
+                            column("created_at", ParquetWriter.Type.TIMESTAMP), column("updated_at", ParquetWriter.Type.TIMESTAMP),
+                            column("version", ParquetWriter.Type.INT64))),
+            new Table("weekly_summaries", "date_trunc('month', week_start)::date",
+                    "SELECT id, user_id, week_start, week_end, summary_text, generated_at " +
+                    "FROM weekly_summaries WHERE week_start >= ? AND week_start < ?",
+                    List.of(column("id", ParquetWriter.Type.STRING), column("user_id", ParquetWriter.Type.STRING),
+                            column("week_start", ParquetWriter.Type.DATE), column("week_end", ParquetWriter.Type.DATE),
+                            column("summary_text", ParquetWriter.Type.STRING),
+                            column("generated_at", ParquetWriter.Type.TIMESTAMP))),
+            new Table("monthly_reports", "make_date(year, month, 1)",
+                    "SELECT id, user_id, year, month, report_data::text, generated_at " +
+                    "FROM monthly_reports WHERE make_date(year, month, 1) >= ? AND make_date(year, month, 1) < ?",
+                    List.of(column("id", ParquetWriter.Type.STRING), column("user_id", ParquetWriter.Type.STRING),
+                            column("year", ParquetWriter.Type.INT32), column("month", ParquetWriter.Type.INT32),
+                            column("report_data", ParquetWriter.Type.STRING),
+                            column("generated_at", ParquetWriter.Type.TIMESTAMP))));
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${scrummate.export.enabled:false}")
+    private boolean enabled;
+
+    @Value("${scrummate.export.directory:./data/export}")
+    private String directory;
+
+    @Value("${scrummate.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${scrummate.export.row-group-rows:65536}")
+    private int rowGroupRows;
+
+    @Value("${scrummate.export.row-group-bytes:33554432}")
+    private long rowGroupBytes;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ExecutorService worker;
+
+    @PostConstruct
+    public void init() {
+        worker = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("export-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    // Runs on the export thread, so a long export never holds up the shared scheduler
+    @Scheduled(cron = "${scrummate.export.cron:0 0 1 * * *}")
+    public void scheduledExport() {
+        worker.execute(() -> {
+            try {
+                if (enabled) {
+                    export(false);
+                } else {
+                    // Nobody reads the deletion log, so keep it from growing; a later run writes everything
+                    for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                        trimDeletions(shard, snapshotXmin(shard));
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.error("Scheduled export failed", e);
+            }
+        });
+    }
+
+    /** Writes every month that changed since the last run, or every month when {@code full}. */
+    public Map<String, Object> export(boolean full) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Export already in progress");
+        }
+        try {
+            Path root = Paths.get(directory).toAbsolutePath();
+            Files.createDirectories(root);
+            Manifest previous = full ? new Manifest() : readManifest(root);
+            Manifest next = new Manifest();
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                // Taken before reading, so a transaction still running now is looked at again next time
+                next.cursors.put(shard, snapshotXmin(shard));
+            }
+            boolean everything = !previous.cursors.keySet().containsAll(next.cursors.keySet());
+            for (int shard = 0; shard < shardRouter.getShardCount() && !everything; shard++) {
+                everything = Boolean.TRUE.equals(shardRouter.jdbcTemplate(shard).queryForObject(
+                        "SELECT purged_through > ?::xid8 FROM export_horizon WHERE id = 1",
+                        Boolean.class, previous.cursors.get(shard)));
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("full", everything);
+            long startedAt = System.currentTimeMillis();
+            for (Table table : TABLES) {
+                report.put(table.name, exportTable(root, table, previous, next, everything));
+            }
+            next.exportedAt = LocalDateTime.now();
+            writeManifest(root, next);
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                trimDeletions(shard, next.cursors.get(shard));
+            }
+            report.put("durationMillis", System.currentTimeMillis() - startedAt);
+            return report;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, Object> exportTable(Path root, Table table, Manifest previous, Manifest next,
+                                            boolean everything) throws IOException {
+        Set<String> months = new TreeSet<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            JdbcTemplate jdbc = shardRouter.jdbcTemplate(shard);
+            RowCallbackHandler month = rs -> months.add(YearMonth.from(rs.getObject(1, LocalDate.class)).toString());
+            if (everything) {
+                jdbc.query("SELECT DISTINCT " + table.month + " FROM " + table.name, month);
+            } else {
+                String cursor = previous.cursors.get(shard);
+                jdbc.query("SELECT DISTINCT " + table.month + " FROM " + table.name + " WHERE change_xid >= ?::xid8 " +
+                        "UNION SELECT month FROM export_deletions WHERE table_name = ? AND change_xid >= ?::xid8",
+                        month, cursor, table.name, cursor);
+            }
+        }
+
+        ParquetWriter writer = new ParquetWriter(table.columns, rowGroupRows, rowGroupBytes);
+        int written = 0;
+        int removed = 0;
+        long rows = 0;
+        for (String month : months) {
+            long monthRows = writePartition(root, table, YearMonth.parse(month), writer);
+            if (monthRows > 0) {
+                rows += monthRows;
+                written++;
+            } else {
+                removed++;
+            }
+        }
+
+        // Months that no longer have any rows; an incremental run has already removed the ones it saw emptied
+        Path tableDirectory = root.resolve(table.name);
+        if (everything && Files.isDirectory(tableDirectory)) {
+            try (Stream<Path> partitions = Files.list(tableDirectory)) {
+                for (Path partition : partitions.toList()) {
+                    String name = partition.getFileName().toString();
+                    if (name.startsWith("month=") && !months.contains(name.substring("month=".length()))) {
+                        deletePartition(partition);
+                        removed++;
+                    }
+                }
+            }
+        }
+        logger.info("Exported {}: {} months written ({} rows), {} removed", table.name, written, rows, removed);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("monthsWritten", written);
+        result.put("monthsRemoved", removed);
+        result.put("rowsWritten", rows);
+        return result;
+    }
+
+    private long writePartition(Path root, Table table, YearMonth month, ParquetWriter writer) throws IOException {
+        Path partition = partition(root, table, month.toString());
+        Files.createDirectories(partition);
+        Path pending = partition.resolve(DATA_FILE + ".pending");
+        writer.start(pending);
+        try {
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                stream(shardRouter.dataSource(shard), table, month, writer);
+            }
+            long rows = writer.finish();
+            if (rows == 0) {
+                Files.delete(pending);
+                deletePartition(partition);
+            } else {
+                Files.move(pending, partition.resolve(DATA_FILE), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            return rows;
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            Files.deleteIfExists(pending);
+            throw e;
+        }
+    }
+
+    // PostgreSQL only streams with a cursor inside a transaction; otherwise the whole result is fetched at once
+    private void stream(DataSource dataSource, Table table, YearMonth month, ParquetWriter writer) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.setFetchSize(fetchSize);
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> jdbc.query(table.select, rs -> {
+            try {
+                writer.add(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, month.atDay(1), month.plusMonths(1).atDay(1)));
+    }
+
+    private String snapshotXmin(int shard) {
+        return shardRouter.jdbcTemplate(shard).queryForObject(
+                "SELECT pg_snapshot_xmin(pg_current_snapshot())::text", String.class);
+    }
+
+    private void trimDeletions(int shard, String cursor) {
+        Long trimmed = shardRouter.jdbcTemplate(shard).queryForObject(TRIM, Long.class, cursor, cursor);
+        logger.debug("Trimmed {} export deletions below {} on shard {}", trimmed, cursor, shard);
+    }
+
+    private static Path partition(Path root, Table table, String month) {
+        return root.resolve(table.name).resolve("month=" + month);
+    }
+
+    private static void deletePartition(Path partition) throws IOException {
+        if (!Files.isDirectory(partition)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(partition)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private Manifest readManifest(Path root) throws IOException {
+        Path path = root.resolve(MANIFEST);
+        return Files.exists(path) ? objectMapper.readValue(path.toFile(), Manifest.class) : new Manifest();
+    }
+
+    private void writeManifest(Path root, Manifest manifest) throws IOException {
+        Path pending = root.resolve(MANIFEST + ".pending");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(pending.toFile(), manifest);
+        Files.move(pending, root.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static ParquetWriter.Column column(String name, ParquetWriter.Type type) {
+        return new ParquetWriter.Column(name, type);
+    }
+
+    public static class Manifest {
+        private Map<Integer, String> cursors = new TreeMap<>();
+        private LocalDateTime exportedAt;
+
+        public Map<Integer, String> getCursors() { return cursors; }
+        public void setCursors(Map<Integer, String> cursors) { this.cursors = cursors; }
+
+        public LocalDateTime getExportedAt() { return exportedAt; }
+        public void setExportedAt(LocalDateTime exportedAt) { this.exportedAt = exportedAt; }
+    }
+}
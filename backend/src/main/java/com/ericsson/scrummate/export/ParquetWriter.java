@@ -0,0 +1,546 @@
+package com.ericsson.scrummate.export;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes flat tables as Parquet files, so BI tools read the export directly. Only what the
+ * export needs is supported: optional columns of strings, dates, timestamps and integers,
+ * PLAIN encoding and GZIP compression, one data page per column and row group.
+ *
+ * <pre>
+ * file        "PAR1", column chunks of each row group, footer, int footerLength, "PAR1"
+ * column      Thrift PageHeader, gzip( int levelsLength, RLE definition levels, PLAIN values )
+ * footer      Thrift FileMetaData (compact protocol)
+ * </pre>
+ *
+ * A writer is reused for every file of an export: rows are collected column by column in
+ * buffers that are cleared, not reallocated, after each row group, so memory stays at one row
+ * group however large the table is.
+ */
+public final class ParquetWriter {
+
+    public enum Type {
+        STRING, DATE, TIMESTAMP, INT32, INT64
+    }
+
+    public static final class Column {
+        private final String name;
+        private final Type type;
+
+        public Column(String name, Type type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        public String getName() { return name; }
+        public Type getType() { return type; }
+    }
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    // Parquet enum values, see parquet.thrift
+    private static final int INT32 = 1;
+    private static final int INT64 = 2;
+    private static final int BYTE_ARRAY = 6;
+    private static final int OPTIONAL = 1;
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int CONVERTED_DATE = 6;
+    private static final int PLAIN = 0;
+    private static final int RLE = 3;
+    private static final int GZIP = 2;
+    private static final int DATA_PAGE = 0;
+
+    private final List<Column> columns;
+    private final int rowGroupRows;
+    private final long rowGroupBytes;
+    private final ColumnBuffer[] buffers;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private final ByteBuilder page = new ByteBuilder(1 << 16);
+    private final ByteBuilder compressed = new ByteBuilder(1 << 16);
+    private final ThriftWriter thrift = new ThriftWriter();
+
+    private OutputStream out;
+    private long position;
+    private int rows;
+    private long fileRows;
+    // Per row group and column: {dataPageOffset, uncompressedSize, compressedSize, values}
+    private long[][][] chunks = new long[16][][];
+    private int[] chunkRows = new int[16];
+    private int rowGroups;
+
+    public ParquetWriter(List<Column> columns, int rowGroupRows, long rowGroupBytes) {
+        this.columns = List.copyOf(columns);
+        this.rowGroupRows = rowGroupRows;
+        this.rowGroupBytes = rowGroupBytes;
+        this.buffers = new ColumnBuffer[columns.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new ColumnBuffer(columns.get(i).type, rowGroupRows);
+        }
+    }
+
+    public void start(Path path) throws IOException {
+        out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16);
+        position = 0;
+        rows = 0;
+        fileRows = 0;
+        rowGroups = 0;
+        for (ColumnBuffer buffer : buffers) {
+            buffer.clear();
+        }
+        write(MAGIC, 0, MAGIC.length);
+    }
+
+    /** Adds the current row of the result set; its columns are read by position, in schema order. */
+    public void add(ResultSet rs) throws SQLException, IOException {
+        long bytes = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            ColumnBuffer buffer = buffers[i];
+            switch (buffer.type) {
+                case STRING -> {
+                    String value = rs.getString(i + 1);
+                    if (value == null) {
+                        buffer.addNull();
+                    } else {
+                        buffer.addBytes(value.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                case DATE -> {
+                    LocalDate value = rs.getObject(i + 1, LocalDate.class);
+                    if (value == null) {
+                        buffer.addNull();
+                    } else {
+                        buffer.addInt((int) value.toEpochDay());
+                    }
+                }
+                case TIMESTAMP -> {
+                    LocalDateTime value = rs.getObject(i + 1, LocalDateTime.class);
+                    if (value == null) {
+                        buffer.addNull();
+                    } else {
+                        buffer.addLong(value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000);
+                    }
+                }
+                case INT32 -> {
+                    int value = rs.getInt(i + 1);
+                    if (rs.wasNull()) {
+                        buffer.addNull();
+                    } else {
+                        buffer.addInt(value);
+                    }
+                }
+                case INT64 -> {
+                    long value = rs.getLong(i + 1);
+                    if (rs.wasNull()) {
+                        buffer.addNull();
+                    } else {
+                        buffer.addLong(value);
+                    }
+                }
+            }
+            bytes += buffer.values.length;
+        }
+        rows++;
+        if (rows >= rowGroupRows || bytes >= rowGroupBytes) {
+            flushRowGroup();
+        }
+    }
+
+    /** Writes the last row group and the footer. Returns the number of rows in the file. */
+    public long finish() throws IOException {
+        try {
+            if (rows > 0) {
+                flushRowGroup();
+            }
+            long footerStart = position;
+            writeFileMetaData();
+            write(thrift.bytes.data, 0, thrift.bytes.length);
+            int footerLength = (int) (position - footerStart);
+            byte[] trailer = {(byte) footerLength, (byte) (footerLength >>> 8), (byte) (footerLength >>> 16),
+                    (byte) (footerLength >>> 24), MAGIC[0], MAGIC[1], MAGIC[2], MAGIC[3]};
+            write(trailer, 0, trailer.length);
+            return fileRows;
+        } finally {
+            out.close();
+            out = null;
+        }
+    }
+
+    /** Closes the file without a footer, after a failure; the caller deletes it. */
+    public void abort() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // The partial file is discarded anyway
+            }
+            out = null;
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (rowGroups == chunks.length) {
+            chunks = Arrays.copyOf(chunks, rowGroups * 2);
+            chunkRows = Arrays.copyOf(chunkRows, rowGroups * 2);
+        }
+        long[][] group = new long[buffers.length][];
+        for (int i = 0; i < buffers.length; i++) {
+            group[i] = writeColumnChunk(buffers[i]);
+            buffers[i].clear();
+        }
+        chunks[rowGroups] = group;
+        chunkRows[rowGroups] = rows;
+        rowGroups++;
+        fileRows += rows;
+        rows = 0;
+    }
+
+    private long[] writeColumnChunk(ColumnBuffer buffer) throws IOException {
+        page.clear();
+        int levelsStart = page.length;
+        page.appendIntLE(0);
+        // Definition levels as RLE runs: bit width 1, so one byte per run value
+        int run = 0;
+        for (int r = 0; r < buffer.rows; r++) {
+            run++;
+            if (r + 1 == buffer.rows || buffer.defined[r + 1] != buffer.defined[r]) {
+                page.appendVarint((long) run << 1);
+                page.append(buffer.defined[r] ? 1 : 0);
+                run = 0;
+            }
+        }
+        page.putIntLE(levelsStart, page.length - levelsStart - 4);
+        page.append(buffer.values.data, 0, buffer.values.length);
+        gzip(page);
+
+        thrift.reset();
+        thrift.fieldI32(1, DATA_PAGE);
+        thrift.fieldI32(2, page.length);
+        thrift.fieldI32(3, compressed.length);
+        thrift.fieldStructBegin(5);
+        thrift.fieldI32(1, buffer.rows);
+        thrift.fieldI32(2, PLAIN);
+        thrift.fieldI32(3, RLE);
+        thrift.fieldI32(4, RLE);
+        thrift.structEnd();
+        thrift.structEnd();
+
+        long offset = position;
+        write(thrift.bytes.data, 0, thrift.bytes.length);
+        write(compressed.data, 0, compressed.length);
+        return new long[] {offset, thrift.bytes.length + page.length, thrift.bytes.length + compressed.length, buffer.rows};
+    }
+
+    // A complete gzip member, as the GZIP codec expects, with a deflater reused across pages
+    private void gzip(ByteBuilder source) {
+        compressed.clear();
+        compressed.append(new byte[] {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff}, 0, 10);
+        deflater.reset();
+        deflater.setInput(source.data, 0, source.length);
+        deflater.finish();
+        while (!deflater.finished()) {
+            compressed.ensure(compressed.length + 8192);
+            compressed.length += deflater.deflate(compressed.data, compressed.length, compressed.data.length - compressed.length);
+        }
+        crc.reset();
+        crc.update(source.data, 0, source.length);
+        compressed.appendIntLE((int) crc.getValue());
+        compressed.appendIntLE(source.length);
+    }
+
+    private void writeFileMetaData() {
+        thrift.reset();
+        thrift.fieldI32(1, 1);
+        thrift.fieldListBegin(2, ThriftWriter.STRUCT, columns.size() + 1);
+        thrift.structBegin();
+        thrift.fieldBinary(4, "schema");
+        thrift.fieldI32(5, columns.size());
+        thrift.structEnd();
+        for (Column column : columns) {
+            thrift.structBegin();
+            thrift.fieldI32(1, physicalType(column.type));
+            thrift.fieldI32(3, OPTIONAL);
+            thrift.fieldBinary(4, column.name);
+            if (column.type == Type.STRING) {
+                thrift.fieldI32(6, CONVERTED_UTF8);
+            } else if (column.type == Type.DATE) {
+                thrift.fieldI32(6, CONVERTED_DATE);
+            }
+            writeLogicalType(column.type);
+            thrift.structEnd();
+        }
+        thrift.fieldI64(3, fileRows);
+        thrift.fieldListBegin(4, ThriftWriter.STRUCT, rowGroups);
+        for (int g = 0; g < rowGroups; g++) {
+            thrift.structBegin();
+            thrift.fieldListBegin(1, ThriftWriter.STRUCT, columns.size());
+            long totalSize = 0;
+            for (int c = 0; c < columns.size(); c++) {
+                long[] chunk = chunks[g][c];
+                totalSize += chunk[1];
+                thrift.structBegin();
+                thrift.fieldI64(2, chunk[0]);
+                thrift.fieldStructBegin(3);
+                thrift.fieldI32(1, physicalType(columns.get(c).type));
+                thrift.fieldListBegin(2, ThriftWriter.I32, 2);
+                thrift.i32(PLAIN);
+                thrift.i32(RLE);
+                thrift.fieldListBegin(3, ThriftWriter.BINARY, 1);
+                thrift.binary(columns.get(c).name);
+                thrift.fieldI32(4, GZIP);
+                thrift.fieldI64(5, chunk[3]);
+                thrift.fieldI64(6, chunk[1]);
+                thrift.fieldI64(7, chunk[2]);
+                thrift.fieldI64(9, chunk[0]);
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            thrift.fieldI64(2, totalSize);
+            thrift.fieldI64(3, chunkRows[g]);
+            thrift.structEnd();
+        }
+        thrift.fieldBinary(6, "scrummate");
+        thrift.structEnd();
+    }
+
+    // Timestamps are the server's local wall-clock time, so they are written as not adjusted to UTC
+    private void writeLogicalType(Type type) {
+        switch (type) {
+            case STRING -> {
+                thrift.fieldStructBegin(10);
+                thrift.fieldStructBegin(1);
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            case DATE -> {
+                thrift.fieldStructBegin(10);
+                thrift.fieldStructBegin(6);
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            case TIMESTAMP -> {
+                thrift.fieldStructBegin(10);
+                thrift.fieldStructBegin(8);
+                thrift.fieldBool(1, false);
+                thrift.fieldStructBegin(2);
+                thrift.fieldStructBegin(2);
+                thrift.structEnd();
+                thrift.structEnd();
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            default -> {
+            }
+        }
+    }
+
+    private static int physicalType(Type type) {
+        return switch (type) {
+            case STRING -> BYTE_ARRAY;
+            case DATE, INT32 -> INT32;
+            case TIMESTAMP, INT64 -> INT64;
+        };
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        out.write(bytes, offset, length);
+        position += length;
+    }
+
+    private static final class ColumnBuffer {
+        private final Type type;
+        private boolean[] defined;
+        private final ByteBuilder values = new ByteBuilder(1 << 12);
+        private int rows;
+
+        ColumnBuffer(Type type, int capacity) {
+            this.type = type;
+            this.defined = new boolean[Math.min(capacity, 1 << 16)];
+        }
+
+        void clear() {
+            rows = 0;
+            values.clear();
+        }
+
+        void addNull() {
+            next(false);
+        }
+
+        void addInt(int value) {
+            next(true);
+            values.appendIntLE(value);
+        }
+
+        void addLong(long value) {
+            next(true);
+            values.appendIntLE((int) value);
+            values.appendIntLE((int) (value >>> 32));
+        }
+
+        void addBytes(byte[] value) {
+            next(true);
+            values.appendIntLE(value.length);
+            values.append(value, 0, value.length);
+        }
+
+        private void next(boolean isDefined) {
+            if (rows == defined.length) {
+                defined = Arrays.copyOf(defined, rows * 2);
+            }
+            defined[rows++] = isDefined;
+        }
+    }
+
+    private static final class ByteBuilder {
+        private byte[] data;
+        private int length;
+
+        ByteBuilder(int capacity) {
+            data = new byte[capacity];
+        }
+
+        void clear() {
+            length = 0;
+        }
+
+        void ensure(int capacity) {
+            if (capacity > data.length) {
+                data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+            }
+        }
+
+        void append(int b) {
+            ensure(length + 1);
+            data[length++] = (byte) b;
+        }
+
+        void append(byte[] bytes, int offset, int count) {
+            ensure(length + count);
+            System.arraycopy(bytes, offset, data, length, count);
+            length += count;
+        }
+
+        void appendIntLE(int value) {
+            ensure(length + 4);
+            putIntLE(length, value);
+            length += 4;
+        }
+
+        void putIntLE(int at, int value) {
+            data[at] = (byte) value;
+            data[at + 1] = (byte) (value >>> 8);
+            data[at + 2] = (byte) (value >>> 16);
+            data[at + 3] = (byte) (value >>> 24);
+        }
+
+        void appendVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                append((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            append((int) value);
+        }
+    }
+
+    /** Thrift compact protocol, just the parts the Parquet metadata uses. */
+    private static final class ThriftWriter {
+        static final int BOOLEAN_TRUE = 1;
+        static final int BOOLEAN_FALSE = 2;
+        static final int I32 = 5;
+        static final int I64 = 6;
+        static final int BINARY = 8;
+        static final int LIST = 9;
+        static final int STRUCT = 12;
+
+        private final ByteBuilder bytes = new ByteBuilder(1 << 12);
+        private final int[] lastFieldIds = new int[16];
+        private int depth;
+
+        void reset() {
+            bytes.clear();
+            depth = 0;
+            lastFieldIds[0] = 0;
+        }
+
+        void structBegin() {
+            lastFieldIds[++depth] = 0;
+        }
+
+        void structEnd() {
+            bytes.append(0);
+            if (depth > 0) {
+                depth--;
+            }
+        }
+
+        void fieldStructBegin(int id) {
+            fieldHeader(id, STRUCT);
+            structBegin();
+        }
+
+        void fieldI32(int id, int value) {
+            fieldHeader(id, I32);
+            i32(value);
+        }
+
+        void fieldI64(int id, long value) {
+            fieldHeader(id, I64);
+            bytes.appendVarint((value << 1) ^ (value >> 63));
+        }
+
+        void fieldBool(int id, boolean value) {
+            fieldHeader(id, value ? BOOLEAN_TRUE : BOOLEAN_FALSE);
+        }
+
+        void fieldBinary(int id, String value) {
+            fieldHeader(id, BINARY);
+            binary(value);
+        }
+
+        void fieldListBegin(int id, int elementType, int size) {
+            fieldHeader(id, LIST);
+            if (size < 15) {
+                bytes.append((size << 4) | elementType);
+            } else {
+                bytes.append(0xF0 | elementType);
+                bytes.appendVarint(size);
+            }
+        }
+
+        void i32(int value) {
+            bytes.appendVarint(((long) value << 1 ^ (value >> 31)) & 0xFFFFFFFFL);
+        }
+
+        void binary(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            bytes.appendVarint(utf8.length);
+            bytes.append(utf8, 0, utf8.length);
+        }
+
+        private void fieldHeader(int id, int type) {
+            int delta = id - lastFieldIds[depth];
+            if (delta > 0 && delta <= 15) {
+                bytes.append((delta << 4) | type);
+            } else {
+                bytes.append(type);
+                i32(id);
+            }
+            lastFieldIds[depth] = id;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.ericsson.scrummate.notification;
+
+import com.ericsson.scrummate.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers queued notifications. Each run claims due rows in batches and sends them on a fixed
+ * pool, so at most {@code concurrency} SMTP conversations are open per instance. Failures are
+ * retried with exponential backoff and jitter until {@code max-attempts}, then left as FAILED.
+ * Delivery is at-least-once: a crash between sending and marking a row sent resends it.
+ * Notifications are written on the shard of the change that caused them, so every run visits
+ * each shard's outbox in turn.
+ *
+ * Without spring.mail.host notifications are only logged.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    @Autowired
+    private NotificationOutbox outbox;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${spring.mail.host:}")
+    private String mailHost;
+
+    @Value("${scrummate.notifications.from:noreply@scrummate.local}")
+    private String from;
+
+    @Value("${scrummate.notifications.batch-size:50}")
+    private int batchSize;
+
+    @Value("${scrummate.notifications.concurrency:4}")
+    private int concurrency;
+
+    @Value("${scrummate.notifications.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${scrummate.notifications.backoff:30000}")
+    private long backoffMillis;
+
+    @Value("${scrummate.notifications.max-backoff:3600000}")
+    private long maxBackoffMillis;
+
+    @Value("${scrummate.notifications.lease:300000}")
+    private long leaseMillis;
+
+    @Value("${scrummate.notifications.retention-days:7}")
+    private int retentionDays;
+
+    private ExecutorService senders;
+    private ExecutorService poller;
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private Counter sentCounter;
+    private Counter retriedCounter;
+    private Counter failedCounter;
+    private Timer sendTimer;
+
+    @PostConstruct
+    public void init() {
+        senders = Executors.newFixedThreadPool(concurrency, new CustomizableThreadFactory("notification-sender-"));
+        poller = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("notification-poll-"));
+        sentCounter = Counter.builder("scrummate.notifications.sent").register(meterRegistry);
+        retriedCounter = Counter.builder("scrummate.notifications.retried").register(meterRegistry);
+        failedCounter = Counter.builder("scrummate.notifications.failed")
+                .description("Notifications given up on after max-attempts")
+                .register(meterRegistry);
+        sendTimer = Timer.builder("scrummate.notifications.send.duration")
+                .description("Time to hand one notification to the mail server")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Rows still being sent keep their lease and are picked up again after it runs out
+        poller.shutdown();
+        senders.shutdown();
+    }
+
+    // A round waits for the mail server, so it runs on its own thread rather than the shared
+    // scheduler; a tick that finds one still running is skipped
+    @Scheduled(initialDelayString = "${scrummate.notifications.poll-interval:5000}",
+               fixedDelayString = "${scrummate.notifications.poll-interval:5000}")
+    public void poll() {
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            poller.execute(() -> {
+                try {
+                    dispatch();
+                } catch (RuntimeException e) {
+                    logger.error("Notification dispatch failed", e);
+                } finally {
+                    polling.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            polling.set(false);
+            throw e;
+        }
+    }
+
+    private void dispatch() {
+        shardRouter.forEachShard(shard -> {
+            List<OutboxMessage> batch;
+            do {
+                batch = outbox.claim(batchSize, Duration.ofMillis(leaseMillis));
+                deliver(batch);
+            } while (batch.size() == batchSize && !senders.isShutdown());
+        });
+    }
+
+    @Scheduled(cron = "${scrummate.notifications.cleanup-cron:0 45 3 * * *}")
+    public void deleteSent() {
+        shardRouter.forEachShard(shard -> {
+            int deleted = outbox.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+            if (deleted > 0) {
+                logger.info("Deleted {} sent notifications older than {} days on shard {}", deleted, retentionDays, shard);
+            }
+        });
+    }
+
+    private void deliver(List<OutboxMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<CompletableFuture<Void>> sends = new ArrayList<>(batch.size());
+        List<UUID> sent = new ArrayList<>(batch.size());
+        Map<OutboxMessage, Throwable> failures = new LinkedHashMap<>();
+        for (OutboxMessage message : batch) {
+            sends.add(CompletableFuture.runAsync(() -> sendTimer.record(() -> send(message)), senders)
+                    .handle((ignored, error) -> {
+                        synchronized (sent) {
+                            if (error == null) {
+                                sent.add(message.getId());
+                            } else {
+                                failures.put(message, error.getCause() != null ? error.getCause() : error);
+                            }
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+        // Outcomes are recorded on this thread, which is on the shard the batch came from
+        if (!sent.isEmpty()) {
+            outbox.markSent(sent);
+            sentCounter.increment(sent.size());
+        }
+        failures.forEach(this::failed);
+    }
+
+    private void send(OutboxMessage message) {
+        if (!StringUtils.hasText(mailHost)) {
+            logger.info("Notification {} to {}: {}", message.getKind(), message.getRecipient(), message.getSubject());
+            logger.debug("Notification body: {}", message.getBody());
+            return;
+        }
+        SimpleMailMessage mail = new SimpleMailMessage();
+        mail.setFrom(from);
+        mail.setTo(message.getRecipient());
+        mail.setSubject(message.getSubject());
+        mail.setText(message.getBody());
+        mailSender.send(mail);
+    }
+
+    private void failed(OutboxMessage message, Throwable error) {
+        String reason = error.getClass().getSimpleName() + ": " + error.getMessage();
+        if (reason.length() > MAX_ERROR_LENGTH) {
+            reason = reason.substring(0, MAX_ERROR_LENGTH);
+        }
+        if (message.getAttempts() >= maxAttempts) {
+            logger.error("Giving up on notification {} to {} after {} attempts",
+                    message.getId(), message.getRecipient(), message.getAttempts(), error);
+            outbox.markFailed(message.getId(), reason);
+            failedCounter.increment();
+            return;
+        }
+        long backoff = Math.min(maxBackoffMillis, backoffMillis << Math.min(message.getAttempts() - 1, 20));
+        long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        logger.warn("Sending notification {} failed (attempt {}), retrying in {} ms: {}",
+                message.getId(), message.getAttempts(), jittered, reason);
+        outbox.reschedule(message.getId(), Duration.ofMillis(jittered), reason);
+        retriedCounter.increment();
+    }
+}
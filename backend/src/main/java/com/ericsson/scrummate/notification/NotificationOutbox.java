@@ -0,0 +1,68 @@
+package com.ericsson.scrummate.notification;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/** Access to the notification_outbox table. */
+@Component
+public class NotificationOutbox {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Queues a notification as part of the caller's transaction, so it is sent if and only if
+     * the change it announces commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String kind, String recipient, String subject, String body) {
+        jdbcTemplate.update("INSERT INTO notification_outbox (kind, recipient, subject, body) VALUES (?, ?, ?, ?)",
+                kind, recipient, subject, body);
+    }
+
+    /**
+     * Claims up to {@code limit} due notifications for this dispatcher. Rows locked by another
+     * instance are skipped, and claimed rows are leased for {@code lease} instead of staying
+     * locked while mail is sent.
+     */
+    public List<OutboxMessage> claim(int limit, Duration lease) {
+        return jdbcTemplate.query(
+                "UPDATE notification_outbox SET attempts = attempts + 1, " +
+                "next_attempt_at = LOCALTIMESTAMP + make_interval(secs => ?) " +
+                "WHERE id IN (SELECT id FROM notification_outbox WHERE status = 'PENDING' " +
+                "AND next_attempt_at <= LOCALTIMESTAMP ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                "RETURNING id, kind, recipient, subject, body, attempts",
+                (rs, rowNum) -> new OutboxMessage(rs.getObject("id", UUID.class), rs.getString("kind"),
+                        rs.getString("recipient"), rs.getString("subject"), rs.getString("body"), rs.getInt("attempts")),
+                lease.toSeconds(), limit);
+    }
+
+    public void markSent(List<UUID> ids) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE notification_outbox SET status = 'SENT', sent_at = LOCALTIMESTAMP, last_error = NULL WHERE id = ?",
+                ids, ids.size(), (ps, id) -> ps.setObject(1, id));
+    }
+
+    public void reschedule(UUID id, Duration delay, String error) {
+        jdbcTemplate.update("UPDATE notification_outbox SET next_attempt_at = LOCALTIMESTAMP + make_interval(secs => ?), " +
+                "last_error = ? WHERE id = ?", delay.toMillis() / 1000.0, error, id);
+    }
+
+    public void markFailed(UUID id, String error) {
+        jdbcTemplate.update("UPDATE notification_outbox SET status = 'FAILED', last_error = ? WHERE id = ?", error, id);
+    }
+
+    public int deleteSentBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM notification_outbox WHERE status = 'SENT' AND sent_at < ?",
+                Timestamp.valueOf(cutoff));
+    }
+}
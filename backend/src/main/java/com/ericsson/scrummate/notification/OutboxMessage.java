@@ -0,0 +1,28 @@
+package com.ericsson.scrummate.notification;
+
+import java.util.UUID;
+
+public class OutboxMessage {
+    private final UUID id;
+    private final String kind;
+    private final String recipient;
+    private final String subject;
+    private final String body;
+    private final int attempts;
+
+    public OutboxMessage(UUID id, String kind, String recipient, String subject, String body, int attempts) {
+        this.id = id;
+        this.kind = kind;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.attempts = attempts;
+    }
+
+    public UUID getId() { return id; }
+    public String getKind() { return kind; }
+    public String getRecipient() { return recipient; }
+    public String getSubject() { return subject; }
+    public String getBody() { return body; }
+    public int getAttempts() { return attempts; }
+}
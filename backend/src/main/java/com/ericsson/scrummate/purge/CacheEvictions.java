@@ -0,0 +1,125 @@
+package com.ericsson.scrummate.purge;
+
+import com.ericsson.scrummate.entity.User;
+import com.ericsson.scrummate.shard.ShardDirectory;
+import com.ericsson.scrummate.shard.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Evicts purged rows from the caches of every instance. Purges delete with plain SQL, behind
+ * Hibernate's back, so its second-level and query caches would otherwise keep serving the rows
+ * until they expire, hours later for summaries and reports.
+ *
+ * This instance evicts exactly the purged rows. The others are told with a Postgres NOTIFY on the
+ * directory, received by PostgresNotificationRelay, and evict the entity's whole region, as a
+ * chunk's ids would not fit in one notification. With {@code scrummate.events.relay} set to
+ * anything but postgres, or for a notification lost while the relay reconnects, other instances
+ * serve purged rows until the TTLs in ehcache.xml run out; the relay evicts everything when it
+ * reconnects to close that gap.
+ */
+@Component
+public class CacheEvictions {
+
+    public static final String CHANNEL = "scrummate_cache_evictions";
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheEvictions.class);
+
+    // Our own notifications come back through the relay; this instance has evicted already
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${scrummate.events.relay:postgres}")
+    private String relay;
+
+    /** Evicts deleted rows of a cached entity, and every cached query result with them. */
+    public void evictRows(Class<?> entity, List<UUID> ids) {
+        for (UUID id : ids) {
+            entityManagerFactory.getCache().evict(entity, id);
+        }
+        sessionFactory().getCache().evictQueryRegions();
+        publish("entity", entity.getName());
+    }
+
+    /** Evicts a deleted user, their email's natural-id mapping and their shard placement. */
+    public void evictUser(UUID userId) {
+        evictUserLocally(userId);
+        publish("user", userId.toString());
+    }
+
+    /** Applies an eviction published by another instance. */
+    public void apply(String payload) {
+        try {
+            Map<?, ?> message = objectMapper.readValue(payload, Map.class);
+            if (instanceId.equals(message.get("origin"))) {
+                return;
+            }
+            if (message.get("entity") != null) {
+                // Only mapped entities, whatever else shows up on the channel
+                for (EntityType<?> type : entityManagerFactory.getMetamodel().getEntities()) {
+                    if (type.getJavaType().getName().equals(message.get("entity"))) {
+                        entityManagerFactory.getCache().evict(type.getJavaType());
+                    }
+                }
+                sessionFactory().getCache().evictQueryRegions();
+            } else if (message.get("user") != null) {
+                evictUserLocally(UUID.fromString((String) message.get("user")));
+            }
+        } catch (Exception e) {
+            logger.warn("Ignoring malformed cache eviction {}", payload, e);
+        }
+    }
+
+    /** Drops everything this instance has cached, after evictions may have been missed. */
+    public void evictAll() {
+        sessionFactory().getCache().evictAllRegions();
+    }
+
+    private void evictUserLocally(UUID userId) {
+        shardDirectory.evict(userId);
+        entityManagerFactory.getCache().evict(User.class, userId);
+        sessionFactory().getCache().evictNaturalIdData(User.class);
+    }
+
+    private void publish(String kind, String value) {
+        if (!"postgres".equals(relay)) {
+            return;
+        }
+        Map<String, String> message = new LinkedHashMap<>();
+        message.put("origin", instanceId);
+        message.put(kind, value);
+        try {
+            shardRouter.directory().queryForList("SELECT pg_notify(?, ?)", CHANNEL,
+                    objectMapper.writeValueAsString(message));
+        } catch (Exception e) {
+            logger.warn("NOTIFY failed, other instances keep {} {} cached until it expires", kind, value, e);
+        }
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,488 @@
+package com.ericsson.scrummate.purge;
+
+import com.ericsson.scrummate.archive.ArchiveStore;
+import com.ericsson.scrummate.audit.AuditEvent;
+import com.ericsson.scrummate.audit.AuditLog;
+import com.ericsson.scrummate.config.ReplicaRoutingDataSource;
+import com.ericsson.scrummate.config.RequestLoadFilter;
+import com.ericsson.scrummate.entity.MonthlyReport;
+import com.ericsson.scrummate.entity.WeeklySummary;
+import com.ericsson.scrummate.shard.ShardContext;
+import com.ericsson.scrummate.shard.ShardDirectory;
+import com.ericsson.scrummate.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deletes an account's data, or rows older than their retention period, in small chunks with a
+ * pause between them instead of one cascading transaction. Each chunk is a single short
+ * statement that deletes up to {@code chunk-size} rows in key order, starting at the key the
+ * previous chunk ended on, so no chunk rescans what was already deleted. Between chunks the
+ * worker sleeps at least as long as the chunk took, and longer while many requests are in
+ * flight or the replicas fall behind.
+ *
+ * Jobs live in purge_jobs on the directory and are worked on one at a time by a single thread
+ * per instance. Progress is saved after every chunk, so a job whose instance went away is
+ * resumed from its last chunk once its lease runs out.
+ */
+@Service
+public class PurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurgeService.class);
+    private static final int MAX_ERROR_LENGTH = 2000;
+    private static final String MIN_DATE = "0001-01-01";
+    private static final String MIN_UUID = "00000000-0000-0000-0000-000000000000";
+
+    private static final String JOB_COLUMNS = "id, kind, user_id, resource, cutoff, requested_by, status, step, " +
+            "shard, cursor_key, deleted, attempts, last_error, created_at, updated_at, finished_at";
+
+    private static final RowMapper<PurgeJob> JOB_ROW_MAPPER = (rs, rowNum) -> {
+        PurgeJob job = new PurgeJob();
+        job.setId(rs.getLong("id"));
+        job.setKind(PurgeJob.Kind.valueOf(rs.getString("kind")));
+        job.setUserId(rs.getObject("user_id", UUID.class));
+        job.setResource(rs.getString("resource"));
+        job.setCutoff(rs.getObject("cutoff", LocalDate.class));
+        job.setRequestedBy(rs.getString("requested_by"));
+        job.setStatus(rs.getString("status"));
+        job.setStep(rs.getInt("step"));
+        job.setShard(rs.getInt("shard"));
+        job.setCursor(rs.getString("cursor_key"));
+        job.setDeleted(rs.getLong("deleted"));
+        job.setAttempts(rs.getInt("attempts"));
+        job.setLastError(rs.getString("last_error"));
+        job.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        job.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        job.setFinishedAt(rs.getObject("finished_at", LocalDateTime.class));
+        return job;
+    };
+
+    private enum Target {
+        USER_SHARD, DIRECTORY, EVERY_SHARD, ARCHIVE, ACCOUNT
+    }
+
+    private static final class Step {
+        private final String table;
+        private final Target target;
+        // Takes (job filter, cursor, chunk size) and returns id (for cache eviction) and the key k
+        private final String sql;
+        private final String initialCursor;
+        private final Class<?> cached;
+
+        Step(String table, Target target, String sql, String initialCursor, Class<?> cached) {
+            this.table = table;
+            this.target = target;
+            this.sql = sql;
+            this.initialCursor = initialCursor;
+            this.cached = cached;
+        }
+
+        static Step special(String name, Target target) {
+            return new Step(name, target, null, null, null);
+        }
+    }
+
+    // daily_entries is partitioned, so ctids are not unique across it and rows are matched on the key
+    private static final List<Step> ACCOUNT_STEPS = List.of(
+            new Step("daily_entries", Target.USER_SHARD,
+                    "DELETE FROM daily_entries d USING (SELECT id, entry_date FROM daily_entries WHERE user_id = ? " +
+                    "AND entry_date >= ?::date ORDER BY entry_date LIMIT ?) chunk " +
+                    "WHERE d.id = chunk.id AND d.entry_date = chunk.entry_date RETURNING NULL::uuid AS id, d.entry_date AS k",
+                    MIN_DATE, null),
+            new Step("weekly_summaries", Target.USER_SHARD,
+                    chunk("weekly_summaries", "user_id = ?", "id", "uuid", true), MIN_UUID, WeeklySummary.class),
+            new Step("monthly_reports", Target.USER_SHARD,
+                    chunk("monthly_reports", "user_id = ?", "id", "uuid", true), MIN_UUID, MonthlyReport.class),
+            new Step("entry_drafts", Target.USER_SHARD,
+                    chunk("entry_drafts", "user_id = ?", "entry_date", "date", false), MIN_DATE, null),
+            // Written by the delete triggers of the steps above
+            new Step("sync_tombstones", Target.USER_SHARD,
+                    chunk("sync_tombstones", "user_id = ?", "change_xid", "xid8", false), "0", null),
+            new Step("team_board_entries", Target.DIRECTORY,
+                    chunk("team_board_entries", "user_id = ?", "entry_date", "date", false), MIN_DATE, null),
+            Step.special("archive", Target.ARCHIVE),
+            Step.special("users", Target.ACCOUNT));
+
+    private static final Map<String, List<Step>> RETENTION_STEPS = Map.of(
+            "daily_entries", List.of(
+                    new Step("daily_entries", Target.EVERY_SHARD,
+                            "DELETE FROM daily_entries d USING (SELECT id, entry_date FROM daily_entries WHERE entry_date < ? " +
+                            "AND user_id >= ?::uuid ORDER BY user_id LIMIT ?) chunk " +
+                            "WHERE d.id = chunk.id AND d.entry_date = chunk.entry_date RETURNING NULL::uuid AS id, d.user_id AS k",
+                            MIN_UUID, null),
+                    new Step("team_board_entries", Target.DIRECTORY,
+                            chunk("team_board_entries", "entry_date < ?", "team_id", "uuid", false), MIN_UUID, null),
+                    Step.special("archive", Target.ARCHIVE)),
+            "weekly_summaries", List.of(
+                    new Step("weekly_summaries", Target.EVERY_SHARD,
+                            chunk("weekly_summaries", "week_start < ?", "week_start", "date", true), MIN_DATE, WeeklySummary.class)),
+            "monthly_reports", List.of(
+                    new Step("monthly_reports", Target.EVERY_SHARD,
+                            chunk("monthly_reports", "make_date(year, month, 1) < ?", "year", "int", true), "0", MonthlyReport.class)));
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ArchiveStore archiveStore;
+
+    @Autowired
+    private CacheEvictions cacheEvictions;
+
+    @Autowired
+    private RequestLoadFilter requestLoadFilter;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${scrummate.purge.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${scrummate.purge.pause:200}")
+    private long pauseMillis;
+
+    @Value("${scrummate.purge.max-in-flight:32}")
+    private int maxInFlight;
+
+    @Value("${scrummate.purge.max-replica-lag-seconds:2}")
+    private double maxReplicaLagSeconds;
+
+    @Value("${scrummate.purge.max-throttle:60000}")
+    private long maxThrottleMillis;
+
+    @Value("${scrummate.purge.lease:300000}")
+    private long leaseMillis;
+
+    @Value("${scrummate.purge.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${scrummate.purge.retention.enabled:false}")
+    private boolean retentionEnabled;
+
+    @Value("${scrummate.purge.retention.daily-entries:P7Y}")
+    private Period dailyEntriesRetention;
+
+    @Value("${scrummate.purge.retention.weekly-summaries:P10Y}")
+    private Period weeklySummariesRetention;
+
+    @Value("${scrummate.purge.retention.monthly-reports:P15Y}")
+    private Period monthlyReportsRetention;
+
+    private ExecutorService worker;
+    private final AtomicBoolean working = new AtomicBoolean();
+    private volatile boolean stopping;
+    private Timer chunkTimer;
+    private Counter throttledCounter;
+
+    @PostConstruct
+    public void init() {
+        worker = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("purge-"));
+        chunkTimer = Timer.builder("scrummate.purge.chunk.duration")
+                .description("One chunk of a purge, a single short delete")
+                .register(meterRegistry);
+        throttledCounter = Counter.builder("scrummate.purge.throttled")
+                .description("Pauses extended because of request load or replica lag")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // The current chunk finishes; the job is released and resumed by the next instance to poll
+        stopping = true;
+        worker.shutdown();
+    }
+
+    /** Queues the deletion of the user and everything they wrote. */
+    public PurgeJob purgeAccount(UUID userId, String requestedBy) {
+        JdbcTemplate directory = shardRouter.directory();
+        Long users = directory.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Long.class, userId);
+        if (users == null || users == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        List<PurgeJob> created = directory.query(
+                "INSERT INTO purge_jobs (kind, user_id, requested_by) VALUES ('ACCOUNT', ?, ?) " +
+                "ON CONFLICT (user_id) WHERE kind = 'ACCOUNT' AND status IN ('PENDING', 'RUNNING') DO NOTHING " +
+                "RETURNING " + JOB_COLUMNS, JOB_ROW_MAPPER, userId, requestedBy);
+        poll();
+        return created.isEmpty()
+                ? directory.queryForObject("SELECT " + JOB_COLUMNS + " FROM purge_jobs WHERE kind = 'ACCOUNT' " +
+                        "AND user_id = ? AND status IN ('PENDING', 'RUNNING')", JOB_ROW_MAPPER, userId)
+                : created.get(0);
+    }
+
+    /** Queues a job for every retained table that has none open. */
+    public List<PurgeJob> purgeExpired(String requestedBy) {
+        Map<String, Period> retention = new LinkedHashMap<>();
+        retention.put("daily_entries", dailyEntriesRetention);
+        retention.put("weekly_summaries", weeklySummariesRetention);
+        retention.put("monthly_reports", monthlyReportsRetention);
+        List<PurgeJob> created = new ArrayList<>();
+        retention.forEach((resource, period) -> created.addAll(shardRouter.directory().query(
+                "INSERT INTO purge_jobs (kind, resource, cutoff, requested_by) VALUES ('RETENTION', ?, ?, ?) " +
+                "ON CONFLICT (resource) WHERE kind = 'RETENTION' AND status IN ('PENDING', 'RUNNING') DO NOTHING " +
+                "RETURNING " + JOB_COLUMNS, JOB_ROW_MAPPER, resource, LocalDate.now().minus(period), requestedBy)));
+        poll();
+        return created;
+    }
+
+    public List<PurgeJob> recentJobs(int limit) {
+        return shardRouter.directory().query("SELECT " + JOB_COLUMNS + " FROM purge_jobs ORDER BY id DESC LIMIT ?",
+                JOB_ROW_MAPPER, limit);
+    }
+
+    @Scheduled(cron = "${scrummate.purge.retention.cron:0 0 5 * * *}")
+    public void scheduledRetention() {
+        if (retentionEnabled) {
+            purgeExpired("retention");
+        }
+    }
+
+    @Scheduled(initialDelayString = "${scrummate.purge.poll-interval:30000}",
+               fixedDelayString = "${scrummate.purge.poll-interval:30000}")
+    public void poll() {
+        if (stopping || !working.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            worker.execute(() -> {
+                try {
+                    PurgeJob job;
+                    while (!stopping && (job = claim()) != null) {
+                        run(job);
+                    }
+                } finally {
+                    working.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            working.set(false);
+            throw e;
+        }
+    }
+
+    private PurgeJob claim() {
+        List<PurgeJob> jobs = shardRouter.directory().query(
+                "UPDATE purge_jobs SET status = 'RUNNING', next_attempt_at = LOCALTIMESTAMP + make_interval(secs => ?), " +
+                "updated_at = LOCALTIMESTAMP WHERE id = (SELECT id FROM purge_jobs WHERE status IN ('PENDING', 'RUNNING') " +
+                "AND next_attempt_at <= LOCALTIMESTAMP ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED) RETURNING " + JOB_COLUMNS,
+                JOB_ROW_MAPPER, TimeUnit.MILLISECONDS.toSeconds(leaseMillis));
+        return jobs.isEmpty() ? null : jobs.get(0);
+    }
+
+    private void run(PurgeJob job) {
+        List<Step> steps = job.getKind() == PurgeJob.Kind.ACCOUNT ? ACCOUNT_STEPS : RETENTION_STEPS.get(job.getResource());
+        Object filter = job.getKind() == PurgeJob.Kind.ACCOUNT ? job.getUserId() : job.getCutoff();
+        logger.info("Purging {} {} from step {}", job.getKind(), filter, job.getStep());
+        try {
+            while (job.getStep() < steps.size()) {
+                if (stopping) {
+                    release(job);
+                    return;
+                }
+                Step step = steps.get(job.getStep());
+                switch (step.target) {
+                    case ARCHIVE -> {
+                        job.setDeleted(job.getDeleted() + purgeArchive(job));
+                        nextStep(job, steps);
+                    }
+                    case ACCOUNT -> {
+                        deleteAccount(job);
+                        nextStep(job, steps);
+                    }
+                    default -> {
+                        int shard = switch (step.target) {
+                            case USER_SHARD -> shardDirectory.shardOf(job.getUserId());
+                            case DIRECTORY -> ShardContext.DIRECTORY;
+                            default -> job.getShard();
+                        };
+                        long started = System.nanoTime();
+                        int deleted = deleteChunk(step, shard, filter, job);
+                        long took = System.nanoTime() - started;
+                        chunkTimer.record(took, TimeUnit.NANOSECONDS);
+                        meterRegistry.counter("scrummate.purge.deleted", "table", step.table).increment(deleted);
+                        if (deleted < chunkSize) {
+                            if (step.target == Target.EVERY_SHARD && job.getShard() + 1 < shardRouter.getShardCount()) {
+                                job.setShard(job.getShard() + 1);
+                                job.setCursor(null);
+                            } else {
+                                nextStep(job, steps);
+                            }
+                        }
+                        saveProgress(job);
+                        if (deleted > 0) {
+                            throttle(took);
+                        }
+                    }
+                }
+            }
+            shardRouter.directory().update("UPDATE purge_jobs SET status = 'DONE', finished_at = LOCALTIMESTAMP, " +
+                    "updated_at = LOCALTIMESTAMP, last_error = NULL WHERE id = ?", job.getId());
+            logger.info("Purged {} {}: {} rows", job.getKind(), filter, job.getDeleted());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(job);
+        } catch (RuntimeException e) {
+            failed(job, e);
+        }
+    }
+
+    /** Deletes one chunk and moves the job's cursor to where it ended. */
+    private int deleteChunk(Step step, int shard, Object filter, PurgeJob job) {
+        String cursor = job.getCursor() != null ? job.getCursor() : step.initialCursor;
+        List<Object[]> rows = shardRouter.jdbcTemplate(shard).query(
+                "WITH chunk AS (" + step.sql + ") SELECT id, (SELECT k::text FROM chunk ORDER BY k DESC LIMIT 1) AS last FROM chunk",
+                (rs, rowNum) -> new Object[] {rs.getObject("id", UUID.class), rs.getString("last")},
+                filter, cursor, chunkSize);
+        if (!rows.isEmpty()) {
+            job.setCursor((String) rows.get(0)[1]);
+            job.setDeleted(job.getDeleted() + rows.size());
+            if (step.cached != null) {
+                List<UUID> ids = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    ids.add((UUID) row[0]);
+                }
+                cacheEvictions.evictRows(step.cached, ids);
+            }
+        }
+        return rows.size();
+    }
+
+    private int purgeArchive(PurgeJob job) {
+        try {
+            if (job.getKind() == PurgeJob.Kind.ACCOUNT) {
+                return archiveStore.deleteUser(job.getUserId());
+            }
+            // Only whole years are archived, so a segment goes once its last day is past the cutoff
+            int deleted = 0;
+            for (ArchiveStore.SegmentFile segment : archiveStore.listSegments()) {
+                if (segment.getYear() < job.getCutoff().getYear()) {
+                    archiveStore.delete(segment.getUserId(), segment.getYear());
+                    deleted++;
+                }
+            }
+            return deleted;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // By now only the rows written while the purge ran are left for the cascade
+    private void deleteAccount(PurgeJob job) {
+        UUID userId = job.getUserId();
+        int shard = shardDirectory.shardOf(userId);
+        if (shard != ShardContext.DIRECTORY) {
+            shardRouter.jdbcTemplate(shard).update("DELETE FROM users WHERE id = ?", userId);
+        }
+        shardRouter.directory().update("DELETE FROM users WHERE id = ?", userId);
+        cacheEvictions.evictUser(userId);
+        auditLog.record(new AuditEvent(LocalDateTime.now(), job.getRequestedBy(), userId, "PURGED", "user", userId,
+                null, null, null, shard));
+    }
+
+    private void nextStep(PurgeJob job, List<Step> steps) {
+        job.setStep(job.getStep() + 1);
+        job.setShard(0);
+        job.setCursor(null);
+        if (job.getStep() < steps.size()) {
+            saveProgress(job);
+        }
+    }
+
+    // Also renews the lease
+    private void saveProgress(PurgeJob job) {
+        shardRouter.directory().update(
+                "UPDATE purge_jobs SET step = ?, shard = ?, cursor_key = ?, deleted = ?, attempts = 0, last_error = NULL, " +
+                "next_attempt_at = LOCALTIMESTAMP + make_interval(secs => ?), updated_at = LOCALTIMESTAMP WHERE id = ?",
+                job.getStep(), job.getShard(), job.getCursor(), job.getDeleted(),
+                TimeUnit.MILLISECONDS.toSeconds(leaseMillis), job.getId());
+    }
+
+    private void release(PurgeJob job) {
+        shardRouter.directory().update("UPDATE purge_jobs SET next_attempt_at = LOCALTIMESTAMP, " +
+                "updated_at = LOCALTIMESTAMP WHERE id = ?", job.getId());
+    }
+
+    private void failed(PurgeJob job, RuntimeException e) {
+        int attempts = job.getAttempts() + 1;
+        String error = e.getMessage() != null && e.getMessage().length() > MAX_ERROR_LENGTH
+                ? e.getMessage().substring(0, MAX_ERROR_LENGTH) : e.getMessage();
+        if (attempts >= maxAttempts) {
+            logger.error("Giving up purge job {} after {} attempts", job.getId(), attempts, e);
+            shardRouter.directory().update("UPDATE purge_jobs SET status = 'FAILED', attempts = ?, last_error = ?, " +
+                    "finished_at = LOCALTIMESTAMP, updated_at = LOCALTIMESTAMP WHERE id = ?", attempts, error, job.getId());
+            return;
+        }
+        long backoffSeconds = Math.min(3600, 30L << Math.min(attempts, 7));
+        logger.warn("Purge job {} failed at step {}, retrying in {}s", job.getId(), job.getStep(), backoffSeconds, e);
+        shardRouter.directory().update("UPDATE purge_jobs SET status = 'PENDING', attempts = ?, last_error = ?, " +
+                "next_attempt_at = LOCALTIMESTAMP + make_interval(secs => ?), updated_at = LOCALTIMESTAMP WHERE id = ?",
+                attempts, error, backoffSeconds, job.getId());
+    }
+
+    // Deletes at most half of the time, and backs off further while the application is busy
+    private void throttle(long chunkNanos) throws InterruptedException {
+        Thread.sleep(Math.max(pauseMillis, TimeUnit.NANOSECONDS.toMillis(chunkNanos)));
+        long waited = 0;
+        while (!stopping && waited < maxThrottleMillis && underPressure()) {
+            throttledCounter.increment();
+            Thread.sleep(pauseMillis);
+            waited += pauseMillis;
+        }
+    }
+
+    private boolean underPressure() {
+        if (requestLoadFilter.getInFlight() > maxInFlight) {
+            return true;
+        }
+        for (ReplicaRoutingDataSource.Replica replica : replicaRoutingDataSource.getReplicas()) {
+            if (replica.getLagSeconds() > maxReplicaLagSeconds) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String chunk(String table, String filter, String key, String keyType, boolean returnsId) {
+        return "DELETE FROM " + table + " WHERE ctid = ANY(ARRAY(SELECT ctid FROM " + table + " WHERE " + filter +
+                " AND " + key + " >= ?::" + keyType + " ORDER BY " + key + " LIMIT ?)) RETURNING " +
+                (returnsId ? "id" : "NULL::uuid AS id") + ", " + key + " AS k";
+    }
+}
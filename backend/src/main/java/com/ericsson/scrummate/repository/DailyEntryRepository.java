@@ -2,6 +2,7 @@ package com.ericsson.scrummate.repository;
 
 import com.ericsson.scrummate.entity.DailyEntry;
 import com.ericsson.scrummate.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -15,19 +16,46 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface DailyEntryRepository extends JpaRepository<DailyEntry, UUID> {
+public interface DailyEntryRepository extends JpaRepository<DailyEntry, UUID>, DailyEntryRepositoryCustom {
     Page<DailyEntry> findByUserOrderByEntryDateDesc(User user, Pageable pageable);
+
+    // Bounded variants of the two above: the planner skips partitions before fromDate
+    List<DailyEntry> findByUserAndEntryDateGreaterThanEqualOrderByEntryDateDesc(
+        User user, LocalDate fromDate, Pageable pageable);
+
+    List<DailyEntry> findByUserAndEntryDateGreaterThanEqualOrderByEntryDateDesc(
+        User user, LocalDate fromDate, Limit limit);
+
+    // No count query, unlike the Pageable variant
+    List<DailyEntry> findByUserOrderByEntryDateDesc(User user, Limit limit);
     
     Optional<DailyEntry> findByUserAndEntryDate(User user, LocalDate entryDate);
+
+    // findById with the partition key, so only that month's partition is probed
+    Optional<DailyEntry> findByIdAndEntryDate(UUID id, LocalDate entryDate);
     
     List<DailyEntry> findByUserAndEntryDateBetweenOrderByEntryDateAsc(
         User user, LocalDate startDate, LocalDate endDate);
     
+    Page<DailyEntry> findByUserAndEntryDateBetweenOrderByEntryDateDesc(
+        User user, LocalDate startDate, LocalDate endDate, Pageable pageable);
+
+    // Touches only (user_id, entry_date), so each partition in range can be read with an Index Only Scan
+    @Query("SELECT d.entryDate FROM DailyEntry d WHERE d.user = :user AND " +
+           "d.entryDate BETWEEN :startDate AND :endDate")
+    List<LocalDate> findEntryDates(@Param("user") User user,
+                                   @Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate);
+    
     @Query("SELECT d FROM DailyEntry d WHERE d.user = :user AND " +
+           "d.entryDate BETWEEN :startDate AND :endDate AND " +
            "(LOWER(d.yesterdayWork) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "LOWER(d.todayPlan) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(d.blockers) LIKE LOWER(CONCAT('%', :query, '%')))")
+           "LOWER(d.blockers) LIKE LOWER(CONCAT('%', :query, '%'))) " +
+           "ORDER BY d.entryDate DESC")
     Page<DailyEntry> searchByUserAndQuery(@Param("user") User user, 
                                          @Param("query") String query, 
+                                         @Param("startDate") LocalDate startDate,
+                                         @Param("endDate") LocalDate endDate,
                                          Pageable pageable);
 }
@@ -0,0 +1,28 @@
+package com.ericsson.scrummate.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface DailyEntryRepositoryCustom {
+    EntryUpsert upsert(EntryDraft draft);
+
+    /** Upserts all drafts in one statement; at most one draft per user and date. */
+    List<EntryUpsert> upsertAll(List<EntryDraft> drafts);
+
+    /**
+     * Stores autosave drafts in entry_drafts, skipping those whose entry no longer has their base
+     * version. Returns the number stored.
+     */
+    int saveDrafts(List<EntryDraft> drafts);
+
+    Optional<EntryDraft> findDraft(UUID userId, LocalDate entryDate);
+
+    void deleteDraft(UUID userId, LocalDate entryDate);
+
+    Optional<Long> findVersion(UUID userId, LocalDate entryDate);
+
+    /** Locks the entry's row for the rest of the transaction and returns its version. */
+    Optional<Long> lockVersion(UUID userId, LocalDate entryDate);
+}
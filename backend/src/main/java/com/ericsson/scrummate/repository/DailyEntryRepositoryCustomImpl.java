@@ -0,0 +1,153 @@
+package com.ericsson.scrummate.repository;
+
+import com.ericsson.scrummate.dto.DailyEntryDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public class DailyEntryRepositoryCustomImpl implements DailyEntryRepositoryCustom {
+
+    // One statement whether the rows exist or not, so a retried create costs the same as the
+    // first attempt and a batch of drafts is a single round trip. prev reads the pre-statement
+    // snapshot. A fresh row keeps the column default version 0 while the update branch bumps it;
+    // xmax would say the same but cannot be read through a partitioned table.
+    private static final String UPSERT =
+            "WITH input AS (" +
+            "  SELECT * FROM unnest(?::uuid[], ?::date[], ?::text[], ?::text[], ?::text[]) " +
+            "  AS t(user_id, entry_date, yesterday_work, today_plan, blockers)), " +
+            "prev AS (" +
+            "  SELECT d.user_id, d.entry_date, d.blockers FROM daily_entries d " +
+            "  JOIN input i ON i.user_id = d.user_id AND i.entry_date = d.entry_date) " +
+            "INSERT INTO daily_entries (id, user_id, entry_date, yesterday_work, today_plan, blockers, created_at, updated_at) " +
+            "SELECT gen_random_uuid(), user_id, entry_date, yesterday_work, today_plan, blockers, LOCALTIMESTAMP, LOCALTIMESTAMP " +
+            "FROM input " +
+            "ON CONFLICT (user_id, entry_date) DO UPDATE SET yesterday_work = EXCLUDED.yesterday_work, " +
+            "today_plan = EXCLUDED.today_plan, blockers = EXCLUDED.blockers, updated_at = EXCLUDED.updated_at, " +
+            "version = daily_entries.version + 1 " +
+            "RETURNING id, user_id, entry_date, yesterday_work, today_plan, blockers, created_at, updated_at, version, " +
+            "(version = 0) AS inserted, " +
+            "(SELECT p.blockers FROM prev p WHERE p.user_id = daily_entries.user_id " +
+            " AND p.entry_date = daily_entries.entry_date) AS previous_blockers";
+
+    // A draft is only stored while the entry still has the version it was typed over
+    private static final String SAVE_DRAFTS =
+            "WITH input AS (" +
+            "  SELECT * FROM unnest(?::uuid[], ?::date[], ?::text[], ?::text[], ?::text[], ?::bigint[]) " +
+            "  AS t(user_id, entry_date, yesterday_work, today_plan, blockers, base_version)) " +
+            "INSERT INTO entry_drafts (user_id, entry_date, yesterday_work, today_plan, blockers, base_version, updated_at) " +
+            "SELECT i.user_id, i.entry_date, i.yesterday_work, i.today_plan, i.blockers, i.base_version, LOCALTIMESTAMP " +
+            "FROM input i LEFT JOIN daily_entries d ON d.user_id = i.user_id AND d.entry_date = i.entry_date " +
+            "WHERE d.version IS NOT DISTINCT FROM i.base_version " +
+            "ON CONFLICT (user_id, entry_date) DO UPDATE SET yesterday_work = EXCLUDED.yesterday_work, " +
+            "today_plan = EXCLUDED.today_plan, blockers = EXCLUDED.blockers, base_version = EXCLUDED.base_version, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public EntryUpsert upsert(EntryDraft draft) {
+        return upsertAll(List.of(draft)).get(0);
+    }
+
+    @Override
+    public List<EntryUpsert> upsertAll(List<EntryDraft> drafts) {
+        if (drafts.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(connection -> prepare(connection, drafts, UPSERT), (rs, rowNum) -> {
+            DailyEntryDTO entry = new DailyEntryDTO(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("entry_date", LocalDate.class),
+                    rs.getString("yesterday_work"),
+                    rs.getString("today_plan"),
+                    rs.getString("blockers"),
+                    toLocalDateTime(rs.getTimestamp("created_at")),
+                    toLocalDateTime(rs.getTimestamp("updated_at")));
+            entry.setVersion(rs.getLong("version"));
+            return new EntryUpsert(rs.getObject("user_id", UUID.class), entry,
+                    rs.getBoolean("inserted"), rs.getString("previous_blockers"));
+        });
+    }
+
+    @Override
+    public int saveDrafts(List<EntryDraft> drafts) {
+        if (drafts.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = prepare(connection, drafts, SAVE_DRAFTS);
+            Object[] baseVersions = new Object[drafts.size()];
+            for (int i = 0; i < drafts.size(); i++) {
+                baseVersions[i] = drafts.get(i).getBaseVersion();
+            }
+            statement.setArray(6, connection.createArrayOf("bigint", baseVersions));
+            return statement;
+        });
+    }
+
+    @Override
+    public Optional<EntryDraft> findDraft(UUID userId, LocalDate entryDate) {
+        return jdbcTemplate.query(
+                "SELECT yesterday_work, today_plan, blockers, base_version FROM entry_drafts " +
+                "WHERE user_id = ? AND entry_date = ?",
+                (rs, rowNum) -> new EntryDraft(userId, null, entryDate, rs.getString("yesterday_work"),
+                        rs.getString("today_plan"), rs.getString("blockers"), rs.getObject("base_version", Long.class)),
+                userId, entryDate).stream().findFirst();
+    }
+
+    @Override
+    public void deleteDraft(UUID userId, LocalDate entryDate) {
+        jdbcTemplate.update("DELETE FROM entry_drafts WHERE user_id = ? AND entry_date = ?", userId, entryDate);
+    }
+
+    @Override
+    public Optional<Long> findVersion(UUID userId, LocalDate entryDate) {
+        return jdbcTemplate.queryForList("SELECT version FROM daily_entries WHERE user_id = ? AND entry_date = ?",
+                Long.class, userId, entryDate).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Long> lockVersion(UUID userId, LocalDate entryDate) {
+        return jdbcTemplate.queryForList("SELECT version FROM daily_entries WHERE user_id = ? AND entry_date = ? FOR UPDATE",
+                Long.class, userId, entryDate).stream().findFirst();
+    }
+
+    private static PreparedStatement prepare(Connection connection, List<EntryDraft> drafts, String sql) throws SQLException {
+        int size = drafts.size();
+        Object[] userIds = new Object[size];
+        Object[] dates = new Object[size];
+        Object[] yesterdayWork = new Object[size];
+        Object[] todayPlan = new Object[size];
+        Object[] blockers = new Object[size];
+        for (int i = 0; i < size; i++) {
+            EntryDraft draft = drafts.get(i);
+            userIds[i] = draft.getUserId();
+            dates[i] = Date.valueOf(draft.getEntryDate());
+            yesterdayWork[i] = draft.getYesterdayWork();
+            todayPlan[i] = draft.getTodayPlan();
+            blockers[i] = draft.getBlockers();
+        }
+        PreparedStatement statement = connection.prepareStatement(sql);
+        statement.setArray(1, connection.createArrayOf("uuid", userIds));
+        statement.setArray(2, connection.createArrayOf("date", dates));
+        statement.setArray(3, connection.createArrayOf("text", yesterdayWork));
+        statement.setArray(4, connection.createArrayOf("text", todayPlan));
+        statement.setArray(5, connection.createArrayOf("text", blockers));
+        return statement;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ericsson.scrummate.repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Content to write as a user's entry for a date. {@code baseVersion} is the version of the
+ * entry an autosave draft was typed over, or null when there was no entry.
+ */
+public class EntryDraft {
+    private final UUID userId;
+    private final String userEmail;
+    private final LocalDate entryDate;
+    private final String yesterdayWork;
+    private final String todayPlan;
+    private final String blockers;
+    private final Long baseVersion;
+
+    public EntryDraft(UUID userId, String userEmail, LocalDate entryDate,
+                      String yesterdayWork, String todayPlan, String blockers) {
+        this(userId, userEmail, entryDate, yesterdayWork, todayPlan, blockers, null);
+    }
+
+    public EntryDraft(UUID userId, String userEmail, LocalDate entryDate,
+                      String yesterdayWork, String todayPlan, String blockers, Long baseVersion) {
+        this.userId = userId;
+        this.userEmail = userEmail;
+        this.entryDate = entryDate;
+        this.yesterdayWork = yesterdayWork;
+        this.todayPlan = todayPlan;
+        this.blockers = blockers;
+        this.baseVersion = baseVersion;
+    }
+
+    public UUID getUserId() { return userId; }
+    public String getUserEmail() { return userEmail; }
+    public LocalDate getEntryDate() { return entryDate; }
+    public String getYesterdayWork() { return yesterdayWork; }
+    public String getTodayPlan() { return todayPlan; }
+    public String getBlockers() { return blockers; }
+    public Long getBaseVersion() { return baseVersion; }
+}
@@ -0,0 +1,25 @@
+package com.ericsson.scrummate.repository;
+
+import com.ericsson.scrummate.dto.DailyEntryDTO;
+
+import java.util.UUID;
+
+/** Outcome of an insert-or-update of a user's entry for a date. */
+public class EntryUpsert {
+    private final UUID userId;
+    private final DailyEntryDTO entry;
+    private final boolean inserted;
+    private final String previousBlockers;
+
+    public EntryUpsert(UUID userId, DailyEntryDTO entry, boolean inserted, String previousBlockers) {
+        this.userId = userId;
+        this.entry = entry;
+        this.inserted = inserted;
+        this.previousBlockers = previousBlockers;
+    }
+
+    public UUID getUserId() { return userId; }
+    public DailyEntryDTO getEntry() { return entry; }
+    public boolean isInserted() { return inserted; }
+    public String getPreviousBlockers() { return previousBlockers; }
+}
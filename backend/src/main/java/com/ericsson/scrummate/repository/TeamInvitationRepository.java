@@ -0,0 +1,22 @@
+package com.ericsson.scrummate.repository;
+
+import com.ericsson.scrummate.entity.Team;
+import com.ericsson.scrummate.entity.TeamInvitation;
+import com.ericsson.scrummate.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TeamInvitationRepository extends JpaRepository<TeamInvitation, UUID> {
+    @EntityGraph(attributePaths = {"team", "invitedBy"})
+    List<TeamInvitation> findByUser(User user);
+
+    @EntityGraph(attributePaths = {"user", "invitedBy"})
+    List<TeamInvitation> findByTeam(Team team);
+
+    boolean existsByTeamAndUser(Team team, User user);
+}
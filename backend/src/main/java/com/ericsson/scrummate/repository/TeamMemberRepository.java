@@ -0,0 +1,27 @@
+package com.ericsson.scrummate.repository;
+
+import com.ericsson.scrummate.entity.Team;
+import com.ericsson.scrummate.entity.TeamMember;
+import com.ericsson.scrummate.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TeamMemberRepository extends JpaRepository<TeamMember, UUID> {
+    @EntityGraph(attributePaths = "team")
+    List<TeamMember> findByUser(User user);
+
+    @EntityGraph(attributePaths = "user")
+    List<TeamMember> findByTeam(Team team);
+
+    Optional<TeamMember> findByTeamAndUser(Team team, User user);
+
+    boolean existsByTeamAndUser(Team team, User user);
+
+    long countByTeam(Team team);
+}
@@ -0,0 +1,11 @@
+package com.ericsson.scrummate.repository;
+
+import com.ericsson.scrummate.entity.Team;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface TeamRepository extends JpaRepository<Team, UUID> {
+}
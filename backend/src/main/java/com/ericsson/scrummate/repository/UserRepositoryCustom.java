@@ -0,0 +1,9 @@
+package com.ericsson.scrummate.repository;
+
+import com.ericsson.scrummate.entity.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    Optional<User> findByEmail(String email);
+}
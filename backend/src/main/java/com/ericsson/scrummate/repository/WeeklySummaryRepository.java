@@ -2,9 +2,10 @@ package com.ericsson.scrummate.repository;
 
 import com.ericsson.scrummate.entity.User;
 import com.ericsson.scrummate.entity.WeeklySummary;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -14,10 +15,9 @@ import java.util.UUID;
 
 @Repository
 public interface WeeklySummaryRepository extends JpaRepository<WeeklySummary, UUID> {
-    Page<WeeklySummary> findByUserOrderByWeekStartDesc(User user, Pageable pageable);
-    
     Optional<WeeklySummary> findByUserAndWeekStartAndWeekEnd(User user, LocalDate weekStart, LocalDate weekEnd);
     
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<WeeklySummary> findByUserAndWeekStartBetweenOrderByWeekStartAsc(
         User user, LocalDate startDate, LocalDate endDate);
 }
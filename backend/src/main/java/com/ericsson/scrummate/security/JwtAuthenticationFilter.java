@@ -16,6 +16,8 @@ import java.io.IOException;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String EVENT_STREAM_PATH = "/api/v1/events";
     
     @Autowired
     private JwtUtil jwtUtil;
@@ -26,12 +28,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
-        String authHeader = request.getHeader("Authorization");
+        String token = resolveToken(request);
         
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            
-            if (jwtUtil.isTokenValid(token)) {
+        if (token != null) {
+            if (isValid(request, token)) {
                 String email = jwtUtil.extractEmail(token);
                 UserDetails userDetails = userDetailsService.loadUserByUsername(email);
                 
@@ -44,4 +44,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+
+    // EventSource cannot set headers, so the event stream takes a short-lived ticket as a query
+    // parameter instead; the session token itself is never read from the URL
+    private String resolveToken(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        if (isEventStream(request)) {
+            return request.getParameter("ticket");
+        }
+        return null;
+    }
+
+    private boolean isValid(HttpServletRequest request, String token) {
+        if (isEventStream(request) && request.getHeader("Authorization") == null) {
+            return jwtUtil.isStreamTicketValid(token);
+        }
+        return jwtUtil.isTokenValid(token);
+    }
+
+    private static boolean isEventStream(HttpServletRequest request) {
+        return EVENT_STREAM_PATH.equals(request.getRequestURI());
+    }
 }
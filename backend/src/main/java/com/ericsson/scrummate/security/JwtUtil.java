@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Set;
 
 @Component
 public class JwtUtil {
@@ -16,6 +17,11 @@ public class JwtUtil {
     
     @Value("${spring.security.jwt.expiration}")
     private Long expiration;
+
+    private static final String STREAM_AUDIENCE = "event-stream";
+
+    @Value("${spring.security.jwt.stream-ticket-expiration:60000}")
+    private Long streamTicketExpiration;
     
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(secret.getBytes());
@@ -30,14 +36,37 @@ public class JwtUtil {
                 .compact();
     }
     
+    /**
+     * Short-lived token that only opens the event stream. EventSource cannot set headers, so
+     * it travels in the URL and ends up in access logs, unlike the session token.
+     */
+    public String generateStreamTicket(String email) {
+        return Jwts.builder()
+                .subject(email)
+                .audience().add(STREAM_AUDIENCE).and()
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + streamTicketExpiration))
+                .signWith(getSigningKey())
+                .compact();
+    }
+
     public String extractEmail(String token) {
         return extractClaims(token).getSubject();
     }
     
     public boolean isTokenValid(String token) {
         try {
-            extractClaims(token);
-            return true;
+            Set<String> audience = extractClaims(token).getAudience();
+            return audience == null || audience.isEmpty();
+        } catch (JwtException e) {
+            return false;
+        }
+    }
+
+    public boolean isStreamTicketValid(String token) {
+        try {
+            Set<String> audience = extractClaims(token).getAudience();
+            return audience != null && audience.contains(STREAM_AUDIENCE);
         } catch (JwtException e) {
             return false;
         }
@@ -6,10 +6,11 @@ import com.ericsson.scrummate.dto.RegisterRequest;
 import com.ericsson.scrummate.entity.User;
 import com.ericsson.scrummate.repository.UserRepository;
 import com.ericsson.scrummate.security.JwtUtil;
+import com.ericsson.scrummate.shard.ShardDirectory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class AuthService {
@@ -18,20 +19,29 @@ public class AuthService {
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
     
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+    
+    @Transactional
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
         
         User user = new User(request.getEmail(), 
-                           passwordEncoder.encode(request.getPassword()), 
+                           passwordHashingService.encode(request.getPassword()), 
                            request.getFullName());
-        userRepository.save(user);
+        userRepository.saveAndFlush(user);
+        shardDirectory.place(user);
+        emailService.sendWelcomeEmail(user.getEmail(), user.getFullName());
         
         String token = jwtUtil.generateToken(user.getEmail());
         return new AuthResponse(token, user.getEmail(), user.getFullName());
@@ -41,9 +51,10 @@ public class AuthService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
         
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPasswordHash())) {
             throw new BadCredentialsException("Invalid credentials");
         }
+        passwordHashingService.upgradeIfNeeded(user, request.getPassword());
         
         String token = jwtUtil.generateToken(user.getEmail());
         return new AuthResponse(token, user.getEmail(), user.getFullName());
@@ -0,0 +1,335 @@
+package com.ericsson.scrummate.service;
+
+import com.ericsson.scrummate.analytics.BlockerSketch;
+import com.ericsson.scrummate.analytics.BlockerTokenizer;
+import com.ericsson.scrummate.analytics.SpaceSaving;
+import com.ericsson.scrummate.dto.BlockerReportDTO;
+import com.ericsson.scrummate.dto.BlockerTermDTO;
+import com.ericsson.scrummate.event.DailyEntryChangedEvent;
+import com.ericsson.scrummate.shard.ShardRouter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming blocker analytics. Each write updates a fixed-size sketch per team and week in
+ * memory; instances merge their local deltas into blocker_sketches on a schedule, so reads
+ * never scan daily_entries and memory per team is bounded by the retained weeks.
+ */
+@Service
+public class BlockerAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlockerAnalyticsService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${scrummate.analytics.blockers.depth:4}")
+    private int depth;
+
+    @Value("${scrummate.analytics.blockers.width:1024}")
+    private int width;
+
+    @Value("${scrummate.analytics.blockers.top-k:64}")
+    private int topK;
+
+    @Value("${scrummate.analytics.blockers.weeks-retained:8}")
+    private int weeksRetained;
+
+    @Value("${scrummate.analytics.blockers.trend-weeks:3}")
+    private int trendWeeks;
+
+    @Value("${scrummate.analytics.blockers.max-slots:2048}")
+    private int maxSlots;
+
+    @Value("${scrummate.analytics.blockers.flush-interval:60000}")
+    private long flushInterval;
+
+    private final Map<SlotKey, Slot> slots = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("scrummate.analytics.blockers.slots", slots, Map::size)
+                .description("Team-week blocker sketches held in memory")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEntryChanged(DailyEntryChangedEvent event) {
+        LocalDate weekStart = weekStart(event.getEntry().getEntryDate());
+        if (weekStart.isBefore(oldestRetainedWeek())) {
+            return;
+        }
+        Set<String> before = BlockerTokenizer.terms(event.getPreviousBlockers());
+        Set<String> after = event.getType() == DailyEntryChangedEvent.Type.DELETED
+                ? Set.of() : BlockerTokenizer.terms(event.getEntry().getBlockers());
+        if (before.equals(after)) {
+            return;
+        }
+        List<UUID> teamIds = shardRouter.directory().queryForList(
+                "SELECT team_id FROM team_members WHERE user_id = ?", UUID.class, event.getUserId());
+        for (UUID teamId : teamIds) {
+            SlotKey key = new SlotKey(teamId, weekStart);
+            while (true) {
+                Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+                synchronized (slot) {
+                    if (slot.evicted) {
+                        continue;
+                    }
+                    if (slot.delta == null) {
+                        slot.delta = newSketch();
+                    }
+                    slot.delta.apply(before, after);
+                    break;
+                }
+            }
+        }
+    }
+
+    public BlockerReportDTO getTopBlockers(UUID teamId, LocalDate date, int limit) {
+        LocalDate weekStart = weekStart(date);
+        BlockerSketch sketch = view(teamId, weekStart);
+        List<BlockerTermDTO> terms = new ArrayList<>();
+        for (SpaceSaving.Counter counter : sketch.top(limit)) {
+            long count = estimate(sketch, counter);
+            if (count > 0) {
+                terms.add(new BlockerTermDTO(counter.getItem(), count, counter.getError(), null, null));
+            }
+        }
+        return new BlockerReportDTO(teamId, weekStart, sketch.getEntries(), terms);
+    }
+
+    /**
+     * Terms whose count this week stands out against their average over the preceding weeks.
+     * Candidates come from this week's heavy hitters; history comes from Count-Min estimates.
+     */
+    public BlockerReportDTO getTrendingBlockers(UUID teamId, LocalDate date, int limit) {
+        LocalDate weekStart = weekStart(date);
+        BlockerSketch current = view(teamId, weekStart);
+        List<BlockerSketch> history = new ArrayList<>();
+        for (int i = 1; i <= trendWeeks; i++) {
+            history.add(view(teamId, weekStart.minusWeeks(i)));
+        }
+
+        List<BlockerTermDTO> terms = new ArrayList<>();
+        for (SpaceSaving.Counter counter : current.top(topK)) {
+            long count = estimate(current, counter);
+            double baseline = history.stream().mapToInt(s -> s.estimate(counter.getItem())).average().orElse(0);
+            if (count < 2 || count <= baseline) {
+                continue;
+            }
+            double score = (count - baseline) / Math.sqrt(baseline + 1);
+            terms.add(new BlockerTermDTO(counter.getItem(), count, counter.getError(), baseline, score));
+        }
+        terms.sort(Comparator.comparing(BlockerTermDTO::getScore).reversed());
+        return new BlockerReportDTO(teamId, weekStart, current.getEntries(),
+                new ArrayList<>(terms.subList(0, Math.min(limit, terms.size()))));
+    }
+
+    @Scheduled(fixedDelayString = "${scrummate.analytics.blockers.flush-interval:60000}")
+    public void flush() {
+        LocalDate oldest = oldestRetainedWeek();
+        for (Map.Entry<SlotKey, Slot> entry : slots.entrySet()) {
+            if (entry.getKey().weekStart.isBefore(oldest)) {
+                slots.remove(entry.getKey());
+                continue;
+            }
+            Slot slot = entry.getValue();
+            BlockerSketch pending;
+            synchronized (slot) {
+                if (slot.delta == null) {
+                    continue;
+                }
+                pending = slot.delta;
+                slot.flushing = pending;
+                slot.delta = null;
+            }
+            try {
+                BlockerSketch merged = persist(entry.getKey(), pending);
+                synchronized (slot) {
+                    slot.base = merged;
+                    slot.baseLoadedAt = System.currentTimeMillis();
+                    slot.flushing = null;
+                }
+            } catch (DataIntegrityViolationException e) {
+                // The team was deleted since the write
+                slots.remove(entry.getKey());
+            } catch (Exception e) {
+                logger.error("Could not persist blocker sketch for team {} week {}", entry.getKey().teamId,
+                        entry.getKey().weekStart, e);
+                synchronized (slot) {
+                    if (slot.delta == null) {
+                        slot.delta = newSketch();
+                    }
+                    slot.delta.merge(pending);
+                    slot.flushing = null;
+                }
+            }
+        }
+        evictClean();
+        jdbcTemplate.update("DELETE FROM blocker_sketches WHERE week_start < ?", oldest);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private BlockerSketch persist(SlotKey key, BlockerSketch pending) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            List<byte[]> existing = jdbcTemplate.query(
+                    "SELECT payload FROM blocker_sketches WHERE team_id = ? AND week_start = ? FOR UPDATE",
+                    (rs, rowNum) -> rs.getBytes("payload"), key.teamId, key.weekStart);
+            BlockerSketch merged = existing.isEmpty() ? newSketch() : BlockerSketch.fromBytes(existing.get(0));
+            merged.merge(pending);
+            jdbcTemplate.update(
+                    "INSERT INTO blocker_sketches (team_id, week_start, entry_count, payload, updated_at) " +
+                    "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP) ON CONFLICT (team_id, week_start) DO UPDATE SET " +
+                    "entry_count = EXCLUDED.entry_count, payload = EXCLUDED.payload, updated_at = EXCLUDED.updated_at",
+                    key.teamId, key.weekStart, merged.getEntries(), merged.toBytes());
+            return merged;
+        });
+    }
+
+    // Persisted state plus whatever this instance has not flushed yet; other instances' unflushed
+    // writes show up after their next flush
+    private BlockerSketch view(UUID teamId, LocalDate weekStart) {
+        Slot slot = slots.computeIfAbsent(new SlotKey(teamId, weekStart), key -> new Slot());
+        boolean stale;
+        synchronized (slot) {
+            stale = slot.base == null || System.currentTimeMillis() - slot.baseLoadedAt > flushInterval;
+        }
+        if (stale) {
+            long requestedAt = System.currentTimeMillis();
+            List<byte[]> persisted = jdbcTemplate.query(
+                    "SELECT payload FROM blocker_sketches WHERE team_id = ? AND week_start = ?",
+                    (rs, rowNum) -> rs.getBytes("payload"), teamId, weekStart);
+            BlockerSketch base = persisted.isEmpty() ? newSketch() : BlockerSketch.fromBytes(persisted.get(0));
+            synchronized (slot) {
+                // A flush running or finished meanwhile holds a newer copy
+                if (slot.base == null || (slot.flushing == null && slot.baseLoadedAt < requestedAt)) {
+                    slot.base = base;
+                    slot.baseLoadedAt = System.currentTimeMillis();
+                }
+            }
+        }
+        synchronized (slot) {
+            slot.lastAccess = System.currentTimeMillis();
+            BlockerSketch view = slot.base.copy();
+            if (slot.delta != null) {
+                view.merge(slot.delta);
+            }
+            if (slot.flushing != null) {
+                view.merge(slot.flushing);
+            }
+            return view;
+        }
+    }
+
+    // Least recently read slots without unflushed writes go first; they reload from the table
+    private void evictClean() {
+        int excess = slots.size() - maxSlots;
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<SlotKey, Slot>> candidates = new ArrayList<>(slots.entrySet());
+        candidates.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        for (Map.Entry<SlotKey, Slot> candidate : candidates) {
+            if (excess <= 0) {
+                break;
+            }
+            Slot slot = candidate.getValue();
+            synchronized (slot) {
+                if (slot.delta != null || slot.flushing != null) {
+                    continue;
+                }
+                slot.evicted = true;
+            }
+            slots.remove(candidate.getKey(), slot);
+            excess--;
+        }
+    }
+
+    // Both structures only overestimate, so the smaller of the two is the tighter bound
+    private static long estimate(BlockerSketch sketch, SpaceSaving.Counter counter) {
+        return Math.min(counter.getCount(), sketch.estimate(counter.getItem()));
+    }
+
+    private BlockerSketch newSketch() {
+        return new BlockerSketch(depth, width, topK);
+    }
+
+    private LocalDate oldestRetainedWeek() {
+        return weekStart(LocalDate.now()).minusWeeks(weeksRetained - 1L);
+    }
+
+    private static LocalDate weekStart(LocalDate date) {
+        return date.with(DayOfWeek.MONDAY);
+    }
+
+    private final class Slot {
+        private BlockerSketch base;
+        private long baseLoadedAt;
+        private BlockerSketch delta;
+        private BlockerSketch flushing;
+        private boolean evicted;
+        private volatile long lastAccess = System.currentTimeMillis();
+    }
+
+    private static final class SlotKey {
+        private final UUID teamId;
+        private final LocalDate weekStart;
+
+        SlotKey(UUID teamId, LocalDate weekStart) {
+            this.teamId = teamId;
+            this.weekStart = weekStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SlotKey)) return false;
+            SlotKey other = (SlotKey) o;
+            return teamId.equals(other.teamId) && weekStart.equals(other.weekStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(teamId, weekStart);
+        }
+    }
+}
@@ -1,89 +1,372 @@
 package com.ericsson.scrummate.service;
 
 import com.ericsson.scrummate.dto.DailyEntryDTO;
+import com.ericsson.scrummate.dto.EntryCalendarDTO;
 import com.ericsson.scrummate.entity.DailyEntry;
 import com.ericsson.scrummate.entity.User;
+import com.ericsson.scrummate.event.DailyEntryChangedEvent;
 import com.ericsson.scrummate.repository.DailyEntryRepository;
+import com.ericsson.scrummate.repository.EntryDraft;
+import com.ericsson.scrummate.repository.EntryUpsert;
 import com.ericsson.scrummate.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
 @Transactional
 public class DailyEntryService {
 
+    private static final int MAX_DAYS_IN_YEAR = 366;
+
     @Autowired
     private DailyEntryRepository dailyEntryRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntryArchiveService entryArchiveService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private DraftBuffer draftBuffer;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Transactional(readOnly = true)
     public Page<DailyEntryDTO> getEntriesByUser(String userEmail, Pageable pageable) {
         User user = getUserByEmail(userEmail);
-        return dailyEntryRepository.findByUserOrderByEntryDateDesc(user, pageable)
-                .map(this::convertToDTO);
+        return entryArchiveService.withArchived(pageable, user.getId(), null, null,
+                page -> newestEntries(user, page).map(this::convertToDTO));
     }
 
-    public DailyEntryDTO createEntry(String userEmail, DailyEntryDTO entryDTO) {
+    @Transactional(readOnly = true)
+    public DailyEntryDTO findEntry(User user, LocalDate date) {
+        return dailyEntryRepository.findByUserAndEntryDate(user, date).map(this::convertToDTO).orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailyEntryDTO> getRecentEntries(User user, int limit) {
+        LocalDate from = windowStart(userStatsService.getMonthlyCounts(user.getId()), limit);
+        List<DailyEntry> recent = from == null ? List.of()
+                : dailyEntryRepository.findByUserAndEntryDateGreaterThanEqualOrderByEntryDateDesc(user, from, Limit.of(limit));
+        if (recent.size() < limit) {
+            recent = dailyEntryRepository.findByUserOrderByEntryDateDesc(user, Limit.of(limit));
+        }
+        return recent.stream()
+                .map(this::convertToDTO)
+                .toList();
+    }
+
+    /**
+     * Creates the entry for the date, or overwrites it when one already exists, in a single
+     * statement, so a retried create returns the same entry instead of a key violation.
+     */
+    public EntryUpsert createEntry(String userEmail, DailyEntryDTO entryDTO) {
         User user = getUserByEmail(userEmail);
-        DailyEntry entry = new DailyEntry(user, entryDTO.getEntryDate(), 
-                entryDTO.getYesterdayWork(), entryDTO.getTodayPlan(), entryDTO.getBlockers());
-        DailyEntry savedEntry = dailyEntryRepository.save(entry);
-        return convertToDTO(savedEntry);
+        if (entryArchiveService.isArchived(user.getId(), entryDTO.getEntryDate())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "An archived entry exists for this date");
+        }
+        discardDraft(user, entryDTO.getEntryDate());
+        EntryUpsert result = dailyEntryRepository.upsert(new EntryDraft(user.getId(), user.getEmail(),
+                entryDTO.getEntryDate(), entryDTO.getYesterdayWork(), entryDTO.getTodayPlan(), entryDTO.getBlockers()));
+        publish(result, user.getEmail());
+        return result;
     }
 
-    public DailyEntryDTO getEntryById(String userEmail, UUID id) {
+    /**
+     * Turns an autosave draft into the entry. Fails with 409 when the entry changed since the
+     * draft was started, so a stale draft cannot overwrite a newer submission.
+     */
+    public EntryUpsert submitDraft(EntryDraft draft) {
+        if (entryArchiveService.isArchived(draft.getUserId(), draft.getEntryDate())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Archived entries are read-only");
+        }
+        Long currentVersion = dailyEntryRepository.lockVersion(draft.getUserId(), draft.getEntryDate()).orElse(null);
+        if (!Objects.equals(currentVersion, draft.getBaseVersion())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The entry has changed since the draft was started");
+        }
+        EntryUpsert result = dailyEntryRepository.upsert(draft);
+        if (draft.getBaseVersion() == null && !result.isInserted()) {
+            // Created concurrently by another request after the lock found no row
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The entry has changed since the draft was started");
+        }
+        dailyEntryRepository.deleteDraft(draft.getUserId(), draft.getEntryDate());
+        publish(result, draft.getUserEmail());
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public DailyEntryDTO getEntryById(String userEmail, UUID id, LocalDate entryDate) {
         User user = getUserByEmail(userEmail);
-        DailyEntry entry = dailyEntryRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Entry not found"));
+        DailyEntry entry = findLiveEntry(id, entryDate).orElse(null);
+        if (entry == null) {
+            return entryArchiveService.findById(user.getId(), id)
+                    .orElseThrow(() -> new RuntimeException("Entry not found"));
+        }
         if (!entry.getUser().equals(user)) {
             throw new RuntimeException("Access denied");
         }
         return convertToDTO(entry);
     }
 
-    public DailyEntryDTO updateEntry(String userEmail, UUID id, DailyEntryDTO entryDTO) {
+    public DailyEntryDTO updateEntry(String userEmail, UUID id, DailyEntryDTO entryDTO, Long expectedVersion) {
         User user = getUserByEmail(userEmail);
-        DailyEntry entry = dailyEntryRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Entry not found"));
+        DailyEntry entry = findWritableEntry(user, id, entryDTO.getEntryDate());
         if (!entry.getUser().equals(user)) {
             throw new RuntimeException("Access denied");
         }
+        checkVersion(entry, expectedVersion);
         
+        discardDraft(user, entry.getEntryDate());
+        String previousBlockers = entry.getBlockers();
         entry.setYesterdayWork(entryDTO.getYesterdayWork());
         entry.setTodayPlan(entryDTO.getTodayPlan());
         entry.setBlockers(entryDTO.getBlockers());
         
-        DailyEntry savedEntry = dailyEntryRepository.save(entry);
-        return convertToDTO(savedEntry);
+        DailyEntry savedEntry = saveVersioned(entry);
+        return publish(DailyEntryChangedEvent.Type.UPDATED, user, convertToDTO(savedEntry), previousBlockers);
     }
 
-    public void deleteEntry(String userEmail, UUID id) {
+    /**
+     * Applies a JSON Merge Patch (RFC 7396) to the text fields of an entry. Only columns whose
+     * value actually changes end up in the UPDATE, and a patch that changes nothing writes nothing.
+     */
+    public DailyEntryDTO patchEntry(String userEmail, UUID id, JsonNode patch, Long expectedVersion,
+                                    LocalDate entryDate) {
+        if (patch == null || !patch.isObject()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Merge patch must be a JSON object");
+        }
         User user = getUserByEmail(userEmail);
-        DailyEntry entry = dailyEntryRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Entry not found"));
+        DailyEntry entry = findWritableEntry(user, id, entryDate);
         if (!entry.getUser().equals(user)) {
             throw new RuntimeException("Access denied");
         }
+        checkVersion(entry, expectedVersion);
+
+        String previousBlockers = entry.getBlockers();
+        boolean changed = false;
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String value = patchValue(field.getKey(), field.getValue());
+            switch (field.getKey()) {
+                case "yesterdayWork" -> {
+                    changed |= !Objects.equals(entry.getYesterdayWork(), value);
+                    entry.setYesterdayWork(value);
+                }
+                case "todayPlan" -> {
+                    changed |= !Objects.equals(entry.getTodayPlan(), value);
+                    entry.setTodayPlan(value);
+                }
+                case "blockers" -> {
+                    changed |= !Objects.equals(entry.getBlockers(), value);
+                    entry.setBlockers(value);
+                }
+                default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Field '" + field.getKey() + "' cannot be patched");
+            }
+        }
+        if (!changed) {
+            return convertToDTO(entry);
+        }
+
+        discardDraft(user, entry.getEntryDate());
+        DailyEntry savedEntry = saveVersioned(entry);
+        return publish(DailyEntryChangedEvent.Type.UPDATED, user, convertToDTO(savedEntry), previousBlockers);
+    }
+
+    public void deleteEntry(String userEmail, UUID id, LocalDate entryDate) {
+        User user = getUserByEmail(userEmail);
+        DailyEntry entry = findWritableEntry(user, id, entryDate);
+        if (!entry.getUser().equals(user)) {
+            throw new RuntimeException("Access denied");
+        }
+        discardDraft(user, entry.getEntryDate());
         dailyEntryRepository.delete(entry);
+        publish(DailyEntryChangedEvent.Type.DELETED, user, convertToDTO(entry), entry.getBlockers());
     }
 
-    public Page<DailyEntryDTO> searchEntries(String userEmail, String query, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<DailyEntryDTO> searchEntries(String userEmail, String query, LocalDate startDate, LocalDate endDate,
+                                             Pageable pageable) {
         User user = getUserByEmail(userEmail);
-        return dailyEntryRepository.searchByUserAndQuery(user, query, pageable)
-                .map(this::convertToDTO);
+        LocalDate from = startDate != null ? startDate : LocalDate.of(1, 1, 1);
+        LocalDate to = endDate != null ? endDate : LocalDate.of(9999, 12, 31);
+        return entryArchiveService.withArchivedMatches(pageable, user.getId(), query, startDate, endDate,
+                page -> dailyEntryRepository.searchByUserAndQuery(user, query, from, to, page).map(this::convertToDTO));
     }
 
+    @Transactional(readOnly = true)
     public Page<DailyEntryDTO> filterEntries(String userEmail, LocalDate startDate, LocalDate endDate, Pageable pageable) {
         User user = getUserByEmail(userEmail);
-        return dailyEntryRepository.findByUserOrderByEntryDateDesc(user, pageable)
-                .map(this::convertToDTO);
+        return entryArchiveService.withArchived(pageable, user.getId(), startDate, endDate,
+                page -> dailyEntryRepository
+                        .findByUserAndEntryDateBetweenOrderByEntryDateDesc(user, startDate, endDate, page)
+                        .map(this::convertToDTO));
+    }
+
+    /**
+     * Which days of the year have an entry, as a bitset of day-of-year built from the
+     * (user_id, entry_date) index and the archive index, without loading any entry.
+     */
+    @Transactional(readOnly = true)
+    public EntryCalendarDTO getCalendar(String userEmail, int year, String format) {
+        if (year < 1 || year > 9999) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "year must be between 1 and 9999");
+        }
+        if (!"base64".equals(format) && !"rle".equals(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be base64 or rle");
+        }
+        User user = getUserByEmail(userEmail);
+        LocalDate start = LocalDate.of(year, 1, 1);
+        int days = start.lengthOfYear();
+
+        BitSet logged = new BitSet(days);
+        for (LocalDate date : dailyEntryRepository.findEntryDates(user, start, start.plusDays(days - 1))) {
+            logged.set(date.getDayOfYear() - 1);
+        }
+        for (LocalDate date : entryArchiveService.archivedDays(user.getId(), year)) {
+            logged.set(date.getDayOfYear() - 1);
+        }
+
+        EntryCalendarDTO calendar = new EntryCalendarDTO();
+        calendar.setYear(year);
+        calendar.setDays(days);
+        calendar.setEntryCount(logged.cardinality());
+        calendar.setFormat(format);
+        if ("rle".equals(format)) {
+            List<Integer> runs = new ArrayList<>();
+            int day = 0;
+            while (day < days) {
+                int end = runs.size() % 2 == 0 ? logged.nextSetBit(day) : logged.nextClearBit(day);
+                end = end < 0 ? days : Math.min(end, days);
+                runs.add(end - day);
+                day = end;
+            }
+            calendar.setRuns(runs);
+        } else {
+            // toByteArray() drops trailing zero bytes, so pad to a fixed 46 bytes
+            byte[] bytes = Arrays.copyOf(logged.toByteArray(), (MAX_DAYS_IN_YEAR + 7) / 8);
+            calendar.setBitset(Base64.getEncoder().encodeToString(bytes));
+        }
+        return calendar;
+    }
+
+    private static String patchValue(String field, JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Field '" + field + "' must be a string or null");
+        }
+        return value.asText();
+    }
+
+    private static void checkVersion(DailyEntry entry, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(entry.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Entry has been modified");
+        }
+    }
+
+    // Flushes so the UPDATE ... WHERE version = ? runs here: a concurrent writer surfaces as 412
+    // instead of a failed commit, and the returned version is the new one
+    private DailyEntry saveVersioned(DailyEntry entry) {
+        try {
+            return dailyEntryRepository.saveAndFlush(entry);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Entry has been modified");
+        }
+    }
+
+    private DailyEntry findWritableEntry(User user, UUID id, LocalDate entryDate) {
+        return findLiveEntry(id, entryDate).orElseThrow(() -> {
+            if (entryArchiveService.findById(user.getId(), id).isPresent()) {
+                return new ResponseStatusException(HttpStatus.CONFLICT, "Archived entries are read-only");
+            }
+            return new RuntimeException("Entry not found");
+        });
+    }
+
+    // With the entry's date only its month's partition is read; the id alone probes every partition
+    private Optional<DailyEntry> findLiveEntry(UUID id, LocalDate entryDate) {
+        if (entryDate != null) {
+            Optional<DailyEntry> entry = dailyEntryRepository.findByIdAndEntryDate(id, entryDate);
+            if (entry.isPresent()) {
+                return entry;
+            }
+        }
+        return dailyEntryRepository.findById(id);
+    }
+
+    /**
+     * The user's live entries newest first, reading only the partitions the page can reach.
+     * user_stats counts entries per month, which gives the oldest month the page extends into.
+     * The counts lag behind changes that bypass the service, so a short page falls back to the
+     * unbounded query rather than trusting them.
+     */
+    private Page<DailyEntry> newestEntries(User user, Pageable pageable) {
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) {
+            NavigableMap<String, Integer> months = userStatsService.getMonthlyCounts(user.getId());
+            LocalDate from = windowStart(months, pageable.getOffset() + pageable.getPageSize());
+            if (from != null) {
+                List<DailyEntry> content = dailyEntryRepository
+                        .findByUserAndEntryDateGreaterThanEqualOrderByEntryDateDesc(user, from, pageable);
+                if (content.size() == pageable.getPageSize()) {
+                    long total = 0;
+                    for (int count : months.values()) {
+                        total += count;
+                    }
+                    long liveTotal = total - entryArchiveService.archivedCount(user.getId());
+                    return new PageImpl<>(content, pageable, Math.max(liveTotal, pageable.getOffset() + content.size()));
+                }
+            }
+        }
+        return dailyEntryRepository.findByUserOrderByEntryDateDesc(user, pageable);
+    }
+
+    // First day of the newest month range holding at least `rows` entries, or null when there are fewer
+    private static LocalDate windowStart(NavigableMap<String, Integer> months, long rows) {
+        long seen = 0;
+        for (Map.Entry<String, Integer> month : months.descendingMap().entrySet()) {
+            seen += month.getValue();
+            if (seen >= rows) {
+                return YearMonth.parse(month.getKey()).atDay(1);
+            }
+        }
+        return null;
+    }
+
+    private void discardDraft(User user, LocalDate entryDate) {
+        draftBuffer.discard(user.getId(), entryDate);
+        dailyEntryRepository.deleteDraft(user.getId(), entryDate);
     }
 
     private User getUserByEmail(String email) {
@@ -91,9 +374,27 @@ public class DailyEntryService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    private DailyEntryDTO publish(DailyEntryChangedEvent.Type type, User user, DailyEntryDTO entry,
+                                  String previousBlockers) {
+        eventPublisher.publishEvent(new DailyEntryChangedEvent(type, user.getId(), user.getEmail(), entry, previousBlockers));
+        return entry;
+    }
+
+    private void publish(EntryUpsert result, String userEmail) {
+        if (result.isInserted()) {
+            eventPublisher.publishEvent(new DailyEntryChangedEvent(DailyEntryChangedEvent.Type.CREATED,
+                    result.getUserId(), userEmail, result.getEntry(), null));
+        } else {
+            eventPublisher.publishEvent(new DailyEntryChangedEvent(DailyEntryChangedEvent.Type.UPDATED,
+                    result.getUserId(), userEmail, result.getEntry(), result.getPreviousBlockers()));
+        }
+    }
+
     private DailyEntryDTO convertToDTO(DailyEntry entry) {
-        return new DailyEntryDTO(entry.getId(), entry.getEntryDate(), 
+        DailyEntryDTO dto = new DailyEntryDTO(entry.getId(), entry.getEntryDate(), 
                 entry.getYesterdayWork(), entry.getTodayPlan(), entry.getBlockers(),
                 entry.getCreatedAt(), entry.getUpdatedAt());
+        dto.setVersion(entry.getVersion());
+        return dto;
     }
 }
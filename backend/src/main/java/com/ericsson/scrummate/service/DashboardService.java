@@ -0,0 +1,179 @@
+package com.ericsson.scrummate.service;
+
+import com.ericsson.scrummate.dto.DashboardDTO;
+import com.ericsson.scrummate.dto.DailyEntryDTO;
+import com.ericsson.scrummate.entity.MonthlyReport;
+import com.ericsson.scrummate.entity.User;
+import com.ericsson.scrummate.entity.WeeklySummary;
+import com.ericsson.scrummate.repository.MonthlyReportRepository;
+import com.ericsson.scrummate.repository.UserRepository;
+import com.ericsson.scrummate.repository.WeeklySummaryRepository;
+import com.ericsson.scrummate.shard.ShardContext;
+import com.fasterxml.jackson.databind.util.RawValue;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Everything the start page shows, in one request: today's entry, the recent entries and the
+ * latest weekly summary and monthly report. The user is resolved once and the parts are read in
+ * parallel, each in its own read-only transaction. A part that fails, is rejected by the full
+ * executor or misses the deadline is left empty and named in {@code unavailable}; the rest of
+ * the dashboard is still returned.
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DailyEntryService dailyEntryService;
+
+    @Autowired
+    private SummaryPayloadService summaryPayloadService;
+
+    @Autowired
+    private WeeklySummaryRepository weeklySummaryRepository;
+
+    @Autowired
+    private MonthlyReportRepository monthlyReportRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${scrummate.dashboard.threads:8}")
+    private int threads;
+
+    @Value("${scrummate.dashboard.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${scrummate.dashboard.part-timeout:1000}")
+    private long partTimeoutMillis;
+
+    @Value("${scrummate.dashboard.recent-entries:7}")
+    private int recentEntries;
+
+    private ThreadPoolExecutor parts;
+    private TransactionTemplate readOnly;
+
+    @PostConstruct
+    public void init() {
+        // Bounded queue: under overload parts are rejected and degrade instead of piling up
+        parts = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("dashboard-"));
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        // The JDBC statement timeout stops a slow part on the database; a late result is discarded anyway.
+        // Hibernate rounds the time left down to whole seconds and fails at zero, so add one second
+        readOnly.setTimeout((int) TimeUnit.MILLISECONDS.toSeconds(partTimeoutMillis + 999) + 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parts.shutdown();
+    }
+
+    public DashboardDTO getDashboard(String userEmail) {
+        User user = getUserByEmail(userEmail);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(partTimeoutMillis);
+
+        CompletableFuture<DailyEntryDTO> today = submit(() -> dailyEntryService.findEntry(user, LocalDate.now()));
+        CompletableFuture<List<DailyEntryDTO>> recent = submit(() -> dailyEntryService.getRecentEntries(user, recentEntries));
+        CompletableFuture<Optional<RawValue>> weekly = submit(() -> summaryPayloadService.latest(
+                SummaryPayloadService.Kind.WEEKLY, user.getId(),
+                ids -> weeklySummaryRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(WeeklySummary::getId, Function.identity()))));
+        CompletableFuture<Optional<RawValue>> monthly = submit(() -> summaryPayloadService.latest(
+                SummaryPayloadService.Kind.MONTHLY, user.getId(),
+                ids -> monthlyReportRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(MonthlyReport::getId, Function.identity()))));
+
+        DashboardDTO dashboard = new DashboardDTO();
+        dashboard.setTodayEntry(await("todayEntry", today, deadline, dashboard, null));
+        dashboard.setRecentEntries(await("recentEntries", recent, deadline, dashboard, List.of()));
+        dashboard.setLatestWeeklySummary(await("latestWeeklySummary", weekly, deadline, dashboard, Optional.<RawValue>empty())
+                .orElse(null));
+        dashboard.setLatestMonthlyReport(await("latestMonthlyReport", monthly, deadline, dashboard, Optional.<RawValue>empty())
+                .orElse(null));
+        return dashboard;
+    }
+
+    // Parts run with the caller's shard, and with the caller's principal so the replica router
+    // still sends a user who just wrote to the primary
+    private <T> CompletableFuture<T> submit(Supplier<T> part) {
+        int shard = ShardContext.current();
+        SecurityContext security = SecurityContextHolder.getContext();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                SecurityContextHolder.setContext(security);
+                try {
+                    return ShardContext.call(shard, () -> readOnly.execute(status -> part.get()));
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }, parts);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> T await(String part, CompletableFuture<T> future, long deadline, DashboardDTO dashboard, T fallback) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            degraded(part, "timeout", dashboard);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                degraded(part, "rejected", dashboard);
+            } else {
+                logger.warn("Dashboard part {} failed", part, e.getCause());
+                degraded(part, "error", dashboard);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            degraded(part, "interrupted", dashboard);
+        }
+        return fallback;
+    }
+
+    private void degraded(String part, String reason, DashboardDTO dashboard) {
+        dashboard.getUnavailable().add(part);
+        meterRegistry.counter("scrummate.dashboard.degraded", "part", part, "reason", reason).increment();
+    }
+
+    private User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.ericsson.scrummate.service;
+
+import com.ericsson.scrummate.repository.EntryDraft;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest unsaved draft per user and date. Writers replace the whole value, so rapid edits
+ * coalesce into one pending write and no lock is held on the request path.
+ */
+@Component
+public class DraftBuffer {
+
+    private final ConcurrentHashMap<String, EntryDraft> drafts = new ConcurrentHashMap<>();
+
+    /** Buffers the draft, replacing any older one for the same date; returns the buffer size. */
+    public int put(EntryDraft draft) {
+        drafts.put(key(draft.getUserId(), draft.getEntryDate()), draft);
+        return drafts.size();
+    }
+
+    public EntryDraft get(UUID userId, LocalDate entryDate) {
+        return drafts.get(key(userId, entryDate));
+    }
+
+    public EntryDraft take(UUID userId, LocalDate entryDate) {
+        return drafts.remove(key(userId, entryDate));
+    }
+
+    /** Drops a pending draft that a direct write to the entry has superseded. */
+    public void discard(UUID userId, LocalDate entryDate) {
+        drafts.remove(key(userId, entryDate));
+    }
+
+    /** Puts back a draft that could not be written, unless a newer one has arrived meanwhile. */
+    public void restore(EntryDraft draft) {
+        drafts.putIfAbsent(key(draft.getUserId(), draft.getEntryDate()), draft);
+    }
+
+    /** Up to {@code limit} pending drafts; they stay buffered until {@link #written} confirms them. */
+    public List<EntryDraft> snapshot(int limit) {
+        List<EntryDraft> batch = new ArrayList<>(Math.min(limit, drafts.size()));
+        for (EntryDraft draft : drafts.values()) {
+            if (batch.size() == limit) {
+                break;
+            }
+            batch.add(draft);
+        }
+        return batch;
+    }
+
+    /** Removes written drafts, keeping any that were replaced by a newer edit during the write. */
+    public void written(List<EntryDraft> batch) {
+        for (EntryDraft draft : batch) {
+            drafts.remove(key(draft.getUserId(), draft.getEntryDate()), draft);
+        }
+    }
+
+    public int size() {
+        return drafts.size();
+    }
+
+    private static String key(UUID userId, LocalDate entryDate) {
+        return userId + "/" + entryDate;
+    }
+}
@@ -1,28 +1,29 @@
 package com.ericsson.scrummate.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.ericsson.scrummate.notification.NotificationOutbox;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+/**
+ * Composes user notifications and queues them in the outbox; NotificationDispatcher sends them
+ * after the caller's transaction commits. Must be called inside a transaction.
+ */
 @Service
 public class EmailService {
     
-    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+    @Autowired
+    private NotificationOutbox outbox;
     
     public void sendWeeklySummaryNotification(String userEmail, String summaryContent) {
-        // TODO: Implement actual email sending with SMTP configuration
-        logger.info("Sending weekly summary notification to: {}", userEmail);
-        logger.debug("Summary content: {}", summaryContent);
+        outbox.enqueue("WEEKLY_SUMMARY", userEmail, "Your ScrumMate weekly summary", summaryContent);
     }
     
     public void sendMonthlyReportNotification(String userEmail, String reportContent) {
-        // TODO: Implement actual email sending with SMTP configuration
-        logger.info("Sending monthly report notification to: {}", userEmail);
-        logger.debug("Report content: {}", reportContent);
+        outbox.enqueue("MONTHLY_REPORT", userEmail, "Your ScrumMate monthly report", reportContent);
     }
     
     public void sendWelcomeEmail(String userEmail, String fullName) {
-        // TODO: Implement actual email sending with SMTP configuration
-        logger.info("Sending welcome email to: {} ({})", userEmail, fullName);
+        outbox.enqueue("WELCOME", userEmail, "Welcome to ScrumMate",
+                "Hi " + fullName + ",\n\nYour ScrumMate account is ready. Log in to start recording your daily standups.");
     }
 }
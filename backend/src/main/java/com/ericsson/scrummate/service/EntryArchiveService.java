@@ -0,0 +1,532 @@
+package com.ericsson.scrummate.service;
+
+import com.ericsson.scrummate.archive.ArchiveSegment;
+import com.ericsson.scrummate.archive.ArchiveStore;
+import com.ericsson.scrummate.dto.DailyEntryDTO;
+import com.ericsson.scrummate.shard.ShardContext;
+import com.ericsson.scrummate.shard.ShardDirectory;
+import com.ericsson.scrummate.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Moves entries older than the archive horizon out of daily_entries into per-user, per-year
+ * segment files and serves them back to {@link DailyEntryService} when a query reaches into
+ * archived years. Archived entries are read-only.
+ */
+@Service
+public class EntryArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntryArchiveService.class);
+
+    private static final String ENTRY_COLUMNS =
+            "id, entry_date, yesterday_work, today_plan, blockers, created_at, updated_at";
+
+    private static final RowMapper<DailyEntryDTO> ENTRY_ROW_MAPPER = (rs, rowNum) -> new DailyEntryDTO(
+            rs.getObject("id", UUID.class),
+            rs.getObject("entry_date", LocalDate.class),
+            rs.getString("yesterday_work"),
+            rs.getString("today_plan"),
+            rs.getString("blockers"),
+            toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("updated_at")));
+
+    @Autowired
+    private ArchiveStore archiveStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TeamBoardService teamBoardService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Value("${scrummate.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${scrummate.archive.horizon:P2Y}")
+    private Period horizon;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ExecutorService worker;
+
+    @PostConstruct
+    public void init() {
+        worker = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("archive-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    @Scheduled(cron = "${scrummate.archive.cron:0 30 3 * * SUN}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        worker.execute(() -> {
+            try {
+                archiveExpiredEntries();
+            } catch (RuntimeException e) {
+                logger.error("Scheduled archive run failed", e);
+            }
+        });
+    }
+
+    /** Archives every whole year that ends before the horizon. Returns the number of entries moved. */
+    public int archiveExpiredEntries() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Archive run already in progress");
+        }
+        try {
+            LocalDate cutoff = LocalDate.now().minus(horizon).withDayOfYear(1);
+            int[] archived = new int[1];
+            int[] userYearCount = new int[1];
+            shardRouter.forEachShard(shard -> {
+                List<Map<String, Object>> userYears = jdbcTemplate.queryForList(
+                        "SELECT DISTINCT user_id, EXTRACT(YEAR FROM entry_date)::int AS year " +
+                        "FROM daily_entries WHERE entry_date < ?", cutoff);
+                userYearCount[0] += userYears.size();
+                for (Map<String, Object> userYear : userYears) {
+                    UUID userId = (UUID) userYear.get("user_id");
+                    int year = ((Number) userYear.get("year")).intValue();
+                    // Rows of a user being moved, or left behind by a move, are the rebalancer's to handle
+                    ShardDirectory.Placement placement = shardDirectory.lookup(userId);
+                    if (placement.isMoving() || placement.getShard() != shard) {
+                        logger.info("Skipping archive of user {} for {}: not settled on shard {}", userId, year, shard);
+                        continue;
+                    }
+                    try {
+                        archived[0] += archiveUserYear(userId, year);
+                    } catch (Exception e) {
+                        logger.error("Failed to archive entries of user {} for {}", userId, year, e);
+                    }
+                }
+            });
+            logger.info("Archived {} entries from {} user-years older than {}", archived[0], userYearCount[0], cutoff);
+            return archived[0];
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveUserYear(UUID userId, int year) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer archived = transactionTemplate.execute(status -> {
+            LocalDate yearStart = LocalDate.of(year, 1, 1);
+            LocalDate yearEnd = LocalDate.of(year, 12, 31);
+            List<DailyEntryDTO> rows = jdbcTemplate.query(
+                    "SELECT " + ENTRY_COLUMNS + " FROM daily_entries " +
+                    "WHERE user_id = ? AND entry_date BETWEEN ? AND ? FOR UPDATE",
+                    ENTRY_ROW_MAPPER, userId, yearStart, yearEnd);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            // Entries already archived for the year are merged; the database copy wins on the same date
+            Map<LocalDate, DailyEntryDTO> merged = new LinkedHashMap<>();
+            try {
+                Optional<ArchiveSegment> existing = archiveStore.segment(userId, year);
+                if (existing.isPresent()) {
+                    for (DailyEntryDTO entry : existing.get().readAll()) {
+                        merged.put(entry.getEntryDate(), entry);
+                    }
+                }
+                for (DailyEntryDTO entry : rows) {
+                    merged.put(entry.getEntryDate(), entry);
+                }
+
+                ArchiveSegment.write(archiveStore.pendingPath(userId, year), new ArrayList<>(merged.values()));
+                ArchiveSegment written = ArchiveSegment.open(archiveStore.pendingPath(userId, year));
+                written.verify();
+                if (written.count() != merged.size()) {
+                    throw new IOException("Wrote " + written.count() + " entries, expected " + merged.size());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            // Archived entries are still the user's, so the delete leaves no sync tombstones (V21)
+            jdbcTemplate.queryForList("SELECT set_config('scrummate.suppress_tombstones', 'on', true)");
+            jdbcTemplate.update("DELETE FROM daily_entries WHERE user_id = ? AND entry_date BETWEEN ? AND ?",
+                    userId, yearStart, yearEnd);
+            jdbcTemplate.queryForList("SELECT set_config('scrummate.suppress_tombstones', 'off', true)");
+            // The entries move unchanged, so their board rows stay as they are
+
+            // The segment only goes live once the delete has committed, so readers never see an entry twice
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                // A move claimed since the run started may already be copying these rows
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (shardDirectory.lookupUncached(userId).isMoving()) {
+                        throw new IllegalStateException("User " + userId + " started moving to another shard");
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int completionStatus) {
+                    try {
+                        if (completionStatus == STATUS_COMMITTED) {
+                            archiveStore.publish(userId, year);
+                        } else {
+                            archiveStore.discardPending(userId, year);
+                        }
+                    } catch (IOException e) {
+                        logger.error("Could not finalise archive segment of user {} for {}; run verification", userId, year, e);
+                    }
+                }
+            });
+            return rows.size();
+        });
+        return archived != null ? archived : 0;
+    }
+
+    /**
+     * Checks every live segment and resolves pending segments left behind by a crash between
+     * commit and publish: published if the database no longer holds the year, discarded otherwise.
+     */
+    public Map<String, Object> verify() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        List<String> failures = new ArrayList<>();
+        int segments = 0;
+        long entries = 0;
+        int published = 0;
+        int discarded = 0;
+        try {
+            for (ArchiveStore.SegmentFile pending : archiveStore.listPending()) {
+                Long remaining = shardRouter.jdbcTemplate(shardDirectory.shardOf(pending.getUserId())).queryForObject(
+                        "SELECT COUNT(*) FROM daily_entries WHERE user_id = ? AND entry_date BETWEEN ? AND ?",
+                        Long.class, pending.getUserId(),
+                        LocalDate.of(pending.getYear(), 1, 1), LocalDate.of(pending.getYear(), 12, 31));
+                try {
+                    ArchiveSegment.open(pending.getPath()).verify();
+                    if (remaining != null && remaining == 0) {
+                        archiveStore.publish(pending.getUserId(), pending.getYear());
+                        published++;
+                        continue;
+                    }
+                } catch (IOException e) {
+                    logger.warn("Discarding unreadable pending segment {}", pending.getPath(), e);
+                }
+                archiveStore.discardPending(pending.getUserId(), pending.getYear());
+                discarded++;
+            }
+
+            for (ArchiveStore.SegmentFile file : archiveStore.listSegments()) {
+                segments++;
+                try {
+                    ArchiveSegment segment = ArchiveSegment.open(file.getPath());
+                    segment.verify();
+                    entries += segment.count();
+                } catch (IOException e) {
+                    failures.add(file.getPath() + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        report.put("segments", segments);
+        report.put("entries", entries);
+        report.put("pendingPublished", published);
+        report.put("pendingDiscarded", discarded);
+        report.put("failures", failures);
+        report.put("status", failures.isEmpty() ? "OK" : "CORRUPT");
+        return report;
+    }
+
+    /**
+     * Moves one archived year back into daily_entries. Fails with 409 and restores nothing when
+     * any archived date has a live entry again.
+     */
+    public int restore(UUID userId, int year) {
+        ArchiveSegment segment = archiveStore.segment(userId, year)
+                .orElseThrow(() -> new RuntimeException("No archive for user " + userId + " in " + year));
+        List<DailyEntryDTO> entries;
+        try {
+            entries = segment.readAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ShardDirectory.Placement placement = shardDirectory.lookupUncached(userId);
+        if (placement.isMoving()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The user is being moved to another shard");
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer restored = ShardContext.call(placement.getShard(), () -> transactionTemplate.execute(status -> {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO daily_entries (" + ENTRY_COLUMNS + ", user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (user_id, entry_date) DO NOTHING",
+                    entries, 500, (ps, entry) -> {
+                        ps.setObject(1, entry.getId());
+                        ps.setObject(2, entry.getEntryDate());
+                        ps.setString(3, entry.getYesterdayWork());
+                        ps.setString(4, entry.getTodayPlan());
+                        ps.setString(5, entry.getBlockers());
+                        ps.setTimestamp(6, toTimestamp(entry.getCreatedAt()));
+                        ps.setTimestamp(7, toTimestamp(entry.getUpdatedAt()));
+                        ps.setObject(8, userId);
+                    });
+            // ON CONFLICT skips dates that have a live entry again. Retiring the segment would lose
+            // those archived rows, so the restore only goes through when every row came back.
+            Integer back = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM daily_entries WHERE user_id = ? AND entry_date BETWEEN ? AND ? " +
+                    "AND id = ANY(?)", Integer.class, userId, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31),
+                    entries.stream().map(DailyEntryDTO::getId).toArray(UUID[]::new));
+            int inserted = back != null ? back : 0;
+            if (inserted < entries.size()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, (entries.size() - inserted) +
+                        " archived entries of " + year + " fall on dates with a live entry; nothing was restored");
+            }
+            teamBoardService.rebuildUser(userId, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        archiveStore.retire(userId, year);
+                    } catch (IOException e) {
+                        logger.error("Restored user {} for {} but could not retire the segment", userId, year, e);
+                    }
+                }
+            });
+            return inserted;
+        }));
+        return restored != null ? restored : 0;
+    }
+
+    public Optional<DailyEntryDTO> findById(UUID userId, UUID id) {
+        try {
+            for (int year : archiveStore.years(userId)) {
+                Optional<ArchiveSegment> segment = archiveStore.segment(userId, year);
+                if (segment.isPresent()) {
+                    Optional<DailyEntryDTO> entry = segment.get().findById(id);
+                    if (entry.isPresent()) {
+                        return entry;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Optional.empty();
+    }
+
+    /** Every archived entry of the user, newest first. */
+    public List<DailyEntryDTO> archivedEntries(UUID userId) {
+        return readNewestFirst(userId, archiveStore.years(userId), null, null, 0, Integer.MAX_VALUE);
+    }
+
+    public boolean isArchived(UUID userId, LocalDate entryDate) {
+        return archiveStore.segment(userId, entryDate.getYear())
+                .map(segment -> segment.count(entryDate, entryDate) > 0)
+                .orElse(false);
+    }
+
+    public long archivedCount(UUID userId) {
+        long count = 0;
+        for (int year : archiveStore.years(userId)) {
+            count += archiveStore.segment(userId, year).map(ArchiveSegment::count).orElse(0);
+        }
+        return count;
+    }
+
+    public List<LocalDate> archivedDays(UUID userId, int year) {
+        return archiveStore.segment(userId, year)
+                .map(segment -> segment.days(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)))
+                .orElse(List.of());
+    }
+
+    /**
+     * Merges archived entries into a newest-first page of live ones. A backdated create can put a
+     * live entry before archived years, so the two lists are merged by entry_date: the first
+     * offset + size rows of each side are enough to cut the page. {@code live} answers a page of
+     * database rows in that order.
+     */
+    public Page<DailyEntryDTO> withArchived(Pageable pageable, UUID userId, LocalDate from, LocalDate to,
+                                            Function<Pageable, Page<DailyEntryDTO>> live) {
+        List<Integer> years = yearsInRange(userId, from, to);
+        long archivedTotal = 0;
+        for (int year : years) {
+            archivedTotal += archiveStore.segment(userId, year)
+                    .map(segment -> segment.count(clampStart(year, from), clampEnd(year, to)))
+                    .orElse(0);
+        }
+        if (archivedTotal == 0) {
+            return live.apply(pageable);
+        }
+        return merge(pageable, archivedTotal, live,
+                limit -> readNewestFirst(userId, years, from, to, 0, limit));
+    }
+
+    /**
+     * Like {@link #withArchived} for a text search. Only the archived years inside
+     * [{@code from}, {@code to}] are decompressed and scanned; without a {@code from} the range
+     * starts at the user's oldest archived year, so a search never silently skips the archive.
+     */
+    public Page<DailyEntryDTO> withArchivedMatches(Pageable pageable, UUID userId, String query,
+                                                   LocalDate from, LocalDate to,
+                                                   Function<Pageable, Page<DailyEntryDTO>> live) {
+        List<Integer> years = yearsInRange(userId, from, to);
+        if (years.isEmpty()) {
+            return live.apply(pageable);
+        }
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<DailyEntryDTO> matches = new ArrayList<>();
+        for (DailyEntryDTO entry : readNewestFirst(userId, years, from, to, 0, Integer.MAX_VALUE)) {
+            if (contains(entry.getYesterdayWork(), needle) || contains(entry.getTodayPlan(), needle)
+                    || contains(entry.getBlockers(), needle)) {
+                matches.add(entry);
+            }
+        }
+        if (matches.isEmpty()) {
+            return live.apply(pageable);
+        }
+        return merge(pageable, matches.size(), live, limit -> matches.subList(0, Math.min(limit, matches.size())));
+    }
+
+    private Page<DailyEntryDTO> merge(Pageable pageable, long archivedTotal,
+                                      Function<Pageable, Page<DailyEntryDTO>> live,
+                                      IntFunction<List<DailyEntryDTO>> archivedHead) {
+        if (pageable.isUnpaged()) {
+            List<DailyEntryDTO> merged = mergeNewestFirst(live.apply(pageable).getContent(),
+                    archivedHead.apply(Integer.MAX_VALUE));
+            return new PageImpl<>(merged, pageable, merged.size());
+        }
+        int limit = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        Page<DailyEntryDTO> liveHead = live.apply(PageRequest.of(0, limit, pageable.getSort()));
+        List<DailyEntryDTO> merged = mergeNewestFirst(liveHead.getContent(), archivedHead.apply(limit));
+        int start = (int) Math.min(pageable.getOffset(), merged.size());
+        int end = Math.min(limit, merged.size());
+        return new PageImpl<>(new ArrayList<>(merged.subList(start, end)), pageable,
+                liveHead.getTotalElements() + archivedTotal);
+    }
+
+    private static List<DailyEntryDTO> mergeNewestFirst(List<DailyEntryDTO> live, List<DailyEntryDTO> archived) {
+        List<DailyEntryDTO> merged = new ArrayList<>(live.size() + archived.size());
+        int i = 0;
+        int j = 0;
+        while (i < live.size() || j < archived.size()) {
+            if (j == archived.size() || (i < live.size()
+                    && !live.get(i).getEntryDate().isBefore(archived.get(j).getEntryDate()))) {
+                merged.add(live.get(i++));
+            } else {
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private List<DailyEntryDTO> readNewestFirst(UUID userId, List<Integer> years, LocalDate from, LocalDate to,
+                                                long skip, int limit) {
+        List<DailyEntryDTO> result = new ArrayList<>();
+        long toSkip = skip;
+        try {
+            for (int year : years) {
+                Optional<ArchiveSegment> segment = archiveStore.segment(userId, year);
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                LocalDate start = clampStart(year, from);
+                LocalDate end = clampEnd(year, to);
+                int available = segment.get().count(start, end);
+                if (toSkip >= available) {
+                    toSkip -= available;
+                    continue;
+                }
+                List<DailyEntryDTO> entries = segment.get().read(start, end);
+                Collections.reverse(entries);
+                for (DailyEntryDTO entry : entries.subList((int) toSkip, entries.size())) {
+                    if (result.size() >= limit) {
+                        return result;
+                    }
+                    result.add(entry);
+                }
+                toSkip = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    private List<Integer> yearsInRange(UUID userId, LocalDate from, LocalDate to) {
+        List<Integer> years = new ArrayList<>();
+        for (int year : archiveStore.years(userId)) {
+            if ((from == null || year >= from.getYear()) && (to == null || year <= to.getYear())) {
+                years.add(year);
+            }
+        }
+        return years;
+    }
+
+    private static LocalDate clampStart(int year, LocalDate from) {
+        LocalDate yearStart = LocalDate.of(year, 1, 1);
+        return from != null && from.isAfter(yearStart) ? from : yearStart;
+    }
+
+    private static LocalDate clampEnd(int year, LocalDate to) {
+        LocalDate yearEnd = LocalDate.of(year, 12, 31);
+        return to != null && to.isBefore(yearEnd) ? to : yearEnd;
+    }
+
+    private static boolean contains(String text, String needle) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+}
@@ -0,0 +1,246 @@
+package com.ericsson.scrummate.service;
+
+import com.ericsson.scrummate.dto.DailyEntryDTO;
+import com.ericsson.scrummate.dto.EntryDraftRequest;
+import com.ericsson.scrummate.entity.User;
+import com.ericsson.scrummate.repository.DailyEntryRepository;
+import com.ericsson.scrummate.repository.EntryDraft;
+import com.ericsson.scrummate.repository.EntryUpsert;
+import com.ericsson.scrummate.repository.UserRepository;
+import com.ericsson.scrummate.shard.ShardContext;
+import com.ericsson.scrummate.shard.ShardDirectory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Autosave for entries being typed. Drafts are buffered in memory and written to entry_drafts in
+ * batches on a timer or as soon as the buffer passes a size threshold. The entry itself only
+ * changes, and change events are only published, when the user submits the draft.
+ *
+ * Durability: an accepted draft is only in this instance's memory until the next flush, so a
+ * crash loses at most one flush interval of typing. A normal shutdown flushes everything first.
+ * Each draft remembers the entry version it was started from. A direct create, update or delete
+ * of the entry discards the draft, a flush skips drafts whose entry has moved past that version,
+ * and submitting such a draft fails with 409. Drafts of a user being moved to another shard wait
+ * for the move to finish.
+ */
+@Service
+public class EntryDraftService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntryDraftService.class);
+
+    @Autowired
+    private DraftBuffer draftBuffer;
+
+    @Autowired
+    private DailyEntryService dailyEntryService;
+
+    @Autowired
+    private DailyEntryRepository dailyEntryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntryArchiveService entryArchiveService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Value("${scrummate.drafts.flush-threshold:200}")
+    private int flushThreshold;
+
+    @Value("${scrummate.drafts.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private ExecutorService flusher;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void init() {
+        flusher = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("draft-flush-"));
+        Gauge.builder("scrummate.drafts.buffered", draftBuffer, DraftBuffer::size)
+                .description("Autosave drafts not yet written to the database")
+                .register(meterRegistry);
+        writtenCounter = Counter.builder("scrummate.drafts.written")
+                .description("Autosave drafts written to the database")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("scrummate.drafts.failed")
+                .description("Autosave drafts dropped because they could not be written")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flush();
+        if (draftBuffer.size() > 0) {
+            logger.error("{} autosave drafts could not be written before shutdown", draftBuffer.size());
+        }
+    }
+
+    public void saveDraft(String userEmail, LocalDate entryDate, EntryDraftRequest draftRequest) {
+        User user = getUserByEmail(userEmail);
+        if (entryArchiveService.isArchived(user.getId(), entryDate)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Archived entries are read-only");
+        }
+        int buffered = draftBuffer.put(new EntryDraft(user.getId(), user.getEmail(), entryDate,
+                draftRequest.getYesterdayWork(), draftRequest.getTodayPlan(), draftRequest.getBlockers(),
+                baseVersion(user, entryDate)));
+        if (buffered >= flushThreshold && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        }
+    }
+
+    /** The pending draft for the date, or the saved entry when nothing is pending. */
+    public DailyEntryDTO getDraft(String userEmail, LocalDate entryDate) {
+        User user = getUserByEmail(userEmail);
+        EntryDraft draft = draftBuffer.get(user.getId(), entryDate);
+        if (draft == null) {
+            draft = dailyEntryRepository.findDraft(user.getId(), entryDate)
+                    .filter(saved -> Objects.equals(saved.getBaseVersion(),
+                            dailyEntryRepository.findVersion(user.getId(), entryDate).orElse(null)))
+                    .orElse(null);
+        }
+        if (draft != null) {
+            DailyEntryDTO dto = new DailyEntryDTO(null, entryDate, draft.getYesterdayWork(), draft.getTodayPlan(),
+                    draft.getBlockers(), null, null);
+            dto.setVersion(draft.getBaseVersion());
+            return dto;
+        }
+        return dailyEntryRepository.findByUserAndEntryDate(user, entryDate)
+                .map(entry -> {
+                    DailyEntryDTO dto = new DailyEntryDTO(entry.getId(), entry.getEntryDate(), entry.getYesterdayWork(),
+                            entry.getTodayPlan(), entry.getBlockers(), entry.getCreatedAt(), entry.getUpdatedAt());
+                    dto.setVersion(entry.getVersion());
+                    return dto;
+                })
+                .orElseThrow(() -> new RuntimeException("Draft not found"));
+    }
+
+    /** Saves the draft for the date as the entry, buffered or already flushed. */
+    public EntryUpsert submitDraft(String userEmail, LocalDate entryDate) {
+        User user = getUserByEmail(userEmail);
+        EntryDraft buffered = draftBuffer.take(user.getId(), entryDate);
+        EntryDraft draft = buffered != null ? buffered : dailyEntryRepository.findDraft(user.getId(), entryDate)
+                .map(saved -> new EntryDraft(user.getId(), user.getEmail(), entryDate, saved.getYesterdayWork(),
+                        saved.getTodayPlan(), saved.getBlockers(), saved.getBaseVersion()))
+                .orElseThrow(() -> new RuntimeException("Draft not found"));
+        try {
+            return dailyEntryService.submitDraft(draft);
+        } catch (ResponseStatusException e) {
+            // A conflicting draft is stale; keeping it buffered would only fail again
+            throw e;
+        } catch (RuntimeException e) {
+            if (buffered != null) {
+                draftBuffer.restore(buffered);
+            }
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${scrummate.drafts.flush-interval:5000}")
+    public synchronized void flush() {
+        // Bounded so a steady stream of new drafts cannot keep one flush running forever
+        int rounds = draftBuffer.size() / batchSize + 1;
+        for (int i = 0; i < rounds; i++) {
+            List<EntryDraft> batch = draftBuffer.snapshot(batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            Map<Integer, List<EntryDraft>> byShard = new TreeMap<>();
+            boolean held = false;
+            for (EntryDraft draft : batch) {
+                ShardDirectory.Placement placement = shardDirectory.lookup(draft.getUserId());
+                if (placement.isMoving()) {
+                    held = true;
+                } else {
+                    byShard.computeIfAbsent(placement.getShard(), shard -> new ArrayList<>()).add(draft);
+                }
+            }
+            for (Map.Entry<Integer, List<EntryDraft>> shardBatch : byShard.entrySet()) {
+                if (!ShardContext.call(shardBatch.getKey(), () -> write(shardBatch.getValue()))) {
+                    return;
+                }
+            }
+            if (held) {
+                return;
+            }
+        }
+    }
+
+    private boolean write(List<EntryDraft> batch) {
+        try {
+            dailyEntryRepository.saveDrafts(batch);
+            draftBuffer.written(batch);
+            writtenCounter.increment(batch.size());
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Batch write of {} drafts failed, writing them one by one", batch.size(), e);
+            writeIndividually(batch);
+        } catch (RuntimeException e) {
+            // Likely the database is unavailable; the drafts stay buffered for the next run
+            logger.warn("Could not write {} drafts, will retry", batch.size(), e);
+            return false;
+        }
+        return true;
+    }
+
+    private void writeIndividually(List<EntryDraft> batch) {
+        for (EntryDraft draft : batch) {
+            try {
+                dailyEntryRepository.saveDrafts(List.of(draft));
+                writtenCounter.increment();
+            } catch (DataIntegrityViolationException e) {
+                logger.error("Dropping draft of user {} for {}", draft.getUserId(), draft.getEntryDate(), e);
+                failedCounter.increment();
+            }
+            draftBuffer.written(List.of(draft));
+        }
+    }
+
+    // The version of the entry the user started typing over: later edits keep what the pending
+    // draft recorded, otherwise the entry's current version (null while there is no entry)
+    private Long baseVersion(User user, LocalDate entryDate) {
+        EntryDraft pending = draftBuffer.get(user.getId(), entryDate);
+        if (pending != null) {
+            return pending.getBaseVersion();
+        }
+        return dailyEntryRepository.findVersion(user.getId(), entryDate).orElse(null);
+    }
+
+    private User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
@@ -3,18 +3,28 @@ package com.ericsson.scrummate.service;
 import com.ericsson.scrummate.entity.MonthlyReport;
 import com.ericsson.scrummate.entity.User;
 import com.ericsson.scrummate.entity.WeeklySummary;
+import com.ericsson.scrummate.event.SummaryGeneratedEvent;
 import com.ericsson.scrummate.repository.MonthlyReportRepository;
 import com.ericsson.scrummate.repository.UserRepository;
 import com.ericsson.scrummate.repository.WeeklySummaryRepository;
+import com.fasterxml.jackson.databind.util.RawValue;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class MonthlyReportService {
@@ -27,7 +37,17 @@ public class MonthlyReportService {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SummaryPayloadService summaryPayloadService;
+
+    @Autowired
+    private EmailService emailService;
     
+    @Transactional
     public MonthlyReport generateMonthlyReport(String userEmail, int month, int year) {
         User user = getUserByEmail(userEmail);
         
@@ -49,14 +69,43 @@ public class MonthlyReportService {
             )).toList());
         
         MonthlyReport monthlyReport = new MonthlyReport(user, month, year, reportData);
-        return monthlyReportRepository.save(monthlyReport);
+        MonthlyReport saved = monthlyReportRepository.saveAndFlush(monthlyReport);
+        summaryPayloadService.store(SummaryPayloadService.Kind.MONTHLY, saved.getId(), saved);
+        emailService.sendMonthlyReportNotification(user.getEmail(), monthlyReportNotification(month, year, weeklySummaries));
+        eventPublisher.publishEvent(new SummaryGeneratedEvent(SummaryGeneratedEvent.Kind.MONTHLY, user.getId(), saved.getId()));
+        return saved;
     }
     
-    public Page<MonthlyReport> getMonthlyReports(String userEmail, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<RawValue> getMonthlyReports(String userEmail, Pageable pageable) {
         User user = getUserByEmail(userEmail);
-        return monthlyReportRepository.findByUserOrderByYearDescMonthDesc(user, pageable);
+        return summaryPayloadService.page(SummaryPayloadService.Kind.MONTHLY, user.getId(), pageable,
+                ids -> monthlyReportRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(MonthlyReport::getId, Function.identity())));
+    }
+
+    @Transactional(readOnly = true)
+    public SummaryPayloadService.StoredPayload getMonthlyReport(String userEmail, UUID id) {
+        User user = getUserByEmail(userEmail);
+        return summaryPayloadService.find(SummaryPayloadService.Kind.MONTHLY, user.getId(), id)
+                .orElseGet(() -> {
+                    MonthlyReport report = monthlyReportRepository.findById(id)
+                            .filter(r -> r.getUser().getId().equals(user.getId()))
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Report not found"));
+                    return summaryPayloadService.fromEntity(id, report);
+                });
     }
     
+    private static String monthlyReportNotification(int month, int year, List<WeeklySummary> weeklySummaries) {
+        StringBuilder text = new StringBuilder();
+        text.append("Monthly Report (").append(YearMonth.of(year, month)).append("): ")
+            .append(weeklySummaries.size()).append(" weekly summaries.\n\n");
+        for (WeeklySummary summary : weeklySummaries) {
+            text.append(summary.getSummaryText()).append("\n");
+        }
+        return text.toString();
+    }
+
     private User getUserByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -0,0 +1,83 @@
+package com.ericsson.scrummate.service;
+
+import com.ericsson.scrummate.shard.ShardContext;
+import com.ericsson.scrummate.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Keeps monthly daily_entries partitions created ahead of time and freezes closed months
+ * once, so routine vacuum work stays proportional to the recent partitions. Runs on every shard.
+ */
+@Service
+public class PartitionMaintenanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${scrummate.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${scrummate.partitions.maintain-on-startup:true}")
+    private boolean maintainOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (maintainOnStartup) {
+            maintainPartitions();
+        }
+    }
+
+    @Scheduled(cron = "${scrummate.partitions.cron:0 0 2 * * *}")
+    public void maintainPartitions() {
+        shardRouter.forEachShard(shard -> {
+            createUpcomingPartitions();
+            freezeClosedPartition();
+        });
+    }
+
+    public void createUpcomingPartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++) {
+            try {
+                String partition = jdbcTemplate.queryForObject(
+                        "SELECT create_daily_entries_partition(?)", String.class, month.plusMonths(i));
+                logger.debug("Ensured partition {}", partition);
+            } catch (Exception e) {
+                logger.error("Could not create daily_entries partition for {} on shard {}", month.plusMonths(i),
+                        ShardContext.current(), e);
+            }
+        }
+    }
+
+    // Two months back no longer receives regular writes; freeze it once so anti-wraparound
+    // vacuum never has to revisit it
+    public void freezeClosedPartition() {
+        String partition = "daily_entries_" + LocalDate.now().minusMonths(2).format(PARTITION_SUFFIX);
+        List<String> pending = jdbcTemplate.queryForList(
+                "SELECT relname FROM pg_stat_user_tables WHERE relname = ? " +
+                "AND (last_vacuum IS NULL OR n_mod_since_analyze > 0)", String.class, partition);
+        if (pending.isEmpty()) {
+            return;
+        }
+        logger.info("Freezing closed partition {} on shard {}", partition, ShardContext.current());
+        jdbcTemplate.execute("VACUUM (FREEZE, ANALYZE) " + partition);
+    }
+}
@@ -0,0 +1,149 @@
+package com.ericsson.scrummate.service;
+
+import com.ericsson.scrummate.entity.User;
+import com.ericsson.scrummate.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs bcrypt hashing and verification on a dedicated, CPU-sized pool so that
+ * login spikes cannot starve the servlet container's request threads.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.security.password.pool-size:0}")
+    private int poolSize;
+
+    @Value("${spring.security.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${spring.security.password.timeout:5000}")
+    private long timeoutMillis;
+
+    private ThreadPoolExecutor executor;
+    private Timer encodeTimer;
+    private Timer matchTimer;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("scrummate.password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("scrummate.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing workers currently busy")
+                .register(meterRegistry);
+        encodeTimer = Timer.builder("scrummate.password.hashing.duration")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        matchTimer = Timer.builder("scrummate.password.hashing.duration")
+                .tag("operation", "match")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("scrummate.password.hashing.rejected")
+                .description("Password hashing requests rejected because the pool was saturated")
+                .register(meterRegistry);
+
+        logger.info("Password hashing pool started with {} threads and queue capacity {}", threads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(encodeTimer, () -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        return await(submit(matchTimer, () -> passwordEncoder.matches(rawPassword, passwordHash)));
+    }
+
+    /**
+     * Re-hashes the password in the background when the stored hash was produced with a
+     * lower cost factor than the one currently configured. Skipped silently when the pool
+     * is busy; the next successful login will try again.
+     */
+    public void upgradeIfNeeded(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPasswordHash())) {
+            return;
+        }
+        UUID userId = user.getId();
+        try {
+            executor.execute(() -> {
+                String upgradedHash = encodeTimer.record(() -> passwordEncoder.encode(rawPassword));
+                userRepository.findById(userId).ifPresent(stored -> {
+                    stored.setPasswordHash(upgradedHash);
+                    userRepository.save(stored);
+                });
+                logger.debug("Upgraded password hash for user {}", userId);
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Skipping password hash upgrade for user {}, pool saturated", userId);
+        }
+    }
+
+    private <T> Future<T> submit(Timer timer, Callable<T> task) {
+        try {
+            return executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Authentication is busy, please retry");
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Authentication is busy, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.ericsson.scrummate.service;
+
+import com.ericsson.scrummate.analytics.PhraseTokenizer;
+import com.ericsson.scrummate.analytics.PrefixIndex;
+import com.ericsson.scrummate.event.DailyEntryChangedEvent;
+import com.ericsson.scrummate.shard.ShardDirectory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.ref.SoftReference;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Search-as-you-type over the words and phrases a user writes in their entries. Each user's
+ * {@link PrefixIndex} is built from their most recent entries on the first lookup and kept up to
+ * date from entry changes on this instance. Indexes are held through soft references, so the
+ * garbage collector drops them under memory pressure, and are rebuilt after {@code max-age} to
+ * pick up writes that went through other instances.
+ *
+ * A build reads a snapshot and installs the index afterwards, so changes committed in between
+ * would be missing from it. Changes for a user arriving while a build for them runs are
+ * recorded and replayed onto the new index, under the same lock that installs it.
+ */
+@Service
+public class SuggestionService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${scrummate.suggest.window-entries:200}")
+    private int windowEntries;
+
+    @Value("${scrummate.suggest.max-limit:20}")
+    private int maxLimit;
+
+    @Value("${scrummate.suggest.max-users:10000}")
+    private int maxUsers;
+
+    @Value("${scrummate.suggest.max-age:600000}")
+    private long maxAgeMillis;
+
+    @Value("${scrummate.suggest.idle-timeout:1800000}")
+    private long idleTimeoutMillis;
+
+    private static final int LOCK_STRIPES = 64;
+
+    // Keyed by email, so a keystroke needs no user lookup once the index is built
+    private final Map<String, Cached> indexes = new ConcurrentHashMap<>();
+    // Changes seen by each build still running, in the order they arrived
+    private final Map<String, List<List<DailyEntryChangedEvent>>> replays = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private Timer lookupTimer;
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        lookupTimer = Timer.builder("scrummate.entries.suggest.duration")
+                .description("Prefix lookup in a built suggestion index")
+                .register(meterRegistry);
+    }
+
+    public List<String> suggest(String userEmail, String prefix, int limit) {
+        String trimmed = prefix == null ? "" : prefix.strip();
+        if (trimmed.isEmpty()) {
+            return List.of();
+        }
+        PrefixIndex index = index(userEmail);
+        int bounded = Math.max(1, Math.min(limit, maxLimit));
+        return lookupTimer.record(() -> index.suggest(trimmed, bounded));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEntryChanged(DailyEntryChangedEvent event) {
+        synchronized (lock(event.getUserEmail())) {
+            for (List<DailyEntryChangedEvent> replay : replays.getOrDefault(event.getUserEmail(), List.of())) {
+                replay.add(event);
+            }
+            Cached cached = indexes.get(event.getUserEmail());
+            PrefixIndex index = cached != null ? cached.index.get() : null;
+            if (index != null) {
+                apply(index, event);
+            }
+        }
+    }
+
+    private static void apply(PrefixIndex index, DailyEntryChangedEvent event) {
+        if (event.getType() == DailyEntryChangedEvent.Type.DELETED) {
+            index.remove(event.getEntry().getEntryDate());
+        } else {
+            index.put(event.getEntry().getEntryDate(), PhraseTokenizer.terms(event.getEntry().getYesterdayWork(),
+                    event.getEntry().getTodayPlan(), event.getEntry().getBlockers()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${scrummate.suggest.sweep-interval:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        indexes.values().removeIf(cached -> cached.index.get() == null || now - cached.lastUsed > idleTimeoutMillis);
+        if (indexes.size() > maxUsers) {
+            List<Map.Entry<String, Cached>> byAge = new ArrayList<>(indexes.entrySet());
+            byAge.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+            for (int i = 0; i < byAge.size() - maxUsers; i++) {
+                indexes.remove(byAge.get(i).getKey(), byAge.get(i).getValue());
+            }
+        }
+    }
+
+    private PrefixIndex index(String userEmail) {
+        long now = System.currentTimeMillis();
+        Cached cached = indexes.get(userEmail);
+        PrefixIndex index = cached != null ? cached.index.get() : null;
+        if (index != null && now - cached.builtAt <= maxAgeMillis) {
+            cached.lastUsed = now;
+            return index;
+        }
+        List<DailyEntryChangedEvent> replay = new ArrayList<>();
+        synchronized (lock(userEmail)) {
+            replays.computeIfAbsent(userEmail, email -> new ArrayList<>()).add(replay);
+        }
+        try {
+            index = build(userEmail);
+        } finally {
+            synchronized (lock(userEmail)) {
+                List<List<DailyEntryChangedEvent>> running = replays.get(userEmail);
+                running.remove(replay);
+                if (running.isEmpty()) {
+                    replays.remove(userEmail);
+                }
+            }
+        }
+        synchronized (lock(userEmail)) {
+            // Changes already in the snapshot are applied again; put and remove replace a whole
+            // day, so replaying them in arrival order ends at the latest state
+            for (DailyEntryChangedEvent event : replay) {
+                apply(index, event);
+            }
+            indexes.put(userEmail, new Cached(index, now));
+        }
+        return index;
+    }
+
+    private Object lock(String userEmail) {
+        return locks[Math.floorMod(userEmail.hashCode(), LOCK_STRIPES)];
+    }
+
+    private PrefixIndex build(String userEmail) {
+        ShardDirectory.Placement placement = shardDirectory.lookup(userEmail);
+        PrefixIndex index = new PrefixIndex(windowEntries);
+        if (placement == null) {
+            return index;
+        }
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Map<LocalDate, Map<String, String>> entries = new LinkedHashMap<>();
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(
+                "SELECT entry_date, yesterday_work, today_plan, blockers FROM daily_entries " +
+                "WHERE user_id = ? ORDER BY entry_date DESC LIMIT ?",
+                rs -> {
+                    entries.put(rs.getObject("entry_date", LocalDate.class), PhraseTokenizer.terms(
+                            rs.getString("yesterday_work"), rs.getString("today_plan"), rs.getString("blockers")));
+                },
+                placement.getUserId(), windowEntries));
+        index.putAll(entries);
+        meterRegistry.counter("scrummate.entries.suggest.builds").increment();
+        return index;
+    }
+
+    private static class Cached {
+        private final SoftReference<PrefixIndex> index;
+        private final long builtAt;
+        private volatile long lastUsed;
+
+        Cached(PrefixIndex index, long builtAt) {
+            this.index = new SoftReference<>(index);
+            this.builtAt = builtAt;
+            this.lastUsed = builtAt;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.ericsson.scrummate.service;
+
+import com.ericsson.scrummate.entity.MonthlyReport;
+import com.ericsson.scrummate.entity.WeeklySummary;
+import com.ericsson.scrummate.repository.MonthlyReportRepository;
+import com.ericsson.scrummate.repository.WeeklySummaryRepository;
+import com.ericsson.scrummate.shard.ShardRouter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores the final response JSON of weekly summaries and monthly reports next to the row at
+ * generation time and serves those bytes back without loading or re-serializing the entity.
+ * Rows generated before payloads existed fall back to the entity and are backfilled.
+ */
+@Service
+public class SummaryPayloadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SummaryPayloadService.class);
+
+    static final String IDENTITY = "identity";
+    static final String GZIP = "gzip";
+    private static final int BACKFILL_BATCH = 500;
+
+    public enum Kind {
+        WEEKLY("weekly_summaries", "week_start DESC"),
+        MONTHLY("monthly_reports", "year DESC, month DESC");
+
+        private final String table;
+        private final String order;
+
+        Kind(String table, String order) {
+            this.table = table;
+            this.order = order;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private WeeklySummaryRepository weeklySummaryRepository;
+
+    @Autowired
+    private MonthlyReportRepository monthlyReportRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${scrummate.payloads.gzip-threshold:2048}")
+    private int gzipThreshold;
+
+    /** Serializes the generated entity and stores it; call after the row has been flushed. */
+    public void store(Kind kind, UUID id, Object body) {
+        byte[] json = serialize(body);
+        boolean compress = gzipThreshold > 0 && json.length >= gzipThreshold;
+        jdbcTemplate.update("UPDATE " + kind.table + " SET payload = ?, payload_encoding = ? WHERE id = ?",
+                compress ? gzip(json) : json, compress ? GZIP : IDENTITY, id);
+    }
+
+    public Optional<StoredPayload> find(Kind kind, UUID userId, UUID id) {
+        List<StoredPayload> payloads = jdbcTemplate.query(
+                "SELECT payload, payload_encoding FROM " + kind.table + " WHERE id = ? AND user_id = ? AND payload IS NOT NULL",
+                (rs, rowNum) -> new StoredPayload(id, rs.getBytes("payload"), rs.getString("payload_encoding")),
+                id, userId);
+        return payloads.stream().findFirst();
+    }
+
+    /**
+     * A page of stored payloads embedded as raw JSON. Rows without one are rendered through
+     * {@code fallback}, which loads the entities for the given ids.
+     */
+    public Page<RawValue> page(Kind kind, UUID userId, Pageable pageable,
+                               Function<List<UUID>, Map<UUID, ?>> fallback) {
+        long total = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + kind.table + " WHERE user_id = ?", Long.class, userId);
+        List<StoredPayload> rows = jdbcTemplate.query(
+                "SELECT id, payload, payload_encoding FROM " + kind.table + " WHERE user_id = ? " +
+                "ORDER BY " + kind.order + " LIMIT ? OFFSET ?",
+                (rs, rowNum) -> new StoredPayload(rs.getObject("id", UUID.class), rs.getBytes("payload"),
+                        rs.getString("payload_encoding")),
+                userId, pageable.getPageSize(), pageable.getOffset());
+        return new PageImpl<>(render(rows, fallback), pageable, total);
+    }
+
+    /** The user's most recent summary or report, without the count a page needs. */
+    public Optional<RawValue> latest(Kind kind, UUID userId, Function<List<UUID>, Map<UUID, ?>> fallback) {
+        List<StoredPayload> rows = jdbcTemplate.query(
+                "SELECT id, payload, payload_encoding FROM " + kind.table + " WHERE user_id = ? " +
+                "ORDER BY " + kind.order + " LIMIT 1",
+                (rs, rowNum) -> new StoredPayload(rs.getObject("id", UUID.class), rs.getBytes("payload"),
+                        rs.getString("payload_encoding")),
+                userId);
+        return render(rows, fallback).stream().findFirst();
+    }
+
+    /**
+     * The user's summaries or reports written by transactions from {@code sinceXid} on, or all of
+     * them when it is null, embedded as raw JSON like {@link #page}.
+     */
+    public List<RawValue> changedSince(Kind kind, UUID userId, String sinceXid,
+                                       Function<List<UUID>, Map<UUID, ?>> fallback) {
+        String sql = "SELECT id, payload, payload_encoding FROM " + kind.table + " WHERE user_id = ?" +
+                (sinceXid != null ? " AND change_xid >= ?::xid8" : "") + " ORDER BY " + kind.order;
+        Object[] args = sinceXid != null ? new Object[] {userId, sinceXid} : new Object[] {userId};
+        List<StoredPayload> rows = jdbcTemplate.query(sql,
+                (rs, rowNum) -> new StoredPayload(rs.getObject("id", UUID.class), rs.getBytes("payload"),
+                        rs.getString("payload_encoding")),
+                args);
+        return render(rows, fallback);
+    }
+
+    private List<RawValue> render(List<StoredPayload> rows, Function<List<UUID>, Map<UUID, ?>> fallback) {
+        List<UUID> missing = new ArrayList<>();
+        for (StoredPayload row : rows) {
+            if (row.bytes == null) {
+                missing.add(row.id);
+            }
+        }
+        Map<UUID, ?> entities = missing.isEmpty() ? Map.of() : fallback.apply(missing);
+
+        List<RawValue> content = new ArrayList<>(rows.size());
+        for (StoredPayload row : rows) {
+            byte[] json = row.bytes != null ? row.json() : serialize(entities.get(row.id));
+            content.add(new RawValue(new String(json, StandardCharsets.UTF_8)));
+        }
+        return content;
+    }
+
+    private List<UUID> findMissing(Kind kind, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM " + kind.table + " WHERE payload IS NULL ORDER BY generated_at LIMIT ?",
+                UUID.class, limit);
+    }
+
+    /**
+     * Writes a stored payload as the response body. A gzip payload goes out as-is when the
+     * client accepts gzip, so the read is a byte copy; otherwise it is inflated first.
+     */
+    public ResponseEntity<byte[]> toResponse(StoredPayload payload, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag("\"" + payload.id + "\"")
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate().immutable())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (GZIP.equals(payload.encoding) && acceptEncoding != null && acceptEncoding.contains(GZIP)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(payload.bytes);
+        }
+        return response.body(payload.json());
+    }
+
+    /** Entity-based fallback for rows that have no stored payload. */
+    public StoredPayload fromEntity(UUID id, Object entity) {
+        return new StoredPayload(id, serialize(entity), IDENTITY);
+    }
+
+    @Scheduled(initialDelayString = "${scrummate.payloads.backfill-delay:60000}",
+               fixedDelayString = "${scrummate.payloads.backfill-interval:3600000}")
+    public void backfillMissingPayloads() {
+        int[] filled = new int[1];
+        shardRouter.forEachShard(shard -> {
+            List<UUID> missing;
+            do {
+                missing = findMissing(Kind.WEEKLY, BACKFILL_BATCH);
+                for (WeeklySummary summary : weeklySummaryRepository.findAllById(missing)) {
+                    store(Kind.WEEKLY, summary.getId(), summary);
+                    filled[0]++;
+                }
+            } while (missing.size() == BACKFILL_BATCH);
+            do {
+                missing = findMissing(Kind.MONTHLY, BACKFILL_BATCH);
+                for (MonthlyReport report : monthlyReportRepository.findAllById(missing)) {
+                    store(Kind.MONTHLY, report.getId(), report);
+                    filled[0]++;
+                }
+            } while (missing.size() == BACKFILL_BATCH);
+        });
+        if (filled[0] > 0) {
+            logger.info("Stored payloads for {} summaries and reports generated before payload storage", filled[0]);
+        }
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + body.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static class StoredPayload {
+        private final UUID id;
+        private final byte[] bytes;
+        private final String encoding;
+
+        StoredPayload(UUID id, byte[] bytes, String encoding) {
+            this.id = id;
+            this.bytes = bytes;
+            this.encoding = encoding;
+        }
+
+        byte[] json() {
+            if (!GZIP.equals(encoding)) {
+                return bytes;
+            }
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
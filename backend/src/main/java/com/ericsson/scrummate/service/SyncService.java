@@ -0,0 +1,202 @@
+package com.ericsson.scrummate.service;
+
+import com.ericsson.scrummate.dto.DailyEntryDTO;
+import com.ericsson.scrummate.dto.SyncDTO;
+import com.ericsson.scrummate.entity.MonthlyReport;
+import com.ericsson.scrummate.entity.User;
+import com.ericsson.scrummate.entity.WeeklySummary;
+import com.ericsson.scrummate.repository.MonthlyReportRepository;
+import com.ericsson.scrummate.repository.UserRepository;
+import com.ericsson.scrummate.repository.WeeklySummaryRepository;
+import com.ericsson.scrummate.shard.ShardContext;
+import com.ericsson.scrummate.shard.ShardRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Everything in a user's entries, summaries and reports that changed since a cursor, for clients
+ * that keep a local copy. Rows carry the id of the transaction that last wrote them and deletes
+ * leave tombstones (see V13). The cursor returned is the xmin of the read snapshot: every
+ * transaction below it had finished, so the next sync asks for rows stamped from there on.
+ * Transactions that were still running may show up twice, so clients apply changes as upserts.
+ *
+ * A cursor is only meaningful on the shard that issued it, so a user that was moved, or a cursor
+ * older than the purged tombstones, gets a full sync instead. Archiving moves entries without a
+ * tombstone; a full sync includes the archived entries and restored ones come back as changes.
+ */
+@Service
+public class SyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
+
+    private static final String ENTRY_COLUMNS =
+            "id, entry_date, yesterday_work, today_plan, blockers, created_at, updated_at, version";
+
+    // An archived entry that is restored comes back with the same id; the live row wins
+    private static final String TOMBSTONES =
+            "SELECT DISTINCT t.resource, t.resource_id FROM sync_tombstones t " +
+            "WHERE t.user_id = ? AND t.change_xid >= ?::xid8 AND NOT EXISTS (" +
+            "SELECT 1 FROM daily_entries e WHERE t.resource = 'entry' AND e.user_id = t.user_id AND e.id = t.resource_id)";
+
+    // Moves the horizon and drops the tombstones below it in one statement
+    private static final String PURGE =
+            "WITH purged AS (DELETE FROM sync_tombstones WHERE change_xid <= ?::xid8 RETURNING 1), " +
+            "horizon AS (UPDATE sync_horizon SET purged_through = GREATEST(purged_through, ?::xid8) WHERE id = 1) " +
+            "SELECT COUNT(*) FROM purged";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WeeklySummaryRepository weeklySummaryRepository;
+
+    @Autowired
+    private MonthlyReportRepository monthlyReportRepository;
+
+    @Autowired
+    private SummaryPayloadService summaryPayloadService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private EntryArchiveService entryArchiveService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${scrummate.sync.tombstone-retention-days:30}")
+    private int tombstoneRetentionDays;
+
+    // Repeatable read, so the snapshot xmin and every query below see the same snapshot
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public SyncDTO changesSince(String userEmail, String cursor) {
+        User user = getUserByEmail(userEmail);
+        String xmin = jdbcTemplate.queryForObject("SELECT pg_snapshot_xmin(pg_current_snapshot())::text", String.class);
+        String since = deltaStart(cursor);
+
+        SyncDTO sync = new SyncDTO();
+        sync.setCursor(ShardContext.current() + ":" + xmin);
+        sync.setFull(since == null);
+        List<DailyEntryDTO> entries = jdbcTemplate.query(
+                "SELECT " + ENTRY_COLUMNS + " FROM daily_entries WHERE user_id = ?" +
+                (since != null ? " AND change_xid >= ?::xid8" : "") + " ORDER BY entry_date DESC",
+                (rs, rowNum) -> {
+                    DailyEntryDTO entry = new DailyEntryDTO(rs.getObject("id", UUID.class),
+                            rs.getObject("entry_date", LocalDate.class), rs.getString("yesterday_work"),
+                            rs.getString("today_plan"), rs.getString("blockers"),
+                            rs.getObject("created_at", LocalDateTime.class), rs.getObject("updated_at", LocalDateTime.class));
+                    entry.setVersion(rs.getLong("version"));
+                    return entry;
+                },
+                since != null ? new Object[] {user.getId(), since} : new Object[] {user.getId()});
+        if (since == null) {
+            entries = withArchived(user.getId(), entries);
+        }
+        sync.setEntries(entries);
+        sync.setWeeklySummaries(summaryPayloadService.changedSince(SummaryPayloadService.Kind.WEEKLY, user.getId(), since,
+                ids -> weeklySummaryRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(WeeklySummary::getId, Function.identity()))));
+        sync.setMonthlyReports(summaryPayloadService.changedSince(SummaryPayloadService.Kind.MONTHLY, user.getId(), since,
+                ids -> monthlyReportRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(MonthlyReport::getId, Function.identity()))));
+        if (since != null) {
+            sync.setDeleted(jdbcTemplate.query(TOMBSTONES,
+                    (rs, rowNum) -> new SyncDTO.Tombstone(rs.getString("resource"), rs.getObject("resource_id", UUID.class)),
+                    user.getId(), since));
+        }
+        meterRegistry.counter("scrummate.sync.requests", "mode", sync.isFull() ? "full" : "delta").increment();
+        return sync;
+    }
+
+    // Archiving leaves no tombstones, so a full sync has to hand out archived entries too. An entry
+    // caught in both places while an archive run commits is only listed once, the live row winning.
+    private List<DailyEntryDTO> withArchived(UUID userId, List<DailyEntryDTO> live) {
+        List<DailyEntryDTO> archived = entryArchiveService.archivedEntries(userId);
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Set<UUID> liveIds = new HashSet<>();
+        Set<LocalDate> liveDates = new HashSet<>();
+        for (DailyEntryDTO entry : live) {
+            liveIds.add(entry.getId());
+            liveDates.add(entry.getEntryDate());
+        }
+        List<DailyEntryDTO> merged = new ArrayList<>(live);
+        for (DailyEntryDTO entry : archived) {
+            if (!liveIds.contains(entry.getId()) && !liveDates.contains(entry.getEntryDate())) {
+                merged.add(entry);
+            }
+        }
+        merged.sort(Comparator.comparing(DailyEntryDTO::getEntryDate).reversed());
+        return merged;
+    }
+
+    /** The transaction id a delta starts from, or null when the client needs everything. */
+    private String deltaStart(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = cursor.split(":");
+        int shard;
+        String xid;
+        try {
+            if (parts.length != 2) {
+                throw new NumberFormatException(cursor);
+            }
+            shard = Integer.parseInt(parts[0]);
+            xid = Long.toUnsignedString(Long.parseUnsignedLong(parts[1]));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync cursor");
+        }
+        if (shard != ShardContext.current()) {
+            return null;
+        }
+        Boolean purged = jdbcTemplate.queryForObject(
+                "SELECT purged_through >= ?::xid8 FROM sync_horizon WHERE id = 1", Boolean.class, xid);
+        return Boolean.TRUE.equals(purged) ? null : xid;
+    }
+
+    @Scheduled(cron = "${scrummate.sync.cleanup-cron:0 15 4 * * *}")
+    public void purgeTombstones() {
+        shardRouter.forEachShard(shard -> {
+            List<String> newest = jdbcTemplate.queryForList(
+                    "SELECT change_xid::text FROM sync_tombstones WHERE deleted_at < ? ORDER BY change_xid DESC LIMIT 1",
+                    String.class, LocalDateTime.now().minusDays(tombstoneRetentionDays));
+            if (newest.isEmpty()) {
+                return;
+            }
+            Long purged = jdbcTemplate.queryForObject(PURGE, Long.class, newest.get(0), newest.get(0));
+            logger.info("Purged {} sync tombstones older than {} days on shard {}", purged, tombstoneRetentionDays, shard);
+        });
+    }
+
+    private User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
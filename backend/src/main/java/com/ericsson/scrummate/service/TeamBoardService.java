@@ -0,0 +1,302 @@
+package com.ericsson.scrummate.service;
+
+import com.ericsson.scrummate.archive.ArchiveSegment;
+import com.ericsson.scrummate.archive.ArchiveStore;
+import com.ericsson.scrummate.dto.DailyEntryDTO;
+import com.ericsson.scrummate.dto.TeamBoardDTO;
+import com.ericsson.scrummate.entity.Team;
+import com.ericsson.scrummate.entity.TeamMember;
+import com.ericsson.scrummate.event.DailyEntryChangedEvent;
+import com.ericsson.scrummate.shard.ShardContext;
+import com.ericsson.scrummate.shard.ShardDirectory;
+import com.ericsson.scrummate.shard.ShardRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Maintains team_board_entries, a per-team copy of daily_entries, and answers board reads
+ * from it with a single query over the team's members.
+ *
+ * The board lives on the directory shard with the teams. For users on another shard it is
+ * brought up to date once their transaction commits, so it can briefly lag their entries and a
+ * crash in between leaves it stale until {@link #rebuildUser} runs for them.
+ */
+@Service
+public class TeamBoardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TeamBoardService.class);
+
+    private static final String UPSERT_FOR_USER_TEAMS =
+            "INSERT INTO team_board_entries (team_id, entry_date, user_id, entry_id, yesterday_work, today_plan, blockers, updated_at) " +
+            "SELECT m.team_id, ?, m.user_id, ?, ?, ?, ?, CURRENT_TIMESTAMP FROM team_members m WHERE m.user_id = ? " +
+            "ON CONFLICT (team_id, entry_date, user_id) DO UPDATE SET entry_id = EXCLUDED.entry_id, " +
+            "yesterday_work = EXCLUDED.yesterday_work, today_plan = EXCLUDED.today_plan, " +
+            "blockers = EXCLUDED.blockers, updated_at = EXCLUDED.updated_at";
+
+    private static final String INSERT_FOR_USER_TEAMS =
+            "INSERT INTO team_board_entries (team_id, entry_date, user_id, entry_id, yesterday_work, today_plan, blockers, updated_at) " +
+            "SELECT m.team_id, ?, m.user_id, ?, ?, ?, ?, ? FROM team_members m WHERE m.user_id = ? " +
+            "ON CONFLICT DO NOTHING";
+
+    private static final String ENTRY_COLUMNS = "id, entry_date, yesterday_work, today_plan, blockers, updated_at";
+
+    private static final String BOARD_QUERY =
+            "SELECT m.user_id, u.full_name, u.email, m.role, " +
+            "b.entry_id, b.entry_date, b.yesterday_work, b.today_plan, b.blockers, b.updated_at " +
+            "FROM team_members m " +
+            "JOIN users u ON u.id = m.user_id " +
+            "LEFT JOIN team_board_entries b ON b.team_id = m.team_id AND b.user_id = m.user_id " +
+            "AND b.entry_date BETWEEN ? AND ? " +
+            "WHERE m.team_id = ? " +
+            "ORDER BY u.full_name, m.user_id, b.entry_date";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ArchiveStore archiveStore;
+
+    @Value("${scrummate.teams.board.latency-target:200ms}")
+    private Duration latencyTarget;
+
+    private Timer boardTimer;
+
+    @PostConstruct
+    public void init() {
+        boardTimer = Timer.builder("scrummate.teams.board.duration")
+                .description("Time to assemble a team standup board")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .serviceLevelObjectives(latencyTarget)
+                .register(meterRegistry);
+    }
+
+    // On the directory shard this runs in the DailyEntryService transaction, so the board never
+    // disagrees with the entry
+    @EventListener
+    public void onEntryChanged(DailyEntryChangedEvent event) {
+        onDirectory(directory -> {
+            DailyEntryDTO entry = event.getEntry();
+            if (event.getType() == DailyEntryChangedEvent.Type.DELETED) {
+                directory.update("DELETE FROM team_board_entries WHERE user_id = ? AND entry_date = ?",
+                        event.getUserId(), entry.getEntryDate());
+            } else {
+                directory.update(UPSERT_FOR_USER_TEAMS, entry.getEntryDate(), entry.getId(),
+                        entry.getYesterdayWork(), entry.getTodayPlan(), entry.getBlockers(), event.getUserId());
+            }
+        });
+    }
+
+    /** Copies a new member's live and archived entries onto the team's board. */
+    @Transactional
+    public void addMember(UUID teamId, UUID userId) {
+        int shard = shardDirectory.shardOf(userId);
+        List<Object[]> entries = new ArrayList<>();
+        if (shard == ShardContext.current()) {
+            jdbcTemplate.update(
+                    "INSERT INTO team_board_entries (team_id, entry_date, user_id, entry_id, yesterday_work, today_plan, blockers, updated_at) " +
+                    "SELECT ?, e.entry_date, e.user_id, e.id, e.yesterday_work, e.today_plan, e.blockers, e.updated_at " +
+                    "FROM daily_entries e WHERE e.user_id = ? ON CONFLICT DO NOTHING",
+                    teamId, userId);
+        } else {
+            entries.addAll(shardRouter.jdbcTemplate(shard).query(
+                    "SELECT " + ENTRY_COLUMNS + " FROM daily_entries WHERE user_id = ?", TeamBoardService::toRow, userId));
+        }
+        // After the live rows, so a live entry wins over an archived one on the same date
+        entries.addAll(archivedRows(userId, LocalDate.MIN, LocalDate.MAX));
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO team_board_entries (team_id, entry_date, user_id, entry_id, yesterday_work, today_plan, blockers, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING",
+                entries, 500, (ps, row) -> {
+                    ps.setObject(1, teamId);
+                    ps.setObject(2, row[1]);
+                    ps.setObject(3, userId);
+                    ps.setObject(4, row[0]);
+                    ps.setObject(5, row[2]);
+                    ps.setObject(6, row[3]);
+                    ps.setObject(7, row[4]);
+                    ps.setObject(8, row[5]);
+                });
+    }
+
+    @Transactional
+    public void removeMember(UUID teamId, UUID userId) {
+        jdbcTemplate.update("DELETE FROM team_board_entries WHERE team_id = ? AND user_id = ?", teamId, userId);
+    }
+
+    /**
+     * Re-derives a user's board rows for a date range from daily_entries and the published
+     * archive segments, after daily_entries changed outside the service. Call it on the user's
+     * shard.
+     */
+    @Transactional
+    public void rebuildUser(UUID userId, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> archived = archivedRows(userId, startDate, endDate);
+        if (ShardContext.current() == ShardContext.DIRECTORY) {
+            jdbcTemplate.update("DELETE FROM team_board_entries WHERE user_id = ? AND entry_date BETWEEN ? AND ?",
+                    userId, startDate, endDate);
+            jdbcTemplate.update(
+                    "INSERT INTO team_board_entries (team_id, entry_date, user_id, entry_id, yesterday_work, today_plan, blockers, updated_at) " +
+                    "SELECT m.team_id, e.entry_date, e.user_id, e.id, e.yesterday_work, e.today_plan, e.blockers, e.updated_at " +
+                    "FROM daily_entries e JOIN team_members m ON m.user_id = e.user_id " +
+                    "WHERE e.user_id = ? AND e.entry_date BETWEEN ? AND ?",
+                    userId, startDate, endDate);
+            insertForUserTeams(jdbcTemplate, userId, archived);
+            return;
+        }
+        // Read inside the caller's transaction so the rows match what it commits
+        List<Object[]> entries = new ArrayList<>(jdbcTemplate.query(
+                "SELECT " + ENTRY_COLUMNS + " FROM daily_entries WHERE user_id = ? AND entry_date BETWEEN ? AND ?",
+                TeamBoardService::toRow, userId, startDate, endDate));
+        entries.addAll(archived);
+        onDirectory(directory -> {
+            directory.update("DELETE FROM team_board_entries WHERE user_id = ? AND entry_date BETWEEN ? AND ?",
+                    userId, startDate, endDate);
+            insertForUserTeams(directory, userId, entries);
+        });
+    }
+
+    // The first row for a date wins, so pass live rows ahead of archived ones
+    private static void insertForUserTeams(JdbcTemplate target, UUID userId, List<Object[]> entries) {
+        target.batchUpdate(INSERT_FOR_USER_TEAMS, entries, 500, (ps, row) -> {
+            ps.setObject(1, row[1]);
+            ps.setObject(2, row[0]);
+            ps.setObject(3, row[2]);
+            ps.setObject(4, row[3]);
+            ps.setObject(5, row[4]);
+            ps.setObject(6, row[5]);
+            ps.setObject(7, userId);
+        });
+    }
+
+    private List<Object[]> archivedRows(UUID userId, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> rows = new ArrayList<>();
+        try {
+            for (int year : archiveStore.years(userId)) {
+                if (year < startDate.getYear() || year > endDate.getYear()) {
+                    continue;
+                }
+                Optional<ArchiveSegment> segment = archiveStore.segment(userId, year);
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                LocalDate from = year == startDate.getYear() ? startDate : LocalDate.of(year, 1, 1);
+                LocalDate to = year == endDate.getYear() ? endDate : LocalDate.of(year, 12, 31);
+                for (DailyEntryDTO entry : segment.get().read(from, to)) {
+                    rows.add(new Object[] {entry.getId(), entry.getEntryDate(), entry.getYesterdayWork(),
+                            entry.getTodayPlan(), entry.getBlockers(),
+                            Timestamp.valueOf(entry.getUpdatedAt() != null ? entry.getUpdatedAt() : LocalDateTime.now())});
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    @Transactional(readOnly = true)
+    public TeamBoardDTO getBoard(Team team, LocalDate startDate, LocalDate endDate) {
+        long started = System.nanoTime();
+        TeamBoardDTO board = new TeamBoardDTO();
+        board.setTeamId(team.getId());
+        board.setTeamName(team.getName());
+        board.setStartDate(startDate);
+        board.setEndDate(endDate);
+
+        Map<UUID, TeamBoardDTO.Member> members = new LinkedHashMap<>();
+        jdbcTemplate.query(BOARD_QUERY, rs -> {
+            UUID userId = rs.getObject("user_id", UUID.class);
+            TeamBoardDTO.Member member = members.get(userId);
+            if (member == null) {
+                member = new TeamBoardDTO.Member(userId, rs.getString("full_name"), rs.getString("email"),
+                        TeamMember.Role.valueOf(rs.getString("role")));
+                members.put(userId, member);
+            }
+            UUID entryId = rs.getObject("entry_id", UUID.class);
+            if (entryId == null) {
+                return;
+            }
+            LocalDate entryDate = rs.getObject("entry_date", LocalDate.class);
+            String blockers = rs.getString("blockers");
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            member.getEntries().add(new DailyEntryDTO(entryId, entryDate, rs.getString("yesterday_work"),
+                    rs.getString("today_plan"), blockers, null, updatedAt != null ? updatedAt.toLocalDateTime() : null));
+            if (blockers != null && !blockers.isBlank()) {
+                board.getBlockers().add(new TeamBoardDTO.Blocker(userId, member.getFullName(), entryDate, blockers));
+            }
+        }, startDate, endDate, team.getId());
+
+        board.getMembers().addAll(members.values());
+        board.setMemberCount(members.size());
+        board.setSubmittedCount((int) members.values().stream().filter(m -> !m.getEntries().isEmpty()).count());
+
+        long elapsed = System.nanoTime() - started;
+        boardTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        if (elapsed > latencyTarget.toNanos()) {
+            logger.warn("Board for team {} ({} members, {} to {}) took {} ms", team.getId(), members.size(),
+                    startDate, endDate, elapsed / 1_000_000);
+        }
+        return board;
+    }
+
+    // Directory writes from another shard's transaction wait for its commit
+    private void onDirectory(Consumer<JdbcTemplate> update) {
+        if (ShardContext.current() == ShardContext.DIRECTORY
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.accept(shardRouter.directory());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    update.accept(shardRouter.directory());
+                } catch (Exception e) {
+                    logger.error("Could not update team boards after commit", e);
+                }
+            }
+        });
+    }
+
+    private static Object[] toRow(ResultSet rs, int rowNum) throws SQLException {
+        return new Object[] {rs.getObject("id", UUID.class), rs.getObject("entry_date", LocalDate.class),
+                rs.getString("yesterday_work"), rs.getString("today_plan"), rs.getString("blockers"),
+                rs.getTimestamp("updated_at")};
+    }
+}
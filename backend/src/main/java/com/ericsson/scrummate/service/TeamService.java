@@ -0,0 +1,228 @@
+package com.ericsson.scrummate.service;
+
+import com.ericsson.scrummate.dto.BlockerReportDTO;
+import com.ericsson.scrummate.dto.TeamBoardDTO;
+import com.ericsson.scrummate.dto.TeamDTO;
+import com.ericsson.scrummate.dto.TeamInvitationDTO;
+import com.ericsson.scrummate.dto.TeamMemberDTO;
+import com.ericsson.scrummate.dto.TeamMemberRequest;
+import com.ericsson.scrummate.dto.TeamRequest;
+import com.ericsson.scrummate.entity.Team;
+import com.ericsson.scrummate.entity.TeamInvitation;
+import com.ericsson.scrummate.entity.TeamMember;
+import com.ericsson.scrummate.entity.User;
+import com.ericsson.scrummate.repository.TeamInvitationRepository;
+import com.ericsson.scrummate.repository.TeamMemberRepository;
+import com.ericsson.scrummate.repository.TeamRepository;
+import com.ericsson.scrummate.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class TeamService {
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private TeamMemberRepository teamMemberRepository;
+
+    @Autowired
+    private TeamInvitationRepository teamInvitationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TeamBoardService teamBoardService;
+
+    @Autowired
+    private BlockerAnalyticsService blockerAnalyticsService;
+
+    public TeamDTO createTeam(String userEmail, TeamRequest request) {
+        User user = getUserByEmail(userEmail);
+        Team team = teamRepository.save(new Team(request.getName(), user));
+        // The board rows are inserted with plain JDBC and reference the team, so it must be written first
+        teamMemberRepository.saveAndFlush(new TeamMember(team, user, TeamMember.Role.MANAGER));
+        teamBoardService.addMember(team.getId(), user.getId());
+        return new TeamDTO(team.getId(), team.getName(), TeamMember.Role.MANAGER, team.getCreatedAt());
+    }
+
+    @Transactional(readOnly = true)
+    public List<TeamDTO> getTeams(String userEmail) {
+        User user = getUserByEmail(userEmail);
+        return teamMemberRepository.findByUser(user).stream()
+                .map(m -> new TeamDTO(m.getTeam().getId(), m.getTeam().getName(), m.getRole(), m.getTeam().getCreatedAt()))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<TeamMemberDTO> getMembers(String userEmail, UUID teamId) {
+        User user = getUserByEmail(userEmail);
+        Team team = getTeam(teamId);
+        requireMember(team, user);
+        return teamMemberRepository.findByTeam(team).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Invites a user to the team. Membership, and with it the copy of their entries on the
+     * board, only starts once they accept.
+     */
+    public TeamInvitationDTO invite(String userEmail, UUID teamId, TeamMemberRequest request) {
+        User user = getUserByEmail(userEmail);
+        Team team = getTeam(teamId);
+        requireManager(team, user);
+        User invitee = userRepository.findByEmail(request.getEmail())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        if (teamMemberRepository.existsByTeamAndUser(team, invitee)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "User is already a member of this team");
+        }
+        if (teamInvitationRepository.existsByTeamAndUser(team, invitee)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "User has already been invited to this team");
+        }
+        TeamInvitation invitation = teamInvitationRepository.save(
+                new TeamInvitation(team, invitee, request.getRole(), user));
+        return convertToDTO(invitation);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TeamInvitationDTO> getInvitations(String userEmail) {
+        User user = getUserByEmail(userEmail);
+        return teamInvitationRepository.findByUser(user).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<TeamInvitationDTO> getTeamInvitations(String userEmail, UUID teamId) {
+        User user = getUserByEmail(userEmail);
+        Team team = getTeam(teamId);
+        requireManager(team, user);
+        return teamInvitationRepository.findByTeam(team).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    public TeamMemberDTO acceptInvitation(String userEmail, UUID invitationId) {
+        User user = getUserByEmail(userEmail);
+        TeamInvitation invitation = getInvitation(invitationId);
+        if (!invitation.getUser().getId().equals(user.getId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Invitation not found");
+        }
+        Team team = invitation.getTeam();
+        if (teamMemberRepository.existsByTeamAndUser(team, user)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "User is already a member of this team");
+        }
+        teamInvitationRepository.delete(invitation);
+        TeamMember member = teamMemberRepository.save(new TeamMember(team, user, invitation.getRole()));
+        teamBoardService.addMember(team.getId(), user.getId());
+        return convertToDTO(member);
+    }
+
+    /** Declines an invitation when called by the invited user, or withdraws it when called by a manager. */
+    public void deleteInvitation(String userEmail, UUID invitationId) {
+        User user = getUserByEmail(userEmail);
+        TeamInvitation invitation = getInvitation(invitationId);
+        if (!invitation.getUser().getId().equals(user.getId())) {
+            requireManager(invitation.getTeam(), user);
+        }
+        teamInvitationRepository.delete(invitation);
+    }
+
+    public void removeMember(String userEmail, UUID teamId, UUID userId) {
+        User user = getUserByEmail(userEmail);
+        Team team = getTeam(teamId);
+        if (!user.getId().equals(userId)) {
+            requireManager(team, user);
+        }
+        User removed = userRepository.findById(userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        TeamMember member = teamMemberRepository.findByTeamAndUser(team, removed)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User is not a member of this team"));
+        teamMemberRepository.delete(member);
+        teamBoardService.removeMember(team.getId(), userId);
+    }
+
+    /** Board for the day of {@code date}, or for its Monday-to-Sunday week when {@code week} is set. */
+    @Transactional(readOnly = true)
+    public TeamBoardDTO getBoard(String userEmail, UUID teamId, LocalDate date, boolean week) {
+        User user = getUserByEmail(userEmail);
+        Team team = getTeam(teamId);
+        requireMember(team, user);
+        LocalDate startDate = week ? date.with(DayOfWeek.MONDAY) : date;
+        LocalDate endDate = week ? startDate.plusDays(6) : date;
+        return teamBoardService.getBoard(team, startDate, endDate);
+    }
+
+    @Transactional(readOnly = true)
+    public BlockerReportDTO getTopBlockers(String userEmail, UUID teamId, LocalDate date, int limit) {
+        User user = getUserByEmail(userEmail);
+        Team team = getTeam(teamId);
+        requireMember(team, user);
+        return blockerAnalyticsService.getTopBlockers(team.getId(), date, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public BlockerReportDTO getTrendingBlockers(String userEmail, UUID teamId, LocalDate date, int limit) {
+        User user = getUserByEmail(userEmail);
+        Team team = getTeam(teamId);
+        requireMember(team, user);
+        return blockerAnalyticsService.getTrendingBlockers(team.getId(), date, limit);
+    }
+
+    private void requireMember(Team team, User user) {
+        if (user.getRole() != User.Role.ADMIN && !teamMemberRepository.existsByTeamAndUser(team, user)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not a member of this team");
+        }
+    }
+
+    private void requireManager(Team team, User user) {
+        if (user.getRole() == User.Role.ADMIN) {
+            return;
+        }
+        Optional<TeamMember> member = teamMemberRepository.findByTeamAndUser(team, user);
+        if (member.isEmpty() || member.get().getRole() != TeamMember.Role.MANAGER) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only team managers can change membership");
+        }
+    }
+
+    private TeamInvitation getInvitation(UUID invitationId) {
+        return teamInvitationRepository.findById(invitationId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invitation not found"));
+    }
+
+    private Team getTeam(UUID teamId) {
+        return teamRepository.findById(teamId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Team not found"));
+    }
+
+    private User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private TeamMemberDTO convertToDTO(TeamMember member) {
+        User user = member.getUser();
+        return new TeamMemberDTO(user.getId(), user.getEmail(), user.getFullName(), member.getRole(), member.getJoinedAt());
+    }
+
+    private TeamInvitationDTO convertToDTO(TeamInvitation invitation) {
+        User invitedBy = invitation.getInvitedBy();
+        return new TeamInvitationDTO(invitation.getId(), invitation.getTeam().getId(), invitation.getTeam().getName(),
+                invitation.getUser().getEmail(), invitation.getRole(), invitedBy != null ? invitedBy.getEmail() : null,
+                invitation.getCreatedAt());
+    }
+}
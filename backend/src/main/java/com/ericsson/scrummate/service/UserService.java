@@ -4,11 +4,13 @@ import com.ericsson.scrummate.entity.User;
 import com.ericsson.scrummate.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
+@Transactional(readOnly = true)
 public class UserService {
     
     @Autowired
@@ -0,0 +1,548 @@
+package com.ericsson.scrummate.service;
+
+import com.ericsson.scrummate.archive.ArchiveSegment;
+import com.ericsson.scrummate.archive.ArchiveStore;
+import com.ericsson.scrummate.dto.DailyEntryDTO;
+import com.ericsson.scrummate.dto.UserStatsDTO;
+import com.ericsson.scrummate.entity.User;
+import com.ericsson.scrummate.event.DailyEntryChangedEvent;
+import com.ericsson.scrummate.repository.UserRepository;
+import com.ericsson.scrummate.shard.ShardRouter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintains user_stats, each user's entry count, blocker days, entries per month and streak,
+ * so that /api/v1/stats is a single primary-key read.
+ *
+ * Counters move by atomic increments in the DailyEntryService transaction. The streak is the
+ * run of consecutive days ending at the last entry: appending the next day or starting a new
+ * run is decided in the same statement, and only writes next to the run's start or inside it
+ * read the (user_id, entry_date) index to find where the run now begins. Changes that bypass
+ * the service, such as retention purges, are picked up by {@link #reconcile}.
+ *
+ * Archived entries count as well. A run that reaches a day without a live entry carries on into
+ * the archive, and a live entry on a date that is also archived replaces the archived one rather
+ * than adding a day.
+ */
+@Service
+public class UserStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStatsService.class);
+
+    private static final int RUN_PAGE = 64;
+    private static final UUID MIN_UUID = new UUID(0, 0);
+    // Same rule as is_blocker_day() in V16, for archived entries the database cannot see
+    private static final Set<String> NO_BLOCKER = Set.of("", "none", "no", "n/a", "-");
+
+    private static final String RECORD_CREATED =
+            "INSERT INTO user_stats (user_id, entry_count, blocker_days, last_entry_date, streak_days, monthly_counts) " +
+            "VALUES (?, 1, is_blocker_day(?)::int, ?, 1, jsonb_build_object(?::text, 1)) " +
+            "ON CONFLICT (user_id) DO UPDATE SET entry_count = user_stats.entry_count + 1, " +
+            "blocker_days = user_stats.blocker_days + EXCLUDED.blocker_days, " +
+            "monthly_counts = user_stats.monthly_counts || " +
+            "jsonb_build_object(?::text, COALESCE((user_stats.monthly_counts ->> ?)::int, 0) + 1), " +
+            "streak_days = CASE " +
+            "WHEN user_stats.last_entry_date IS NULL OR EXCLUDED.last_entry_date > user_stats.last_entry_date + 1 THEN 1 " +
+            "WHEN EXCLUDED.last_entry_date = user_stats.last_entry_date + 1 THEN user_stats.streak_days + 1 " +
+            "ELSE user_stats.streak_days END, " +
+            "last_entry_date = GREATEST(user_stats.last_entry_date, EXCLUDED.last_entry_date), " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "RETURNING last_entry_date, streak_days";
+
+    private static final String RECORD_DELETED =
+            "UPDATE user_stats SET entry_count = entry_count - 1, " +
+            "blocker_days = blocker_days - is_blocker_day(?)::int, " +
+            "monthly_counts = CASE WHEN COALESCE((monthly_counts ->> ?)::int, 0) <= 1 THEN monthly_counts - ?::text " +
+            "ELSE monthly_counts || jsonb_build_object(?::text, (monthly_counts ->> ?)::int - 1) END, " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "WHERE user_id = ? RETURNING last_entry_date, streak_days";
+
+    private static final String RECORD_BLOCKERS_CHANGED =
+            "UPDATE user_stats SET blocker_days = blocker_days + is_blocker_day(?)::int - is_blocker_day(?)::int, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE user_id = ? AND is_blocker_day(?) <> is_blocker_day(?)";
+
+    private static final String USERS_ON_SHARD =
+            "SELECT u.id FROM users u LEFT JOIN user_shards s ON s.user_id = u.id " +
+            "WHERE COALESCE(s.shard, 0) = ? AND s.moving_to IS NULL AND u.id > ? ORDER BY u.id LIMIT ?";
+
+    // As the backfill in V16; consecutive days share entry_date - row_number
+    private static final String RECOMPUTE =
+            "WITH d AS (SELECT user_id, entry_date, blockers FROM daily_entries WHERE user_id = ANY(?)) " +
+            "SELECT t.user_id, t.entry_count, t.blocker_days, t.last_entry_date, r.run_length AS streak_days, " +
+            "m.monthly_counts::text AS monthly_counts " +
+            "FROM (SELECT user_id, COUNT(*) AS entry_count, COUNT(*) FILTER (WHERE is_blocker_day(blockers)) AS blocker_days, " +
+            "MAX(entry_date) AS last_entry_date FROM d GROUP BY user_id) t " +
+            "JOIN (SELECT user_id, jsonb_object_agg(month, n) AS monthly_counts FROM " +
+            "(SELECT user_id, to_char(entry_date, 'YYYY-MM') AS month, COUNT(*) AS n FROM d GROUP BY 1, 2) months " +
+            "GROUP BY user_id) m ON m.user_id = t.user_id " +
+            "JOIN (SELECT user_id, MAX(entry_date) AS run_end, COUNT(*) AS run_length FROM " +
+            "(SELECT user_id, entry_date, entry_date - (ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY entry_date))::int AS run " +
+            "FROM d) days GROUP BY user_id, run) r ON r.user_id = t.user_id AND r.run_end = t.last_entry_date";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ArchiveStore archiveStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${scrummate.stats.reconcile-batch-size:200}")
+    private int reconcileBatchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private Counter repairedCounter;
+    private ExecutorService worker;
+
+    @PostConstruct
+    public void init() {
+        worker = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("stats-reconcile-"));
+        repairedCounter = Counter.builder("scrummate.stats.repaired")
+                .description("User stats rows found out of step by reconciliation")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    // Runs in the DailyEntryService transaction on the user's shard, so the stats commit or roll
+    // back with the entry
+    @EventListener
+    public void onEntryChanged(DailyEntryChangedEvent event) {
+        UUID userId = event.getUserId();
+        DailyEntryDTO entry = event.getEntry();
+        if (event.getType() != DailyEntryChangedEvent.Type.UPDATED) {
+            // The day is already counted through the archived entry, which only changes blockers
+            Optional<DailyEntryDTO> archived = archivedEntry(userId, entry.getEntryDate());
+            if (archived.isPresent()) {
+                if (event.getType() == DailyEntryChangedEvent.Type.CREATED) {
+                    recordBlockersChanged(userId, entry.getBlockers(), archived.get().getBlockers());
+                } else {
+                    recordBlockersChanged(userId, archived.get().getBlockers(), entry.getBlockers());
+                }
+                return;
+            }
+        }
+        switch (event.getType()) {
+            case CREATED -> recordCreated(userId, entry.getEntryDate(), entry.getBlockers());
+            case DELETED -> recordDeleted(userId, entry.getEntryDate(), entry.getBlockers());
+            case UPDATED -> recordBlockersChanged(userId, entry.getBlockers(), event.getPreviousBlockers());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public UserStatsDTO getStats(String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        List<UserStatsDTO> stats = jdbcTemplate.query(
+                "SELECT entry_count, blocker_days, last_entry_date, streak_days, monthly_counts::text AS monthly_counts " +
+                "FROM user_stats WHERE user_id = ?",
+                (rs, rowNum) -> toDTO(readStats(rs)), user.getId());
+        return stats.isEmpty() ? new UserStatsDTO() : stats.get(0);
+    }
+
+    /** Entries per 'YYYY-MM', live and archived, oldest first; empty when the user has no stats row. */
+    public NavigableMap<String, Integer> getMonthlyCounts(UUID userId) {
+        List<String> rows = jdbcTemplate.queryForList(
+                "SELECT monthly_counts::text FROM user_stats WHERE user_id = ?", String.class, userId);
+        if (rows.isEmpty() || rows.get(0) == null) {
+            return new TreeMap<>();
+        }
+        try {
+            return objectMapper.readValue(rows.get(0), new TypeReference<TreeMap<String, Integer>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable monthly_counts", e);
+        }
+    }
+
+    @Scheduled(cron = "${scrummate.stats.reconcile-cron:0 15 4 * * *}")
+    public void scheduledReconcile() {
+        worker.execute(() -> {
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                logger.error("Scheduled stats reconciliation failed", e);
+            }
+        });
+    }
+
+    /**
+     * Recomputes every user's stats from daily_entries and the archive, shard by shard, and
+     * rewrites the rows that differ. Returns the number of users checked and repaired.
+     */
+    public Map<String, Object> reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Stats reconciliation already in progress");
+        }
+        try {
+            long[] checked = new long[1];
+            long[] repaired = new long[1];
+            shardRouter.forEachShard(shard -> {
+                UUID after = MIN_UUID;
+                List<UUID> users;
+                do {
+                    users = shardRouter.directory().queryForList(USERS_ON_SHARD, UUID.class, shard, after, reconcileBatchSize);
+                    if (!users.isEmpty()) {
+                        repaired[0] += reconcileBatch(users);
+                        checked[0] += users.size();
+                        after = users.get(users.size() - 1);
+                    }
+                } while (users.size() == reconcileBatchSize);
+            });
+            repairedCounter.increment(repaired[0]);
+            if (repaired[0] > 0) {
+                logger.warn("Repaired stats of {} of {} users", repaired[0], checked[0]);
+            } else {
+                logger.info("Stats of all {} users are in step", checked[0]);
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("users", checked[0]);
+            result.put("repaired", repaired[0]);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void recordBlockersChanged(UUID userId, String blockers, String previousBlockers) {
+        jdbcTemplate.update(RECORD_BLOCKERS_CHANGED, blockers, previousBlockers, userId, blockers, previousBlockers);
+    }
+
+    private void recordCreated(UUID userId, LocalDate date, String blockers) {
+        String month = month(date);
+        Stats stats = jdbcTemplate.queryForObject(RECORD_CREATED, UserStatsService::readRun,
+                userId, blockers, date, month, month, month);
+        // Filled the day before the run the streak counts, so the run now reaches further back
+        if (date.isBefore(stats.lastEntryDate) && date.equals(stats.lastEntryDate.minusDays(stats.streakDays))) {
+            jdbcTemplate.update("UPDATE user_stats SET streak_days = ? WHERE user_id = ?",
+                    stats.streakDays + runEndingAt(userId, date), userId);
+        }
+    }
+
+    private void recordDeleted(UUID userId, LocalDate date, String blockers) {
+        String month = month(date);
+        List<Stats> rows = jdbcTemplate.query(RECORD_DELETED, UserStatsService::readRun,
+                blockers, month, month, month, month, userId);
+        if (rows.isEmpty() || rows.get(0).lastEntryDate == null) {
+            return;
+        }
+        Stats stats = rows.get(0);
+        if (date.equals(stats.lastEntryDate)) {
+            LocalDate lastEntryDate;
+            int streakDays;
+            if (stats.streakDays > 1) {
+                lastEntryDate = date.minusDays(1);
+                streakDays = stats.streakDays - 1;
+            } else {
+                // The deleted entry may not be flushed yet, so look strictly before it
+                lastEntryDate = jdbcTemplate.queryForObject(
+                        "SELECT MAX(entry_date) FROM daily_entries WHERE user_id = ? AND entry_date < ?",
+                        LocalDate.class, userId, date);
+                LocalDate lastArchived = archivedDates(userId).lower(date);
+                if (lastArchived != null && (lastEntryDate == null || lastArchived.isAfter(lastEntryDate))) {
+                    lastEntryDate = lastArchived;
+                }
+                streakDays = lastEntryDate != null ? runEndingAt(userId, lastEntryDate) : 0;
+            }
+            jdbcTemplate.update("UPDATE user_stats SET last_entry_date = ?, streak_days = ? WHERE user_id = ?",
+                    lastEntryDate, streakDays, userId);
+        } else if (date.isBefore(stats.lastEntryDate) && date.isAfter(stats.lastEntryDate.minusDays(stats.streakDays))) {
+            // Split the run; what is left of it starts the day after
+            jdbcTemplate.update("UPDATE user_stats SET streak_days = ? WHERE user_id = ?",
+                    (int) ChronoUnit.DAYS.between(date, stats.lastEntryDate), userId);
+        }
+    }
+
+    // Length of the run of consecutive entry days ending at the day, read off the
+    // (user_id, entry_date) index a page at a time and continued through archived days
+    private int runEndingAt(UUID userId, LocalDate day) {
+        int length = 0;
+        LocalDate expected = day;
+        NavigableSet<LocalDate> archived = null;
+        while (true) {
+            List<LocalDate> dates = jdbcTemplate.queryForList(
+                    "SELECT entry_date FROM daily_entries WHERE user_id = ? AND entry_date <= ? " +
+                    "ORDER BY entry_date DESC LIMIT ?",
+                    LocalDate.class, userId, expected, RUN_PAGE);
+            int matched = 0;
+            while (matched < dates.size() && dates.get(matched).equals(expected)) {
+                matched++;
+                length++;
+                expected = expected.minusDays(1);
+            }
+            if (matched == RUN_PAGE) {
+                continue;
+            }
+            // No live entry on the expected day
+            if (archived == null) {
+                archived = archivedDates(userId);
+            }
+            if (!archived.contains(expected)) {
+                return length;
+            }
+            while (archived.contains(expected)) {
+                length++;
+                expected = expected.minusDays(1);
+            }
+        }
+    }
+
+    private Optional<DailyEntryDTO> archivedEntry(UUID userId, LocalDate date) {
+        Optional<ArchiveSegment> segment = archiveStore.segment(userId, date.getYear());
+        if (segment.isEmpty() || segment.get().count(date, date) == 0) {
+            return Optional.empty();
+        }
+        try {
+            return segment.get().read(date, date).stream().findFirst();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private NavigableSet<LocalDate> archivedDates(UUID userId) {
+        NavigableSet<LocalDate> dates = new TreeSet<>();
+        for (int year : archiveStore.years(userId)) {
+            archiveStore.segment(userId, year).ifPresent(segment ->
+                    dates.addAll(segment.days(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31))));
+        }
+        return dates;
+    }
+
+    // Rows are locked before they are recomputed: a concurrent write either committed before the
+    // lock and is counted, or waits for it and applies its increment on top of the repaired row
+    private int reconcileBatch(List<UUID> users) {
+        Map<UUID, NavigableMap<LocalDate, Boolean>> archived = archivedDays(users);
+        UUID[] ids = users.toArray(new UUID[0]);
+        Integer repaired = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.update(withIds(
+                    "INSERT INTO user_stats (user_id) SELECT id FROM users WHERE id = ANY(?) ON CONFLICT DO NOTHING", ids));
+            Map<UUID, Stats> stored = new HashMap<>();
+            jdbcTemplate.query(withIds(
+                    "SELECT user_id, entry_count, blocker_days, last_entry_date, streak_days, " +
+                    "monthly_counts::text AS monthly_counts FROM user_stats WHERE user_id = ANY(?) " +
+                    "ORDER BY user_id FOR UPDATE", ids),
+                    rs -> { stored.put(rs.getObject("user_id", UUID.class), readStats(rs)); });
+            Map<UUID, Stats> actual = new HashMap<>();
+            jdbcTemplate.query(withIds(RECOMPUTE, ids),
+                    rs -> { actual.put(rs.getObject("user_id", UUID.class), readStats(rs)); });
+            // Live days of the users with an archive, to merge the two by date
+            Map<UUID, NavigableSet<LocalDate>> live = new HashMap<>();
+            if (!archived.isEmpty()) {
+                jdbcTemplate.query(withIds("SELECT user_id, entry_date FROM daily_entries WHERE user_id = ANY(?)",
+                        archived.keySet().toArray(new UUID[0])),
+                        rs -> { live.computeIfAbsent(rs.getObject("user_id", UUID.class), id -> new TreeSet<>())
+                                .add(rs.getObject("entry_date", LocalDate.class)); });
+            }
+
+            List<Object[]> repairs = new ArrayList<>();
+            for (UUID userId : users) {
+                if (!stored.containsKey(userId)) {
+                    continue;
+                }
+                Stats expected = actual.getOrDefault(userId, new Stats());
+                NavigableMap<LocalDate, Boolean> archivedDays = archived.get(userId);
+                if (archivedDays != null) {
+                    expected.addArchived(archivedDays, live.getOrDefault(userId, new TreeSet<>()));
+                }
+                if (!expected.equals(stored.get(userId))) {
+                    repairs.add(new Object[] {expected.entryCount, expected.blockerDays, expected.lastEntryDate,
+                            expected.streakDays, json(expected.monthlyCounts), userId});
+                }
+            }
+            if (!repairs.isEmpty()) {
+                jdbcTemplate.batchUpdate(
+                        "UPDATE user_stats SET entry_count = ?, blocker_days = ?, last_entry_date = ?, streak_days = ?, " +
+                        "monthly_counts = ?::jsonb, updated_at = CURRENT_TIMESTAMP WHERE user_id = ?", repairs);
+            }
+            jdbcTemplate.update(withIds("UPDATE user_stats SET reconciled_at = CURRENT_TIMESTAMP WHERE user_id = ANY(?)", ids));
+            return repairs.size();
+        });
+        return repaired != null ? repaired : 0;
+    }
+
+    // Archived days of each user with an archive, and whether each was a blocker day
+    private Map<UUID, NavigableMap<LocalDate, Boolean>> archivedDays(List<UUID> users) {
+        Map<UUID, NavigableMap<LocalDate, Boolean>> archived = new HashMap<>();
+        for (UUID userId : users) {
+            NavigableMap<LocalDate, Boolean> days = new TreeMap<>();
+            for (int year : archiveStore.years(userId)) {
+                Optional<ArchiveSegment> segment = archiveStore.segment(userId, year);
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                try {
+                    for (DailyEntryDTO entry : segment.get().readAll()) {
+                        days.put(entry.getEntryDate(), isBlockerDay(entry.getBlockers()));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            if (!days.isEmpty()) {
+                archived.put(userId, days);
+            }
+        }
+        return archived;
+    }
+
+    static boolean isBlockerDay(String blockers) {
+        return blockers != null && !NO_BLOCKER.contains(blockers.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static String month(LocalDate date) {
+        return String.format("%04d-%02d", date.getYear(), date.getMonthValue());
+    }
+
+    private static PreparedStatementCreator withIds(String sql, UUID[] ids) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("uuid", ids));
+            return statement;
+        };
+    }
+
+    private static Stats readRun(ResultSet rs, int rowNum) throws SQLException {
+        Stats stats = new Stats();
+        stats.lastEntryDate = rs.getObject("last_entry_date", LocalDate.class);
+        stats.streakDays = rs.getInt("streak_days");
+        return stats;
+    }
+
+    private Stats readStats(ResultSet rs) throws SQLException {
+        Stats stats = readRun(rs, 0);
+        stats.entryCount = rs.getInt("entry_count");
+        stats.blockerDays = rs.getInt("blocker_days");
+        String monthlyCounts = rs.getString("monthly_counts");
+        if (monthlyCounts != null) {
+            try {
+                stats.monthlyCounts = objectMapper.readValue(monthlyCounts, new TypeReference<TreeMap<String, Integer>>() {});
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unreadable monthly_counts", e);
+            }
+        }
+        return stats;
+    }
+
+    private UserStatsDTO toDTO(Stats stats) {
+        UserStatsDTO dto = new UserStatsDTO();
+        dto.setEntryCount(stats.entryCount);
+        dto.setBlockerDays(stats.blockerDays);
+        dto.setLastEntryDate(stats.lastEntryDate);
+        // A streak is still current until a whole day passes without an entry
+        boolean current = stats.lastEntryDate != null && !stats.lastEntryDate.isBefore(LocalDate.now().minusDays(1));
+        dto.setCurrentStreak(current ? stats.streakDays : 0);
+        dto.setEntriesPerMonth(stats.monthlyCounts);
+        return dto;
+    }
+
+    private String json(Map<String, Integer> monthlyCounts) {
+        try {
+            return objectMapper.writeValueAsString(monthlyCounts);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize monthly counts", e);
+        }
+    }
+
+    private static class Stats {
+        private int entryCount;
+        private int blockerDays;
+        private LocalDate lastEntryDate;
+        private int streakDays;
+        private TreeMap<String, Integer> monthlyCounts = new TreeMap<>();
+
+        // A live entry replaces an archived one on the same date, and the run is taken over both
+        void addArchived(NavigableMap<LocalDate, Boolean> archived, NavigableSet<LocalDate> live) {
+            NavigableSet<LocalDate> days = new TreeSet<>(live);
+            archived.forEach((date, blockerDay) -> {
+                if (days.add(date)) {
+                    entryCount++;
+                    blockerDays += blockerDay ? 1 : 0;
+                    monthlyCounts.merge(month(date), 1, Integer::sum);
+                }
+            });
+            if (days.isEmpty()) {
+                return;
+            }
+            lastEntryDate = days.last();
+            streakDays = 0;
+            for (LocalDate day = lastEntryDate; days.contains(day); day = day.minusDays(1)) {
+                streakDays++;
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Stats stats)) {
+                return false;
+            }
+            return entryCount == stats.entryCount && blockerDays == stats.blockerDays
+                    && streakDays == stats.streakDays && Objects.equals(lastEntryDate, stats.lastEntryDate)
+                    && monthlyCounts.equals(stats.monthlyCounts);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entryCount, blockerDays, lastEntryDate, streakDays, monthlyCounts);
+        }
+    }
+}
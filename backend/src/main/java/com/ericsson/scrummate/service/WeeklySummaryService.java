@@ -3,18 +3,27 @@ package com.ericsson.scrummate.service;
 import com.ericsson.scrummate.entity.DailyEntry;
 import com.ericsson.scrummate.entity.User;
 import com.ericsson.scrummate.entity.WeeklySummary;
+import com.ericsson.scrummate.event.SummaryGeneratedEvent;
 import com.ericsson.scrummate.repository.DailyEntryRepository;
 import com.ericsson.scrummate.repository.UserRepository;
 import com.ericsson.scrummate.repository.WeeklySummaryRepository;
+import com.fasterxml.jackson.databind.util.RawValue;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.time.temporal.WeekFields;
 import java.util.List;
 import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class WeeklySummaryService {
@@ -27,7 +36,17 @@ public class WeeklySummaryService {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SummaryPayloadService summaryPayloadService;
+
+    @Autowired
+    private EmailService emailService;
     
+    @Transactional
     public WeeklySummary generateWeeklySummary(String userEmail, LocalDate weekStart) {
         User user = getUserByEmail(userEmail);
         LocalDate weekEnd = weekStart.plusDays(6);
@@ -50,12 +69,31 @@ public class WeeklySummaryService {
         }
         
         WeeklySummary weeklySummary = new WeeklySummary(user, weekStart, weekEnd, summary.toString());
-        return weeklySummaryRepository.save(weeklySummary);
+        WeeklySummary saved = weeklySummaryRepository.saveAndFlush(weeklySummary);
+        summaryPayloadService.store(SummaryPayloadService.Kind.WEEKLY, saved.getId(), saved);
+        emailService.sendWeeklySummaryNotification(user.getEmail(), saved.getSummaryText());
+        eventPublisher.publishEvent(new SummaryGeneratedEvent(SummaryGeneratedEvent.Kind.WEEKLY, user.getId(), saved.getId()));
+        return saved;
     }
     
-    public Page<WeeklySummary> getWeeklySummaries(String userEmail, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<RawValue> getWeeklySummaries(String userEmail, Pageable pageable) {
+        User user = getUserByEmail(userEmail);
+        return summaryPayloadService.page(SummaryPayloadService.Kind.WEEKLY, user.getId(), pageable,
+                ids -> weeklySummaryRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(WeeklySummary::getId, Function.identity())));
+    }
+
+    @Transactional(readOnly = true)
+    public SummaryPayloadService.StoredPayload getWeeklySummary(String userEmail, UUID id) {
         User user = getUserByEmail(userEmail);
-        return weeklySummaryRepository.findByUserOrderByWeekStartDesc(user, pageable);
+        return summaryPayloadService.find(SummaryPayloadService.Kind.WEEKLY, user.getId(), id)
+                .orElseGet(() -> {
+                    WeeklySummary summary = weeklySummaryRepository.findById(id)
+                            .filter(s -> s.getUser().getId().equals(user.getId()))
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Summary not found"));
+                    return summaryPayloadService.fromEntity(id, summary);
+                });
     }
     
     private User getUserByEmail(String email) {
@@ -0,0 +1,53 @@
+package com.ericsson.scrummate.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread works on; unset means the directory shard. The routing data
+ * source reads it when a transaction first needs a connection, so it has to be set before the
+ * transaction starts: changing it inside a transaction does not move that transaction.
+ */
+public final class ShardContext {
+
+    /** Shard 0 holds users, teams and everything else that is not owned by a single user. */
+    public static final int DIRECTORY = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : DIRECTORY;
+    }
+
+    public static void set(int shard) {
+        CURRENT.set(shard);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static <T> T call(int shard, Supplier<T> task) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static void run(int shard, Runnable task) {
+        call(shard, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,186 @@
+package com.ericsson.scrummate.shard;
+
+import com.ericsson.scrummate.entity.User;
+import com.ericsson.scrummate.event.UserChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which shard holds each user's entries, summaries and reports, as recorded in user_shards on
+ * the directory shard. The ring only decides where a new user goes and where an existing one
+ * should be; the directory is the truth, so users can be moved without rehashing anybody else.
+ *
+ * Lookups are cached for {@code directory-cache-ttl}; the rebalancer waits longer than that
+ * between steps so every instance sees a move before it proceeds.
+ */
+@Component
+public class ShardDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardDirectory.class);
+    private static final int MAX_CACHED = 100_000;
+    private static final String COPY_USER =
+            "INSERT INTO users (id, email, password_hash, full_name, role, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO UPDATE SET password_hash = EXCLUDED.password_hash, " +
+            "full_name = EXCLUDED.full_name, role = EXCLUDED.role, updated_at = EXCLUDED.updated_at";
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${scrummate.datasource.shards.directory-cache-ttl:2000}")
+    private long cacheTtlMillis;
+
+    private final Map<UUID, Cached> byUserId = new ConcurrentHashMap<>();
+    private final Map<String, Cached> byEmail = new ConcurrentHashMap<>();
+
+    /**
+     * Places a new user on the shard the ring assigns, in the registration transaction. The user
+     * row must already be flushed; its copy on the shard is written once the registration commits.
+     */
+    public int place(User user) {
+        int shard = shardRouter.getRing().shardFor(user.getId());
+        shardRouter.directory().update("INSERT INTO user_shards (user_id, shard) VALUES (?, ?)", user.getId(), shard);
+        return shard;
+    }
+
+    /**
+     * Entries, summaries and reports reference users, so each shard keeps a copy of its users'
+     * rows. It is refreshed after every committed change to the user, on the shard the user is
+     * moving to as well. A failure leaves the copy stale until the next change and is logged.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.getUserId());
+        Placement placement = lookup(event.getUserId());
+        for (Integer shard : new Integer[] {placement.getShard(), placement.getMovingTo()}) {
+            if (shard == null || shard == ShardContext.DIRECTORY) {
+                continue;
+            }
+            try {
+                copyUser(new JdbcTemplate(shardRouter.dataSource(shard)), event.getUserId());
+            } catch (RuntimeException e) {
+                logger.error("Could not copy user {} to shard {}", event.getUserId(), shard, e);
+            }
+        }
+    }
+
+    /** Writes the directory's users row over the copy on the target shard. */
+    public void copyUser(JdbcTemplate target, UUID userId) {
+        List<Object[]> rows = shardRouter.directory().query(
+                "SELECT id, email, password_hash, full_name, role, created_at, COALESCE(updated_at, created_at) " +
+                "FROM users WHERE id = ?",
+                (rs, rowNum) -> new Object[] {rs.getObject(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5), rs.getTimestamp(6), rs.getTimestamp(7)},
+                userId);
+        if (rows.isEmpty()) {
+            return;
+        }
+        // Emails are unique on every shard; a row left by an earlier failed placement must not block this one
+        target.update("DELETE FROM users WHERE email = ? AND id <> ?", rows.get(0)[1], userId);
+        target.update(COPY_USER, rows.get(0));
+    }
+
+    public Placement lookup(UUID userId) {
+        Cached cached = byUserId.get(userId);
+        if (cached != null && !cached.isExpired()) {
+            return cached.placement;
+        }
+        Placement placement = lookupUncached(userId);
+        cache(byUserId, userId, placement);
+        return placement;
+    }
+
+    /** Reads the placement from the directory, for checks that cannot wait out the cache TTL. */
+    public Placement lookupUncached(UUID userId) {
+        List<Placement> rows = shardRouter.directory().query(
+                "SELECT user_id, shard, moving_to FROM user_shards WHERE user_id = ?",
+                (rs, rowNum) -> new Placement(rs.getObject("user_id", UUID.class), rs.getInt("shard"),
+                        (Integer) rs.getObject("moving_to")),
+                userId);
+        // Users from before sharding that were never placed live on the directory shard
+        return rows.isEmpty() ? new Placement(userId, ShardContext.DIRECTORY, null) : rows.get(0);
+    }
+
+    /** Placement of the user with the email, or null when there is no such user. */
+    public Placement lookup(String email) {
+        Cached cached = byEmail.get(email);
+        if (cached != null && !cached.isExpired()) {
+            return cached.placement;
+        }
+        List<Placement> rows = shardRouter.directory().query(
+                "SELECT u.id, COALESCE(s.shard, 0) AS shard, s.moving_to FROM users u " +
+                "LEFT JOIN user_shards s ON s.user_id = u.id WHERE u.email = ?",
+                (rs, rowNum) -> new Placement(rs.getObject("id", UUID.class), rs.getInt("shard"),
+                        (Integer) rs.getObject("moving_to")),
+                email);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        cache(byEmail, email, rows.get(0));
+        return rows.get(0);
+    }
+
+    public int shardOf(UUID userId) {
+        return lookup(userId).getShard();
+    }
+
+    /** Forgets this instance's cached placement; other instances catch up within the TTL. */
+    public void evict(UUID userId) {
+        byUserId.remove(userId);
+        byEmail.values().removeIf(cached -> cached.placement.getUserId().equals(userId));
+    }
+
+    public long getCacheTtlMillis() {
+        return cacheTtlMillis;
+    }
+
+    private <K> void cache(Map<K, Cached> cache, K key, Placement placement) {
+        if (cache.size() >= MAX_CACHED) {
+            cache.clear();
+        }
+        cache.put(key, new Cached(placement, System.currentTimeMillis() + cacheTtlMillis));
+    }
+
+    public static class Placement {
+        private final UUID userId;
+        private final int shard;
+        private final Integer movingTo;
+
+        public Placement(UUID userId, int shard, Integer movingTo) {
+            this.userId = userId;
+            this.shard = shard;
+            this.movingTo = movingTo;
+        }
+
+        public UUID getUserId() { return userId; }
+        public int getShard() { return shard; }
+        public Integer getMovingTo() { return movingTo; }
+
+        /** While a move is in progress the user's data is read from the old shard and not written. */
+        public boolean isMoving() { return movingTo != null; }
+    }
+
+    private static class Cached {
+        private final Placement placement;
+        private final long expiresAt;
+
+        Cached(Placement placement, long expiresAt) {
+            this.placement = placement;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.ericsson.scrummate.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Moves users to the shard the ring assigns them, for example after a shard was added, while
+ * the application keeps serving. Per batch of users:
+ *
+ * <ol>
+ *   <li>mark them moving in the directory; their writes are refused (503) from then on, reads
+ *       keep going to the old shard</li>
+ *   <li>wait out the directory cache and in-flight requests, then copy their rows to the new shard</li>
+ *   <li>switch the directory to the new shard and clear the moving mark</li>
+ *   <li>wait again, so no instance still reads the old shard, and delete the old copies</li>
+ * </ol>
+ *
+ * A failed copy releases the user on the old shard; leftovers on the new shard are replaced by
+ * the next attempt.
+ */
+@Service
+public class ShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final List<String> USER_TABLES = List.of("daily_entries", "weekly_summaries", "monthly_reports", "user_stats",
+            "entry_drafts");
+    private static final int COPY_BATCH = 500;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Value("${scrummate.datasource.shards.rebalance-batch-size:100}")
+    private int batchSize;
+
+    @Value("${scrummate.datasource.shards.rebalance-settle-time:5000}")
+    private long settleMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /** Users per shard, and how many sit on a different shard than the ring assigns. */
+    public Map<String, Object> status() {
+        long[] users = new long[shardRouter.getShardCount()];
+        long misplaced = 0;
+        for (Move placement : placements(Integer.MAX_VALUE, false)) {
+            users[placement.from]++;
+            if (placement.from != placement.to) {
+                misplaced++;
+            }
+        }
+        Long moving = shardRouter.directory().queryForObject(
+                "SELECT COUNT(*) FROM user_shards WHERE moving_to IS NOT NULL", Long.class);
+
+        List<Map<String, Object>> shards = new ArrayList<>();
+        List<long[]> entries = shardRouter.scatterGather(jdbc -> List.of(new long[] {
+                jdbc.queryForObject("SELECT COUNT(*) FROM daily_entries", Long.class)}));
+        for (int shard = 0; shard < users.length; shard++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("shard", shard);
+            row.put("users", users[shard]);
+            row.put("entries", entries.get(shard)[0]);
+            shards.add(row);
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("shards", shards);
+        status.put("misplacedUsers", misplaced);
+        status.put("movingUsers", moving);
+        return status;
+    }
+
+    /** Moves up to {@code limit} users that are not on their ring shard. */
+    public Map<String, Object> rebalance(int limit) {
+        return exclusively(() -> {
+            List<Move> moves = placements(limit > 0 ? limit : batchSize, true);
+            Map<String, Object> report = new LinkedHashMap<>();
+            int moved = 0;
+            int failed = 0;
+            for (int i = 0; i < moves.size(); i += batchSize) {
+                int[] outcome = moveAll(moves.subList(i, Math.min(moves.size(), i + batchSize)));
+                moved += outcome[0];
+                failed += outcome[1];
+            }
+            report.put("moved", moved);
+            report.put("failed", failed);
+            report.put("remaining", placements(Integer.MAX_VALUE, true).size());
+            return report;
+        });
+    }
+
+    /** Moves one user to the given shard, regardless of the ring. */
+    public Map<String, Object> move(UUID userId, int shard) {
+        if (shard < 0 || shard >= shardRouter.getShardCount()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No shard " + shard);
+        }
+        return exclusively(() -> {
+            int from = shardDirectory.lookup(userId).getShard();
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("userId", userId);
+            report.put("from", from);
+            report.put("to", shard);
+            report.put("moved", from != shard && moveAll(List.of(new Move(userId, from, shard)))[0] == 1);
+            return report;
+        });
+    }
+
+    private Map<String, Object> exclusively(Supplier<Map<String, Object>> task) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Rebalance already in progress");
+        }
+        try {
+            return task.get();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private List<Move> placements(int limit, boolean misplacedOnly) {
+        List<Move> placements = new ArrayList<>();
+        shardRouter.directory().query("SELECT user_id, shard FROM user_shards WHERE moving_to IS NULL", rs -> {
+            if (placements.size() >= limit) {
+                return;
+            }
+            UUID userId = rs.getObject("user_id", UUID.class);
+            int from = rs.getInt("shard");
+            int to = shardRouter.getRing().shardFor(userId);
+            if (!misplacedOnly || from != to) {
+                placements.add(new Move(userId, from, to));
+            }
+        });
+        return placements;
+    }
+
+    /** Returns {moved, failed}. */
+    private int[] moveAll(List<Move> moves) {
+        JdbcTemplate directory = shardRouter.directory();
+        List<Move> claimed = new ArrayList<>();
+        for (Move move : moves) {
+            int updated = directory.update(
+                    "UPDATE user_shards SET moving_to = ?, updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE user_id = ? AND shard = ? AND moving_to IS NULL", move.to, move.userId, move.from);
+            if (updated == 1) {
+                claimed.add(move);
+                shardDirectory.evict(move.userId);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return new int[] {0, 0};
+        }
+        settle();
+
+        List<Move> copied = new ArrayList<>();
+        int failed = 0;
+        for (Move move : claimed) {
+            try {
+                copy(move);
+                copied.add(move);
+            } catch (RuntimeException e) {
+                logger.error("Could not copy user {} from shard {} to {}", move.userId, move.from, move.to, e);
+                directory.update("UPDATE user_shards SET moving_to = NULL, updated_at = CURRENT_TIMESTAMP WHERE user_id = ?",
+                        move.userId);
+                shardDirectory.evict(move.userId);
+                failed++;
+            }
+        }
+        for (Move move : copied) {
+            directory.update("UPDATE user_shards SET shard = moving_to, moving_to = NULL, updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE user_id = ?", move.userId);
+            shardDirectory.evict(move.userId);
+        }
+        if (copied.isEmpty()) {
+            return new int[] {0, failed};
+        }
+        settle();
+
+        for (Move move : copied) {
+            try {
+                deleteFrom(move.from, move.userId);
+            } catch (RuntimeException e) {
+                // The directory already points at the new shard; the old rows are only dead weight
+                logger.error("Moved user {} to shard {} but could not delete the copy on shard {}",
+                        move.userId, move.to, move.from, e);
+            }
+        }
+        logger.info("Moved {} users between shards, {} failed", copied.size(), failed);
+        return new int[] {copied.size(), failed};
+    }
+
+    private void copy(Move move) {
+        JdbcTemplate source = shardRouter.jdbcTemplate(move.from);
+        DataSource target = shardRouter.dataSource(move.to);
+        new TransactionTemplate(new DataSourceTransactionManager(target)).executeWithoutResult(status -> {
+            JdbcTemplate targetJdbc = new JdbcTemplate(target);
+            for (String table : USER_TABLES) {
+                targetJdbc.update("DELETE FROM " + table + " WHERE user_id = ?", move.userId);
+            }
+            // Sync cursors are per shard, so the user's clients resync in full after the move
+            targetJdbc.update("DELETE FROM sync_tombstones WHERE user_id = ?", move.userId);
+            // From the directory rather than the source shard, whose copy may be out of date
+            if (move.to != ShardContext.DIRECTORY) {
+                shardDirectory.copyUser(targetJdbc, move.userId);
+            }
+            for (String table : USER_TABLES) {
+                copyRows(source, targetJdbc, table, "user_id", move.userId);
+            }
+        });
+    }
+
+    // Column-generic so schema changes do not need a matching change here
+    private void copyRows(JdbcTemplate source, JdbcTemplate target, String table, String keyColumn, UUID userId) {
+        List<Object[]> batch = new ArrayList<>(COPY_BATCH);
+        String[] insert = new String[1];
+        source.query("SELECT * FROM " + table + " WHERE " + keyColumn + " = ?", rs -> {
+            if (insert[0] == null) {
+                insert[0] = insertStatement(table, rs.getMetaData());
+            }
+            int columns = rs.getMetaData().getColumnCount();
+            Object[] row = new Object[columns];
+            for (int i = 0; i < columns; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            batch.add(row);
+            if (batch.size() == COPY_BATCH) {
+                target.batchUpdate(insert[0], batch);
+                batch.clear();
+            }
+        }, userId);
+        if (!batch.isEmpty()) {
+            target.batchUpdate(insert[0], batch);
+        }
+    }
+
+    private static String insertStatement(String table, ResultSetMetaData metaData) throws SQLException {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (i > 1) {
+                columns.append(", ");
+                values.append(", ");
+            }
+            columns.append(metaData.getColumnName(i));
+            values.append('?');
+        }
+        return "INSERT INTO " + table + " (" + columns + ") VALUES (" + values + ") ON CONFLICT DO NOTHING";
+    }
+
+    private void deleteFrom(int shard, UUID userId) {
+        DataSource dataSource = shardRouter.dataSource(shard);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            for (String table : USER_TABLES) {
+                jdbc.update("DELETE FROM " + table + " WHERE user_id = ?", userId);
+            }
+            jdbc.update("DELETE FROM sync_tombstones WHERE user_id = ?", userId);
+            // On the directory the users row is the account itself
+            if (shard != ShardContext.DIRECTORY) {
+                jdbc.update("DELETE FROM users WHERE id = ?", userId);
+            }
+        });
+    }
+
+    private void settle() {
+        try {
+            Thread.sleep(Math.max(settleMillis, 2 * shardDirectory.getCacheTtlMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for instances to see the move", e);
+        }
+    }
+
+    private static class Move {
+        private final UUID userId;
+        private final int from;
+        private final int to;
+
+        Move(UUID userId, int from, int to) {
+            this.userId = userId;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ericsson.scrummate.shard;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Consistent hash ring over shard indexes. Each shard owns {@code virtualNodes} points so users
+ * spread evenly, and adding a shard only claims the users that fall just before its points,
+ * about 1/N of them, instead of reshuffling everyone.
+ */
+public class ShardRing {
+
+    private final NavigableMap<Long, Integer> points = new TreeMap<>();
+    private final int shardCount;
+
+    public ShardRing(int shardCount, int virtualNodes) {
+        this.shardCount = shardCount;
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                points.putIfAbsent(mix(((long) shard << 32) | node), shard);
+            }
+        }
+    }
+
+    public int shardFor(UUID userId) {
+        long hash = mix(userId.getMostSignificantBits() ^ mix(userId.getLeastSignificantBits()));
+        Map.Entry<Long, Integer> point = points.ceilingEntry(hash);
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    // MurmurHash3 64-bit finalizer: cheap, and good enough avalanche for ring placement
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
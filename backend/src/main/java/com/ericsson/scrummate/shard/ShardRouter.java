@@ -0,0 +1,133 @@
+package com.ericsson.scrummate.shard;
+
+import com.ericsson.scrummate.config.ShardRoutingDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Access to individual shards for code that has to look past the current one: background jobs
+ * that visit every shard, writes to the directory from a user's transaction, and scatter-gather
+ * reads across users.
+ */
+@Component
+public class ShardRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRouter.class);
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${scrummate.datasource.shards.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Value("${scrummate.datasource.shards.scatter-threads:4}")
+    private int scatterThreads;
+
+    private final List<JdbcTemplate> shardTemplates = new ArrayList<>();
+    private ShardRing ring;
+    private ExecutorService scatter;
+
+    @PostConstruct
+    public void init() {
+        for (int shard = 0; shard < shardRoutingDataSource.getShardCount(); shard++) {
+            shardTemplates.add(new JdbcTemplate(shardRoutingDataSource.getShard(shard)));
+        }
+        ring = new ShardRing(shardTemplates.size(), virtualNodes);
+        scatter = Executors.newFixedThreadPool(scatterThreads, new CustomizableThreadFactory("shard-scatter-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scatter.shutdown();
+    }
+
+    public int getShardCount() {
+        return shardTemplates.size();
+    }
+
+    public ShardRing getRing() {
+        return ring;
+    }
+
+    public DataSource dataSource(int shard) {
+        return shardRoutingDataSource.getShard(shard);
+    }
+
+    /**
+     * Statements against the shard. On the current shard this joins the running transaction;
+     * on any other shard each statement commits on its own.
+     */
+    public JdbcTemplate jdbcTemplate(int shard) {
+        return shard == ShardContext.current() ? jdbcTemplate : shardTemplates.get(shard);
+    }
+
+    public JdbcTemplate directory() {
+        return jdbcTemplate(ShardContext.DIRECTORY);
+    }
+
+    /**
+     * Runs the task once per shard, one after the other, with that shard as the current one.
+     * A failing shard does not stop the others; the first failure is rethrown at the end.
+     */
+    public void forEachShard(IntConsumer task) {
+        RuntimeException failure = null;
+        for (int shard = 0; shard < shardTemplates.size(); shard++) {
+            int current = shard;
+            try {
+                ShardContext.run(current, () -> task.accept(current));
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    logger.error("Task failed on shard {} too", current, e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /** Runs the query on every shard in parallel and concatenates the results in shard order. */
+    public <T> List<T> scatterGather(Function<JdbcTemplate, List<T>> query) {
+        if (shardTemplates.size() == 1) {
+            return query.apply(shardTemplates.get(0));
+        }
+        List<CompletableFuture<List<T>>> parts = new ArrayList<>(shardTemplates.size());
+        for (JdbcTemplate shard : shardTemplates) {
+            parts.add(CompletableFuture.supplyAsync(() -> query.apply(shard), scatter));
+        }
+        List<T> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<T>> part : parts) {
+                results.addAll(part.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+}
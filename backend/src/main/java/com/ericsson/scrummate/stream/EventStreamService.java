@@ -0,0 +1,360 @@
+package com.ericsson.scrummate.stream;
+
+import com.ericsson.scrummate.event.DailyEntryChangedEvent;
+import com.ericsson.scrummate.event.SummaryGeneratedEvent;
+import com.ericsson.scrummate.repository.UserRepository;
+import com.ericsson.scrummate.shard.ShardRouter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes entry and summary changes to the owning user and their teammates over SSE.
+ *
+ * Connections are servlet async requests, so no request thread is held while idle. Writes to
+ * clients happen on a small fan-out pool; every connection has a bounded queue and a client
+ * that lets it fill up is disconnected, to catch up through Last-Event-ID on reconnect.
+ * Events are relayed between instances with Postgres NOTIFY (see PostgresNotificationRelay)
+ * on the directory shard, whichever shard the change was written to.
+ */
+@Service
+public class EventStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamService.class);
+
+    static final String CHANNEL = "scrummate_events";
+
+    // Ids are "<instance>-<sequence>": a Last-Event-ID from another instance or an earlier run
+    // cannot be replayed here, so such clients are told to resync
+    private final String instanceId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${scrummate.events.relay:postgres}")
+    private String relay;
+
+    @Value("${scrummate.events.timeout:1800000}")
+    private long timeoutMillis;
+
+    @Value("${scrummate.events.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${scrummate.events.replay-size:2048}")
+    private int replaySize;
+
+    @Value("${scrummate.events.fan-out-threads:2}")
+    private int fanOutThreads;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Queue<StreamEvent> replayBuffer = new ArrayDeque<>();
+    private ExecutorService fanOut;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void init() {
+        fanOut = Executors.newFixedThreadPool(fanOutThreads, new CustomizableThreadFactory("sse-fan-out-"));
+        Gauge.builder("scrummate.events.connections", subscriptions, Set::size)
+                .description("Open SSE connections")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("scrummate.events.dropped")
+                .description("SSE connections closed because the client fell behind")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscription subscription : subscriptions) {
+            subscription.emitter.complete();
+        }
+        fanOut.shutdown();
+    }
+
+    public UUID userIdOf(String userEmail) {
+        return userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"))
+                .getId();
+    }
+
+    public SseEmitter subscribe(String userEmail, String lastEventId) {
+        UUID userId = userIdOf(userEmail);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Set<UUID> teamIds = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT team_id FROM team_members WHERE user_id = ?", UUID.class, userId));
+        Subscription subscription = new Subscription(userId, teamIds, emitter);
+
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+
+        // Register before reading the replay buffer so nothing published in between is lost; a
+        // duplicate only costs the client an extra refetch
+        subscriptions.add(subscription);
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            List<StreamEvent> missed = replaySince(lastEventId);
+            if (missed == null) {
+                subscription.offer(SseEmitter.event().name("resync").data("{}"));
+            } else {
+                for (StreamEvent event : missed) {
+                    if (subscription.accepts(event)) {
+                        subscription.offer(event.toSse());
+                    }
+                }
+            }
+        }
+        subscription.offer(SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEntryChanged(DailyEntryChangedEvent event) {
+        ObjectNode data = objectMapper.createObjectNode();
+        data.put("id", event.getEntry().getId().toString());
+        data.put("entryDate", event.getEntry().getEntryDate().toString());
+        data.put("userId", event.getUserId().toString());
+        publish("entry." + event.getType().name().toLowerCase(), event.getUserId(), data);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSummaryGenerated(SummaryGeneratedEvent event) {
+        ObjectNode data = objectMapper.createObjectNode();
+        data.put("id", event.getSummaryId().toString());
+        data.put("kind", event.getKind().name().toLowerCase());
+        data.put("userId", event.getUserId().toString());
+        publish("summary.generated", event.getUserId(), data);
+    }
+
+    /** Tells every client to refetch, for when this instance may have missed events. */
+    public void resyncAll() {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(SseEmitter.event().name("resync").data("{}"));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${scrummate.events.heartbeat-interval:15000}")
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    // Only ids travel through NOTIFY (8000 byte payload limit); recipients are resolved on the
+    // receiving instance from the owner and the owner's teams
+    private void publish(String name, UUID ownerId, ObjectNode data) {
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("name", name);
+        message.put("owner", ownerId.toString());
+        ArrayNode teams = message.putArray("teams");
+        for (UUID teamId : shardRouter.directory().queryForList(
+                "SELECT team_id FROM team_members WHERE user_id = ?", UUID.class, ownerId)) {
+            teams.add(teamId.toString());
+        }
+        message.set("data", data);
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        if ("postgres".equals(relay)) {
+            try {
+                shardRouter.directory().queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+                return;
+            } catch (Exception e) {
+                logger.warn("NOTIFY failed, delivering event {} locally only", name, e);
+            }
+        }
+        dispatch(payload);
+    }
+
+    /** Delivers a published event to the matching connections on this instance. */
+    void dispatch(String payload) {
+        StreamEvent event;
+        try {
+            Map<?, ?> message = objectMapper.readValue(payload, Map.class);
+            Set<UUID> teams = new HashSet<>();
+            for (Object team : (List<?>) message.get("teams")) {
+                teams.add(UUID.fromString((String) team));
+            }
+            event = new StreamEvent(instanceId + "-" + sequence.incrementAndGet(), (String) message.get("name"),
+                    UUID.fromString((String) message.get("owner")), teams,
+                    objectMapper.writeValueAsString(message.get("data")));
+        } catch (Exception e) {
+            logger.warn("Ignoring malformed event payload {}", payload, e);
+            return;
+        }
+
+        synchronized (replayBuffer) {
+            replayBuffer.add(event);
+            while (replayBuffer.size() > replaySize) {
+                replayBuffer.poll();
+            }
+        }
+        for (Subscription subscription : subscriptions) {
+            if (subscription.accepts(event)) {
+                subscription.offer(event.toSse());
+            }
+        }
+    }
+
+    /** Events after the given id, or null when the id cannot be resumed from here. */
+    private List<StreamEvent> replaySince(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(instanceId)) {
+            return null;
+        }
+        long lastSequence;
+        try {
+            lastSequence = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        List<StreamEvent> missed = new ArrayList<>();
+        synchronized (replayBuffer) {
+            StreamEvent oldest = replayBuffer.peek();
+            if (oldest != null && oldest.sequence() > lastSequence + 1) {
+                return null;
+            }
+            for (StreamEvent event : replayBuffer) {
+                if (event.sequence() > lastSequence) {
+                    missed.add(event);
+                }
+            }
+        }
+        return missed;
+    }
+
+    private static final class StreamEvent {
+        private final String id;
+        private final String name;
+        private final UUID ownerId;
+        private final Set<UUID> teamIds;
+        private final String data;
+
+        StreamEvent(String id, String name, UUID ownerId, Set<UUID> teamIds, String data) {
+            this.id = id;
+            this.name = name;
+            this.ownerId = ownerId;
+            this.teamIds = teamIds;
+            this.data = data;
+        }
+
+        long sequence() {
+            return Long.parseLong(id.substring(id.lastIndexOf('-') + 1));
+        }
+
+        SseEmitter.SseEventBuilder toSse() {
+            return SseEmitter.event().id(id).name(name).data(data);
+        }
+    }
+
+    private final class Subscription {
+        private final UUID userId;
+        private final Set<UUID> teamIds;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscription(UUID userId, Set<UUID> teamIds, SseEmitter emitter) {
+            this.userId = userId;
+            this.teamIds = teamIds;
+            this.emitter = emitter;
+        }
+
+        boolean accepts(StreamEvent event) {
+            if (userId.equals(event.ownerId)) {
+                return true;
+            }
+            for (UUID teamId : event.teamIds) {
+                if (teamIds.contains(teamId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                closed = true;
+                subscriptions.remove(this);
+                droppedCounter.increment();
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                fanOut.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                closed = true;
+                subscriptions.remove(this);
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            // An offer may have raced with the end of the loop
+            if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                fanOut.execute(this::drain);
+            }
+        }
+    }
+}
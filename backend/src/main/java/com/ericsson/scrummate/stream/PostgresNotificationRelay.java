@@ -0,0 +1,112 @@
+package com.ericsson.scrummate.stream;
+
+import com.ericsson.scrummate.purge.CacheEvictions;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * LISTENs on the event channel over a dedicated connection (outside the Hikari pool, which
+ * would otherwise lose a connection for good) and hands every notification to the local
+ * EventStreamService, so clients see writes made through any instance. Cache evictions after
+ * purges arrive on a second channel and go to {@link CacheEvictions}.
+ */
+@Component
+public class PostgresNotificationRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresNotificationRelay.class);
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @Autowired
+    private CacheEvictions cacheEvictions;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Value("${scrummate.events.relay:postgres}")
+    private String relay;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!"postgres".equals(relay)) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "sse-notify-relay");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen() {
+        long backoff = 1000;
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + EventStreamService.CHANNEL);
+                    statement.execute("LISTEN " + CacheEvictions.CHANNEL);
+                }
+                logger.info("Listening for stream events on {}", EventStreamService.CHANNEL);
+                if (reconnecting) {
+                    // Anything published while the connection was down never reached this instance
+                    eventStreamService.resyncAll();
+                    cacheEvictions.evictAll();
+                }
+                reconnecting = true;
+                backoff = 1000;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(10_000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        if (CacheEvictions.CHANNEL.equals(notification.getName())) {
+                            cacheEvictions.apply(notification.getParameter());
+                        } else {
+                            eventStreamService.dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Event relay connection lost, retrying in {} ms", backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, 30_000);
+            }
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- Optimistic locking for daily entries. A constant default is stored in the catalog, so this
+-- does not rewrite the partitions.
+ALTER TABLE daily_entries ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,19 @@
+-- Outgoing notifications, written in the same transaction as the change that triggers them and
+-- delivered by NotificationDispatcher. A claimed row has next_attempt_at pushed out by a lease,
+-- so a dispatcher that dies mid-send leaves it to be picked up again once the lease runs out.
+CREATE TABLE notification_outbox (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    kind VARCHAR(50) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'SENT', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+CREATE INDEX idx_notification_outbox_pending ON notification_outbox(next_attempt_at) WHERE status = 'PENDING';
+CREATE INDEX idx_notification_outbox_sent ON notification_outbox(sent_at) WHERE status = 'SENT';
@@ -0,0 +1,14 @@
+-- Shard directory: which shard holds each user's entries, summaries and reports. Only the
+-- directory shard (shard 0) uses it; migrations run on every shard, so the others carry it empty.
+-- moving_to is set while ShardRebalancer copies the user; their writes are refused meanwhile.
+CREATE TABLE user_shards (
+    user_id UUID PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    shard INTEGER NOT NULL DEFAULT 0,
+    moving_to INTEGER,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_user_shards_moving ON user_shards(moving_to) WHERE moving_to IS NOT NULL;
+
+-- Everyone registered before sharding lives on the directory shard
+INSERT INTO user_shards (user_id, shard) SELECT id, 0 FROM users;
@@ -0,0 +1,67 @@
+-- Change tracking for delta sync (/api/v1/sync). Every insert or update stamps the row with the
+-- writing transaction's id; deletes leave a tombstone. A sync cursor is the snapshot xmin of the
+-- previous sync: every transaction below it had finished, so rows stamped >= cursor are exactly
+-- those a client may not have seen yet.
+--
+-- Rows written before this migration keep a NULL change_xid. Clients get them in their first,
+-- full sync and only ever see them again once they change.
+
+CREATE OR REPLACE FUNCTION stamp_change_xid()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.change_xid := pg_current_xact_id();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TABLE sync_tombstones (
+    user_id UUID NOT NULL,
+    resource VARCHAR(20) NOT NULL,
+    resource_id UUID NOT NULL,
+    change_xid XID8 NOT NULL DEFAULT pg_current_xact_id(),
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_sync_tombstones_user_change ON sync_tombstones(user_id, change_xid);
+CREATE INDEX idx_sync_tombstones_deleted_at ON sync_tombstones(deleted_at);
+
+-- No foreign key to users: deleting a user cascades into the deletes that write these rows
+CREATE OR REPLACE FUNCTION record_sync_tombstone()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO sync_tombstones (user_id, resource, resource_id) VALUES (OLD.user_id, TG_ARGV[0], OLD.id);
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Cursors at or below purged_through may have missed purged tombstones and need a full sync
+CREATE TABLE sync_horizon (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    purged_through XID8 NOT NULL
+);
+
+INSERT INTO sync_horizon (id, purged_through) VALUES (1, '0');
+
+-- Nullable without a default, so existing partitions are not rewritten
+ALTER TABLE daily_entries ADD COLUMN change_xid XID8;
+ALTER TABLE weekly_summaries ADD COLUMN change_xid XID8;
+ALTER TABLE monthly_reports ADD COLUMN change_xid XID8;
+
+-- Row triggers on the partitioned parent are cloned to current and future partitions
+CREATE TRIGGER daily_entries_change_xid BEFORE INSERT OR UPDATE ON daily_entries
+    FOR EACH ROW EXECUTE FUNCTION stamp_change_xid();
+CREATE TRIGGER weekly_summaries_change_xid BEFORE INSERT OR UPDATE ON weekly_summaries
+    FOR EACH ROW EXECUTE FUNCTION stamp_change_xid();
+CREATE TRIGGER monthly_reports_change_xid BEFORE INSERT OR UPDATE ON monthly_reports
+    FOR EACH ROW EXECUTE FUNCTION stamp_change_xid();
+
+CREATE TRIGGER daily_entries_tombstone AFTER DELETE ON daily_entries
+    FOR EACH ROW EXECUTE FUNCTION record_sync_tombstone('entry');
+CREATE TRIGGER weekly_summaries_tombstone AFTER DELETE ON weekly_summaries
+    FOR EACH ROW EXECUTE FUNCTION record_sync_tombstone('weeklySummary');
+CREATE TRIGGER monthly_reports_tombstone AFTER DELETE ON monthly_reports
+    FOR EACH ROW EXECUTE FUNCTION record_sync_tombstone('monthlyReport');
+
+CREATE INDEX idx_daily_entries_user_change ON daily_entries(user_id, change_xid);
+CREATE INDEX idx_weekly_summaries_user_change ON weekly_summaries(user_id, change_xid);
+CREATE INDEX idx_monthly_reports_user_change ON monthly_reports(user_id, change_xid);
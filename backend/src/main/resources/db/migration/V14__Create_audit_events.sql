@@ -0,0 +1,33 @@
+-- Who created, changed or deleted which entry. Written in batches by AuditLog after the change
+-- committed, on the shard that holds the user's entries at the time. No foreign keys, so the
+-- trail outlives the user and the entry.
+CREATE TABLE audit_events (
+    id BIGSERIAL PRIMARY KEY,
+    occurred_at TIMESTAMP NOT NULL,
+    recorded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    actor VARCHAR(255) NOT NULL,
+    user_id UUID NOT NULL,
+    action VARCHAR(20) NOT NULL,
+    resource_type VARCHAR(30) NOT NULL,
+    resource_id UUID,
+    entry_date DATE,
+    resource_version BIGINT,
+    correlation_id VARCHAR(64)
+);
+
+CREATE INDEX idx_audit_events_user_time ON audit_events(user_id, occurred_at);
+-- Rows arrive roughly in time order, so a BRIN index covers time-range scans at a tiny size
+CREATE INDEX idx_audit_events_occurred_at ON audit_events USING brin(occurred_at);
+
+-- Append-only
+CREATE OR REPLACE FUNCTION reject_audit_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    RAISE EXCEPTION 'audit_events is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER audit_events_append_only BEFORE UPDATE OR DELETE ON audit_events
+    FOR EACH ROW EXECUTE FUNCTION reject_audit_change();
+CREATE TRIGGER audit_events_no_truncate BEFORE TRUNCATE ON audit_events
+    FOR EACH STATEMENT EXECUTE FUNCTION reject_audit_change();
@@ -0,0 +1,32 @@
+-- Large deletions run by PurgeService in small chunks instead of one cascading transaction.
+-- Lives on the directory. A job records how far it got (step, shard, cursor), so a job whose
+-- instance died is resumed from there once its lease runs out. Chunks are idempotent, so
+-- repeating the last one after a crash deletes nothing twice.
+CREATE TABLE purge_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    kind VARCHAR(20) NOT NULL CHECK (kind IN ('ACCOUNT', 'RETENTION')),
+    -- ACCOUNT: the user to delete; no foreign key, the job outlives the row
+    user_id UUID,
+    -- RETENTION: the table and the date rows older than are deleted
+    resource VARCHAR(30),
+    cutoff DATE,
+    requested_by VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'RUNNING', 'DONE', 'FAILED')),
+    step INTEGER NOT NULL DEFAULT 0,
+    shard INTEGER NOT NULL DEFAULT 0,
+    cursor_key TEXT,
+    deleted BIGINT NOT NULL DEFAULT 0,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+CREATE INDEX idx_purge_jobs_due ON purge_jobs(next_attempt_at) WHERE status IN ('PENDING', 'RUNNING');
+-- At most one open job per account and per retained table
+CREATE UNIQUE INDEX idx_purge_jobs_open_account ON purge_jobs(user_id)
+    WHERE kind = 'ACCOUNT' AND status IN ('PENDING', 'RUNNING');
+CREATE UNIQUE INDEX idx_purge_jobs_open_retention ON purge_jobs(resource)
+    WHERE kind = 'RETENTION' AND status IN ('PENDING', 'RUNNING');
@@ -0,0 +1,47 @@
+-- Per-user entry statistics, kept on the user's shard next to daily_entries. DailyEntryService
+-- writes update the row in the same transaction as the entry, so /api/v1/stats reads one row
+-- by primary key instead of scanning the user's history. UserStatsService.reconcile
+-- recomputes every row from daily_entries and the archive and repairs any drift.
+--
+-- streak_days is the length of the run of consecutive days ending at last_entry_date; it is
+-- the current streak while last_entry_date is today or yesterday.
+-- monthly_counts maps 'YYYY-MM' to the number of entries in that month.
+CREATE TABLE user_stats (
+    user_id UUID PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    entry_count INTEGER NOT NULL DEFAULT 0,
+    blocker_days INTEGER NOT NULL DEFAULT 0,
+    last_entry_date DATE,
+    streak_days INTEGER NOT NULL DEFAULT 0,
+    monthly_counts JSONB NOT NULL DEFAULT '{}',
+    reconciled_at TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Whether an entry's blockers count as a blocker day; placeholders like 'None' do not
+CREATE OR REPLACE FUNCTION is_blocker_day(blockers TEXT)
+RETURNS BOOLEAN AS $$
+    SELECT COALESCE(lower(btrim(blockers, E' \t\r\n')) NOT IN ('', 'none', 'no', 'n/a', '-'), false)
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Existing entries; archived ones are added by the first reconciliation
+INSERT INTO user_stats (user_id, entry_count, blocker_days, last_entry_date, streak_days, monthly_counts)
+SELECT t.user_id, t.entry_count, t.blocker_days, t.last_entry_date, r.run_length, m.monthly_counts
+FROM (
+    SELECT user_id, COUNT(*) AS entry_count, COUNT(*) FILTER (WHERE is_blocker_day(blockers)) AS blocker_days,
+           MAX(entry_date) AS last_entry_date
+    FROM daily_entries GROUP BY user_id
+) t
+JOIN (
+    SELECT user_id, jsonb_object_agg(month, n) AS monthly_counts
+    FROM (SELECT user_id, to_char(entry_date, 'YYYY-MM') AS month, COUNT(*) AS n
+          FROM daily_entries GROUP BY 1, 2) months
+    GROUP BY user_id
+) m ON m.user_id = t.user_id
+JOIN (
+    -- Consecutive days share entry_date - row_number
+    SELECT user_id, MAX(entry_date) AS run_end, COUNT(*) AS run_length
+    FROM (SELECT user_id, entry_date,
+                 entry_date - (ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY entry_date))::int AS run
+          FROM daily_entries) days
+    GROUP BY user_id, run
+) r ON r.user_id = t.user_id AND r.run_end = t.last_entry_date;
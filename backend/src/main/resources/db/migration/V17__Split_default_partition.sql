@@ -0,0 +1,48 @@
+-- create_daily_entries_partition used to fail once any row for the month had landed in
+-- daily_entries_default, because the new partition's range would overlap rows the default
+-- already holds. It now moves those rows out in the same transaction: detach the default,
+-- create the partition, move the month's rows into it, and attach the default again.
+-- Detaching and attaching lock daily_entries for the duration, which only happens when
+-- rows were written ahead of the maintenance job.
+
+CREATE OR REPLACE FUNCTION create_daily_entries_partition(month_date DATE)
+RETURNS TEXT AS $$
+DECLARE
+    start_date DATE := date_trunc('month', month_date)::date;
+    end_date DATE := (date_trunc('month', month_date) + INTERVAL '1 month')::date;
+    partition_name TEXT := 'daily_entries_' || to_char(start_date, 'YYYY_MM');
+    moved UUID[];
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM daily_entries_default
+                   WHERE entry_date >= start_date AND entry_date < end_date) THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF daily_entries FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, start_date, end_date);
+        RETURN partition_name;
+    END IF;
+
+    ALTER TABLE daily_entries DETACH PARTITION daily_entries_default;
+    EXECUTE format('CREATE TABLE %I PARTITION OF daily_entries FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, start_date, end_date);
+
+    WITH taken AS (
+        DELETE FROM daily_entries_default
+        WHERE entry_date >= start_date AND entry_date < end_date
+        RETURNING *
+    ), inserted AS (
+        INSERT INTO daily_entries SELECT * FROM taken RETURNING id
+    )
+    SELECT array_agg(id) INTO moved FROM inserted;
+
+    -- The rows moved rather than disappeared, so sync clients must not see them as deleted
+    DELETE FROM sync_tombstones
+    WHERE change_xid = pg_current_xact_id() AND resource = 'entry' AND resource_id = ANY(moved);
+
+    ALTER TABLE daily_entries ATTACH PARTITION daily_entries_default DEFAULT;
+    RAISE NOTICE 'Moved % rows from daily_entries_default into %', cardinality(moved), partition_name;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,15 @@
+-- Idempotency-Key responses, shared by all instances so a retry that lands on another replica
+-- is still answered from the first attempt. Lives on the directory shard.
+
+CREATE TABLE idempotency_keys (
+    scoped_key VARCHAR(600) PRIMARY KEY,
+    fingerprint CHAR(64) NOT NULL,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    status INTEGER,
+    headers TEXT,
+    body BYTEA,
+    claimed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
@@ -0,0 +1,16 @@
+-- Autosaved drafts, kept apart from daily_entries so unsubmitted text is not listed, counted,
+-- put on team boards or streamed until the user submits it. On the user's shard.
+--
+-- base_version is the daily_entries version the draft was typed over, NULL when the entry did
+-- not exist yet. A draft whose base no longer matches the entry was overtaken by a direct
+-- write and is ignored.
+CREATE TABLE entry_drafts (
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    entry_date DATE NOT NULL,
+    yesterday_work TEXT,
+    today_plan TEXT,
+    blockers TEXT,
+    base_version BIGINT,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, entry_date)
+);
@@ -0,0 +1,15 @@
+-- Archiving moves entries out of daily_entries into segment files; they still exist and are
+-- still listed, so sync clients must not be told they were deleted. The archive job sets
+-- scrummate.suppress_tombstones for the duration of its delete (set_config(..., true) is
+-- transaction-local, like SET LOCAL) and the tombstone trigger skips those rows.
+
+CREATE OR REPLACE FUNCTION record_sync_tombstone()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('scrummate.suppress_tombstones', true) = 'on' THEN
+        RETURN OLD;
+    END IF;
+    INSERT INTO sync_tombstones (user_id, resource, resource_id) VALUES (OLD.user_id, TG_ARGV[0], OLD.id);
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
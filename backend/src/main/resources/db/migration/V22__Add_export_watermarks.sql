@@ -0,0 +1,55 @@
+-- Lets an incremental analytics export read only what changed since its last run instead of
+-- counting every table. Inserts and updates already stamp change_xid (V13); these indexes let
+-- the export find the months with rows stamped at or above its cursor. Rows never change month
+-- on update, so the only other way a month changes is a delete.
+--
+-- Deletes are logged per statement and month in export_deletions. sync_tombstones does not
+-- serve here: it has no month and archiving suppresses it (V21), while the export should drop
+-- archived rows like any other. The export trims the log below its cursor after each run, and
+-- the scheduled job trims all of it while the export is disabled; purged_through in
+-- export_horizon tells a later run that its cursor is too old and it has to write everything.
+
+CREATE INDEX idx_daily_entries_change_xid ON daily_entries(change_xid);
+CREATE INDEX idx_weekly_summaries_change_xid ON weekly_summaries(change_xid);
+CREATE INDEX idx_monthly_reports_change_xid ON monthly_reports(change_xid);
+
+CREATE TABLE export_deletions (
+    table_name VARCHAR(40) NOT NULL,
+    month DATE NOT NULL,
+    change_xid XID8 NOT NULL DEFAULT pg_current_xact_id()
+);
+
+CREATE INDEX idx_export_deletions_change ON export_deletions(change_xid);
+
+CREATE TABLE export_horizon (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    purged_through XID8 NOT NULL
+);
+
+INSERT INTO export_horizon (id, purged_through) VALUES (1, '0');
+
+-- Statement-level with a transition table, so a chunked purge or a cascade from users adds one
+-- row per month rather than one per deleted row
+CREATE OR REPLACE FUNCTION record_export_deletion()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_TABLE_NAME = 'daily_entries' THEN
+        INSERT INTO export_deletions (table_name, month)
+        SELECT DISTINCT TG_TABLE_NAME, date_trunc('month', entry_date)::date FROM removed;
+    ELSIF TG_TABLE_NAME = 'weekly_summaries' THEN
+        INSERT INTO export_deletions (table_name, month)
+        SELECT DISTINCT TG_TABLE_NAME, date_trunc('month', week_start)::date FROM removed;
+    ELSE
+        INSERT INTO export_deletions (table_name, month)
+        SELECT DISTINCT TG_TABLE_NAME, make_date(year, month, 1) FROM removed;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER daily_entries_export_deletion AFTER DELETE ON daily_entries
+    REFERENCING OLD TABLE AS removed FOR EACH STATEMENT EXECUTE FUNCTION record_export_deletion();
+CREATE TRIGGER weekly_summaries_export_deletion AFTER DELETE ON weekly_summaries
+    REFERENCING OLD TABLE AS removed FOR EACH STATEMENT EXECUTE FUNCTION record_export_deletion();
+CREATE TRIGGER monthly_reports_export_deletion AFTER DELETE ON monthly_reports
+    REFERENCING OLD TABLE AS removed FOR EACH STATEMENT EXECUTE FUNCTION record_export_deletion();
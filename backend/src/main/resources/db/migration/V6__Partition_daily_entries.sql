@@ -0,0 +1,73 @@
+-- Range-partition daily_entries by month on entry_date
+--
+-- Every hot query (weekly summary generation, date filter, monthly reports) is bounded
+-- by entry_date, so the planner only touches the partitions in range. Closed months stop
+-- receiving writes, which keeps vacuum and index maintenance on the recent partitions.
+
+ALTER TABLE daily_entries RENAME TO daily_entries_unpartitioned;
+
+-- The partition key must be part of every unique constraint, hence (id, entry_date)
+CREATE TABLE daily_entries (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    entry_date DATE NOT NULL,
+    yesterday_work TEXT,
+    today_plan TEXT,
+    blockers TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, entry_date),
+    UNIQUE (user_id, entry_date)
+) PARTITION BY RANGE (entry_date);
+
+-- Creates the monthly partition containing the given date; no-op if it already exists
+CREATE OR REPLACE FUNCTION create_daily_entries_partition(month_date DATE)
+RETURNS TEXT AS $$
+DECLARE
+    start_date DATE := date_trunc('month', month_date)::date;
+    end_date DATE := (date_trunc('month', month_date) + INTERVAL '1 month')::date;
+    partition_name TEXT := 'daily_entries_' || to_char(start_date, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF daily_entries FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, start_date, end_date);
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Monthly partitions from the oldest existing entry up to three months ahead
+DO $$
+DECLARE
+    current_month DATE;
+    last_month DATE;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(entry_date), CURRENT_DATE))::date,
+           GREATEST(date_trunc('month', CURRENT_DATE + INTERVAL '3 months')::date,
+                    date_trunc('month', MAX(entry_date))::date)
+      INTO current_month, last_month
+      FROM daily_entries_unpartitioned;
+
+    WHILE current_month <= last_month LOOP
+        PERFORM create_daily_entries_partition(current_month);
+        current_month := (current_month + INTERVAL '1 month')::date;
+    END LOOP;
+END
+$$;
+
+-- Catches dates the maintenance job has not created a partition for yet
+CREATE TABLE daily_entries_default PARTITION OF daily_entries DEFAULT;
+
+INSERT INTO daily_entries (id, user_id, entry_date, yesterday_work, today_plan, blockers, created_at, updated_at)
+SELECT id, user_id, entry_date, yesterday_work, today_plan, blockers, created_at, updated_at
+FROM daily_entries_unpartitioned;
+
+DROP TABLE daily_entries_unpartitioned;
+
+-- UNIQUE (user_id, entry_date) already covers user and user/date-range lookups, so the
+-- separate user_id, (user_id, entry_date) and (user_id, entry_date DESC) indexes are not recreated
+CREATE INDEX idx_daily_entries_search ON daily_entries USING gin(
+    to_tsvector('english', COALESCE(yesterday_work, '') || ' ' ||
+                          COALESCE(today_plan, '') || ' ' ||
+                          COALESCE(blockers, ''))
+);
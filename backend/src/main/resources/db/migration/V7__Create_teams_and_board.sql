@@ -0,0 +1,37 @@
+-- Teams and the team standup board
+
+CREATE TABLE teams (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    name VARCHAR(255) NOT NULL,
+    created_by UUID REFERENCES users(id) ON DELETE SET NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE team_members (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    team_id UUID NOT NULL REFERENCES teams(id) ON DELETE CASCADE,
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    role VARCHAR(20) NOT NULL DEFAULT 'MEMBER' CHECK (role IN ('MANAGER', 'MEMBER')),
+    joined_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(team_id, user_id)
+);
+
+CREATE INDEX idx_team_members_user_id ON team_members(user_id);
+
+-- Incrementally maintained view of daily_entries per team. DailyEntryService keeps it in
+-- step inside the writing transaction, so a board read is one range scan on the primary key
+-- instead of a fan-out over every member's daily_entries partitions.
+CREATE TABLE team_board_entries (
+    team_id UUID NOT NULL REFERENCES teams(id) ON DELETE CASCADE,
+    entry_date DATE NOT NULL,
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    entry_id UUID NOT NULL,
+    yesterday_work TEXT,
+    today_plan TEXT,
+    blockers TEXT,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (team_id, entry_date, user_id)
+);
+
+CREATE INDEX idx_team_board_entries_user_date ON team_board_entries(user_id, entry_date);
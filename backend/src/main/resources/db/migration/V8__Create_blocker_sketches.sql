@@ -0,0 +1,11 @@
+-- Persisted blocker analytics sketches, one per team and ISO week (week_start is a Monday).
+-- payload is a serialized Count-Min sketch plus Space-Saving summary of fixed size, merged
+-- into by every application instance on flush.
+CREATE TABLE blocker_sketches (
+    team_id UUID NOT NULL REFERENCES teams(id) ON DELETE CASCADE,
+    week_start DATE NOT NULL,
+    entry_count BIGINT NOT NULL DEFAULT 0,
+    payload BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (team_id, week_start)
+);
@@ -0,0 +1,11 @@
+-- Final response JSON of immutable summaries and reports, written once at generation.
+-- payload_encoding is 'identity' or 'gzip'; rows without a payload are served from the entity.
+ALTER TABLE weekly_summaries ADD COLUMN payload BYTEA;
+ALTER TABLE weekly_summaries ADD COLUMN payload_encoding VARCHAR(10);
+
+ALTER TABLE monthly_reports ADD COLUMN payload BYTEA;
+ALTER TABLE monthly_reports ADD COLUMN payload_encoding VARCHAR(10);
+
+-- Large payloads are already gzipped by the application; skip TOAST's own compression pass
+ALTER TABLE weekly_summaries ALTER COLUMN payload SET STORAGE EXTERNAL;
+ALTER TABLE monthly_reports ALTER COLUMN payload SET STORAGE EXTERNAL;
@@ -0,0 +1,116 @@
+package com.ericsson.scrummate.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a read-only transaction and then a write on one thread, as a request does, through the same
+ * data source chain and JPA transaction manager as the application, with in-memory databases
+ * standing in for the primary and a replica.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaRoutingDataSource routingDataSource;
+    private EntityManagerFactory entityManagerFactory;
+    private JpaTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource primaryDataSource = database("primary");
+        JdbcDataSource replicaDataSource = database("replica");
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        for (JdbcTemplate database : List.of(primary, replica)) {
+            database.execute("CREATE TABLE notes (note VARCHAR(20))");
+        }
+        replica.update("INSERT INTO notes VALUES ('replicated')");
+
+        ReplicaRoutingDataSource.Replica healthy = new ReplicaRoutingDataSource.Replica("replica-0", replicaDataSource);
+        healthy.setHealthy(true);
+        routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, List.of(healthy), 5000);
+        routingDataSource.afterPropertiesSet();
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(new LazyConnectionDataSourceProxy(routingDataSource));
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setPackagesToScan(ReplicaRoutingDataSourceTest.class.getPackageName());
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        transactionManager = new JpaTransactionManager(entityManagerFactory);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice@example.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SecurityContextHolder.clearContext();
+        entityManagerFactory.close();
+        routingDataSource.destroy();
+        for (JdbcTemplate database : List.of(primary, replica)) {
+            database.execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    void writeAfterReadOnlyTransactionGoesToPrimary() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Number seen = readOnly.execute(status -> (Number) entityManager()
+                .createNativeQuery("SELECT COUNT(*) FROM notes WHERE note = 'replicated'")
+                .getSingleResult());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> entityManager()
+                .createNativeQuery("INSERT INTO notes VALUES ('submitted')")
+                .executeUpdate());
+
+        assertThat(seen.intValue()).as("read served by the replica").isEqualTo(1);
+        assertThat(primary.queryForList("SELECT note FROM notes", String.class)).containsExactly("submitted");
+        assertThat(replica.queryForList("SELECT note FROM notes", String.class)).containsExactly("replicated");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"application.yml", "application-docker.yml"})
+    void requestsDoNotHoldAnEntityManager(String profile) {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource(profile));
+        Properties properties = yaml.getObject();
+
+        assertThat(properties.get("spring.jpa.open-in-view")).isEqualTo(false);
+    }
+
+    private EntityManager entityManager() {
+        return EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+    }
+
+    private static JdbcDataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+}
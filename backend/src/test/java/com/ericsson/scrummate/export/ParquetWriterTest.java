@@ -0,0 +1,193 @@
+package com.ericsson.scrummate.export;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type.Repetition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Writes files with {@link ParquetWriter} and reads them back with parquet-mr, so the hand-written
+ * Thrift footer, page headers, definition levels and PLAIN values are checked against a real reader.
+ */
+class ParquetWriterTest {
+
+    private static final List<ParquetWriter.Column> COLUMNS = List.of(
+            new ParquetWriter.Column("id", ParquetWriter.Type.STRING),
+            new ParquetWriter.Column("entry_date", ParquetWriter.Type.DATE),
+            new ParquetWriter.Column("created_at", ParquetWriter.Type.TIMESTAMP),
+            new ParquetWriter.Column("month", ParquetWriter.Type.INT32),
+            new ParquetWriter.Column("version", ParquetWriter.Type.INT64));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackValuesAndNullsAcrossRowGroups() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new Object[] {
+                    UUID.randomUUID().toString(),
+                    LocalDate.of(2024, 3, 1).plusDays(i),
+                    LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_789).plusHours(i),
+                    i - 5,
+                    (long) Integer.MAX_VALUE * i});
+        }
+        rows.add(new Object[] {null, null, null, null, null});
+        rows.add(new Object[] {"", LocalDate.of(1969, 12, 31), LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000),
+                Integer.MIN_VALUE, Long.MIN_VALUE});
+        rows.add(new Object[] {"Blockers: väntar på granskning ✓ 日本語", null, LocalDateTime.of(2038, 1, 19, 3, 14, 8),
+                null, 0L});
+
+        Path file = write(new ParquetWriter(COLUMNS, 4, Long.MAX_VALUE), rows);
+
+        assertThat(read(file)).containsExactlyElementsOf(rows.stream().map(ParquetWriterTest::expected).toList());
+        ParquetMetadata footer = footer(file);
+        assertThat(footer.getBlocks()).hasSize(4);
+        assertThat(footer.getBlocks().stream().mapToLong(block -> block.getRowCount()).sum()).isEqualTo(rows.size());
+    }
+
+    @Test
+    void declaresOptionalColumnsWithLogicalTypes() throws Exception {
+        Path file = write(new ParquetWriter(COLUMNS, 100, Long.MAX_VALUE),
+                List.<Object[]>of(new Object[] {"a", LocalDate.of(2024, 1, 1), LocalDateTime.of(2024, 1, 1, 0, 0), 1, 1L}));
+
+        MessageType schema = footer(file).getFileMetaData().getSchema();
+        assertThat(schema.getFieldCount()).isEqualTo(COLUMNS.size());
+        assertThat(schema.getColumns()).allSatisfy(column ->
+                assertThat(column.getPrimitiveType().getRepetition()).isEqualTo(Repetition.OPTIONAL));
+        assertThat(schema.getType("id").asPrimitiveType().getPrimitiveTypeName()).isEqualTo(PrimitiveTypeName.BINARY);
+        assertThat(schema.getType("id").getLogicalTypeAnnotation()).isEqualTo(LogicalTypeAnnotation.stringType());
+        assertThat(schema.getType("entry_date").getLogicalTypeAnnotation()).isEqualTo(LogicalTypeAnnotation.dateType());
+        assertThat(schema.getType("created_at").getLogicalTypeAnnotation())
+                .isEqualTo(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MICROS));
+        assertThat(schema.getType("month").asPrimitiveType().getPrimitiveTypeName()).isEqualTo(PrimitiveTypeName.INT32);
+        assertThat(schema.getType("version").asPrimitiveType().getPrimitiveTypeName()).isEqualTo(PrimitiveTypeName.INT64);
+    }
+
+    @Test
+    void startsARowGroupWhenTheByteLimitIsReached() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            rows.add(new Object[] {"x".repeat(1000) + i, null, null, i, (long) i});
+        }
+
+        Path file = write(new ParquetWriter(COLUMNS, 100, 2000), rows);
+
+        assertThat(read(file)).containsExactlyElementsOf(rows.stream().map(ParquetWriterTest::expected).toList());
+        assertThat(footer(file).getBlocks()).hasSize(3);
+    }
+
+    @Test
+    void reusedWriterStartsEachFileFromScratch() throws Exception {
+        ParquetWriter writer = new ParquetWriter(COLUMNS, 2, Long.MAX_VALUE);
+        List<Object[]> first = List.of(
+                new Object[] {"first-1", LocalDate.of(2024, 1, 1), null, 1, 1L},
+                new Object[] {"first-2", LocalDate.of(2024, 1, 2), null, 2, 2L},
+                new Object[] {"first-3", LocalDate.of(2024, 1, 3), null, 3, 3L});
+        List<Object[]> second = List.<Object[]>of(new Object[] {"second", null, LocalDateTime.of(2024, 2, 1, 12, 0), null, 4L});
+
+        Path firstFile = write(writer, first);
+        Path secondFile = write(writer, second);
+        Path emptyFile = write(writer, List.of());
+
+        assertThat(read(firstFile)).containsExactlyElementsOf(first.stream().map(ParquetWriterTest::expected).toList());
+        assertThat(read(secondFile)).containsExactlyElementsOf(second.stream().map(ParquetWriterTest::expected).toList());
+        assertThat(read(emptyFile)).isEmpty();
+        assertThat(footer(secondFile).getBlocks()).hasSize(1);
+    }
+
+    private Path write(ParquetWriter writer, List<Object[]> rows) throws Exception {
+        Path file = directory.resolve(UUID.randomUUID() + ".parquet");
+        writer.start(file);
+        for (Object[] row : rows) {
+            writer.add(resultSet(row));
+        }
+        assertThat(writer.finish()).isEqualTo(rows.size());
+        return file;
+    }
+
+    // Only the accessors ParquetWriter uses, with wasNull() reporting the last column read
+    private static ResultSet resultSet(Object[] row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        boolean[] wasNull = new boolean[1];
+        when(rs.getString(anyInt())).thenAnswer(call -> row[call.<Integer>getArgument(0) - 1]);
+        when(rs.getObject(anyInt(), eq(LocalDate.class))).thenAnswer(call -> row[call.<Integer>getArgument(0) - 1]);
+        when(rs.getObject(anyInt(), eq(LocalDateTime.class))).thenAnswer(call -> row[call.<Integer>getArgument(0) - 1]);
+        when(rs.getInt(anyInt())).thenAnswer(call -> {
+            Object value = row[call.<Integer>getArgument(0) - 1];
+            wasNull[0] = value == null;
+            return value == null ? 0 : value;
+        });
+        when(rs.getLong(anyInt())).thenAnswer(call -> {
+            Object value = row[call.<Integer>getArgument(0) - 1];
+            wasNull[0] = value == null;
+            return value == null ? 0L : value;
+        });
+        when(rs.wasNull()).thenAnswer(call -> wasNull[0]);
+        return rs;
+    }
+
+    // A row as the values Parquet stores: days since the epoch and microseconds of the wall-clock time
+    private static List<Object> expected(Object[] row) {
+        List<Object> values = new ArrayList<>(Arrays.asList(row));
+        if (row[1] != null) {
+            values.set(1, (int) ((LocalDate) row[1]).toEpochDay());
+        }
+        if (row[2] != null) {
+            LocalDateTime timestamp = (LocalDateTime) row[2];
+            values.set(2, timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000);
+        }
+        return values;
+    }
+
+    private static List<List<Object>> read(Path file) throws Exception {
+        List<List<Object>> rows = new ArrayList<>();
+        try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), hadoopPath(file)).build()) {
+            for (Group group = reader.read(); group != null; group = reader.read()) {
+                rows.add(Arrays.asList(
+                        group.getFieldRepetitionCount(0) == 0 ? null : group.getString(0, 0),
+                        group.getFieldRepetitionCount(1) == 0 ? null : group.getInteger(1, 0),
+                        group.getFieldRepetitionCount(2) == 0 ? null : group.getLong(2, 0),
+                        group.getFieldRepetitionCount(3) == 0 ? null : group.getInteger(3, 0),
+                        group.getFieldRepetitionCount(4) == 0 ? null : group.getLong(4, 0)));
+            }
+        }
+        return rows;
+    }
+
+    private static ParquetMetadata footer(Path file) throws Exception {
+        try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(hadoopPath(file), new Configuration()))) {
+            return reader.getFooter();
+        }
+    }
+
+    private static org.apache.hadoop.fs.Path hadoopPath(Path file) {
+        return new org.apache.hadoop.fs.Path(file.toUri());
+    }
+}
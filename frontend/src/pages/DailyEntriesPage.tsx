@@ -15,6 +15,10 @@ import {
 } from '@mui/material';
 import { fetchEntries, createEntry, updateEntry, deleteEntry } from '../store/slices/entriesSlice';
 import { RootState, AppDispatch } from '../store/store';
+import { eventStream } from '../services/eventStream';
+import { entriesService } from '../services/entriesService';
+
+const AUTOSAVE_DELAY_MS = 2000;
 
 const DailyEntriesPage: React.FC = () => {
   const dispatch = useDispatch<AppDispatch>();
@@ -32,6 +36,29 @@ const DailyEntriesPage: React.FC = () => {
     dispatch(fetchEntries());
   }, [dispatch]);
 
+  useEffect(() => {
+    // Teammates' entry events arrive on the same stream; only our own change this list
+    return eventStream.subscribe((name, data) => {
+      if (name === 'resync' || (name.startsWith('entry.') && data.userId === eventStream.userId())) {
+        dispatch(fetchEntries());
+      }
+    });
+  }, [dispatch]);
+
+  useEffect(() => {
+    if (!open || editingEntry) {
+      return;
+    }
+    const { entryDate, ...draft } = formData;
+    if (!draft.yesterdayWork && !draft.todayPlan && !draft.blockers) {
+      return;
+    }
+    const timer = setTimeout(() => {
+      entriesService.saveDraft(entryDate, draft).catch(() => undefined);
+    }, AUTOSAVE_DELAY_MS);
+    return () => clearTimeout(timer);
+  }, [open, editingEntry, formData]);
+
   const handleSubmit = async () => {
     if (editingEntry) {
       await dispatch(updateEntry({ id: editingEntry.id, entry: formData }));
@@ -53,9 +80,9 @@ const DailyEntriesPage: React.FC = () => {
     setOpen(true);
   };
 
-  const handleDelete = async (id: string) => {
+  const handleDelete = async (id: string, entryDate: string) => {
     if (window.confirm('Are you sure you want to delete this entry?')) {
-      await dispatch(deleteEntry(id));
+      await dispatch(deleteEntry({ id, entryDate }));
     }
   };
 
@@ -89,7 +116,7 @@ const DailyEntriesPage: React.FC = () => {
                     <Button size="small" onClick={() => handleEdit(entry)}>
                       Edit
                     </Button>
-                    <Button size="small" color="error" onClick={() => handleDelete(entry.id)}>
+                    <Button size="small" color="error" onClick={() => handleDelete(entry.id, entry.entryDate)}>
                       Delete
                     </Button>
                   </Box>
@@ -17,6 +17,7 @@ import {
   generateMonthlyReport,
 } from '../store/slices/summariesSlice';
 import { RootState, AppDispatch } from '../store/store';
+import { eventStream } from '../services/eventStream';
 
 const ReportsPage: React.FC = () => {
   const dispatch = useDispatch<AppDispatch>();
@@ -30,6 +31,17 @@ const ReportsPage: React.FC = () => {
     dispatch(fetchMonthlyReports());
   }, [dispatch]);
 
+  useEffect(() => {
+    return eventStream.subscribe((name, data) => {
+      if (name === 'resync' || (name === 'summary.generated' && data.kind === 'weekly')) {
+        dispatch(fetchWeeklySummaries());
+      }
+      if (name === 'resync' || (name === 'summary.generated' && data.kind === 'monthly')) {
+        dispatch(fetchMonthlyReports());
+      }
+    });
+  }, [dispatch]);
+
   const handleGenerateWeekly = () => {
     const today = new Date();
     const monday = new Date(today.setDate(today.getDate() - today.getDay() + 1));
@@ -28,9 +28,17 @@ export const entriesService = {
     return response.data;
   },
 
-  async deleteEntry(id: string) {
+  async saveDraft(entryDate: string, draft: any) {
+    await axios.put(`${API_BASE_URL}/entries/drafts/${entryDate}`, draft, {
+      headers: getAuthHeaders(),
+    });
+  },
+
+  // The date lets the server look the entry up in a single monthly partition
+  async deleteEntry(id: string, entryDate: string) {
     await axios.delete(`${API_BASE_URL}/entries/${id}`, {
       headers: getAuthHeaders(),
+      params: { date: entryDate },
     });
   },
 };
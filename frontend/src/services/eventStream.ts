@@ -0,0 +1,112 @@
+import axios from 'axios';
+
+const API_BASE_URL = '/api/v1';
+
+export type StreamEventName =
+  | 'entry.created'
+  | 'entry.updated'
+  | 'entry.deleted'
+  | 'summary.generated'
+  | 'resync';
+
+type Handler = (name: StreamEventName, data: any) => void;
+
+const EVENT_NAMES: StreamEventName[] = [
+  'entry.created',
+  'entry.updated',
+  'entry.deleted',
+  'summary.generated',
+  'resync',
+];
+
+const RECONNECT_DELAY_MS = 3000;
+
+const handlers = new Set<Handler>();
+let source: EventSource | null = null;
+let userId: string | null = null;
+let lastEventId: string | null = null;
+let reconnectTimer: ReturnType<typeof setTimeout> | null = null;
+
+// One shared connection per tab. The URL carries a short-lived ticket rather than the session
+// token; EventSource retries with the same URL, so once the server refuses an expired ticket
+// the stream is reopened with a fresh one and resumes from the last event seen.
+const connect = async () => {
+  const token = localStorage.getItem('token');
+  if (!token) {
+    return;
+  }
+  let ticket: string;
+  try {
+    const response = await axios.post(`${API_BASE_URL}/events/ticket`, null, {
+      headers: { Authorization: `Bearer ${token}` },
+    });
+    ticket = response.data.ticket;
+    userId = response.data.userId;
+  } catch {
+    scheduleReconnect();
+    return;
+  }
+  if (handlers.size === 0) {
+    return;
+  }
+  const params = new URLSearchParams({ ticket });
+  if (lastEventId) {
+    params.set('lastEventId', lastEventId);
+  }
+  source = new EventSource(`${API_BASE_URL}/events?${params.toString()}`);
+  EVENT_NAMES.forEach((name) => {
+    source!.addEventListener(name, (event) => {
+      const message = event as MessageEvent;
+      if (message.lastEventId) {
+        lastEventId = message.lastEventId;
+      }
+      const data = JSON.parse(message.data || '{}');
+      handlers.forEach((handler) => handler(name, data));
+    });
+  });
+  source.onerror = () => {
+    if (source && source.readyState === EventSource.CLOSED) {
+      source = null;
+      scheduleReconnect();
+    }
+  };
+};
+
+const scheduleReconnect = () => {
+  if (reconnectTimer || handlers.size === 0) {
+    return;
+  }
+  reconnectTimer = setTimeout(() => {
+    reconnectTimer = null;
+    if (!source && handlers.size > 0) {
+      connect();
+    }
+  }, RECONNECT_DELAY_MS);
+};
+
+export const eventStream = {
+  subscribe(handler: Handler) {
+    handlers.add(handler);
+    if (!source && !reconnectTimer) {
+      connect();
+    }
+    return () => {
+      handlers.delete(handler);
+      if (handlers.size === 0) {
+        if (source) {
+          source.close();
+          source = null;
+        }
+        if (reconnectTimer) {
+          clearTimeout(reconnectTimer);
+          reconnectTimer = null;
+        }
+      }
+    };
+  },
+
+  /** Id of the signed-in user, known once the stream is open; events carry it as data.userId. */
+  userId() {
+    return userId;
+  },
+};
@@ -43,8 +43,8 @@ export const updateEntry = createAsyncThunk(
   }
 );
 
-export const deleteEntry = createAsyncThunk('entries/deleteEntry', async (id: string) => {
-  await entriesService.deleteEntry(id);
+export const deleteEntry = createAsyncThunk('entries/deleteEntry', async ({ id, entryDate }: { id: string; entryDate: string }) => {
+  await entriesService.deleteEntry(id, entryDate);
   return id;
 });
 
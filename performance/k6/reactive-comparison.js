@@ -0,0 +1,51 @@
+// Copyright (c) 2025 Telefonaktiebolaget LM Ericsson
+// Read-path comparison: the same list requests against the servlet backend and the reactive
+// read API. Driven by scripts/reactive-benchmark.sh, which samples database connections
+// while this runs.
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Rate } from 'k6/metrics';
+
+const errorRate = new Rate('errors');
+
+// Closed model: VUS requests in flight at any time, no think time
+export const options = {
+  scenarios: {
+    reads: {
+      executor: 'constant-vus',
+      vus: parseInt(__ENV.VUS || '50'),
+      duration: __ENV.DURATION || '1m',
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+// Tokens are issued by the main backend and accepted by both services
+const AUTH_URL = __ENV.AUTH_URL || 'http://localhost:8080';
+const TARGET_URL = __ENV.TARGET_URL || 'http://localhost:8080';
+const EMAIL = __ENV.USER_EMAIL || 'user1@test.com';
+const PASSWORD = __ENV.USER_PASSWORD || 'password123';
+
+export function setup() {
+  const response = http.post(`${AUTH_URL}/api/v1/auth/login`,
+    JSON.stringify({ email: EMAIL, password: PASSWORD }),
+    { headers: { 'Content-Type': 'application/json' } });
+  if (response.status !== 200) {
+    throw new Error(`login failed with ${response.status}`);
+  }
+  return { token: response.json('token') };
+}
+
+export default function (data) {
+  const params = { headers: { Authorization: `Bearer ${data.token}` } };
+  const responses = http.batch([
+    ['GET', `${TARGET_URL}/api/v1/entries`, null, params],
+    ['GET', `${TARGET_URL}/api/v1/summaries/weekly`, null, params],
+    ['GET', `${TARGET_URL}/api/v1/reports/monthly`, null, params],
+  ]);
+  for (const response of responses) {
+    const ok = check(response, { 'status is 200': (r) => r.status === 200 });
+    errorRate.add(!ok);
+  }
+}
@@ -0,0 +1,83 @@
+// Copyright (c) 2025 Telefonaktiebolaget LM Ericsson
+// Typeahead lookups against /api/v1/entries/suggest with one-letter, short and longer prefixes.
+// Latency here includes HTTP and authentication; the in-process lookup alone is recorded by the
+// backend timer scrummate.entries.suggest.duration (GET /actuator/metrics/scrummate.entries.suggest.duration).
+//
+// With SEED_ENTRIES set, setup first writes that many entries for the user (one per day going
+// back from today), so the index has a realistic size: ticket ids, project names and phrases.
+//
+//   k6 run -e USER_EMAIL=... -e USER_PASSWORD=... -e SEED_ENTRIES=200 performance/k6/suggest.js
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Rate, Trend } from 'k6/metrics';
+
+const errorRate = new Rate('errors');
+const lookupDuration = new Trend('suggest_duration', true);
+
+export const options = {
+  scenarios: {
+    lookups: {
+      executor: 'constant-vus',
+      vus: parseInt(__ENV.VUS || '20'),
+      duration: __ENV.DURATION || '1m',
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const EMAIL = __ENV.USER_EMAIL || 'user1@test.com';
+const PASSWORD = __ENV.USER_PASSWORD || 'password123';
+const SEED_ENTRIES = parseInt(__ENV.SEED_ENTRIES || '0');
+
+const PROJECTS = ['apollo', 'borealis', 'cassini', 'dragonfly', 'europa', 'fermi', 'galileo', 'hubble'];
+const VERBS = ['fixed', 'reviewed', 'deployed', 'refactored', 'tested', 'investigated', 'documented'];
+const THINGS = ['login flow', 'build pipeline', 'database migration', 'release notes', 'cache layer',
+  'payment service', 'search index', 'alerting rules', 'load balancer', 'api gateway'];
+const PREFIXES = {
+  one: ['a', 'b', 'd', 'f', 'r', 't'],
+  short: ['ap', 'bor', 'fix', 'rev', 'dep', 'tes', 'SCRUM-1'],
+  long: ['apollo', 'database mig', 'reviewed the', 'build pipe', 'SCRUM-12'],
+};
+
+function pick(list) {
+  return list[Math.floor(Math.random() * list.length)];
+}
+
+function sentence() {
+  return `${pick(VERBS)} the ${pick(THINGS)} for ${pick(PROJECTS)} (SCRUM-${100 + Math.floor(Math.random() * 400)})`;
+}
+
+export function setup() {
+  const login = http.post(`${BASE_URL}/api/v1/auth/login`,
+    JSON.stringify({ email: EMAIL, password: PASSWORD }),
+    { headers: { 'Content-Type': 'application/json' } });
+  if (login.status !== 200) {
+    throw new Error(`login failed with ${login.status}`);
+  }
+  const token = login.json('token');
+  const params = { headers: { Authorization: `Bearer ${token}`, 'Content-Type': 'application/json' } };
+  for (let i = 0; i < SEED_ENTRIES; i++) {
+    const date = new Date(Date.now() - i * 86400000).toISOString().split('T')[0];
+    http.post(`${BASE_URL}/api/v1/entries`, JSON.stringify({
+      entryDate: date,
+      yesterdayWork: `${sentence()}. ${sentence()}.`,
+      todayPlan: `${sentence()}.`,
+      blockers: Math.random() < 0.2 ? `waiting on ${pick(PROJECTS)} review` : 'None',
+    }), params);
+  }
+  return { token };
+}
+
+export default function (data) {
+  const kind = pick(Object.keys(PREFIXES));
+  const prefix = pick(PREFIXES[kind]);
+  const response = http.get(`${BASE_URL}/api/v1/entries/suggest?prefix=${encodeURIComponent(prefix)}&limit=10`, {
+    headers: { Authorization: `Bearer ${data.token}` },
+    tags: { prefix: kind },
+  });
+  const ok = check(response, { 'status is 200': (r) => r.status === 200 });
+  errorRate.add(!ok);
+  lookupDuration.add(response.timings.duration, { prefix: kind });
+}
@@ -0,0 +1,106 @@
+#!/bin/bash
+# Connections used versus concurrency served: servlet backend against the reactive read API
+#
+# Runs performance/k6/reactive-comparison.js against each service at increasing numbers of
+# concurrent clients while sampling pg_stat_activity once a second, then prints per level the
+# throughput, p95 latency and the most database connections each service held at once.
+# Expects the stack to be up with the reactive service enabled:
+#   docker-compose --profile reactive up -d
+#
+# Usage: ./scripts/reactive-benchmark.sh [concurrency levels] [duration per run]
+#   e.g. ./scripts/reactive-benchmark.sh "10 50 100 200 400" 1m
+
+set -e
+
+LEVELS=${1:-"10 50 100 200 400"}
+DURATION=${2:-1m}
+BLOCKING_URL=${BLOCKING_URL:-http://localhost:8080}
+REACTIVE_URL=${REACTIVE_URL:-http://localhost:8081}
+DB_CONTAINER=${DB_CONTAINER:-scrummate-db}
+DB_USER=${POSTGRES_USER:-scrummate}
+DB_NAME=${POSTGRES_DB:-scrummate}
+# application_name each service's connections report; PgJDBC's default for the backend
+BLOCKING_APP_NAME=${BLOCKING_APP_NAME:-PostgreSQL JDBC Driver}
+REACTIVE_APP_NAME=scrummate-reactive
+K6_SCRIPT=performance/k6/reactive-comparison.js
+WORK_DIR=$(mktemp -d)
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+cleanup() {
+    [ -n "${SAMPLER_PID}" ] && kill "${SAMPLER_PID}" >/dev/null 2>&1 || true
+    rm -rf "${WORK_DIR}"
+}
+trap cleanup EXIT
+
+# Prints "<connections> <active>" for one application_name
+sample_connections() {
+    docker exec ${DB_CONTAINER} psql -U "${DB_USER}" -d "${DB_NAME}" -tA -F ' ' -c \
+        "SELECT count(*), count(*) FILTER (WHERE state = 'active') FROM pg_stat_activity WHERE application_name = '$1'"
+}
+
+# Samples until killed, one line per second
+sampler() {
+    local app_name=$1
+    while true; do
+        sample_connections "${app_name}"
+        sleep 1
+    done
+}
+
+run_level() {
+    local label=$1
+    local url=$2
+    local app_name=$3
+    local vus=$4
+    local samples="${WORK_DIR}/${label}-${vus}.samples"
+    local summary="${WORK_DIR}/${label}-${vus}.json"
+
+    sampler "${app_name}" > "${samples}" &
+    SAMPLER_PID=$!
+    k6 run --quiet --summary-export "${summary}" \
+        -e VUS="${vus}" -e DURATION="${DURATION}" \
+        -e AUTH_URL="${BLOCKING_URL}" -e TARGET_URL="${url}" \
+        "${K6_SCRIPT}" >/dev/null
+    kill "${SAMPLER_PID}" >/dev/null 2>&1 || true
+    wait "${SAMPLER_PID}" 2>/dev/null || true
+    SAMPLER_PID=
+
+    local rps p95 errors max_conn max_active
+    rps=$(jq '.metrics.http_reqs.rate' "${summary}")
+    p95=$(jq '.metrics.http_req_duration["p(95)"]' "${summary}")
+    errors=$(jq '.metrics.errors.value // 0' "${summary}")
+    max_conn=$(awk 'BEGIN { m = 0 } $1 > m { m = $1 } END { print m }' "${samples}")
+    max_active=$(awk 'BEGIN { m = 0 } $2 > m { m = $2 } END { print m }' "${samples}")
+    printf "%-9s %6d %10.1f %10.1f %8.2f%% %9d %9d\n" \
+        "${label}" "${vus}" "${rps}" "${p95}" "$(awk "BEGIN { print ${errors} * 100 }")" "${max_conn}" "${max_active}"
+}
+
+for tool in k6 jq docker; do
+    if ! command -v ${tool} >/dev/null 2>&1; then
+        echo -e "${RED}${tool} is required${NC}" >&2
+        exit 1
+    fi
+done
+for url in "${BLOCKING_URL}" "${REACTIVE_URL}"; do
+    if ! curl -fs -o /dev/null "${url}/actuator/health"; then
+        echo -e "${RED}${url} is not healthy; start the stack with --profile reactive${NC}" >&2
+        exit 1
+    fi
+done
+
+echo -e "${YELLOW}Running ${DURATION} per level at concurrency: ${LEVELS}${NC}"
+RESULTS=$(printf "%-9s %6s %10s %10s %9s %9s %9s\n" service vus req/s p95-ms errors max-conn max-active)
+for vus in ${LEVELS}; do
+    echo "  concurrency ${vus}" >&2
+    RESULTS="${RESULTS}"$'\n'$(run_level blocking "${BLOCKING_URL}" "${BLOCKING_APP_NAME}" "${vus}")
+    RESULTS="${RESULTS}"$'\n'$(run_level reactive "${REACTIVE_URL}" "${REACTIVE_APP_NAME}" "${vus}")
+done
+
+echo
+echo -e "${GREEN}Results${NC}"
+echo "${RESULTS}"
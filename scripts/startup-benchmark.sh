@@ -0,0 +1,112 @@
+#!/bin/bash
+# Startup benchmark for the ScrumMate backend
+#
+# Builds the default image (backend/Dockerfile) and the fast-startup image
+# (backend/Dockerfile.fast-startup), then starts each one repeatedly against a throwaway
+# PostgreSQL and reports time-to-first-request: from `docker run` until /health/live answers.
+#
+# Usage: ./scripts/startup-benchmark.sh [runs]
+
+set -e
+
+RUNS=${1:-5}
+NETWORK="scrummate-startup-bench"
+DB_CONTAINER="scrummate-bench-db"
+APP_CONTAINER="scrummate-bench-backend"
+PORT=18080
+TIMEOUT_SECONDS=180
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+cleanup() {
+    docker rm -f ${APP_CONTAINER} >/dev/null 2>&1 || true
+    docker rm -f ${DB_CONTAINER} >/dev/null 2>&1 || true
+    docker network rm ${NETWORK} >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+now_ms() {
+    date +%s%3N
+}
+
+# Starts the image once and prints milliseconds until the first successful request
+time_to_first_request() {
+    local image=$1
+    local start
+    start=$(now_ms)
+    docker run -d --name ${APP_CONTAINER} --network ${NETWORK} -p ${PORT}:8080 \
+        -e SPRING_PROFILES_ACTIVE=docker \
+        -e SPRING_DATASOURCE_URL=jdbc:postgresql://${DB_CONTAINER}:5432/scrummate \
+        -e DB_USERNAME=scrummate -e DB_PASSWORD=password \
+        "${image}" >/dev/null
+
+    local deadline=$(( $(date +%s) + TIMEOUT_SECONDS ))
+    until curl -fs -o /dev/null "http://localhost:${PORT}/health/live"; do
+        if [ "$(date +%s)" -ge "${deadline}" ]; then
+            echo -e "${RED}${image} did not answer within ${TIMEOUT_SECONDS}s${NC}" >&2
+            docker logs --tail 50 ${APP_CONTAINER} >&2
+            docker rm -f ${APP_CONTAINER} >/dev/null
+            return 1
+        fi
+        sleep 0.05
+    done
+    local elapsed=$(( $(now_ms) - start ))
+    docker rm -f ${APP_CONTAINER} >/dev/null
+    echo "${elapsed}"
+}
+
+benchmark() {
+    local label=$1
+    local image=$2
+    local times=()
+
+    # Unmeasured first start: runs the Flyway migrations and warms the page cache
+    time_to_first_request "${image}" >/dev/null
+
+    for i in $(seq 1 "${RUNS}"); do
+        local ms
+        ms=$(time_to_first_request "${image}")
+        echo "  ${label} run ${i}: ${ms} ms" >&2
+        times+=("${ms}")
+    done
+
+    local sorted
+    sorted=$(printf '%s\n' "${times[@]}" | sort -n)
+    local min max median
+    min=$(echo "${sorted}" | head -1)
+    max=$(echo "${sorted}" | tail -1)
+    median=$(echo "${sorted}" | sed -n "$(( (RUNS + 1) / 2 ))p")
+    printf "%-14s median %6d ms   min %6d ms   max %6d ms\n" "${label}" "${median}" "${min}" "${max}"
+    echo "${median}" > "/tmp/${NETWORK}-${label}.median"
+}
+
+echo -e "${GREEN}Building images...${NC}"
+docker build -q -t scrummate-backend:bench-default ./backend >/dev/null
+docker build -q -f ./backend/Dockerfile.fast-startup -t scrummate-backend:bench-fast ./backend >/dev/null
+
+echo -e "${YELLOW}Starting PostgreSQL...${NC}"
+cleanup
+docker network create ${NETWORK} >/dev/null
+docker run -d --name ${DB_CONTAINER} --network ${NETWORK} \
+    -e POSTGRES_DB=scrummate -e POSTGRES_USER=scrummate -e POSTGRES_PASSWORD=password \
+    postgres:15-alpine >/dev/null
+until docker exec ${DB_CONTAINER} pg_isready -U scrummate -d scrummate >/dev/null 2>&1; do
+    sleep 1
+done
+
+echo -e "${YELLOW}Measuring time-to-first-request over ${RUNS} runs each...${NC}"
+RESULTS=$(benchmark default scrummate-backend:bench-default)
+RESULTS="${RESULTS}"$'\n'$(benchmark fast-startup scrummate-backend:bench-fast)
+
+echo
+echo -e "${GREEN}Results${NC}"
+echo "${RESULTS}"
+
+DEFAULT_MEDIAN=$(cat "/tmp/${NETWORK}-default.median")
+FAST_MEDIAN=$(cat "/tmp/${NETWORK}-fast-startup.median")
+rm -f "/tmp/${NETWORK}-default.median" "/tmp/${NETWORK}-fast-startup.median"
+echo "Speedup: $(awk "BEGIN { printf \"%.2fx\", ${DEFAULT_MEDIAN} / ${FAST_MEDIAN} }")"